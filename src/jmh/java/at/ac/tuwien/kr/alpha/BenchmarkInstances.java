@@ -0,0 +1,29 @@
+package at.ac.tuwien.kr.alpha;
+
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Access to the OMiGA benchmark instances shipped in the benchmarks directory.
+ * Instance names are given relative to that directory, e.g. "3col/3col-10-18".
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public final class BenchmarkInstances {
+	private static final Path DIRECTORY = Paths.get("benchmarks", "omiga", "omiga-testcases");
+
+	private BenchmarkInstances() {
+		throw new AssertionError("Utility class, do not instantiate!");
+	}
+
+	public static byte[] read(String instance) throws IOException {
+		return Files.readAllBytes(DIRECTORY.resolve(instance + ".txt"));
+	}
+
+	public static ParsedProgram parse(String instance) throws IOException {
+		return Main.parseVisit(Files.newInputStream(DIRECTORY.resolve(instance + ".txt")));
+	}
+}
@@ -0,0 +1,43 @@
+package at.ac.tuwien.kr.alpha;
+
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing and visiting of the benchmark instances, i.e. everything up to the {@link ParsedProgram}.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParsingBenchmark {
+	@Param({
+		"3col/3col-10-18",
+		"3col/3col-20-38",
+		"cutedge/cutedge-100-30",
+		"cutedge/cutedge-100-50",
+		"locstrat/locstrat-200",
+		"locstrat/locstrat-400",
+		"reach/reach-1"
+	})
+	public String instance;
+
+	private byte[] input;
+
+	@Setup
+	public void setUp() throws IOException {
+		input = BenchmarkInstances.read(instance);
+	}
+
+	@Benchmark
+	public ParsedProgram parse() throws IOException {
+		return Main.parseVisit(new ByteArrayInputStream(input));
+	}
+}
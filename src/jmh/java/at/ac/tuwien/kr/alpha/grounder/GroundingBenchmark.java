@@ -0,0 +1,79 @@
+package at.ac.tuwien.kr.alpha.grounder;
+
+import at.ac.tuwien.kr.alpha.BenchmarkInstances;
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.common.OrdinaryAssignment;
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures grounding in isolation from solving. Since the grounder only instantiates rules whose positive body is
+ * (at least must-be) true, every atom the grounder creates is reported back as true until no new nogoods are
+ * produced. This yields an over-approximation of the ground program independent of any search.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GroundingBenchmark {
+	@Param({
+		"3col/3col-10-18",
+		"3col/3col-20-38",
+		"cutedge/cutedge-100-30",
+		"cutedge/cutedge-100-50",
+		"locstrat/locstrat-200",
+		"locstrat/locstrat-400",
+		"reach/reach-1"
+	})
+	public String instance;
+
+	@Param({"naive", "rete"})
+	public String grounder;
+
+	private ParsedProgram program;
+
+	@Setup
+	public void setUp() throws IOException {
+		program = BenchmarkInstances.parse(instance);
+	}
+
+	@Benchmark
+	public Map<Integer, NoGood> ground() {
+		return groundAll("rete".equals(grounder) ? new ReteGrounder(program) : new NaiveGrounder(program));
+	}
+
+	/**
+	 * Grounds the program of the given grounder by assigning every atom it creates to true until a fixpoint is reached.
+	 * @return all nogoods the grounder produced.
+	 */
+	public static Map<Integer, NoGood> groundAll(NaiveGrounder grounder) {
+		Map<Integer, NoGood> result = new HashMap<>();
+		int reported = 0;
+
+		Map<Integer, NoGood> noGoods = grounder.getNoGoods();
+		while (!noGoods.isEmpty() || reported < grounder.atomStore.getHighestAtomId().atomId) {
+			result.putAll(noGoods);
+
+			int highest = grounder.atomStore.getHighestAtomId().atomId;
+			List<OrdinaryAssignment> assignments = new ArrayList<>(highest - reported);
+			for (int atom = reported + 1; atom <= highest; atom++) {
+				assignments.add(new OrdinaryAssignment(atom, true));
+			}
+			reported = highest;
+
+			grounder.updateAssignment(assignments.iterator());
+			noGoods = grounder.getNoGoods();
+		}
+		return result;
+	}
+}
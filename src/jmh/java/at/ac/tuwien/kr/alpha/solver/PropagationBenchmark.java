@@ -0,0 +1,82 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.BenchmarkInstances;
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.grounder.GroundingBenchmark;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.TRUE;
+
+/**
+ * Measures the nogood store in isolation from grounding and search: all nogoods of the (over-approximated) ground
+ * program are added to a fresh store and propagated, then every choice point is guessed true in a fixed order with
+ * propagation after each guess until the first conflict. Stores and assignments are combined freely, DefaultSolver
+ * uses the array store on the array assignment.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PropagationBenchmark {
+	@Param({
+		"3col/3col-10-18",
+		"3col/3col-20-38",
+		"cutedge/cutedge-100-30",
+		"cutedge/cutedge-100-50",
+		"locstrat/locstrat-200",
+		"locstrat/locstrat-400",
+		"reach/reach-1"
+	})
+	public String instance;
+
+	@Param({"basic", "array"})
+	public String store;
+
+	@Param({"basic", "array"})
+	public String assignment;
+
+	private Map<Integer, NoGood> noGoods;
+	private int[] choicePoints;
+
+	@Setup
+	public void setUp() throws IOException {
+		NaiveGrounder grounder = new NaiveGrounder(BenchmarkInstances.parse(instance));
+		noGoods = GroundingBenchmark.groundAll(grounder);
+		choicePoints = new TreeSet<>(grounder.getChoiceAtoms().getKey().values()).stream().mapToInt(i -> i).toArray();
+	}
+
+	@Benchmark
+	public Assignment propagate() {
+		Assignment assignment = "array".equals(this.assignment) ? new ArrayAssignment() : new BasicAssignment();
+		NoGoodStore<ThriceTruth> store = "array".equals(this.store) ? new ArrayNoGoodStore(assignment) : new BasicNoGoodStore(assignment);
+
+		if (!store.addAll(noGoods)) {
+			return assignment;
+		}
+		store.propagate();
+		if (store.getViolatedNoGood() != null) {
+			return assignment;
+		}
+
+		for (int choicePoint : choicePoints) {
+			if (assignment.isAssigned(choicePoint)) {
+				continue;
+			}
+			assignment.guess(choicePoint, TRUE);
+			store.propagate();
+			if (store.getViolatedNoGood() != null) {
+				break;
+			}
+		}
+		return assignment;
+	}
+}
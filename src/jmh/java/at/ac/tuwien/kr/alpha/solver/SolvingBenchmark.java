@@ -0,0 +1,73 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.BenchmarkInstances;
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the complete pipeline of grounding and solving (excluding parsing) with the {@link DefaultSolver} up to
+ * the first answer set and for enumerating all answer sets. Enumeration is only measured on instances with a
+ * moderate number of answer sets.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SolvingBenchmark {
+	@State(Scope.Benchmark)
+	public static class FirstAnswerSet {
+		@Param({
+			"3col/3col-10-18",
+			"3col/3col-20-38",
+			"cutedge/cutedge-100-30",
+			"cutedge/cutedge-100-50",
+			"locstrat/locstrat-200",
+			"locstrat/locstrat-400",
+			"reach/reach-1"
+		})
+		public String instance;
+
+		private ParsedProgram program;
+
+		@Setup
+		public void setUp() throws IOException {
+			program = BenchmarkInstances.parse(instance);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class AllAnswerSets {
+		@Param({
+			"3col/3col-10-18",
+			"cutedge/cutedge-100-30",
+			"locstrat/locstrat-200",
+			"reach/reach-1"
+		})
+		public String instance;
+
+		private ParsedProgram program;
+
+		@Setup
+		public void setUp() throws IOException {
+			program = BenchmarkInstances.parse(instance);
+		}
+	}
+
+	@Benchmark
+	public Optional<AnswerSet> firstAnswerSet(FirstAnswerSet state) {
+		return new DefaultSolver(new NaiveGrounder(state.program)).stream().findFirst();
+	}
+
+	@Benchmark
+	public long allAnswerSets(AllAnswerSets state) {
+		return new DefaultSolver(new NaiveGrounder(state.program)).stream().count();
+	}
+}
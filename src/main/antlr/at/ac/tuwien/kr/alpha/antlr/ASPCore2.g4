@@ -24,7 +24,7 @@ body : ( naf_literal | NAF? aggregate ) (COMMA body)?;
 
 disjunction : classical_literal (OR disjunction)?;
 
-choice : (term binop)? CURLY_OPEN choice_elements? CURLY_CLOSE (binop term)?;
+choice : (lowerTerm=term lowerOp=binop?)? CURLY_OPEN choice_elements? CURLY_CLOSE (upperOp=binop? upperTerm=term)?;    // syntax extension: binops default to <=
 
 choice_elements : choice_element (SEMICOLON choice_elements)?;
 
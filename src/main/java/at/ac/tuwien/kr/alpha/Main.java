@@ -9,8 +9,15 @@
 import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
 import at.ac.tuwien.kr.alpha.grounder.parser.ParsedTreeVisitor;
 import at.ac.tuwien.kr.alpha.grounder.transformation.IdentityProgramTransformation;
+import at.ac.tuwien.kr.alpha.solver.Budget;
+import at.ac.tuwien.kr.alpha.solver.DefaultSolver;
 import at.ac.tuwien.kr.alpha.solver.Solver;
 import at.ac.tuwien.kr.alpha.solver.SolverFactory;
+import at.ac.tuwien.kr.alpha.solver.SolverMaintainingCost;
+import at.ac.tuwien.kr.alpha.solver.SolverMaintainingStatistics;
+import at.ac.tuwien.kr.alpha.solver.WarmStart;
+import at.ac.tuwien.kr.alpha.solver.heuristics.BranchingHeuristicFactory;
+import at.ac.tuwien.kr.alpha.solver.restarts.RestartStrategyFactory;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
@@ -22,9 +29,15 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -39,9 +52,26 @@ public class Main {
 	private static final String OPT_GROUNDER = "grounder";
 	private static final String OPT_SOLVER = "solver";
 	private static final String OPT_FILTER = "filter";
+	private static final String OPT_BRANCHING_HEURISTIC = "branchingHeuristic";
+	private static final String OPT_RESTARTS = "restarts";
+	private static final String OPT_PHASE_SAVING = "phaseSaving";
+	private static final String OPT_STATS = "stats";
+	private static final String OPT_WARM_START = "warmStart";
+	private static final String OPT_THREADS = "threads";
+	private static final String OPT_SHARE_NOGOODS = "shareNoGoods";
+	private static final String OPT_PARALLEL_ENUMERATION = "parallelEnumeration";
+	private static final String OPT_PREPROCESSING = "preprocessing";
+	private static final String OPT_TIME_LIMIT = "timeLimit";
+	private static final String OPT_DECISION_LIMIT = "decisionLimit";
+	private static final String OPT_CONFLICT_LIMIT = "conflictLimit";
+	private static final String OPT_GROUND_NOGOOD_LIMIT = "groundNoGoodLimit";
+	private static final String OPT_MEMORY_LIMIT = "memoryLimit";
+	private static final String OPT_PROBING = "probing";
+	private static final String OPT_PROBING_TIME = "probingTime";
 
 	private static final String DEFAULT_GROUNDER = "naive";
 	private static final String DEFAULT_SOLVER = "default";
+	private static final String DEFAULT_PREPROCESSING = "none";
 
 	private static CommandLine commandLine;
 
@@ -81,6 +111,86 @@ public static void main(String[] args) {
 		filterOption.setValueSeparator(',');
 		options.addOption(filterOption);
 
+		Option branchingHeuristicOption = new Option("b", OPT_BRANCHING_HEURISTIC, false, "name of the branching heuristic to use (naive or vsids)");
+		branchingHeuristicOption.setArgs(1);
+		branchingHeuristicOption.setArgName("heuristic");
+		options.addOption(branchingHeuristicOption);
+
+		Option restartsOption = new Option("r", OPT_RESTARTS, false, "restart strategy to use (none, luby, geometric or glucose)");
+		restartsOption.setArgs(1);
+		restartsOption.setArgName("strategy");
+		options.addOption(restartsOption);
+
+		Option phaseSavingOption = new Option("p", OPT_PHASE_SAVING, false, "guess choice atoms with the truth value they had last");
+		options.addOption(phaseSavingOption);
+
+		Option statsOption = new Option("st", OPT_STATS, false, "print statistics of the search after solving");
+		options.addOption(statsOption);
+
+		Option warmStartOption = new Option("w", OPT_WARM_START, true, "start the search from the (first) answer set in this file, e.g., the output of a previous run");
+		warmStartOption.setArgs(1);
+		warmStartOption.setArgName("file");
+		options.addOption(warmStartOption);
+
+		Option threadsOption = new Option("t", OPT_THREADS, true, "the number of threads to use, runs a portfolio of differently configured default solvers unless answer sets are enumerated in parallel (see -pe)");
+		threadsOption.setArgName("number");
+		threadsOption.setArgs(1);
+		threadsOption.setType(Number.class);
+		options.addOption(threadsOption);
+
+		Option shareNoGoodsOption = new Option("sh", OPT_SHARE_NOGOODS, false, "share short learned nogoods between the solvers of a portfolio");
+		options.addOption(shareNoGoodsOption);
+
+		Option parallelEnumerationOption = new Option("pe", OPT_PARALLEL_ENUMERATION, false, "enumerate answer sets on all threads (see -t) by splitting the search space");
+		options.addOption(parallelEnumerationOption);
+
+		Option preprocessingOption = new Option("pp", OPT_PREPROCESSING, false, "simplify nogoods of the grounder by subsumption and self-subsuming resolution (none, initial or incremental)");
+		preprocessingOption.setArgs(1);
+		preprocessingOption.setArgName("mode");
+		options.addOption(preprocessingOption);
+
+		Option timeLimitOption = new Option("tl", OPT_TIME_LIMIT, true, "stop solving after this many seconds");
+		timeLimitOption.setArgName("seconds");
+		timeLimitOption.setArgs(1);
+		timeLimitOption.setType(Number.class);
+		options.addOption(timeLimitOption);
+
+		Option decisionLimitOption = new Option("dl", OPT_DECISION_LIMIT, true, "stop solving after this many decisions");
+		decisionLimitOption.setArgName("number");
+		decisionLimitOption.setArgs(1);
+		decisionLimitOption.setType(Number.class);
+		options.addOption(decisionLimitOption);
+
+		Option conflictLimitOption = new Option("cl", OPT_CONFLICT_LIMIT, true, "stop solving after this many conflicts");
+		conflictLimitOption.setArgName("number");
+		conflictLimitOption.setArgs(1);
+		conflictLimitOption.setType(Number.class);
+		options.addOption(conflictLimitOption);
+
+		Option groundNoGoodLimitOption = new Option("gl", OPT_GROUND_NOGOOD_LIMIT, true, "stop solving once the grounder produced this many nogoods");
+		groundNoGoodLimitOption.setArgName("number");
+		groundNoGoodLimitOption.setArgs(1);
+		groundNoGoodLimitOption.setType(Number.class);
+		options.addOption(groundNoGoodLimitOption);
+
+		Option memoryLimitOption = new Option("ml", OPT_MEMORY_LIMIT, true, "stop solving once this many megabytes of heap are in use");
+		memoryLimitOption.setArgName("megabytes");
+		memoryLimitOption.setArgs(1);
+		memoryLimitOption.setType(Number.class);
+		options.addOption(memoryLimitOption);
+
+		Option probingOption = new Option("pr", OPT_PROBING, true, "before the first decision, probe at most this many choice atoms for failed literals and common implications");
+		probingOption.setArgName("number");
+		probingOption.setArgs(1);
+		probingOption.setType(Number.class);
+		options.addOption(probingOption);
+
+		Option probingTimeOption = new Option("prt", OPT_PROBING_TIME, true, "probe choice atoms (see -pr) for at most this many milliseconds");
+		probingTimeOption.setArgName("milliseconds");
+		probingTimeOption.setArgs(1);
+		probingTimeOption.setType(Number.class);
+		options.addOption(probingTimeOption);
+
 		try {
 			commandLine = new DefaultParser().parse(options, args);
 		} catch (ParseException e) {
@@ -120,6 +230,31 @@ public static void main(String[] args) {
 			bailOut("Failed to parse number of answer sets requested.", e);
 		}
 
+		int threads = 1;
+
+		try {
+			Number n = (Number)commandLine.getParsedOptionValue(OPT_THREADS);
+			if (n != null) {
+				threads = n.intValue();
+			}
+		} catch (ParseException e) {
+			bailOut("Failed to parse number of threads.", e);
+		}
+
+		if (threads < 1) {
+			bailOut("The number of threads must be at least one.");
+		}
+
+		final Budget budget = new Budget()
+			.setTimeLimit(parseLimit(commandLine, OPT_TIME_LIMIT, "time limit") * 1000)
+			.setDecisionLimit(parseLimit(commandLine, OPT_DECISION_LIMIT, "decision limit"))
+			.setConflictLimit(parseLimit(commandLine, OPT_CONFLICT_LIMIT, "conflict limit"))
+			.setGroundNoGoodLimit(parseLimit(commandLine, OPT_GROUND_NOGOOD_LIMIT, "ground nogood limit"))
+			.setMemoryLimit(parseLimit(commandLine, OPT_MEMORY_LIMIT, "memory limit") * 1024 * 1024);
+		final Budget probingBudget = !commandLine.hasOption(OPT_PROBING) && !commandLine.hasOption(OPT_PROBING_TIME) ? null : new Budget()
+			.setDecisionLimit(parseLimit(commandLine, OPT_PROBING, "number of atoms to probe"))
+			.setTimeLimit(parseLimit(commandLine, OPT_PROBING_TIME, "probing time"));
+
 		ParsedProgram program = null;
 		try {
 			program = parseVisit(new FileInputStream(commandLine.getOptionValue(OPT_INPUT)));
@@ -131,24 +266,151 @@ public static void main(String[] args) {
 			bailOut("Failed to parse program.", e);
 		}
 
+		WarmStart warmStart = null;
+		if (commandLine.hasOption(OPT_WARM_START)) {
+			try {
+				warmStart = WarmStart.parse(new String(Files.readAllBytes(Paths.get(commandLine.getOptionValue(OPT_WARM_START))), StandardCharsets.UTF_8));
+			} catch (IOException | IllegalArgumentException e) {
+				bailOut("Failed to read warm start answer set.", e);
+			}
+		}
+
 		// Apply program transformations/rewritings (currently none).
 		IdentityProgramTransformation programTransformation = new IdentityProgramTransformation();
 		ParsedProgram transformedProgram = programTransformation.transform(program);
-		Grounder grounder = GrounderFactory.getInstance(
-			commandLine.getOptionValue(OPT_GROUNDER, DEFAULT_GROUNDER), transformedProgram, filter
-		);
+		final String grounderName = commandLine.getOptionValue(OPT_GROUNDER, DEFAULT_GROUNDER);
+		final java.util.function.Predicate<Predicate> grounderFilter = filter;
 
-		Solver solver = SolverFactory.getInstance(
-			commandLine.getOptionValue(OPT_SOLVER, DEFAULT_SOLVER), grounder
-		);
+		final boolean parallelEnumeration = commandLine.hasOption(OPT_PARALLEL_ENUMERATION);
+
+		if (parallelEnumeration && !transformedProgram.weakConstraints.isEmpty()) {
+			// The solvers of the subtrees would each improve only on their own answer sets.
+			bailOut("Parallel enumeration does not support weak constraints, run without -pe to optimize.");
+		}
+
+		Solver solver;
+		if (parallelEnumeration) {
+			warnIgnoredOptions("not supported when enumerating in parallel", OPT_SOLVER, OPT_WARM_START, OPT_SHARE_NOGOODS, OPT_PREPROCESSING);
+			solver = SolverFactory.getSplittableInstance(
+				() -> GrounderFactory.getInstance(grounderName, transformedProgram, grounderFilter),
+				commandLine.getOptionValue(OPT_BRANCHING_HEURISTIC, BranchingHeuristicFactory.DEFAULT),
+				commandLine.getOptionValue(OPT_RESTARTS, RestartStrategyFactory.DEFAULT),
+				commandLine.hasOption(OPT_PHASE_SAVING)
+			);
+		} else if (threads > 1) {
+			warnIgnoredOptions("fixed by the portfolio of solvers", OPT_SOLVER, OPT_BRANCHING_HEURISTIC, OPT_RESTARTS, OPT_PHASE_SAVING, OPT_PREPROCESSING);
+			solver = SolverFactory.getPortfolioInstance(
+				threads,
+				() -> GrounderFactory.getInstance(grounderName, transformedProgram, grounderFilter),
+				commandLine.hasOption(OPT_SHARE_NOGOODS),
+				warmStart
+			);
+		} else {
+			Grounder grounder = GrounderFactory.getInstance(grounderName, transformedProgram, filter);
+
+			solver = SolverFactory.getInstance(
+				commandLine.getOptionValue(OPT_SOLVER, DEFAULT_SOLVER), grounder,
+				commandLine.getOptionValue(OPT_BRANCHING_HEURISTIC, BranchingHeuristicFactory.DEFAULT),
+				commandLine.getOptionValue(OPT_RESTARTS, RestartStrategyFactory.DEFAULT),
+				commandLine.hasOption(OPT_PHASE_SAVING),
+				warmStart,
+				commandLine.getOptionValue(OPT_PREPROCESSING, DEFAULT_PREPROCESSING)
+			);
+		}
+
+		if (solver instanceof DefaultSolver) {
+			((DefaultSolver) solver).setBudget(budget);
+			if (probingBudget != null) {
+				((DefaultSolver) solver).setProbingBudget(probingBudget);
+			}
+			// On interruption (e.g., Ctrl-C), end the stream at the next safe point and let the answer sets found so
+			// far be printed (waiting a few seconds at most) before the virtual machine halts.
+			final Thread mainThread = Thread.currentThread();
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				budget.cancel();
+				try {
+					mainThread.join(5000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+		} else if (Arrays.stream(new String[] {OPT_TIME_LIMIT, OPT_DECISION_LIMIT, OPT_CONFLICT_LIMIT, OPT_GROUND_NOGOOD_LIMIT, OPT_MEMORY_LIMIT, OPT_PROBING, OPT_PROBING_TIME}).anyMatch(commandLine::hasOption)) {
+			LOGGER.warn("Limits and probing are only supported by a single default solver, they are ignored.");
+		}
 
 		Stream<AnswerSet> stream = solver.stream();
 
+		if (parallelEnumeration) {
+			stream = stream.parallel().unordered();
+		}
+
 		if (limit > 0) {
 			stream = stream.limit(limit);
 		}
 
-		stream.forEach(System.out::println);
+		if (parallelEnumeration) {
+			final Stream<AnswerSet> parallelStream = stream;
+			try {
+				new ForkJoinPool(threads).submit(() -> parallelStream.forEach(System.out::println)).get();
+			} catch (InterruptedException | ExecutionException e) {
+				bailOut("Failed to enumerate answer sets in parallel.", e);
+			}
+		} else if (solver instanceof SolverMaintainingCost) {
+			// Answer sets improve one after the other, print the cost of each from the highest level to the lowest. A
+			// portfolio knows whether it optimizes only once a solver of it won, so check with every answer set.
+			final SolverMaintainingCost optimizingSolver = (SolverMaintainingCost) solver;
+			stream.forEach(as -> {
+				System.out.println(as);
+				if (optimizingSolver.isOptimizing()) {
+					System.out.println("Optimization: " + optimizingSolver.getCost().values().stream().map(String::valueOf).collect(Collectors.joining(" ")));
+				}
+			});
+			if (optimizingSolver.isOptimumProven()) {
+				System.out.println("OPTIMUM FOUND");
+			}
+		} else {
+			stream.forEach(System.out::println);
+		}
+
+		if (budget.isExhausted()) {
+			System.out.println("INTERRUPTED: " + budget.getExhaustion());
+		}
+
+		if (commandLine.hasOption(OPT_STATS) && solver instanceof SolverMaintainingStatistics) {
+			System.out.println(((SolverMaintainingStatistics) solver).getStatisticsString());
+		}
+	}
+
+	/**
+	 * @return the value of the given numeric option, 0 (no limit) if absent.
+	 */
+	private static long parseLimit(CommandLine commandLine, String option, String description) {
+		try {
+			Number n = (Number)commandLine.getParsedOptionValue(option);
+			if (n != null) {
+				if (n.longValue() < 0) {
+					bailOut("The " + description + " must not be negative.");
+				}
+				return n.longValue();
+			}
+		} catch (ParseException e) {
+			bailOut("Failed to parse " + description + ".", e);
+		}
+		return 0;
+	}
+
+	/**
+	 * Logs a warning naming those of the given options that are used, since they are ignored for the given reason.
+	 */
+	private static void warnIgnoredOptions(String reason, String... ignoredOptions) {
+		final Set<String> ignored = new HashSet<>(Arrays.asList(ignoredOptions));
+		final String used = Arrays.stream(commandLine.getOptions())
+			.filter(option -> ignored.contains(option.getLongOpt()))
+			.map(option -> "-" + option.getOpt())
+			.collect(Collectors.joining(", "));
+		if (!used.isEmpty()) {
+			LOGGER.warn("Options {} are {}, they are ignored.", used, reason);
+		}
 	}
 
 	private static void bailOut(String format, Object... arguments) {
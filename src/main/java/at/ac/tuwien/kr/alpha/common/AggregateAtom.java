@@ -0,0 +1,96 @@
+package at.ac.tuwien.kr.alpha.common;
+
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedAggregate;
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedBuiltinAtom;
+
+import java.util.*;
+
+/**
+ * An aggregate in the body of a non-ground rule. Its elements are not part of the rule but are grounded by rules of
+ * their own, hence the aggregate only knows its guards and the variables it shares with the rest of the rule
+ * (its global variables). Variables occurring in the elements only are local to them.
+ *
+ * Each comparison of the aggregated value with a guard is expressed by threshold atoms: for #count, #sum and #max the
+ * threshold atom of a bound k is true iff the value is at least k, for #min it is true iff the value is at most k. The
+ * truth of a threshold atom only grows with the elements that hold, which allows the solver to propagate it.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class AggregateAtom implements Atom {
+	public enum AggregateFunction {COUNT, SUM, MIN, MAX}
+
+	private final int aggregateId;
+	public final AggregateFunction function;
+	public final Term lowerTerm;
+	public final ParsedBuiltinAtom.BINOP lowerOp;
+	public final Term upperTerm;
+	public final ParsedBuiltinAtom.BINOP upperOp;
+	private final List<VariableTerm> globalElementVariables;
+
+	/**
+	 * @param outsideVariables the variables occurring in the rule outside of the aggregate.
+	 */
+	public AggregateAtom(int aggregateId, ParsedAggregate parsedAggregate, Set<VariableTerm> outsideVariables) {
+		this.aggregateId = aggregateId;
+		this.function = AggregateFunction.valueOf(parsedAggregate.function.name());
+		this.lowerTerm = parsedAggregate.lowerTerm != null ? Term.convertFromParsedTerm(parsedAggregate.lowerTerm) : null;
+		this.lowerOp = parsedAggregate.lowerOp;
+		this.upperTerm = parsedAggregate.upperTerm != null ? Term.convertFromParsedTerm(parsedAggregate.upperTerm) : null;
+		this.upperOp = parsedAggregate.upperOp;
+
+		Set<VariableTerm> elementVariables = new TreeSet<>();
+		for (ParsedAggregate.Element element : parsedAggregate.elements) {
+			for (int i = 0; i < element.terms.size(); i++) {
+				elementVariables.addAll(Term.convertFromParsedTerm(element.terms.get(i)).getOccurringVariables());
+			}
+			for (int i = 0; i < element.literals.size(); i++) {
+				if (element.literals.get(i) instanceof ParsedBuiltinAtom) {
+					elementVariables.addAll(new BuiltinAtom((ParsedBuiltinAtom) element.literals.get(i)).getOccurringVariables());
+				} else {
+					elementVariables.addAll(BasicAtom.fromParsedAtom(element.literals.get(i)).getOccurringVariables());
+				}
+			}
+		}
+		elementVariables.retainAll(outsideVariables);
+		this.globalElementVariables = Collections.unmodifiableList(new ArrayList<>(elementVariables));
+	}
+
+	public int getAggregateId() {
+		return aggregateId;
+	}
+
+	/**
+	 * @return the variables occurring both in the elements of the aggregate and outside of it, in a fixed order.
+	 */
+	public List<VariableTerm> getGlobalElementVariables() {
+		return globalElementVariables;
+	}
+
+	@Override
+	public boolean isGround() {
+		return getOccurringVariables().isEmpty();
+	}
+
+	/**
+	 * @return the global variables of the aggregate, i.e., the variables of its guards and its global element
+	 * variables. Local variables are not included, they are bound when grounding the elements.
+	 */
+	@Override
+	public List<VariableTerm> getOccurringVariables() {
+		Set<VariableTerm> variables = new LinkedHashSet<>();
+		if (lowerTerm != null) {
+			variables.addAll(lowerTerm.getOccurringVariables());
+		}
+		if (upperTerm != null) {
+			variables.addAll(upperTerm.getOccurringVariables());
+		}
+		variables.addAll(globalElementVariables);
+		return new ArrayList<>(variables);
+	}
+
+	@Override
+	public String toString() {
+		return (lowerTerm != null ? lowerTerm + " " + lowerOp + " " : "")
+			+ "#" + function.toString().toLowerCase() + "_" + aggregateId + globalElementVariables
+			+ (upperTerm != null ? " " + upperOp + " " + upperTerm : "");
+	}
+}
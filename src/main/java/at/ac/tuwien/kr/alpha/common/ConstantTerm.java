@@ -1,8 +1,8 @@
 package at.ac.tuwien.kr.alpha.common;
 
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Copyright (c) 2016, the Alpha Team.
@@ -10,7 +10,7 @@
 public class ConstantTerm extends Term {
 	private final TermSymbol constantSymbol;
 
-	private static final HashMap<String, ConstantTerm> CONSTANTS = new HashMap<>();
+	private static final ConcurrentHashMap<String, ConstantTerm> CONSTANTS = new ConcurrentHashMap<>();
 
 	private ConstantTerm(String constantSymbol) {
 		this.constantSymbol = TermSymbol.getInstance(constantSymbol);
@@ -1,8 +1,8 @@
 package at.ac.tuwien.kr.alpha.common;
 
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static at.ac.tuwien.kr.alpha.Util.appendDelimited;
 
@@ -10,7 +10,7 @@
  * Copyright (c) 2016, the Alpha Team.
  */
 public class FunctionTerm extends Term {
-	private static HashMap<FunctionTerm, FunctionTerm> knownFunctionTerms = new HashMap<>();
+	private static final ConcurrentHashMap<FunctionTerm, FunctionTerm> KNOWN_FUNCTION_TERMS = new ConcurrentHashMap<>();
 
 	public final TermSymbol functionSymbol;
 	public final List<Term> termList;
@@ -22,8 +22,8 @@ private FunctionTerm(TermSymbol functionSymbol, List<Term> termList) {
 
 	public static FunctionTerm getFunctionTerm(TermSymbol functionSymbol, List<Term> termList) {
 		FunctionTerm functionTerm = new FunctionTerm(functionSymbol, termList);
-		knownFunctionTerms.putIfAbsent(functionTerm, functionTerm);
-		return knownFunctionTerms.get(functionTerm);
+		FunctionTerm known = KNOWN_FUNCTION_TERMS.putIfAbsent(functionTerm, functionTerm);
+		return known != null ? known : functionTerm;
 	}
 
 	public static FunctionTerm getFunctionTerm(String functionSymbol, List<Term> termList) {
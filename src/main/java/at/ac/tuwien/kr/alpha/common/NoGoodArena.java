@@ -0,0 +1,251 @@
+package at.ac.tuwien.kr.alpha.common;
+
+import java.util.Arrays;
+
+/**
+ * Stores nogoods contiguously in one growable int array instead of one object (and array) per nogood. A nogood is
+ * addressed by the int id it got when added, ids are assigned sequentially starting at 0. Its block in the array
+ * consists of a header, holding its size, the index of its head (-1 if it has none) and two watch pointers for the use
+ * of nogood stores, followed by its literals in the order of {@link NoGood}.
+ *
+ * An arena is shared by a grounder, which adds the nogoods it derives, and the nogood store of the solver, which adds
+ * nogoods from elsewhere and keeps watch pointers in the blocks of those it watches, so both refer to a nogood by the
+ * same id. Nogoods may be removed by whoever added them, their space is reclaimed by {@link #compact()}, which moves
+ * the blocks but keeps the ids of the remaining nogoods. Ids of removed nogoods are not assigned again. On the first
+ * call of {@link #find(NoGood)}, a hash index of all nogoods is built and maintained from then on, such that the arena
+ * can tell the id of a nogood added before.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public final class NoGoodArena {
+	private static final int SIZE = 0;
+	private static final int HEAD = 1;
+	private static final int WATCH = 2;
+	private static final int LITERALS = 4;
+
+	private int[] data = new int[256];
+	private int end;
+
+	// Offset of the block of each nogood, -1 if it was removed.
+	private int[] offsets = new int[64];
+	private int count;
+	private int removed;
+
+	// Open addressing table holding id + 1 of the nogoods at the position of their hash, 0 for free slots. Null
+	// until the first lookup.
+	private int[] index;
+	private int indexed;
+
+	/**
+	 * Adds a nogood, with watch pointers 0 and 1.
+	 * @return the id of the nogood.
+	 */
+	public int add(NoGood noGood) {
+		final int size = noGood.size();
+		ensureData(end + LITERALS + size);
+		final int offset = end;
+		data[offset + SIZE] = size;
+		data[offset + HEAD] = noGood.hasHead() ? noGood.getHead() : -1;
+		data[offset + WATCH] = 0;
+		data[offset + WATCH + 1] = size > 1 ? 1 : 0;
+		for (int i = 0; i < size; i++) {
+			data[offset + LITERALS + i] = noGood.getLiteral(i);
+		}
+		end += LITERALS + size;
+
+		if (count == offsets.length) {
+			offsets = Arrays.copyOf(offsets, count * 2);
+		}
+		final int id = count++;
+		offsets[id] = offset;
+		if (index != null) {
+			insertIntoIndex(id);
+		}
+		return id;
+	}
+
+	private void ensureData(int length) {
+		if (length > data.length) {
+			data = Arrays.copyOf(data, Math.max(length, data.length * 2));
+		}
+	}
+
+	/**
+	 * @return the id of a nogood equal to the given one, -1 if there is none.
+	 */
+	public int find(NoGood noGood) {
+		if (index == null) {
+			rebuildIndex();
+		}
+		final int mask = index.length - 1;
+		for (int slot = hash(noGood) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+			final int id = index[slot] - 1;
+			if (contains(id, noGood)) {
+				return id;
+			}
+		}
+		return -1;
+	}
+
+	private void insertIntoIndex(int id) {
+		if (2 * (indexed + 1) > index.length) {
+			rebuildIndex();
+			return;
+		}
+		final int mask = index.length - 1;
+		int slot = hash(id) & mask;
+		while (index[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		index[slot] = id + 1;
+		indexed++;
+	}
+
+	private void rebuildIndex() {
+		int capacity = 16;
+		while (capacity < 2 * (count - removed + 1)) {
+			capacity *= 2;
+		}
+		index = new int[capacity];
+		indexed = 0;
+		for (int id = 0; id < count; id++) {
+			if (offsets[id] != -1) {
+				insertIntoIndex(id);
+			}
+		}
+	}
+
+	private int hash(int id) {
+		final int offset = offsets[id];
+		int hash = data[offset + HEAD];
+		for (int i = 0; i < data[offset + SIZE]; i++) {
+			hash = 31 * hash + data[offset + LITERALS + i];
+		}
+		return mix(hash);
+	}
+
+	private static int hash(NoGood noGood) {
+		int hash = noGood.hasHead() ? noGood.getHead() : -1;
+		for (int i = 0; i < noGood.size(); i++) {
+			hash = 31 * hash + noGood.getLiteral(i);
+		}
+		return mix(hash);
+	}
+
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * @return true iff the arena contains a nogood equal to the given one under the given id.
+	 */
+	public boolean contains(int id, NoGood noGood) {
+		if (!contains(id)) {
+			return false;
+		}
+		final int offset = offsets[id];
+		if (data[offset + SIZE] != noGood.size() || data[offset + HEAD] != (noGood.hasHead() ? noGood.getHead() : -1)) {
+			return false;
+		}
+		for (int i = 0; i < noGood.size(); i++) {
+			if (data[offset + LITERALS + i] != noGood.getLiteral(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int size(int id) {
+		return data[offsets[id] + SIZE];
+	}
+
+	public int getLiteral(int id, int index) {
+		return data[offsets[id] + LITERALS + index];
+	}
+
+	/**
+	 * A shorthand for <code>Literals.atomOf(getLiteral(...))</code>
+	 */
+	public int getAtom(int id, int index) {
+		return Literals.atomOf(getLiteral(id, index));
+	}
+
+	/**
+	 * @return the index of the head literal of the nogood, -1 if it has none.
+	 */
+	public int getHead(int id) {
+		return data[offsets[id] + HEAD];
+	}
+
+	public boolean hasHead(int id) {
+		return getHead(id) >= 0;
+	}
+
+	/**
+	 * @param pointer 0 or 1.
+	 * @return the index of the literal the given watch pointer of the nogood points at.
+	 */
+	public int getPointer(int id, int pointer) {
+		return data[offsets[id] + WATCH + pointer];
+	}
+
+	public void setPointer(int id, int pointer, int literalIndex) {
+		data[offsets[id] + WATCH + pointer] = literalIndex;
+	}
+
+	/**
+	 * Builds an object for the nogood, e.g., to record it as the reason of an assignment.
+	 */
+	public NoGood toNoGood(int id) {
+		final int offset = offsets[id];
+		final int[] literals = Arrays.copyOfRange(data, offset + LITERALS, offset + LITERALS + data[offset + SIZE]);
+		return new NoGood(literals, data[offset + HEAD]);
+	}
+
+	public boolean contains(int id) {
+		return id >= 0 && id < count && offsets[id] != -1;
+	}
+
+	public void remove(int id) {
+		if (offsets[id] != -1) {
+			offsets[id] = -1;
+			removed++;
+			// The index only finds nogoods still contained, yet keeps their slots until rebuilt.
+		}
+	}
+
+	/**
+	 * @return the number of ids assigned so far, including those of removed nogoods.
+	 */
+	public int getIdLimit() {
+		return count;
+	}
+
+	/**
+	 * @return the number of nogoods contained.
+	 */
+	public int getCount() {
+		return count - removed;
+	}
+
+	/**
+	 * Moves the blocks of the remaining nogoods together, dropping the space of removed ones. Ids stay the same, since
+	 * blocks lie in the order of their ids.
+	 */
+	public void compact() {
+		int newEnd = 0;
+		for (int id = 0; id < count; id++) {
+			final int offset = offsets[id];
+			if (offset == -1) {
+				continue;
+			}
+			final int length = LITERALS + data[offset + SIZE];
+			System.arraycopy(data, offset, data, newEnd, length);
+			offsets[id] = newEnd;
+			newEnd += length;
+		}
+		end = newEnd;
+		if (index != null) {
+			rebuildIndex();
+		}
+	}
+}
@@ -1,13 +1,13 @@
 package at.ac.tuwien.kr.alpha.common;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides a unique representation of each function and constant symbol.
  * Copyright (c) 2016, the Alpha Team.
  */
 public class TermSymbol {
-	private static final HashMap<String, TermSymbol> KNOWN_SYMBOLS = new HashMap<>();
+	private static final ConcurrentHashMap<String, TermSymbol> KNOWN_SYMBOLS = new ConcurrentHashMap<>();
 
 	private final String symbol;
 
@@ -16,8 +16,7 @@ private TermSymbol(String symbol) {
 	}
 
 	public static TermSymbol getInstance(String symbol) {
-		KNOWN_SYMBOLS.putIfAbsent(symbol, new TermSymbol(symbol));
-		return KNOWN_SYMBOLS.get(symbol);
+		return KNOWN_SYMBOLS.computeIfAbsent(symbol, TermSymbol::new);
 	}
 
 	public String getSymbol() {
@@ -1,10 +1,9 @@
 package at.ac.tuwien.kr.alpha.common;
 
-import at.ac.tuwien.kr.alpha.grounder.IntIdGenerator;
-
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Copyright (c) 2016, the Alpha Team.
@@ -12,9 +11,9 @@
 public class VariableTerm extends Term implements Comparable<VariableTerm> {
 	private final String variableName;
 
-	private static final HashMap<String, VariableTerm> VARIABLES = new HashMap<>();
+	private static final ConcurrentHashMap<String, VariableTerm> VARIABLES = new ConcurrentHashMap<>();
 	private static final String ANONYMOUS_VARIABLE_PREFIX = "_";
-	private static final IntIdGenerator ANONYMOUS_VARIABLE_COUNTER = new IntIdGenerator();
+	private static final AtomicInteger ANONYMOUS_VARIABLE_COUNTER = new AtomicInteger();
 
 	private VariableTerm(String variableName) {
 		this.variableName = variableName;
@@ -25,7 +24,7 @@ public static VariableTerm getInstance(String variableName) {
 	}
 
 	public static VariableTerm getNewAnonymousVariable() {
-		VariableTerm newAnonymousVariable = new VariableTerm(ANONYMOUS_VARIABLE_PREFIX + ANONYMOUS_VARIABLE_COUNTER.getNextId());
+		VariableTerm newAnonymousVariable = new VariableTerm(ANONYMOUS_VARIABLE_PREFIX + ANONYMOUS_VARIABLE_COUNTER.getAndIncrement());
 		VARIABLES.put(newAnonymousVariable.variableName, newAnonymousVariable);
 		return newAnonymousVariable;
 	}
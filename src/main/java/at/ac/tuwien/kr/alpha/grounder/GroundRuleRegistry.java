@@ -0,0 +1,75 @@
+package at.ac.tuwien.kr.alpha.grounder;
+
+import at.ac.tuwien.kr.alpha.common.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Keeps track of the ground instances of non-ground rules that were generated so far. A ground instance is identified
+ * by its rule and the terms bound to the variables of the rule, ordered by their slots. It is represented by an atom
+ * whose predicate is internal to the grounder and whose terms are the id of the rule followed by the bound terms,
+ * hence registering ground instances creates no new terms.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class GroundRuleRegistry {
+	private static final String RULE_BODIES_PREDICATE_NAME = "_R_";
+
+	private final AtomStore atomStore;
+	private final ArrayList<RuleInstances> ruleInstances = new ArrayList<>();
+
+	private static class RuleInstances {
+		final BasicPredicate ruleBodyPredicate;
+		final Term ruleIdTerm;
+		final HashMap<Instance, Integer> bodyAtomIds = new HashMap<>();
+
+		RuleInstances(NonGroundRule<? extends Predicate> rule) {
+			this.ruleBodyPredicate = new BasicPredicate(RULE_BODIES_PREDICATE_NAME, rule.getVariableNumbering().size() + 1);
+			this.ruleIdTerm = ConstantTerm.getInstance(Integer.toString(rule.getRuleId()));
+		}
+	}
+
+	GroundRuleRegistry(AtomStore atomStore) {
+		this.atomStore = atomStore;
+	}
+
+	/**
+	 * Registers the ground instance of the rule given by the variable substitution, which must bind all variables of the
+	 * rule.
+	 * @return the atomId of the atom representing the body of the ground rule if the ground rule is new, -1 if it was
+	 * registered before.
+	 */
+	int register(NonGroundRule<? extends Predicate> rule, NaiveGrounder.VariableSubstitution variableSubstitution) {
+		RuleInstances instances = getRuleInstances(rule);
+		int numVariables = rule.getVariableNumbering().size();
+		Term[] terms = new Term[numVariables + 1];
+		terms[0] = instances.ruleIdTerm;
+		for (int slot = 0; slot < numVariables; slot++) {
+			terms[slot + 1] = variableSubstitution.get(slot);
+		}
+		Instance groundRule = new Instance(terms);
+		if (instances.bodyAtomIds.containsKey(groundRule)) {
+			return -1;
+		}
+		int bodyAtomId = atomStore.createAtomId(new BasicAtom(instances.ruleBodyPredicate, terms)).atomId;
+		instances.bodyAtomIds.put(groundRule, bodyAtomId);
+		return bodyAtomId;
+	}
+
+	private RuleInstances getRuleInstances(NonGroundRule<? extends Predicate> rule) {
+		int ruleId = rule.getRuleId();
+		while (ruleInstances.size() <= ruleId) {
+			ruleInstances.add(null);
+		}
+		RuleInstances instances = ruleInstances.get(ruleId);
+		if (instances == null) {
+			instances = new RuleInstances(rule);
+			ruleInstances.set(ruleId, instances);
+		}
+		return instances;
+	}
+
+	static boolean isRuleBodyPredicate(Predicate predicate) {
+		return RULE_BODIES_PREDICATE_NAME.equals(predicate.getPredicateName());
+	}
+}
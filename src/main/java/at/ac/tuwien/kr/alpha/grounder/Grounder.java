@@ -1,18 +1,26 @@
 package at.ac.tuwien.kr.alpha.grounder;
 
 import at.ac.tuwien.kr.alpha.common.*;
-import at.ac.tuwien.kr.alpha.solver.Assignment;
+import at.ac.tuwien.kr.alpha.solver.Budget;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface Grounder extends AtomTranslator {
 	AnswerSet assignmentToAnswerSet(Iterable<Integer> trueAtoms);
 
 	Map<Integer, NoGood> getNoGoods();
 
+	/**
+	 * Makes the grounder stop grounding once the given budget is exhausted, {@link #getNoGoods()} then yields only
+	 * the nogoods of the ground rules completed so far. Grounders that do not support budgets ignore it.
+	 */
+	default void setBudget(Budget budget) {
+	}
+
 	/**
 	 *
 	 * @return a pair (choiceOn, choiceOff) of two maps from atomIds to atomIds,
@@ -21,16 +29,65 @@ public interface Grounder extends AtomTranslator {
 	 */
 	Pair<Map<Integer, Integer>, Map<Integer, Integer>> getChoiceAtoms();
 
+	/**
+	 * @return the atoms representing ground weak constraints that were created since the last call, mapped to the
+	 * pair (weight, level) of their weak constraint. Such an atom is true iff its weak constraint is violated.
+	 */
+	Map<Integer, Pair<Integer, Integer>> getWeakConstraintAtoms();
+
+	/**
+	 * @return true iff the program has weak constraints, regardless of whether any of them was grounded so far.
+	 */
+	boolean hasWeakConstraints();
+
+	/**
+	 * @return a pair (thresholds, elements) of two maps describing the atoms of ground aggregates that were created
+	 * since the last call. The threshold atoms and element atoms of one ground aggregate share a group. thresholds
+	 * maps each threshold atom to the triple (group, function, bound) and elements maps each element atom to the pair
+	 * (group, value), where the value of a #count element is 1 and otherwise the integer the element starts with.
+	 */
+	Pair<Map<Integer, Triple<Integer, AggregateAtom.AggregateFunction, Integer>>, Map<Integer, Pair<Integer, Integer>>> getAggregateAtoms();
+
+	/**
+	 * @return the groups of aggregates reported by {@link #getAggregateAtoms()} whose elements are all reported now,
+	 * i.e., no further elements of them will be grounded. Each group is reported once.
+	 */
+	Set<Integer> getCompleteAggregateGroups();
+
 	void updateAssignment(Iterator<OrdinaryAssignment> it);
 
 	void forgetAssignment(int[] atomIds);
 
+	/**
+	 * Registers a nogood that was not obtained from this grounder (e.g., one learned by the solver), such that it
+	 * gets an id that is unique among all nogoods of this grounder. Grounders with an arena (see
+	 * {@link #getNoGoodArena()}) do not add the nogood to it but return the id of an equal nogood in it or a negative
+	 * id, the nogood store adds it to the arena only if it keeps it.
+	 * @param noGood the nogood to register.
+	 * @return the id of the nogood.
+	 */
+	int registerOutsideNoGood(NoGood noGood);
+
+	/**
+	 * @return the arena holding the nogoods of this grounder under their ids, for the nogood store of the solver to
+	 * share, or null if the grounder does not keep its nogoods in an arena.
+	 */
+	default NoGoodArena getNoGoodArena() {
+		return null;
+	}
+
+	/**
+	 * Registers a ground atom referred to from outside the program (e.g., by an assumption), such that the solver may
+	 * assign it even if no ground rule derived it so far.
+	 * @param atom the ground atom to register.
+	 * @return the id of the atom.
+	 */
+	int registerOutsideAtom(BasicAtom atom);
+
 	// int[] getObsoleteAtomIds()
 
 	/**
-	 * Returns a list of currently known but unassigned.
-	 * @param assignment the current assignment.
-	 * @return a list of atoms not having assigned a truth value.
+	 * @return the highest id of the atoms currently known, the ids of known atoms range from 1 up to it.
 	 */
-	List<Integer> getUnassignedAtoms(Assignment assignment);
+	int getMaxAtomId();
 }
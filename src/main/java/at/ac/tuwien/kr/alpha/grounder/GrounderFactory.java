@@ -7,6 +7,7 @@ public final class GrounderFactory {
 	public static Grounder getInstance(String name, ParsedProgram program, java.util.function.Predicate<Predicate> filter) {
 		switch (name.toLowerCase()) {
 			case "naive": return new NaiveGrounder(program, filter);
+			case "rete": return new ReteGrounder(program, filter);
 		}
 		throw new IllegalArgumentException("Unknown grounder requested.");
 	}
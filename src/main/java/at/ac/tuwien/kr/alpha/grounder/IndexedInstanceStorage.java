@@ -17,12 +17,14 @@ public class IndexedInstanceStorage {
 	private HashSet<Instance> instances;	// A collection of all instances currently stored in this storage.
 	private ArrayList<HashMap<Term, ArrayList<Instance>>> indices;	// For each position, a mapping of termIds to list of instances with this termId at the corresponding position
 	private ArrayList<Instance> recentlyAddedInstances;
+	private HashSet<Instance> recentlyAddedInstancesSet;	// The recently added instances for fast containment checks.
 
 	public IndexedInstanceStorage(String description, int arity) {
 		this.description = description;
 		this.arity = arity;
 		instances = new HashSet<>();
 		recentlyAddedInstances = new ArrayList<>();
+		recentlyAddedInstancesSet = new HashSet<>();
 		// Create list of mappings, initialize to null.
 		indices = new ArrayList<>();
 		while (indices.size() < arity) {
@@ -32,6 +34,7 @@ public IndexedInstanceStorage(String description, int arity) {
 
 	public void markRecentlyAddedInstancesDone() {
 		recentlyAddedInstances = new ArrayList<>();
+		recentlyAddedInstancesSet = new HashSet<>();
 	}
 
 	public void addIndexPosition(int position) {
@@ -75,6 +78,7 @@ public void addInstance(Instance instance) {
 		}
 		instances.add(instance);
 		recentlyAddedInstances.add(instance);
+		recentlyAddedInstancesSet.add(instance);
 		// Add instance to all indices.
 		for (int i = 0; i < indices.size(); i++) {
 			HashMap<Term, ArrayList<Instance>> posIndex = indices.get(i);
@@ -115,7 +119,14 @@ public List<Instance> getRecentlyAddedInstances() {
 	}
 
 	/**
-	 * Returns a list of all instances having the given term at the given position. Returns null if no such
+	 * Returns whether the instance was added since recently added instances were last marked as done.
+	 */
+	public boolean isRecentlyAdded(Instance instance) {
+		return recentlyAddedInstancesSet.contains(instance);
+	}
+
+	/**
+	 * Returns a list of all instances having the given term at the given position. Returns an empty list if no such
 	 * instances exist.
 	 * @param term
 	 * @param position
@@ -127,7 +138,7 @@ public List<Instance> getInstancesMatchingAtPosition(Term term, int position) {
 			throw new RuntimeException("IndexedInstanceStorage queried for position " + position + " which is not indexed.");
 		}
 		ArrayList<Instance> matchingInstances = indexForPosition.get(term);
-		return matchingInstances == null ? new ArrayList<>() : matchingInstances;
+		return matchingInstances == null ? Collections.emptyList() : matchingInstances;
 	}
 
 	public Set<Instance> getAllInstances() {
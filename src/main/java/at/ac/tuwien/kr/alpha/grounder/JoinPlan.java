@@ -0,0 +1,164 @@
+package at.ac.tuwien.kr.alpha.grounder;
+
+import at.ac.tuwien.kr.alpha.common.*;
+
+import java.util.*;
+
+/**
+ * The order in which the body of a non-ground rule is joined once an instance of one of its body atoms (the starting
+ * atom) became known. The plan is computed once per rule and starting atom and fixes for each step which atom is
+ * joined next, whether all of its variables are already bound (then the step merely checks the instance), and which
+ * term position is bound and can be used to select instances from the index. Builtin atoms are evaluated as soon as
+ * all their variables are bound. The slots of variables occurring directly as terms of an atom are resolved in advance,
+ * such that instances can be unified without looking up variables.
+ *
+ * Negative body atoms and aggregates are not part of a plan, since safety of rules ensures they are ground once all
+ * positive body atoms are joined. If the starting atom occurs more than once in the body, the plan joins recently added
+ * instances only at occurrences after the starting atom: the plans starting at earlier occurrences already produce
+ * those ground rules (semi-naive evaluation).
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class JoinPlan {
+	final NonGroundRule<BasicPredicate> rule;
+	final int startingPosition;
+	final BasicAtom startingAtom;
+	final int[] startingTermSlots;
+	private final Step[] steps;
+
+	static class Step {
+		final Atom atom;
+
+		/**
+		 * True if all variables of the atom are bound when the step is reached (always true for builtin atoms).
+		 */
+		final boolean isGround;
+
+		/**
+		 * The term position of the atom whose variables are all bound when the step is reached, -1 if there is none.
+		 */
+		final int probePosition;
+
+		/**
+		 * True if instances that were added to the working memory since the last grounding must be skipped.
+		 */
+		final boolean skipRecentlyAdded;
+
+		/**
+		 * For each term position of the atom the slot of the variable at that position, -1 if the term is no variable.
+		 */
+		final int[] termSlots;
+
+		Step(Atom atom, boolean isGround, int probePosition, boolean skipRecentlyAdded, int[] termSlots) {
+			this.atom = atom;
+			this.isGround = isGround;
+			this.probePosition = probePosition;
+			this.skipRecentlyAdded = skipRecentlyAdded;
+			this.termSlots = termSlots;
+		}
+
+		@Override
+		public String toString() {
+			return atom + (isGround ? "[ground]" : "[probe " + probePosition + "]");
+		}
+	}
+
+	JoinPlan(NonGroundRule<BasicPredicate> rule, int startingPosition) {
+		this.rule = rule;
+		this.startingPosition = startingPosition;
+		this.startingAtom = (BasicAtom) rule.getBodyAtom(startingPosition);
+		this.startingTermSlots = getTermSlots(startingAtom, rule.getVariableNumbering());
+
+		List<BasicAtom> remainingAtoms = new ArrayList<>();
+		Set<BasicAtom> earlierOccurrences = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<BuiltinAtom> remainingBuiltins = new ArrayList<>();
+		for (int i = 0; i < rule.getBodyAtomsPositive().size(); i++) {
+			Atom atom = rule.getBodyAtom(i);
+			if (atom instanceof BuiltinAtom) {
+				remainingBuiltins.add((BuiltinAtom) atom);
+			} else if (atom instanceof AggregateAtom) {
+				// Aggregates are grounded once all variables are bound and do not restrict the join.
+				continue;
+			} else if (i != startingPosition) {
+				remainingAtoms.add((BasicAtom) atom);
+				if (i < startingPosition && ((BasicAtom) atom).predicate.equals(startingAtom.predicate)) {
+					earlierOccurrences.add((BasicAtom) atom);
+				}
+			}
+		}
+
+		List<Step> steps = new ArrayList<>();
+		Set<VariableTerm> boundVariables = new HashSet<>(startingAtom.getOccurringVariables());
+		addEvaluableBuiltins(remainingBuiltins, boundVariables, steps);
+		while (!remainingAtoms.isEmpty()) {
+			BasicAtom nextAtom = remainingAtoms.remove(selectNextAtom(remainingAtoms, boundVariables));
+			int probePosition = getBoundPosition(nextAtom, boundVariables);
+			steps.add(new Step(nextAtom, boundVariables.containsAll(nextAtom.getOccurringVariables()), probePosition, earlierOccurrences.contains(nextAtom), getTermSlots(nextAtom, rule.getVariableNumbering())));
+			boundVariables.addAll(nextAtom.getOccurringVariables());
+			addEvaluableBuiltins(remainingBuiltins, boundVariables, steps);
+		}
+		// Builtins with variables not bound by any positive body atom (i.e., in unsafe rules) are left for the end.
+		for (BuiltinAtom builtinAtom : remainingBuiltins) {
+			steps.add(new Step(builtinAtom, true, -1, false, null));
+		}
+		this.steps = steps.toArray(new Step[steps.size()]);
+	}
+
+	/**
+	 * Selects the atom to join next: atoms that are already ground are cheapest, followed by atoms that share a
+	 * variable with the atoms joined so far. Among equally good atoms the order of the rule body is kept.
+	 */
+	private static int selectNextAtom(List<BasicAtom> remainingAtoms, Set<VariableTerm> boundVariables) {
+		int firstBoundAtom = -1;
+		for (int i = 0; i < remainingAtoms.size(); i++) {
+			BasicAtom atom = remainingAtoms.get(i);
+			if (boundVariables.containsAll(atom.getOccurringVariables())) {
+				return i;
+			}
+			if (firstBoundAtom == -1 && getBoundPosition(atom, boundVariables) != -1) {
+				firstBoundAtom = i;
+			}
+		}
+		return firstBoundAtom != -1 ? firstBoundAtom : 0;
+	}
+
+	private static int getBoundPosition(BasicAtom atom, Set<VariableTerm> boundVariables) {
+		for (int i = 0; i < atom.termList.length; i++) {
+			if (boundVariables.containsAll(atom.termList[i].getOccurringVariables())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int[] getTermSlots(BasicAtom atom, VariableNumbering variableNumbering) {
+		int[] termSlots = new int[atom.termList.length];
+		for (int i = 0; i < termSlots.length; i++) {
+			Term term = atom.termList[i];
+			termSlots[i] = term instanceof VariableTerm ? variableNumbering.getSlot((VariableTerm) term) : -1;
+		}
+		return termSlots;
+	}
+
+	private static void addEvaluableBuiltins(List<BuiltinAtom> remainingBuiltins, Set<VariableTerm> boundVariables, List<Step> steps) {
+		for (Iterator<BuiltinAtom> iterator = remainingBuiltins.iterator(); iterator.hasNext();) {
+			BuiltinAtom builtinAtom = iterator.next();
+			if (boundVariables.containsAll(builtinAtom.getOccurringVariables())) {
+				steps.add(new Step(builtinAtom, true, -1, false, null));
+				iterator.remove();
+			}
+		}
+	}
+
+	int getNumSteps() {
+		return steps.length;
+	}
+
+	Step getStep(int step) {
+		return steps[step];
+	}
+
+	@Override
+	public String toString() {
+		return startingAtom + " -> " + Arrays.toString(steps);
+	}
+}
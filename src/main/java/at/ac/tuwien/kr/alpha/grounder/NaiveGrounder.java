@@ -1,13 +1,12 @@
 package at.ac.tuwien.kr.alpha.grounder;
 
 import at.ac.tuwien.kr.alpha.common.*;
-import at.ac.tuwien.kr.alpha.grounder.parser.ParsedConstraint;
-import at.ac.tuwien.kr.alpha.grounder.parser.ParsedFact;
-import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
-import at.ac.tuwien.kr.alpha.grounder.parser.ParsedRule;
-import at.ac.tuwien.kr.alpha.solver.Assignment;
+import at.ac.tuwien.kr.alpha.grounder.parser.*;
+import at.ac.tuwien.kr.alpha.solver.Budget;
 import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,25 +19,43 @@
 public class NaiveGrounder extends AbstractGrounder {
 	private static final Logger LOGGER = LoggerFactory.getLogger(NaiveGrounder.class);
 
-	private static final BasicPredicate RULE_BODIES_PREDICATE = new BasicPredicate("_R_", 2); // atoms corresponding
-	// to rule bodies use this predicate, first term is rule number, second is a term containing variable substitutions
 	private static final BasicPredicate CHOICE_ON_PREDICATE = new BasicPredicate("ChoiceOn", 1);
 	private static final BasicPredicate CHOICE_OFF_PREDICATE = new BasicPredicate("ChoiceOff", 1);
+	private static final String WEAK_CONSTRAINT_PREDICATE_NAME = "_W_";
+	private static final String AGGREGATE_ELEMENT_PREDICATE_NAME = "_E_";
+	private static final String AGGREGATE_THRESHOLD_PREDICATE_NAME = "_T_";
+	private static final String AGGREGATE_PREDICATE_NAME = "_A_";
 	private final IntIdGenerator intIdGenerator = new IntIdGenerator();
 	protected HashMap<Predicate, ImmutablePair<IndexedInstanceStorage, IndexedInstanceStorage>> workingMemory = new HashMap<>();
-	protected Map<NoGood, Integer> nogoodIdentifiers = new HashMap<>();
+	// All nogoods derived so far, their ids in the arena are their identifiers. The solver's nogood store shares the
+	// arena, it adds the outside nogoods it keeps and removes only those, so each nogood is derived once.
+	private final NoGoodArena noGoodArena = new NoGoodArena();
+	private int groundNoGoodCount;
+	private int outsideNoGoodCount;
 	protected AtomStore atomStore = new AtomStore();
-	private IntIdGenerator nogoodIdGenerator = new IntIdGenerator();
+	private final GroundRuleRegistry groundRuleRegistry = new GroundRuleRegistry(atomStore);
 	private HashMap<Predicate, ArrayList<Instance>> factsFromProgram = new HashMap<>();
 	private HashSet<NonGroundRule<BasicPredicate>> groundRulesFromProgram = new HashSet<>();
 	private boolean outputFactNogoods = true;
-	private ArrayList<NonGroundRule<BasicPredicate>> rulesFromProgram = new ArrayList<>();
+	protected ArrayList<NonGroundRule<BasicPredicate>> rulesFromProgram = new ArrayList<>();
 	private HashSet<IndexedInstanceStorage> modifiedWorkingMemories = new HashSet<>();
-	private HashMap<IndexedInstanceStorage, ArrayList<FirstBindingAtom>> rulesUsingPredicateWorkingMemory = new HashMap<>();
+	private HashMap<IndexedInstanceStorage, ArrayList<JoinPlan>> rulesUsingPredicateWorkingMemory = new HashMap<>();
 	private Pair<Map<Integer, Integer>, Map<Integer, Integer>> newChoiceAtoms = new ImmutablePair<>(new HashMap<>(), new HashMap<>());
 	private IntIdGenerator choiceAtomsGenerator = new IntIdGenerator();
 	private HashSet<Predicate> knownPredicates = new HashSet<>();
 	private HashMap<NonGroundRule<? extends Predicate>, HashSet<VariableSubstitution>> knownGroundingSubstitutions = new HashMap<>();
+	private boolean hasWeakConstraints;
+	private int lastCheckedWeakConstraintAtomId;
+	private final Map<Integer, AggregateAtom> aggregates = new HashMap<>();
+	private final Map<List<Term>, Integer> aggregateGroups = new HashMap<>();
+	private int lastCheckedAggregateAtomId;
+	private final Map<NonGroundRule<BasicPredicate>, AggregateAtom> choiceBounds = new HashMap<>();
+	private Map<Integer, List<ParsedAtom>> aggregateElementLiterals = new HashMap<>();
+	private final Set<Integer> staticAggregates = new HashSet<>();
+	private Set<Integer> newCompleteAggregateGroups = new LinkedHashSet<>();
+	// Whether all facts were joined with the rules, such that elements of static aggregates are complete.
+	protected boolean factsJoined;
+	private Budget budget;
 
 	public NaiveGrounder(ParsedProgram program) {
 		this(program, p -> true);
@@ -49,25 +66,9 @@ public NaiveGrounder(ParsedProgram program, java.util.function.Predicate<Predica
 
 		// initialize all facts
 		for (ParsedFact fact : this.program.facts) {
-			String predicateName = fact.fact.predicate;
-			int predicateArity = fact.fact.arity;
-			BasicPredicate predicate = new BasicPredicate(predicateName, predicateArity);
-			// Record predicate
-			adaptWorkingMemoryForPredicate(predicate);
-
-			// Construct instance from the fact.
-			ArrayList<Term> termList = new ArrayList<>();
-			for (int i = 0; i < predicateArity; i++) {
-				termList.add(Term.convertFromParsedTerm(fact.fact.terms.get(i)));
-			}
-			Instance instance = new Instance(termList.toArray(new Term[0]));
-			// Add instance to corresponding list of facts
-			factsFromProgram.putIfAbsent(predicate, new ArrayList<>());
-			ArrayList<Instance> internalPredicateInstances = factsFromProgram.get(predicate);
-			internalPredicateInstances.add(instance);
+			registerFact(fact.fact);
 		}
 		// initialize rules
-		adaptWorkingMemoryForPredicate(RULE_BODIES_PREDICATE);
 		adaptWorkingMemoryForPredicate(CHOICE_ON_PREDICATE);
 		adaptWorkingMemoryForPredicate(CHOICE_OFF_PREDICATE);
 		for (ParsedRule rule : program.rules) {
@@ -79,10 +80,47 @@ public NaiveGrounder(ParsedProgram program, java.util.function.Predicate<Predica
 			constraintWrappingRule.body = constraint.body;
 			registerRuleOrConstraint(constraintWrappingRule);
 		}
+		// initialize weak constraints, each becomes a rule deriving an atom that holds its weight, level and terms
+		for (ParsedWeakConstraint weakConstraint : program.weakConstraints) {
+			ParsedAtom weakConstraintAtom = new ParsedAtom();
+			weakConstraintAtom.predicate = WEAK_CONSTRAINT_PREDICATE_NAME;
+			weakConstraintAtom.terms = new ArrayList<>();
+			weakConstraintAtom.terms.add(weakConstraint.weight);
+			weakConstraintAtom.terms.add(weakConstraint.level);
+			weakConstraintAtom.terms.addAll(weakConstraint.terms);
+			weakConstraintAtom.arity = weakConstraintAtom.terms.size();
+			if (weakConstraint.body.isEmpty()) {
+				registerFact(weakConstraintAtom);
+				continue;
+			}
+			ParsedRule weakConstraintRule = new ParsedRule();
+			weakConstraintRule.head = weakConstraintAtom;
+			weakConstraintRule.body = weakConstraint.body;
+			registerRuleOrConstraint(weakConstraintRule);
+		}
+		hasWeakConstraints = !program.weakConstraints.isEmpty();
+		recordStaticAggregates();
 		// Hint: Could clear this.program to free memory.
 		this.program = null;
 	}
 
+	private void registerFact(ParsedAtom fact) {
+		BasicPredicate predicate = new BasicPredicate(fact.predicate, fact.arity);
+		// Record predicate
+		adaptWorkingMemoryForPredicate(predicate);
+
+		// Construct instance from the fact.
+		ArrayList<Term> termList = new ArrayList<>();
+		for (int i = 0; i < fact.arity; i++) {
+			termList.add(Term.convertFromParsedTerm(fact.terms.get(i)));
+		}
+		Instance instance = new Instance(termList.toArray(new Term[0]));
+		// Add instance to corresponding list of facts
+		factsFromProgram.putIfAbsent(predicate, new ArrayList<>());
+		ArrayList<Instance> internalPredicateInstances = factsFromProgram.get(predicate);
+		internalPredicateInstances.add(instance);
+	}
+
 	private void adaptWorkingMemoryForPredicate(Predicate predicate) {
 		// Create working memory for predicate if it does not exist
 		if (!workingMemory.containsKey(predicate)) {
@@ -99,50 +137,255 @@ private void adaptWorkingMemoryForPredicate(Predicate predicate) {
 	}
 
 	private void registerRuleOrConstraint(ParsedRule rule) {
-		// Record the rule for later use
-		NonGroundRule<BasicPredicate> nonGroundRule = NonGroundRule.constructNonGroundRule(intIdGenerator, rule);
+		if (rule.head instanceof ParsedChoice) {
+			registerChoiceRule(rule);
+			return;
+		}
+		registerRuleOrConstraint(rule, false);
+	}
+
+	/**
+	 * Registers a choice rule: each element becomes a choice rule of its own, whose head is the atom of the element
+	 * and whose body consists of the body of the rule and the condition of the element. Bounds on the number of chosen
+	 * atoms become a constraint with a #count aggregate over the elements, whose tuples are the predicate and the terms
+	 * of the element atoms. The elements of that aggregate are not grounded by rules of their own, each ground
+	 * element rule adds its head instead (see {@link #addChoiceElement}).
+	 */
+	private void registerChoiceRule(ParsedRule rule) {
+		ParsedChoice choice = (ParsedChoice) rule.head;
+		AggregateAtom bounds = null;
+		if (choice.lowerTerm != null || choice.upperTerm != null) {
+			bounds = registerChoiceBounds(rule, choice);
+		}
+		for (ParsedChoice.Element element : choice.elements) {
+			ParsedRule elementRule = new ParsedRule();
+			elementRule.head = element.atom;
+			elementRule.body.addAll(rule.body);
+			elementRule.body.addAll(element.literals);
+			NonGroundRule<BasicPredicate> elementNonGroundRule = registerRuleOrConstraint(elementRule, true);
+			if (bounds != null) {
+				choiceBounds.put(elementNonGroundRule, bounds);
+			}
+		}
+	}
+
+	private AggregateAtom registerChoiceBounds(ParsedRule rule, ParsedChoice choice) {
+		ParsedAggregate count = new ParsedAggregate();
+		count.function = ParsedAggregate.FUNCTION.COUNT;
+		count.lowerTerm = choice.lowerTerm;
+		count.lowerOp = choice.lowerOp;
+		count.upperTerm = choice.upperTerm;
+		count.upperOp = choice.upperOp;
+		count.isNegated = true;
+		for (ParsedChoice.Element element : choice.elements) {
+			ParsedAggregate.Element countElement = new ParsedAggregate.Element();
+			ParsedConstant predicate = new ParsedConstant();
+			predicate.content = element.atom.predicate;
+			countElement.terms.add(predicate);
+			if (element.atom.terms != null) {
+				countElement.terms.addAll(element.atom.terms);
+			}
+			countElement.literals.add(element.atom);
+			countElement.literals.addAll(element.literals);
+			count.elements.add(countElement);
+		}
+		ParsedRule boundsConstraint = new ParsedRule();
+		boundsConstraint.body.addAll(rule.body);
+		boundsConstraint.body.add(count);
+		NonGroundRule<BasicPredicate> nonGroundRule = NonGroundRule.constructNonGroundRule(intIdGenerator, boundsConstraint);
+		registerNonGroundRule(nonGroundRule);
+		for (Atom atom : nonGroundRule.getBodyAtomsNegative()) {
+			if (atom instanceof AggregateAtom) {
+				AggregateAtom aggregateAtom = (AggregateAtom) atom;
+				aggregates.put(aggregateAtom.getAggregateId(), aggregateAtom);
+				List<ParsedAtom> conditions = new ArrayList<>();
+				for (ParsedChoice.Element element : choice.elements) {
+					conditions.addAll(element.literals);
+				}
+				aggregateElementLiterals.put(aggregateAtom.getAggregateId(), conditions);
+				return aggregateAtom;
+			}
+		}
+		throw new RuntimeException("Bounds of choice rule not registered: " + rule);
+	}
+
+	/**
+	 * @param isChoice whether the rule is an element of a choice rule.
+	 */
+	private NonGroundRule<BasicPredicate> registerRuleOrConstraint(ParsedRule rule, boolean isChoice) {
+		NonGroundRule<BasicPredicate> nonGroundRule = NonGroundRule.constructNonGroundRule(intIdGenerator, rule, isChoice);
+		registerNonGroundRule(nonGroundRule);
+		registerAggregateElements(rule, nonGroundRule);
+		return nonGroundRule;
+	}
+
+	private void registerNonGroundRule(NonGroundRule<BasicPredicate> nonGroundRule) {
 		// Create working memories for all predicates occurring in the rule
 		for (Predicate predicate : nonGroundRule.getOccurringPredicates()) {
 			adaptWorkingMemoryForPredicate(predicate);
 		}
+		// Record the rule for later use
 		rulesFromProgram.add(nonGroundRule);
 
+		if (nonGroundRule.getBodyAtomsPositive().isEmpty() && nonGroundRule.getBodyAtomsNegative().isEmpty()) {
+			// A rule without body, i.e., a choice without body, is ground and grounded together with the facts.
+			return;
+		}
 		// Register the rule at the working memory corresponding to its first predicate.
 		Predicate firstBodyPredicate = nonGroundRule.usedFirstBodyPredicate();
 		if (firstBodyPredicate == null) {
 			// No ordinary first body predicate, hence it only contains ground builtin predicates.
 			return;
 		}
-		// Register each predicate occurring in the body of the rule at its corresponding working memory.
-		HashSet<Predicate> registeredPositivePredicates = new HashSet<>();
-		for (Atom bodyAtom : nonGroundRule.getBodyAtomsPositive()) {
-			registerRuleAtWorkingMemory(true, nonGroundRule, registeredPositivePredicates, bodyAtom);
+		// Register a join plan starting at each positive body atom at the working memory of its predicate.
+		for (int i = 0; i < nonGroundRule.getBodyAtomsPositive().size(); i++) {
+			registerJoinPlan(true, nonGroundRule, i);
 		}
 		// Register negative literals only if the rule contains no positive literals (necessary grounding is ensured by safety of rules).
 		if (nonGroundRule.getBodyAtomsPositive().size() == 0) {
-			HashSet<Predicate> registeredNegativePredicates = new HashSet<>();
-			for (Atom bodyAtom : nonGroundRule.getBodyAtomsNegative()) {
-				registerRuleAtWorkingMemory(false, nonGroundRule, registeredNegativePredicates, bodyAtom);
+			for (int i = 0; i < nonGroundRule.getBodyAtomsNegative().size(); i++) {
+				registerJoinPlan(false, nonGroundRule, i);
+			}
+		}
+	}
+
+	/**
+	 * Registers the elements of all aggregates in the rule, each element becomes a rule deriving an atom that holds the
+	 * global variables and the terms of the element. Its body consists of the condition of the element and the
+	 * positive body atoms of the rule outside of aggregates, which bind the global variables. Elements are hence
+	 * grounded lazily like any other rule, the atoms of their aggregate are created when grounding the rule itself.
+	 */
+	private void registerAggregateElements(ParsedRule rule, NonGroundRule<BasicPredicate> nonGroundRule) {
+		List<AggregateAtom> aggregateAtoms = new ArrayList<>();
+		for (Atom atom : nonGroundRule.getBodyAtomsPositive()) {
+			if (atom instanceof AggregateAtom) {
+				aggregateAtoms.add((AggregateAtom) atom);
+			}
+		}
+		for (Atom atom : nonGroundRule.getBodyAtomsNegative()) {
+			if (atom instanceof AggregateAtom) {
+				aggregateAtoms.add((AggregateAtom) atom);
+			}
+		}
+		if (aggregateAtoms.isEmpty()) {
+			return;
+		}
+		// Aggregates got their ids in the order they occur in the body.
+		aggregateAtoms.sort(Comparator.comparingInt(AggregateAtom::getAggregateId));
+		List<ParsedAtom> context = new ArrayList<>();
+		List<ParsedAggregate> parsedAggregates = new ArrayList<>();
+		for (ParsedAtom parsedAtom : rule.body) {
+			if (parsedAtom instanceof ParsedAggregate) {
+				parsedAggregates.add((ParsedAggregate) parsedAtom);
+			} else if (!parsedAtom.isNegated) {
+				context.add(parsedAtom);
+			}
+		}
+		for (int i = 0; i < aggregateAtoms.size(); i++) {
+			AggregateAtom aggregateAtom = aggregateAtoms.get(i);
+			aggregates.put(aggregateAtom.getAggregateId(), aggregateAtom);
+			List<ParsedAtom> literals = new ArrayList<>();
+			for (ParsedAggregate.Element element : parsedAggregates.get(i).elements) {
+				literals.addAll(element.literals);
+			}
+			aggregateElementLiterals.put(aggregateAtom.getAggregateId(), literals);
+			for (ParsedAggregate.Element element : parsedAggregates.get(i).elements) {
+				ParsedAtom elementAtom = new ParsedAtom();
+				elementAtom.predicate = AGGREGATE_ELEMENT_PREDICATE_NAME;
+				elementAtom.terms = new ArrayList<>();
+				ParsedConstant aggregateId = new ParsedConstant();
+				aggregateId.content = Integer.toString(aggregateAtom.getAggregateId());
+				elementAtom.terms.add(aggregateId);
+				for (VariableTerm globalVariable : aggregateAtom.getGlobalElementVariables()) {
+					ParsedVariable variable = new ParsedVariable();
+					variable.variableName = globalVariable.toString();
+					elementAtom.terms.add(variable);
+				}
+				elementAtom.terms.addAll(element.terms);
+				elementAtom.arity = elementAtom.terms.size();
+				if (context.isEmpty() && element.literals.isEmpty()) {
+					BasicAtom groundElementAtom = BasicAtom.fromParsedAtom(elementAtom);
+					if (!groundElementAtom.isGround()) {
+						throw new RuntimeException("Encountered not safe aggregate element: " + element);
+					}
+					checkElementWeight(parsedAggregates.get(i), groundElementAtom.termList);
+					registerFact(elementAtom);
+					continue;
+				}
+				ParsedRule elementRule = new ParsedRule();
+				elementRule.head = elementAtom;
+				elementRule.body.addAll(context);
+				elementRule.body.addAll(element.literals);
+				NonGroundRule<BasicPredicate> elementNonGroundRule = registerRuleOrConstraint(elementRule, false);
+				checkElementWeight(parsedAggregates.get(i), elementNonGroundRule.getHeadAtom().termList);
+			}
+		}
+	}
+
+	/**
+	 * Rejects an element of a #sum aggregate whose weight, the first term of its tuple, is a negative integer, since
+	 * threshold atoms of sums only grow with the elements that hold if weights are non-negative. Negative integers
+	 * only occur as constants of elements (terms of facts and builtin atoms are non-negative), hence all negative
+	 * weights are rejected when registering the elements.
+	 * @param terms the terms of the element atom, whose first term is the id of the aggregate.
+	 */
+	private void checkElementWeight(ParsedAggregate parsedAggregate, Term[] terms) {
+		AggregateAtom aggregateAtom = aggregates.get(integerValue(terms[0]));
+		if (aggregateAtom.function != AggregateAtom.AggregateFunction.SUM) {
+			return;
+		}
+		int tupleStart = 1 + aggregateAtom.getGlobalElementVariables().size();
+		Integer weight = tupleStart < terms.length ? integerValue(terms[tupleStart]) : null;
+		if (weight != null && weight < 0) {
+			throw new RuntimeException("Negative weight " + weight + " of element " + Arrays.asList(terms).subList(tupleStart, terms.length)
+				+ " in aggregate " + parsedAggregate + " is not supported.");
+		}
+	}
+
+	/**
+	 * Records the aggregates whose element literals only use predicates defined by facts. The elements of a ground
+	 * instance of such an aggregate are grounded along with the instance itself, since the rules of both only wait
+	 * for the same atoms besides facts.
+	 */
+	private void recordStaticAggregates() {
+		Set<Predicate> headPredicates = new HashSet<>();
+		for (NonGroundRule<BasicPredicate> rule : rulesFromProgram) {
+			if (!rule.isConstraint()) {
+				headPredicates.add(rule.getHeadAtom().predicate);
+			}
+		}
+		for (Map.Entry<Integer, List<ParsedAtom>> literals : aggregateElementLiterals.entrySet()) {
+			boolean isStatic = true;
+			for (ParsedAtom literal : literals.getValue()) {
+				if (!(literal instanceof ParsedBuiltinAtom) && headPredicates.contains(new BasicPredicate(literal.predicate, literal.arity))) {
+					isStatic = false;
+					break;
+				}
+			}
+			if (isStatic) {
+				staticAggregates.add(literals.getKey());
 			}
 		}
+		aggregateElementLiterals = null;
 	}
 
 	/**
-	 * Registers an atom occurring in a rule at its corresponding working memory if it has not already been treated this way.
+	 * Registers the join plan starting at the given body atom at the working memory corresponding to the atom. Every
+	 * occurrence of a predicate gets its own plan, since a new instance may match any of the occurrences.
 	 * @param isPositive indicates whether the atom occurs positively or negatively in the rule.
 	 * @param nonGroundRule the rule into which the atom occurs.
-	 * @param registeredPredicates a set of already registered predicates (will skip if the predicate of the current atom occurs in this set). This set will be extended by the current atom.
-	 * @param bodyAtom the current body atom.
+	 * @param position the position of the atom among the positive resp. negative body atoms.
 	 */
-	private void registerRuleAtWorkingMemory(boolean isPositive, NonGroundRule<BasicPredicate> nonGroundRule, HashSet<Predicate> registeredPredicates, Atom bodyAtom) {
-		if (bodyAtom instanceof BasicAtom && !registeredPredicates.contains(((BasicAtom) bodyAtom).predicate)) {
-			Predicate predicate = ((BasicAtom) bodyAtom).predicate;
-			registeredPredicates.add(predicate);
-			IndexedInstanceStorage workingMemory = isPositive ? this.workingMemory.get(predicate).getLeft() : this.workingMemory.get(predicate).getRight();
-			rulesUsingPredicateWorkingMemory.putIfAbsent(workingMemory, new ArrayList<>());
-			rulesUsingPredicateWorkingMemory.get(workingMemory).add(
-				new FirstBindingAtom(nonGroundRule, nonGroundRule.getFirstOccurrenceOfPredicate(predicate), (BasicAtom) bodyAtom));
+	private void registerJoinPlan(boolean isPositive, NonGroundRule<BasicPredicate> nonGroundRule, int position) {
+		int bodyPosition = isPositive ? position : nonGroundRule.getBodyAtomsPositive().size() + position;
+		Atom bodyAtom = nonGroundRule.getBodyAtom(bodyPosition);
+		if (!(bodyAtom instanceof BasicAtom)) {
+			return;
 		}
+		Predicate predicate = ((BasicAtom) bodyAtom).predicate;
+		IndexedInstanceStorage workingMemory = isPositive ? this.workingMemory.get(predicate).getLeft() : this.workingMemory.get(predicate).getRight();
+		rulesUsingPredicateWorkingMemory.putIfAbsent(workingMemory, new ArrayList<>());
+		rulesUsingPredicateWorkingMemory.get(workingMemory).add(new JoinPlan(nonGroundRule, bodyPosition));
 	}
 
 	@Override
@@ -159,7 +402,7 @@ public AnswerSet assignmentToAnswerSet(Iterable<Integer> trueAtoms) {
 			BasicAtom basicAtom = atomStore.getBasicAtom(new AtomId(trueAtom));
 
 			// Skip internal predicates.
-			if (basicAtom.predicate.equals(CHOICE_OFF_PREDICATE) || basicAtom.predicate.equals(CHOICE_ON_PREDICATE) || basicAtom.predicate.equals(RULE_BODIES_PREDICATE)) {
+			if (basicAtom.predicate.equals(CHOICE_OFF_PREDICATE) || basicAtom.predicate.equals(CHOICE_ON_PREDICATE) || GroundRuleRegistry.isRuleBodyPredicate(basicAtom.predicate) || isWeakConstraintPredicate(basicAtom.predicate) || isAggregatePredicate(basicAtom.predicate)) {
 				continue;
 			}
 
@@ -185,36 +428,40 @@ public AnswerSet assignmentToAnswerSet(Iterable<Integer> trueAtoms) {
 	 * Derives all NoGoods representing facts of the input program. May only be called once.
 	 * @return
 	 */
-	private Map<Integer, NoGood> noGoodsFromFacts() {
+	protected Map<Integer, NoGood> noGoodsFromFacts() {
 		HashMap<Integer, NoGood> noGoodsFromFacts = new HashMap<>();
 		for (Predicate predicate : factsFromProgram.keySet()) {
 			for (Instance instance : factsFromProgram.get(predicate)) {
 				AtomId atomIdFactAtom = atomStore.createAtomId(new BasicAtom(predicate, instance.terms));
 				NoGood noGood = new NoGood(new int[]{-atomIdFactAtom.atomId}, 0);
 				// The noGood is assumed to be new.
-				int noGoodId = nogoodIdGenerator.getNextId();
-				nogoodIdentifiers.put(noGood, noGoodId);
+				int noGoodId = noGoodArena.add(noGood);
+				groundNoGoodCount++;
 				noGoodsFromFacts.put(noGoodId, noGood);
 			}
 		}
 		for (NonGroundRule<BasicPredicate> nonGroundRule : rulesFromProgram) {
 			if (nonGroundRule.isGround()) {
-				List<NoGood> noGoods = generateNoGoodsFromGroundSubstitution(nonGroundRule, new VariableSubstitution());
-				for (NoGood noGood : noGoods) {
-					// Check if noGood was already derived earlier and add it is new
-					if (!nogoodIdentifiers.containsKey(noGood)) {
-						int noGoodId = nogoodIdGenerator.getNextId();
-						nogoodIdentifiers.put(noGood, noGoodId);
-						noGoodsFromFacts.put(noGoodId, noGood);
-					}
-				}
+				registerNewNoGoods(generateNoGoodsFromGroundSubstitution(nonGroundRule, new VariableSubstitution()), noGoodsFromFacts);
 			}
 		}
 		return noGoodsFromFacts;
 	}
 
+	@Override
+	public void setBudget(Budget budget) {
+		this.budget = budget;
+	}
+
+	protected boolean isBudgetExhausted() {
+		return budget != null && budget.checkGrounding(groundNoGoodCount);
+	}
+
 	@Override
 	public Map<Integer, NoGood> getNoGoods() {
+		if (isBudgetExhausted()) {
+			return new HashMap<>();
+		}
 		// First call, output all NoGoods from facts.
 		if (outputFactNogoods) {
 			outputFactNogoods = false;
@@ -225,33 +472,25 @@ public Map<Integer, NoGood> getNoGoods() {
 		for (IndexedInstanceStorage modifiedWorkingMemory : modifiedWorkingMemories) {
 
 			// Iterate over all rules whose body contains the predicate corresponding to the current workingMemory.
-			ArrayList<FirstBindingAtom> firstBindingAtoms = rulesUsingPredicateWorkingMemory.get(modifiedWorkingMemory);
+			ArrayList<JoinPlan> joinPlans = rulesUsingPredicateWorkingMemory.get(modifiedWorkingMemory);
 			// Skip working memories that are not used by any rule.
-			if (firstBindingAtoms == null) {
+			if (joinPlans == null) {
 				continue;
 			}
-			for (FirstBindingAtom firstBindingAtom : firstBindingAtoms) {
+			for (JoinPlan joinPlan : joinPlans) {
+				// Between join plans, all ground rules found so far are complete, the solver stops on an exhausted
+				// budget without using the incomplete grounding.
+				if (isBudgetExhausted()) {
+					return newNoGoods;
+				}
 				// Use the recently added instances from the modified working memory to construct an initial variableSubstitution
-				NonGroundRule<BasicPredicate> nonGroundRule = firstBindingAtom.rule;
-				List<VariableSubstitution> variableSubstitutions = new ArrayList<>();
-				// Generate variableSubstitutions from each recent instance.
+				VariableSubstitution variableSubstitution = new VariableSubstitution(joinPlan.rule.getVariableNumbering());
 				for (Instance instance : modifiedWorkingMemory.getRecentlyAddedInstances()) {
 					// Check instance if it matches with the atom.
-					VariableSubstitution partialVariableSubstitution = new VariableSubstitution();
-					if (unify(firstBindingAtom.firstBindingAtom, instance, partialVariableSubstitution)) {
-						variableSubstitutions.addAll(bindNextAtomInRule(nonGroundRule, 0, firstBindingAtom.firstBindingAtomPos, partialVariableSubstitution));
-					}
-				}
-				for (VariableSubstitution variableSubstitution : variableSubstitutions) {
-					List<NoGood> noGoods = generateNoGoodsFromGroundSubstitution(nonGroundRule, variableSubstitution);
-					for (NoGood noGood : noGoods) {
-						// Check if noGood was already derived earlier, add if it is new
-						if (!nogoodIdentifiers.containsKey(noGood)) {
-							int noGoodId = nogoodIdGenerator.getNextId();
-							nogoodIdentifiers.put(noGood, noGoodId);
-							newNoGoods.put(noGoodId, noGood);
-						}
+					if (unifyTerms(joinPlan.startingAtom.termList, joinPlan.startingTermSlots, instance.terms, variableSubstitution)) {
+						joinAlongPlan(joinPlan, 0, variableSubstitution, newNoGoods);
 					}
+					variableSubstitution.undo(0);
 				}
 			}
 
@@ -259,42 +498,77 @@ public Map<Integer, NoGood> getNoGoods() {
 			modifiedWorkingMemory.markRecentlyAddedInstancesDone();
 		}
 		modifiedWorkingMemories = new HashSet<>();
+		// Facts are in the working memory since the first call, hence all rules waiting for them only are grounded now.
+		factsJoined = true;
 		return newNoGoods;
 	}
 
+	/**
+	 * Assigns ids to all given NoGoods that were not derived earlier and adds them to newNoGoods.
+	 */
+	protected void registerNewNoGoods(List<NoGood> noGoods, Map<Integer, NoGood> newNoGoods) {
+		for (NoGood noGood : noGoods) {
+			// Check if noGood was already derived earlier, add if it is new
+			if (noGoodArena.find(noGood) == -1) {
+				int noGoodId = noGoodArena.add(noGood);
+				groundNoGoodCount++;
+				newNoGoods.put(noGoodId, noGood);
+			}
+		}
+	}
+
 	/**
 	 * Generates all NoGoods resulting from a non-ground rule and a variable substitution.
 	 * @param nonGroundRule
 	 * @param variableSubstitution
 	 * @return
 	 */
-	private List<NoGood> generateNoGoodsFromGroundSubstitution(NonGroundRule<BasicPredicate> nonGroundRule, VariableSubstitution variableSubstitution) {
+	protected List<NoGood> generateNoGoodsFromGroundSubstitution(NonGroundRule<BasicPredicate> nonGroundRule, VariableSubstitution variableSubstitution) {
 		if (LOGGER.isDebugEnabled()) {
 			// Debugging helper: record known grounding substitutions.
 			knownGroundingSubstitutions.putIfAbsent(nonGroundRule, new HashSet<>());
-			knownGroundingSubstitutions.get(nonGroundRule).add(variableSubstitution);
+			knownGroundingSubstitutions.get(nonGroundRule).add(new VariableSubstitution(variableSubstitution));
 		}
 
 		List<NoGood> generatedNoGoods = new ArrayList<>();
+		for (Atom basicAtom : nonGroundRule.getBodyAtomsPositive()) {
+			// Truth of builtin atoms does not depend on any assignment
+			// hence, they need not be represented as long as they evaluate to true
+			if (basicAtom instanceof BuiltinAtom && !BuiltinAtom.evaluateBuiltinAtom((BuiltinAtom) basicAtom, variableSubstitution)) {
+				// Rule body is always false, skip the whole rule.
+				return generatedNoGoods;
+			}
+		}
+		int bodyRepresentingAtomId = 0;
+		if (!nonGroundRule.isConstraint()) {
+			// Check uniqueness of ground rule, the atom representing its body is only created for new ground rules.
+			bodyRepresentingAtomId = groundRuleRegistry.register(nonGroundRule, variableSubstitution);
+			if (bodyRepresentingAtomId == -1) {
+				// The current ground instance already exists, therefore all NoGoods have already been created.
+				return generatedNoGoods;
+			}
+		}
+
 		// Collect ground atoms in the body
 		ArrayList<AtomId> bodyAtomsPositive = new ArrayList<>();
 		ArrayList<AtomId> bodyAtomsNegative = new ArrayList<>();
 		for (Atom basicAtom : nonGroundRule.getBodyAtomsPositive()) {
 			if (basicAtom instanceof BuiltinAtom) {
-				// Truth of builtin atoms does not depend on any assignment
-				// hence, they need not be represented as long as they evaluate to true
-				if (BuiltinAtom.evaluateBuiltinAtom((BuiltinAtom) basicAtom, variableSubstitution)) {
-					continue;
-				} else {
-					// Rule body is always false, skip the whole rule.
-					return new ArrayList<>(0);
-				}
+				continue;
+			}
+			if (basicAtom instanceof AggregateAtom) {
+				bodyAtomsPositive.add(new AtomId(groundAggregate((AggregateAtom) basicAtom, variableSubstitution, generatedNoGoods)));
+				continue;
 			}
 			AtomId groundAtomPositive = SubstitutionUtil.groundingSubstitute(atomStore, (BasicAtom)basicAtom, variableSubstitution);
 			bodyAtomsPositive.add(groundAtomPositive);
 
 		}
 		for (Atom basicAtom : nonGroundRule.getBodyAtomsNegative()) {
+			if (basicAtom instanceof AggregateAtom) {
+				bodyAtomsNegative.add(new AtomId(groundAggregate((AggregateAtom) basicAtom, variableSubstitution, generatedNoGoods)));
+				continue;
+			}
 			AtomId groundAtomNegative = SubstitutionUtil.groundingSubstitute(atomStore, (BasicAtom)basicAtom, variableSubstitution);
 			bodyAtomsNegative.add(groundAtomNegative);
 		}
@@ -313,23 +587,16 @@ private List<NoGood> generateNoGoodsFromGroundSubstitution(NonGroundRule<BasicPr
 			NoGood constraintNoGood = new NoGood(constraintLiterals);
 			generatedNoGoods.add(constraintNoGood);
 		} else {
-			// Prepare atom representing the rule body
-			BasicAtom ruleBodyRepresentingPredicate = new BasicAtom(RULE_BODIES_PREDICATE,
-				ConstantTerm.getInstance(Integer.toString(nonGroundRule.getRuleId())),
-				ConstantTerm.getInstance(variableSubstitution.toUniformString()));
-			// Check uniqueness of ground rule by testing whether the body representing atom already has an id
-			if (atomStore.isAtomExisting(ruleBodyRepresentingPredicate)) {
-				// The current ground instance already exists, therefore all NoGoods have already been created.
-				return generatedNoGoods;
-			}
-			AtomId bodyRepresentingAtomId = atomStore.createAtomId(ruleBodyRepresentingPredicate);
-
 			// Prepare head atom
 			AtomId headAtomId = SubstitutionUtil.groundingSubstitute(atomStore, nonGroundRule.getHeadAtom(), variableSubstitution);
+			AggregateAtom bounds = choiceBounds.get(nonGroundRule);
+			if (bounds != null) {
+				addChoiceElement(bounds, headAtomId.atomId, variableSubstitution, generatedNoGoods);
+			}
 
 			// Create NoGood for body.
 			int[] bodyLiterals = new int[bodySize + 1];
-			bodyLiterals[0] = -bodyRepresentingAtomId.atomId;
+			bodyLiterals[0] = -bodyRepresentingAtomId;
 			int i = 1;
 			for (AtomId atomId : bodyAtomsPositive) {
 				bodyLiterals[i++] = atomId.atomId;
@@ -337,17 +604,29 @@ private List<NoGood> generateNoGoodsFromGroundSubstitution(NonGroundRule<BasicPr
 			for (AtomId atomId : bodyAtomsNegative) {
 				bodyLiterals[i++] = -atomId.atomId;
 			}
-			NoGood ruleBody = new NoGood(bodyLiterals, 0);
+
+			if (nonGroundRule.isChoice() && bodyAtomsNegative.isEmpty()) {
+				// The head itself is the choice atom, enabled by the atom representing the body. Since the head is
+				// not derived from the body, neither a NoGood for the head nor one for the falsity of the body is needed.
+				generatedNoGoods.add(new NoGood(bodyLiterals, 0));
+				newChoiceAtoms.getLeft().put(bodyRepresentingAtomId, headAtomId.atomId);
+				return generatedNoGoods;
+			}
 
 			// Generate NoGoods such that the atom representing the body is true iff the body is true.
 			for (int j = 1; j < bodyLiterals.length; j++) {
-				generatedNoGoods.add(new NoGood(bodyRepresentingAtomId.atomId, -bodyLiterals[j]));
+				generatedNoGoods.add(new NoGood(bodyRepresentingAtomId, -bodyLiterals[j]));
 			}
+			// Note: the NoGood sorts bodyLiterals in place.
+			NoGood ruleBody = new NoGood(bodyLiterals, 0);
 
 			// Create NoGood for head.
-			NoGood ruleHead = new NoGood(new int[]{-headAtomId.atomId, bodyRepresentingAtomId.atomId}, 0);
+			NoGood ruleHead = new NoGood(new int[]{-headAtomId.atomId, bodyRepresentingAtomId}, 0);
 
-			generatedNoGoods.add(ruleBody);
+			// The body of a choice rule with negation is the choice atom, which may be FALSE although the body holds.
+			if (!nonGroundRule.isChoice()) {
+				generatedNoGoods.add(ruleBody);
+			}
 			generatedNoGoods.add(ruleHead);
 
 
@@ -369,7 +648,7 @@ private List<NoGood> generateNoGoodsFromGroundSubstitution(NonGroundRule<BasicPr
 				choiceOnLiterals[0] = -choiceOnAtomIdInt;
 				// Add corresponding NoGood and ChoiceOn
 				generatedNoGoods.add(new NoGood(choiceOnLiterals, 0));	// ChoiceOn and ChoiceOff NoGoods avoid MBT and directly set to true, hence the rule head pointer.
-				newChoiceOn.put(choiceOnAtomIdInt, bodyRepresentingAtomId.atomId);
+				newChoiceOn.put(choiceOnAtomIdInt, bodyRepresentingAtomId);
 
 				// ChoiceOff if some negative body atom is contradicted
 				BasicAtom choiceOffAtom =  new BasicAtom(CHOICE_OFF_PREDICATE, ConstantTerm.getInstance(Integer.toString(choiceId)));
@@ -378,107 +657,310 @@ private List<NoGood> generateNoGoodsFromGroundSubstitution(NonGroundRule<BasicPr
 					// Choice is off if any of the negative atoms is assigned true, hence we add one NoGood for each such atom.
 					generatedNoGoods.add(new NoGood(new int[]{-choiceOffAtomIdInt, negAtomId.atomId}, 0));
 				}
-				newChoiceOff.put(choiceOffAtomIdInt, bodyRepresentingAtomId.atomId);
+				newChoiceOff.put(choiceOffAtomIdInt, bodyRepresentingAtomId);
 			}
 		}
 		return generatedNoGoods;
 	}
 
-	private List<VariableSubstitution> bindNextAtomInRule(NonGroundRule rule, int atomPos, int firstBindingPos, VariableSubstitution partialVariableSubstitution) {
-		if (atomPos == rule.getNumBodyAtoms()) {
-			return Collections.singletonList(partialVariableSubstitution);
-		} else {
-			if (atomPos == firstBindingPos) {
-				// Binding for this position was already computed, skip it.
-				return bindNextAtomInRule(rule, atomPos + 1, firstBindingPos, partialVariableSubstitution);
-			}
-			Atom currentAtom = rule.getBodyAtom(atomPos);
-			if (currentAtom instanceof BuiltinAtom) {
-				// Assumption: all variables occurring in the builtin atom are already bound
-				// (as ensured by the body atom sorting)
-				if (BuiltinAtom.evaluateBuiltinAtom((BuiltinAtom)currentAtom, partialVariableSubstitution)) {
-					// Builtin is true, continue with next atom in rule body.
-					return bindNextAtomInRule(rule, atomPos + 1, firstBindingPos, partialVariableSubstitution);
-				} else {
-					// Builtin is false, return no bindings.
-					return new ArrayList<>();
-				}
+	/**
+	 * Adds the head of a ground choice rule to the elements of the aggregate bounding the number of chosen atoms, by an
+	 * element atom that is true iff the head is.
+	 */
+	private void addChoiceElement(AggregateAtom bounds, int headAtomId, VariableSubstitution variableSubstitution, List<NoGood> generatedNoGoods) {
+		BasicAtom head = atomStore.getBasicAtom(new AtomId(headAtomId));
+		List<Term> terms = new ArrayList<>();
+		terms.add(ConstantTerm.getInstance(Integer.toString(bounds.getAggregateId())));
+		for (VariableTerm globalVariable : bounds.getGlobalElementVariables()) {
+			terms.add(variableSubstitution.eval(globalVariable));
+		}
+		terms.add(ConstantTerm.getInstance(head.predicate.getPredicateName()));
+		terms.addAll(Arrays.asList(head.termList));
+		BasicAtom elementAtom = new BasicAtom(new BasicPredicate(AGGREGATE_ELEMENT_PREDICATE_NAME, terms.size()), terms.toArray(new Term[0]));
+		int elementAtomId = atomStore.createAtomId(elementAtom).atomId;
+		generatedNoGoods.add(new NoGood(new int[]{-elementAtomId, headAtomId}, 0));
+		generatedNoGoods.add(new NoGood(elementAtomId, -headAtomId));
+	}
+
+	/**
+	 * Grounds an aggregate under the substitution of its rule: each comparison with a guard becomes a conjunction of
+	 * clauses over threshold atoms, see {@link AggregateAtom}. Unless the aggregate is a single threshold atom, an atom
+	 * representing it is created and the nogoods making it true iff all clauses hold are added to generatedNoGoods.
+	 * @return the id of the atom that is true iff the aggregate holds.
+	 */
+	private int groundAggregate(AggregateAtom aggregateAtom, VariableSubstitution variableSubstitution, List<NoGood> generatedNoGoods) {
+		List<VariableTerm> globalVariables = aggregateAtom.getGlobalElementVariables();
+		Term[] globalTerms = new Term[globalVariables.size()];
+		for (int i = 0; i < globalTerms.length; i++) {
+			globalTerms[i] = variableSubstitution.eval(globalVariables.get(i));
+		}
+		List<Term> guards = new ArrayList<>();
+		List<int[]> clauses = new ArrayList<>();
+		if (aggregateAtom.lowerTerm != null) {
+			Term lowerTerm = SubstitutionUtil.groundTerm(aggregateAtom.lowerTerm, variableSubstitution);
+			guards.add(lowerTerm);
+			// The guard is on the left of the comparison, i.e., the aggregated value on the right.
+			addComparisonClauses(aggregateAtom, swapSides(aggregateAtom.lowerOp), toGuardInteger(lowerTerm), globalTerms, clauses);
+		}
+		if (aggregateAtom.upperTerm != null) {
+			Term upperTerm = SubstitutionUtil.groundTerm(aggregateAtom.upperTerm, variableSubstitution);
+			guards.add(upperTerm);
+			addComparisonClauses(aggregateAtom, aggregateAtom.upperOp, toGuardInteger(upperTerm), globalTerms, clauses);
+		}
+		if (clauses.size() == 1 && clauses.get(0).length == 1 && clauses.get(0)[0] > 0) {
+			return clauses.get(0)[0];
+		}
+
+		List<Term> terms = new ArrayList<>();
+		terms.add(ConstantTerm.getInstance(Integer.toString(aggregateAtom.getAggregateId())));
+		terms.addAll(guards);
+		terms.addAll(Arrays.asList(globalTerms));
+		int aggregateAtomId = atomStore.createAtomId(new BasicAtom(new BasicPredicate(AGGREGATE_PREDICATE_NAME, terms.size()), terms.toArray(new Term[0]))).atomId;
+		// The aggregate is false if all literals of a clause are false.
+		for (int[] clause : clauses) {
+			int[] literals = new int[clause.length + 1];
+			literals[0] = aggregateAtomId;
+			for (int i = 0; i < clause.length; i++) {
+				literals[i + 1] = -clause[i];
 			}
-			// check if partialVariableSubstitution already yields a ground atom
-			BasicAtom currentBasicAtom = (BasicAtom)currentAtom;
-			Pair<Boolean, BasicAtom> substitute = SubstitutionUtil.substitute(currentBasicAtom, partialVariableSubstitution);
-			if (substitute.getLeft()) {
-				// Substituted atom is ground, in case it is positive, only ground if it also holds true
-				if (rule.isBodyAtomPositive(atomPos)) {
-					IndexedInstanceStorage wm = workingMemory.get(currentBasicAtom.predicate).getLeft();
-					if (wm.containsInstance(new Instance(substitute.getRight().termList))) {
-						// Ground literal holds, continue finding a variable substitution.
-						return bindNextAtomInRule(rule, atomPos + 1, firstBindingPos, partialVariableSubstitution);
-					} else {
-						// Generate no variable substitution.
-						return new ArrayList<>();
-					}
-				} else {
-					// Atom occurs negated in the rule, continue grounding
-					return bindNextAtomInRule(rule, atomPos + 1, firstBindingPos, partialVariableSubstitution);
-				}
-			} else {
-				// substituted atom contains variables
-				ImmutablePair<IndexedInstanceStorage, IndexedInstanceStorage> wms = workingMemory.get(currentBasicAtom.predicate);
-				IndexedInstanceStorage storage = rule.isBodyAtomPositive(atomPos) ? wms.getLeft() : wms.getRight();
-				Collection<Instance> instances;
-				if (partialVariableSubstitution.substitution.isEmpty()) {
-					// No variables are bound, but first atom in the body became recently true, consider all instances now.
-					instances = storage.getAllInstances();
-				} else {
-					// For selection of the instances, find ground term on which to select
-					int firstGroundTermPos = 0;
-					Term firstGroundTerm = null;
-					for (int i = 0; i < substitute.getRight().termList.length; i++) {
-						Term testTerm = substitute.getRight().termList[i];
-						if (testTerm.isGround()) {
-							firstGroundTermPos = i;
-							firstGroundTerm = testTerm;
-							break;
-						}
-					}
-					// Select matching instances
-					if (firstGroundTerm != null) {
-						instances = storage.getInstancesMatchingAtPosition(firstGroundTerm, firstGroundTermPos);
-					} else {
-						instances = new ArrayList<>(storage.getAllInstances());
-					}
-				}
-				ArrayList<VariableSubstitution> generatedSubstitutions = new ArrayList<>();
-				for (Instance instance : instances) {
-					// Check each instance if it matches with the atom.
-					VariableSubstitution variableSubstitutionClone = new VariableSubstitution(partialVariableSubstitution);
-					if (unify(substitute.getRight(), instance, variableSubstitutionClone)) {
-						generatedSubstitutions.addAll(bindNextAtomInRule(rule, atomPos + 1, firstBindingPos, variableSubstitutionClone));
-					}
+			if (!hasComplementaryLiterals(literals)) {
+				generatedNoGoods.add(new NoGood(literals));
+			}
+		}
+		// The aggregate is true if some literal of each clause is true, one nogood for each choice of these literals.
+		int numCombinations = 1;
+		for (int[] clause : clauses) {
+			numCombinations *= clause.length;
+		}
+		for (int combination = 0; combination < numCombinations; combination++) {
+			int[] literals = new int[clauses.size() + 1];
+			literals[0] = -aggregateAtomId;
+			int remaining = combination;
+			for (int i = 0; i < clauses.size(); i++) {
+				int[] clause = clauses.get(i);
+				literals[i + 1] = clause[remaining % clause.length];
+				remaining /= clause.length;
+			}
+			if (!hasComplementaryLiterals(literals)) {
+				generatedNoGoods.add(new NoGood(literals, 0));
+			}
+		}
+		addAggregateChoice(aggregateAtomId, clauses, generatedNoGoods);
+		return aggregateAtomId;
+	}
+
+	/**
+	 * Makes the atom representing an aggregate a choice point if some of its clauses contains a negative threshold
+	 * literal, since such a literal is only FALSE when the assignment is closed, just like the negative body of a rule.
+	 * The choice is on if all threshold atoms of positive unit clauses are TRUE and off if some clause is contradicted
+	 * by TRUE threshold atoms.
+	 */
+	private void addAggregateChoice(int aggregateAtomId, List<int[]> clauses, List<NoGood> generatedNoGoods) {
+		List<Integer> positiveUnits = new ArrayList<>();
+		boolean hasNegativeLiteral = false;
+		for (int[] clause : clauses) {
+			if (clause.length == 1 && clause[0] > 0) {
+				positiveUnits.add(clause[0]);
+			}
+			for (int literal : clause) {
+				hasNegativeLiteral |= literal < 0;
+			}
+		}
+		if (!hasNegativeLiteral) {
+			return;
+		}
+		int choiceId = choiceAtomsGenerator.getNextId();
+		int choiceOnAtomId = atomStore.createAtomId(new BasicAtom(CHOICE_ON_PREDICATE, ConstantTerm.getInstance(Integer.toString(choiceId)))).atomId;
+		int[] choiceOnLiterals = new int[positiveUnits.size() + 1];
+		choiceOnLiterals[0] = -choiceOnAtomId;
+		for (int i = 0; i < positiveUnits.size(); i++) {
+			choiceOnLiterals[i + 1] = positiveUnits.get(i);
+		}
+		generatedNoGoods.add(new NoGood(choiceOnLiterals, 0));
+		newChoiceAtoms.getLeft().put(choiceOnAtomId, aggregateAtomId);
+
+		// Like for rules, the choice is switched off by TRUE atoms only, i.e., by clauses of negative literals only.
+		int choiceOffAtomId = atomStore.createAtomId(new BasicAtom(CHOICE_OFF_PREDICATE, ConstantTerm.getInstance(Integer.toString(choiceId)))).atomId;
+		for (int[] clause : clauses) {
+			int[] literals = new int[clause.length + 1];
+			literals[0] = -choiceOffAtomId;
+			boolean isNegative = true;
+			for (int i = 0; i < clause.length; i++) {
+				isNegative &= clause[i] < 0;
+				literals[i + 1] = -clause[i];
+			}
+			if (isNegative) {
+				generatedNoGoods.add(new NoGood(literals, 0));
+			}
+		}
+		newChoiceAtoms.getRight().put(choiceOffAtomId, aggregateAtomId);
+	}
+
+	/**
+	 * Adds the clauses over threshold atoms expressing that the aggregated value compares to the given value by the
+	 * given operator. With reached being the threshold atom of the value and exceeded the one of the next value in the
+	 * direction of the threshold atoms, value >= v is reached, value > v is exceeded and = or != combine them.
+	 */
+	private void addComparisonClauses(AggregateAtom aggregateAtom, ParsedBuiltinAtom.BINOP op, int value, Term[] globalTerms, List<int[]> clauses) {
+		int step = 1;
+		if (aggregateAtom.function == AggregateAtom.AggregateFunction.MIN) {
+			// Threshold atoms of #min are true if the value is at most their bound.
+			op = swapSides(op);
+			step = -1;
+		}
+		switch (op) {
+			case GREATER_OR_EQ:
+				clauses.add(new int[]{thresholdAtom(aggregateAtom, value, globalTerms)});
+				break;
+			case GREATER:
+				clauses.add(new int[]{thresholdAtom(aggregateAtom, value + step, globalTerms)});
+				break;
+			case LESS_OR_EQ:
+				clauses.add(new int[]{-thresholdAtom(aggregateAtom, value + step, globalTerms)});
+				break;
+			case LESS:
+				clauses.add(new int[]{-thresholdAtom(aggregateAtom, value, globalTerms)});
+				break;
+			case EQUAL:
+				clauses.add(new int[]{thresholdAtom(aggregateAtom, value, globalTerms)});
+				clauses.add(new int[]{-thresholdAtom(aggregateAtom, value + step, globalTerms)});
+				break;
+			case UNEQUAL:
+				clauses.add(new int[]{-thresholdAtom(aggregateAtom, value, globalTerms), thresholdAtom(aggregateAtom, value + step, globalTerms)});
+				break;
+		}
+	}
+
+	private int thresholdAtom(AggregateAtom aggregateAtom, int bound, Term[] globalTerms) {
+		Term[] terms = new Term[globalTerms.length + 2];
+		terms[0] = ConstantTerm.getInstance(Integer.toString(aggregateAtom.getAggregateId()));
+		terms[1] = ConstantTerm.getInstance(Integer.toString(bound));
+		System.arraycopy(globalTerms, 0, terms, 2, globalTerms.length);
+		return atomStore.createAtomId(new BasicAtom(new BasicPredicate(AGGREGATE_THRESHOLD_PREDICATE_NAME, terms.length), terms)).atomId;
+	}
+
+	private static ParsedBuiltinAtom.BINOP swapSides(ParsedBuiltinAtom.BINOP op) {
+		switch (op) {
+			case LESS: return ParsedBuiltinAtom.BINOP.GREATER;
+			case GREATER: return ParsedBuiltinAtom.BINOP.LESS;
+			case LESS_OR_EQ: return ParsedBuiltinAtom.BINOP.GREATER_OR_EQ;
+			case GREATER_OR_EQ: return ParsedBuiltinAtom.BINOP.LESS_OR_EQ;
+			default: return op;
+		}
+	}
+
+	private static boolean hasComplementaryLiterals(int[] literals) {
+		for (int i = 0; i < literals.length; i++) {
+			for (int j = i + 1; j < literals.length; j++) {
+				if (literals[i] == -literals[j]) {
+					return true;
 				}
-				return generatedSubstitutions;
 			}
 		}
+		return false;
+	}
+
+	private static int toGuardInteger(Term term) {
+		Integer value = integerValue(term);
+		if (value == null) {
+			throw new RuntimeException("Guard " + term + " of aggregate is not an integer.");
+		}
+		return value;
 	}
 
 	/**
-	 * Computes the unifier of the atom and the instance and stores it in the variable substitution.
-	 * @param atom the body atom to unify
-	 * @param instance the ground instance
-	 * @param variableSubstitution if the atom does not unify, this is left unchanged.
-	 * @return true if the atom and the instance unify. False otherwise
+	 * @return the integer the given term represents, null if it is no integer.
 	 */
-	protected boolean unify(BasicAtom atom, Instance instance, VariableSubstitution variableSubstitution) {
-		VariableSubstitution tempVariableSubstitution = new VariableSubstitution(variableSubstitution);
-		for (int i = 0; i < instance.terms.length; i++) {
-			if (instance.terms[i] == atom.termList[i] ||
-				unifyTerms(atom.termList[i], instance.terms[i], tempVariableSubstitution)) {
+	private static Integer integerValue(Term term) {
+		if (!(term instanceof ConstantTerm)) {
+			return null;
+		}
+		try {
+			return Integer.parseInt(term.toString());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Joins the remaining body atoms of a rule following the given plan and generates the NoGoods of every ground
+	 * rule obtained.
+	 * @param joinPlan the plan to follow.
+	 * @param stepIndex the current step of the plan.
+	 * @param partialVariableSubstitution the variable substitution of all steps before the current one, it is extended
+	 * by the bindings of the current and later steps, which are undone before returning.
+	 * @param newNoGoods the map to which newly generated NoGoods are added.
+	 */
+	private void joinAlongPlan(JoinPlan joinPlan, int stepIndex, VariableSubstitution partialVariableSubstitution, Map<Integer, NoGood> newNoGoods) {
+		if (stepIndex == joinPlan.getNumSteps()) {
+			registerNewNoGoods(generateNoGoodsFromGroundSubstitution(joinPlan.rule, partialVariableSubstitution), newNoGoods);
+			return;
+		}
+		JoinPlan.Step step = joinPlan.getStep(stepIndex);
+		if (step.atom instanceof BuiltinAtom) {
+			// All variables of the builtin are bound (as ensured by the join plan), continue only if it holds.
+			if (BuiltinAtom.evaluateBuiltinAtom((BuiltinAtom) step.atom, partialVariableSubstitution)) {
+				joinAlongPlan(joinPlan, stepIndex + 1, partialVariableSubstitution, newNoGoods);
+			}
+			return;
+		}
+		BasicAtom currentAtom = (BasicAtom) step.atom;
+		IndexedInstanceStorage storage = workingMemory.get(currentAtom.predicate).getLeft();
+		if (step.isGround) {
+			// The atom is ground under the current substitution, only continue if it holds.
+			Term[] groundTerms = new Term[currentAtom.termList.length];
+			for (int i = 0; i < groundTerms.length; i++) {
+				groundTerms[i] = groundTerm(currentAtom.termList[i], step.termSlots[i], partialVariableSubstitution);
+			}
+			Instance groundInstance = new Instance(groundTerms);
+			if (storage.containsInstance(groundInstance) && !(step.skipRecentlyAdded && storage.isRecentlyAdded(groundInstance))) {
+				joinAlongPlan(joinPlan, stepIndex + 1, partialVariableSubstitution, newNoGoods);
+			}
+			return;
+		}
+		Collection<Instance> instances;
+		if (step.probePosition == -1) {
+			instances = storage.getAllInstances();
+		} else {
+			Term probeTerm = groundTerm(currentAtom.termList[step.probePosition], step.termSlots[step.probePosition], partialVariableSubstitution);
+			instances = storage.getInstancesMatchingAtPosition(probeTerm, step.probePosition);
+		}
+		int trailSize = partialVariableSubstitution.getTrailSize();
+		for (Instance instance : instances) {
+			if (step.skipRecentlyAdded && storage.isRecentlyAdded(instance)) {
 				continue;
 			}
-			return false;
+			// Check each instance if it matches with the atom.
+			if (unifyTerms(currentAtom.termList, step.termSlots, instance.terms, partialVariableSubstitution)) {
+				joinAlongPlan(joinPlan, stepIndex + 1, partialVariableSubstitution, newNoGoods);
+			}
+			partialVariableSubstitution.undo(trailSize);
+		}
+	}
+
+	private static Term groundTerm(Term term, int slot, VariableSubstitution variableSubstitution) {
+		return slot != -1 ? variableSubstitution.get(slot) : SubstitutionUtil.groundTerm(term, variableSubstitution);
+	}
+
+	/**
+	 * Unifies each of the possibly non-ground terms with the ground term at the same position and records the
+	 * bindings in the variable substitution, which may be partially extended if the terms do not unify. Variables
+	 * occurring directly as terms are looked up by their given slots.
+	 */
+	private boolean unifyTerms(Term[] termsNonGround, int[] termSlots, Term[] termsGround, VariableSubstitution variableSubstitution) {
+		for (int i = 0; i < termsGround.length; i++) {
+			int slot = termSlots[i];
+			if (slot != -1) {
+				Term boundTerm = variableSubstitution.get(slot);
+				if (boundTerm == null) {
+					variableSubstitution.bind(slot, termsGround[i]);
+				} else if (boundTerm != termsGround[i]) {
+					return false;
+				}
+			} else if (termsGround[i] != termsNonGround[i] && !unifyTerms(termsNonGround[i], termsGround[i], variableSubstitution)) {
+				return false;
+			}
 		}
-		variableSubstitution.replaceSubstitution(tempVariableSubstitution);
 		return true;
 	}
 
@@ -498,11 +980,12 @@ boolean unifyTerms(Term termNonGround, Term termGround, VariableSubstitution var
 			return false;
 		} else if (termNonGround instanceof VariableTerm) {
 			// Left term is variable, bind it to the right term.
-			if (variableSubstitution.substitution.get(termNonGround) != null) {
+			Term boundTerm = variableSubstitution.eval((VariableTerm) termNonGround);
+			if (boundTerm != null) {
 				// Variable is already bound, return true if binding is the same as the current ground term.
-				return termNonGround == variableSubstitution.substitution.get(termNonGround);
+				return termGround == boundTerm;
 			} else {
-				variableSubstitution.substitution.put((VariableTerm) termNonGround, termGround);
+				variableSubstitution.put((VariableTerm) termNonGround, termGround);
 				return true;
 			}
 		} else if (termNonGround instanceof FunctionTerm && termGround instanceof FunctionTerm) {
@@ -538,6 +1021,10 @@ public void updateAssignment(Iterator<OrdinaryAssignment> it) {
 			OrdinaryAssignment assignment = it.next();
 			AtomId atomId = new AtomId(assignment.getAtom());
 			BasicAtom basicAtom = atomStore.getBasicAtom(atomId);
+			if (GroundRuleRegistry.isRuleBodyPredicate(basicAtom.predicate) || isAggregatePredicate(basicAtom.predicate)) {
+				// Atoms representing rule bodies or aggregates occur in no rule body, hence no rule uses them.
+				continue;
+			}
 			Instance instance = new Instance(basicAtom.termList);
 			boolean truthValue = assignment.getTruthValue();
 			ImmutablePair<IndexedInstanceStorage, IndexedInstanceStorage> workingMemoryPlusMinus = workingMemory.get(basicAtom.predicate);
@@ -563,20 +1050,141 @@ public void forgetAssignment(int[] atomIds) {
 	}
 
 	@Override
-	public String atomToString(int atomId) {
-		return atomStore.getBasicAtom(new AtomId(atomId)).toString();
+	public int registerOutsideNoGood(NoGood noGood) {
+		int noGoodId = noGoodArena.find(noGood);
+		if (noGoodId == -1) {
+			noGoodId = -++outsideNoGoodCount;
+		}
+		return noGoodId;
+	}
+
+	@Override
+	public NoGoodArena getNoGoodArena() {
+		return noGoodArena;
 	}
 
 	@Override
-	public List<Integer> getUnassignedAtoms(Assignment assignment) {
-		List<Integer> unassignedAtoms = new ArrayList<>();
-		// Check all known atoms: assumption is that AtomStore assigned continuous values and 0 is no valid atomId.
-		for (int i = 1; i <= atomStore.getHighestAtomId().atomId; i++) {
-			if (!assignment.isAssigned(i)) {
-				unassignedAtoms.add(i);
+	public Map<Integer, Pair<Integer, Integer>> getWeakConstraintAtoms() {
+		Map<Integer, Pair<Integer, Integer>> weakConstraintAtoms = new HashMap<>();
+		if (!hasWeakConstraints) {
+			return weakConstraintAtoms;
+		}
+		// Atoms of weak constraints are created along with their ground rules, check all atoms created since last time.
+		int highestAtomId = atomStore.getHighestAtomId().atomId;
+		for (int atomId = lastCheckedWeakConstraintAtomId + 1; atomId <= highestAtomId; atomId++) {
+			BasicAtom basicAtom = atomStore.getBasicAtom(new AtomId(atomId));
+			if (isWeakConstraintPredicate(basicAtom.predicate)) {
+				int weight = toInteger(basicAtom.termList[0]);
+				if (weight < 0) {
+					// The solver bounds the cost by the weights of violated weak constraints, which requires them to be non-negative.
+					throw new RuntimeException("Negative weight " + weight + " of weak constraint is not supported.");
+				}
+				weakConstraintAtoms.put(atomId, new ImmutablePair<>(weight, toInteger(basicAtom.termList[1])));
 			}
 		}
-		return unassignedAtoms;
+		lastCheckedWeakConstraintAtomId = highestAtomId;
+		return weakConstraintAtoms;
+	}
+
+	@Override
+	public boolean hasWeakConstraints() {
+		return hasWeakConstraints;
+	}
+
+	private static boolean isWeakConstraintPredicate(Predicate predicate) {
+		return WEAK_CONSTRAINT_PREDICATE_NAME.equals(predicate.getPredicateName());
+	}
+
+	@Override
+	public Pair<Map<Integer, Triple<Integer, AggregateAtom.AggregateFunction, Integer>>, Map<Integer, Pair<Integer, Integer>>> getAggregateAtoms() {
+		Map<Integer, Triple<Integer, AggregateAtom.AggregateFunction, Integer>> thresholdAtoms = new HashMap<>();
+		Map<Integer, Pair<Integer, Integer>> elementAtoms = new HashMap<>();
+		if (aggregates.isEmpty()) {
+			return new ImmutablePair<>(thresholdAtoms, elementAtoms);
+		}
+		// Atoms of aggregates are created along with the ground rules using them, check all atoms created since last time.
+		int highestAtomId = atomStore.getHighestAtomId().atomId;
+		for (int atomId = lastCheckedAggregateAtomId + 1; atomId <= highestAtomId; atomId++) {
+			BasicAtom basicAtom = atomStore.getBasicAtom(new AtomId(atomId));
+			String predicateName = basicAtom.predicate.getPredicateName();
+			if (AGGREGATE_THRESHOLD_PREDICATE_NAME.equals(predicateName)) {
+				AggregateAtom aggregateAtom = aggregates.get(integerValue(basicAtom.termList[0]));
+				int group = getAggregateGroup(basicAtom.termList, 2, basicAtom.termList.length);
+				if (staticAggregates.contains(aggregateAtom.getAggregateId())) {
+					newCompleteAggregateGroups.add(group);
+				}
+				thresholdAtoms.put(atomId, new ImmutableTriple<>(group, aggregateAtom.function, integerValue(basicAtom.termList[1])));
+			} else if (AGGREGATE_ELEMENT_PREDICATE_NAME.equals(predicateName)) {
+				AggregateAtom aggregateAtom = aggregates.get(integerValue(basicAtom.termList[0]));
+				int tupleStart = 1 + aggregateAtom.getGlobalElementVariables().size();
+				int group = getAggregateGroup(basicAtom.termList, 1, tupleStart);
+				Integer value = 1;
+				if (aggregateAtom.function != AggregateAtom.AggregateFunction.COUNT) {
+					// Only elements whose first term is an integer are aggregated, as in ASP-Core-2.
+					value = tupleStart < basicAtom.termList.length ? integerValue(basicAtom.termList[tupleStart]) : null;
+					// Negative weights of #sum elements were rejected when registering them.
+					if (value == null) {
+						continue;
+					}
+				}
+				elementAtoms.put(atomId, new ImmutablePair<>(group, value));
+			}
+		}
+		lastCheckedAggregateAtomId = highestAtomId;
+		return new ImmutablePair<>(thresholdAtoms, elementAtoms);
+	}
+
+	@Override
+	public Set<Integer> getCompleteAggregateGroups() {
+		if (!factsJoined) {
+			// Elements of groups grounded along with the facts may still wait for them.
+			return Collections.emptySet();
+		}
+		Set<Integer> completeGroups = newCompleteAggregateGroups;
+		newCompleteAggregateGroups = new LinkedHashSet<>();
+		return completeGroups;
+	}
+
+	/**
+	 * @return the id of the group of elements and threshold atoms of the aggregate with the id in the first term and
+	 * the values of the global variables at the given positions.
+	 */
+	private int getAggregateGroup(Term[] terms, int globalStart, int globalEnd) {
+		List<Term> key = new ArrayList<>(globalEnd - globalStart + 1);
+		key.add(terms[0]);
+		key.addAll(Arrays.asList(terms).subList(globalStart, globalEnd));
+		return aggregateGroups.computeIfAbsent(key, k -> aggregateGroups.size() + 1);
+	}
+
+	private static boolean isAggregatePredicate(Predicate predicate) {
+		String predicateName = predicate.getPredicateName();
+		return AGGREGATE_ELEMENT_PREDICATE_NAME.equals(predicateName) || AGGREGATE_THRESHOLD_PREDICATE_NAME.equals(predicateName) || AGGREGATE_PREDICATE_NAME.equals(predicateName);
+	}
+
+	private static int toInteger(Term term) {
+		try {
+			return Integer.parseInt(term.toString());
+		} catch (NumberFormatException e) {
+			throw new RuntimeException("Weight or level " + term + " of weak constraint is not an integer.", e);
+		}
+	}
+
+	@Override
+	public int registerOutsideAtom(BasicAtom atom) {
+		// The solver reports assignments of the atom, which requires a working memory for its predicate.
+		adaptWorkingMemoryForPredicate(atom.predicate);
+		return atomStore.createAtomId(atom).atomId;
+	}
+
+	@Override
+	public String atomToString(int atomId) {
+		return atomStore.getBasicAtom(new AtomId(atomId)).toString();
+	}
+
+	@Override
+	public int getMaxAtomId() {
+		// The AtomStore assigns continuous ids and 0 is no valid atom id.
+		return atomStore.getHighestAtomId().atomId;
 	}
 
 	public void printCurrentlyKnownGroundRules() {
@@ -592,51 +1200,89 @@ public void printCurrentlyKnownGroundRules() {
 
 	public void printCurrentlyKnownNoGoods() {
 		System.out.println("Printing known NoGoods:");
-		for (Map.Entry<NoGood, Integer> noGoodEntry : nogoodIdentifiers.entrySet()) {
-			System.out.println(noGoodEntry.getKey().toStringReadable(this));
+		for (int noGoodId = 0; noGoodId < noGoodArena.getIdLimit(); noGoodId++) {
+			if (noGoodArena.contains(noGoodId)) {
+				System.out.println(noGoodArena.toNoGood(noGoodId).toStringReadable(this));
+			}
 		}
 	}
 
-	private class FirstBindingAtom {
-		public NonGroundRule<BasicPredicate> rule;
-		public int firstBindingAtomPos;
-		public BasicAtom firstBindingAtom;
+	/**
+	 * A variable substitution stored as an array indexed by the slots of a {@link VariableNumbering}. Bindings are
+	 * recorded on a trail, such that joins can extend a single substitution and undo the bindings of a step when
+	 * backtracking instead of copying the substitution for every candidate instance.
+	 */
+	public class VariableSubstitution {
+		private final VariableNumbering variableNumbering;
+		private Term[] values;
+		private int[] trail;
+		private int trailSize;
 
-		public FirstBindingAtom(NonGroundRule<BasicPredicate> rule, int firstBindingAtomPos, BasicAtom firstBindingAtom) {
-			this.rule = rule;
-			this.firstBindingAtomPos = firstBindingAtomPos;
-			this.firstBindingAtom = firstBindingAtom;
+		public VariableSubstitution() {
+			this(new VariableNumbering());
 		}
-	}
 
-	public class VariableSubstitution {
-		HashMap<VariableTerm, Term> substitution = new HashMap<>();
+		VariableSubstitution(VariableNumbering variableNumbering) {
+			this.variableNumbering = variableNumbering;
+			this.values = new Term[variableNumbering.size()];
+			this.trail = new int[variableNumbering.size()];
+		}
 
-		public VariableSubstitution() {
+		/**
+		 * Creates a substitution binding the variable in each slot to the term at the same position of values, the
+		 * array is used as is.
+		 */
+		VariableSubstitution(VariableNumbering variableNumbering, Term[] values) {
+			this.variableNumbering = variableNumbering;
+			this.values = values;
+			this.trail = new int[values.length];
 		}
 
 		public VariableSubstitution(VariableSubstitution clone) {
-			this.substitution = new HashMap<>(clone.substitution);
+			this.variableNumbering = clone.variableNumbering;
+			this.values = clone.values.clone();
+			this.trail = clone.trail.clone();
+			this.trailSize = clone.trailSize;
 		}
 
-		public void replaceSubstitution(VariableSubstitution other) {
-			this.substitution = other.substitution;
+		/**
+		 * Binds the variable to the given term, the variable must not be bound already.
+		 */
+		public void put(VariableTerm variableTerm, Term term) {
+			bind(variableNumbering.getOrAssignSlot(variableTerm), term);
 		}
 
 		/**
-		 * Prints the variable substitution in a uniform way (sorted by variable names).
-		 *
-		 * @return
+		 * Returns the term bound to the variable in the given slot, null if the variable is not bound.
 		 */
-		public String toUniformString() {
-			List<VariableTerm> variablesInSubstitution = new ArrayList<>(substitution.size());
-			variablesInSubstitution.addAll(substitution.keySet());
-			Collections.sort(variablesInSubstitution); // Hint: Maybe this is a performance issue later, better have sorted/well-defined insertion into VariableSubstitution.
-			String ret = "";
-			for (VariableTerm variableTerm : variablesInSubstitution) {
-				ret += "_" + variableTerm + ":" + substitution.get(variableTerm);
+		Term get(int slot) {
+			return slot < values.length ? values[slot] : null;
+		}
+
+		void bind(int slot, Term term) {
+			if (slot >= values.length) {
+				// Only substitutions not belonging to a rule grow.
+				values = Arrays.copyOf(values, variableNumbering.size());
+				trail = Arrays.copyOf(trail, variableNumbering.size());
+			}
+			values[slot] = term;
+			trail[trailSize++] = slot;
+		}
+
+		/**
+		 * Returns the number of bindings made so far, which can be passed to {@link #undo(int)} later on.
+		 */
+		int getTrailSize() {
+			return trailSize;
+		}
+
+		/**
+		 * Removes all bindings made after the trail had the given size.
+		 */
+		void undo(int trailSize) {
+			while (this.trailSize > trailSize) {
+				values[trail[--this.trailSize]] = null;
 			}
-			return ret;
 		}
 
 		@Override
@@ -650,17 +1296,31 @@ public boolean equals(Object o) {
 
 			VariableSubstitution that = (VariableSubstitution) o;
 
-			return substitution != null ? substitution.equals(that.substitution) : that.substitution == null;
-
+			if (variableNumbering != that.variableNumbering) {
+				return false;
+			}
+			for (int i = 0; i < Math.max(values.length, that.values.length); i++) {
+				if (get(i) != that.get(i)) {
+					return false;
+				}
+			}
+			return true;
 		}
 
 		@Override
 		public int hashCode() {
-			return substitution != null ? substitution.hashCode() : 0;
+			int hashCode = 0;
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != null) {
+					hashCode = 31 * hashCode + values[i].hashCode();
+				}
+			}
+			return hashCode;
 		}
 
 		public Term eval(VariableTerm variableTerm) {
-			return this.substitution.get(variableTerm);
+			int slot = variableNumbering.getSlot(variableTerm);
+			return slot == -1 ? null : get(slot);
 		}
 	}
 }
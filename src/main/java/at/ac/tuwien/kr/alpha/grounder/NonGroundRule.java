@@ -2,6 +2,7 @@
 
 import at.ac.tuwien.kr.alpha.Util;
 import at.ac.tuwien.kr.alpha.common.*;
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedAggregate;
 import at.ac.tuwien.kr.alpha.grounder.parser.ParsedAtom;
 import at.ac.tuwien.kr.alpha.grounder.parser.ParsedBuiltinAtom;
 import at.ac.tuwien.kr.alpha.grounder.parser.ParsedRule;
@@ -21,9 +22,19 @@
 	private final List<Atom> bodyAtomsPositive;
 	private final List<Atom> bodyAtomsNegative;
 	private final BasicAtom headAtom;
+	private final boolean isChoice;
+	private final VariableNumbering variableNumbering = new VariableNumbering();
 
 	public NonGroundRule(int ruleId, List<Atom> bodyAtomsPositive, List<Atom> bodyAtomsNegative, BasicAtom headAtom) {
+		this(ruleId, bodyAtomsPositive, bodyAtomsNegative, headAtom, false);
+	}
+
+	/**
+	 * @param isChoice whether the head atom may be chosen if the body holds instead of being derived.
+	 */
+	public NonGroundRule(int ruleId, List<Atom> bodyAtomsPositive, List<Atom> bodyAtomsNegative, BasicAtom headAtom, boolean isChoice) {
 		this.ruleId = ruleId;
+		this.isChoice = isChoice;
 
 		// Sort for better join order.
 		this.bodyAtomsPositive = sortAtoms(bodyAtomsPositive);
@@ -35,6 +46,17 @@ public NonGroundRule(int ruleId, List<Atom> bodyAtomsPositive, List<Atom> bodyAt
 
 		this.headAtom = headAtom;
 
+		// Number all variables of the rule, such that its variable substitutions can be stored in arrays.
+		for (Atom atom : this.bodyAtomsPositive) {
+			numberVariables(atom);
+		}
+		for (Atom atom : this.bodyAtomsNegative) {
+			numberVariables(atom);
+		}
+		if (headAtom != null) {
+			numberVariables(headAtom);
+		}
+
 		if (!isSafe()) {
 			throw new RuntimeException("Encountered not safe rule: " + toString()
 				+ "\nNotice: A rule is considered safe if all variables occurring in negative literals, builtin atoms, and the head of the rule also occurr in some positive litera.");
@@ -42,37 +64,82 @@ public NonGroundRule(int ruleId, List<Atom> bodyAtomsPositive, List<Atom> bodyAt
 	}
 
 	public static NonGroundRule<BasicPredicate> constructNonGroundRule(IntIdGenerator intIdGenerator, ParsedRule parsedRule) {
+		return constructNonGroundRule(intIdGenerator, parsedRule, false);
+	}
+
+	/**
+	 * @param isChoice whether the rule is (an element of) a choice rule, whose head is chosen instead of derived.
+	 */
+	public static NonGroundRule<BasicPredicate> constructNonGroundRule(IntIdGenerator intIdGenerator, ParsedRule parsedRule, boolean isChoice) {
 		final List<Atom> pos = new ArrayList<>(parsedRule.body.size() / 2);
 		final List<Atom> neg = new ArrayList<>(parsedRule.body.size() / 2);
 
+		// Construct head if the given parsedRule is no constraint
+		final BasicAtom head = parsedRule.head != null ? BasicAtom.fromParsedAtom(parsedRule.head) : null;
+
+		final Set<VariableTerm> outsideVariables = new HashSet<>();
+		if (head != null) {
+			outsideVariables.addAll(head.getOccurringVariables());
+		}
 		for (ParsedAtom parsedAtom : parsedRule.body) {
+			if (parsedAtom instanceof ParsedAggregate) {
+				continue;
+			}
+			final Atom atom;
 			if (parsedAtom instanceof ParsedBuiltinAtom) {
-				pos.add(new BuiltinAtom((ParsedBuiltinAtom) parsedAtom));
+				atom = new BuiltinAtom((ParsedBuiltinAtom) parsedAtom);
+			} else {
+				atom = BasicAtom.fromParsedAtom(parsedAtom);
+			}
+			outsideVariables.addAll(atom.getOccurringVariables());
+			if (parsedAtom.isNegated) {
+				neg.add(atom);
 			} else {
-				final BasicAtom basicAtom = BasicAtom.fromParsedAtom(parsedAtom);
+				pos.add(atom);
+			}
+		}
+		// Aggregates are added last, their global variables are those also occurring in the rest of the rule.
+		for (ParsedAtom parsedAtom : parsedRule.body) {
+			if (parsedAtom instanceof ParsedAggregate) {
+				final AggregateAtom aggregateAtom = new AggregateAtom(intIdGenerator.getNextId(), (ParsedAggregate) parsedAtom, outsideVariables);
 				if (parsedAtom.isNegated) {
-					neg.add(basicAtom);
+					neg.add(aggregateAtom);
 				} else {
-					pos.add(basicAtom);
+					pos.add(aggregateAtom);
 				}
 			}
 		}
 
-		// Construct head if the given parsedRule is no constraint
-		final BasicAtom head = parsedRule.head != null ? BasicAtom.fromParsedAtom(parsedRule.head) : null;
-
 		return new NonGroundRule<>(
 			intIdGenerator.getNextId(),
 			pos,
 			neg,
-			head
+			head,
+			isChoice
 		);
 	}
 
+	private void numberVariables(Atom atom) {
+		for (VariableTerm variable : atom.getOccurringVariables()) {
+			variableNumbering.getOrAssignSlot(variable);
+		}
+	}
+
 	public int getRuleId() {
 		return ruleId;
 	}
 
+	/**
+	 * @return true iff the head atom of this rule may be chosen if the body holds, false if it is derived.
+	 */
+	public boolean isChoice() {
+		return isChoice;
+	}
+
+	VariableNumbering getVariableNumbering() {
+		return variableNumbering;
+	}
+
 	/**
 	 *
 	 * @return a list of all ordinary predicates occurring in the rule (may contain duplicates, does not contain builtin atoms).
@@ -108,7 +175,8 @@ private boolean isSafe() {
 		for (Atom posAtom : bodyAtomsPositive) {
 			if (posAtom instanceof BasicAtom) {
 				positiveVariables.addAll(posAtom.getOccurringVariables());
-			} else if (posAtom instanceof BuiltinAtom) {
+			} else {
+				// Builtin atoms and aggregates bind no variables.
 				builtinVariables.addAll(posAtom.getOccurringVariables());
 			}
 		}
@@ -144,12 +212,18 @@ private boolean isSafe() {
 	private List<Atom> sortAtoms(List<Atom> atoms) {
 		Set<SortingBodyComponent> components = new HashSet<>();
 		Set<BuiltinAtom> builtinAtoms = new HashSet<>();
+		List<AggregateAtom> aggregateAtoms = new ArrayList<>();
 		for (Atom atom : atoms) {
 			if (atom instanceof BuiltinAtom) {
 				// Sort out builtin atoms (we consider them as not creating new bindings)
 				builtinAtoms.add((BuiltinAtom) atom);
 				continue;
 			}
+			if (atom instanceof AggregateAtom) {
+				// Aggregates create no bindings either.
+				aggregateAtoms.add((AggregateAtom) atom);
+				continue;
+			}
 			final Set<SortingBodyComponent> hits = new HashSet<>();
 
 			// For each variable
@@ -192,6 +266,7 @@ private List<Atom> sortAtoms(List<Atom> atoms) {
 			sortedPositiveBodyAtoms.addAll(component.atomSequence);
 		}
 		sortedPositiveBodyAtoms.addAll(builtinAtoms);	// Put builtin atoms after positive literals and before negative ones.
+		sortedPositiveBodyAtoms.addAll(aggregateAtoms);
 		return sortedPositiveBodyAtoms;
 	}
 
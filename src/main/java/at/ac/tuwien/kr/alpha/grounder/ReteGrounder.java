@@ -1,63 +1,254 @@
 package at.ac.tuwien.kr.alpha.grounder;
 
-import at.ac.tuwien.kr.alpha.common.AnswerSet;
-import at.ac.tuwien.kr.alpha.common.NoGood;
-import at.ac.tuwien.kr.alpha.common.OrdinaryAssignment;
-import at.ac.tuwien.kr.alpha.common.Predicate;
+import at.ac.tuwien.kr.alpha.common.*;
 import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
-import at.ac.tuwien.kr.alpha.grounder.rete.RetePredicate;
-import at.ac.tuwien.kr.alpha.solver.Assignment;
-import org.apache.commons.lang3.tuple.Pair;
+import at.ac.tuwien.kr.alpha.grounder.rete.TupleIndex;
+import at.ac.tuwien.kr.alpha.grounder.rete.TupleStore;
 
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
+ * A grounder that keeps all partial matches of rule bodies in a Rete network. For each rule, the positive body atoms
+ * are joined from left to right: every body atom has an alpha node, which selects the instances of its predicate that
+ * match the atom, and every prefix of the body has a beta memory holding the substitutions that satisfy the prefix.
+ * Both are indexed on the variables the atom shares with the prefix before it. A new instance is matched against all
+ * atoms of its predicate and only the resulting delta is joined with the memories, hence nothing is joined twice.
+ *
+ * Ground rules are translated into NoGoods exactly as by the {@link NaiveGrounder}. As there, only instances that are
+ * true or must-be-true are joined, and instances are never retracted.
  * Copyright (c) 2016, the Alpha Team.
  */
-public class ReteGrounder extends AbstractGrounder {
-	private ParsedProgram programRules;
+public class ReteGrounder extends NaiveGrounder {
+	private final HashMap<Predicate, TupleStore> tupleStores = new HashMap<>();
+	private final HashMap<Predicate, List<AlphaNode>> alphaNodes = new HashMap<>();
+	private Map<Integer, NoGood> newNoGoods = new HashMap<>();
+	private boolean outputFactNoGoods = true;
 
-	private byte[] recentTruthAssignments;
-
-	private RetePredicate predicates;
+	public ReteGrounder(ParsedProgram program) {
+		this(program, p -> true);
+	}
 
 	public ReteGrounder(ParsedProgram program, java.util.function.Predicate<Predicate> filter) {
 		super(program, filter);
+		for (NonGroundRule<BasicPredicate> rule : rulesFromProgram) {
+			// Ground rules are already treated together with the facts.
+			if (!rule.isGround()) {
+				addToNetwork(rule);
+			}
+		}
 	}
 
-	@Override
-	public AnswerSet assignmentToAnswerSet(Iterable<Integer> trueAtoms) {
-		return null;
+	private void addToNetwork(NonGroundRule<BasicPredicate> rule) {
+		VariableNumbering variableNumbering = rule.getVariableNumbering();
+		List<BasicAtom> atoms = new ArrayList<>();
+		List<BuiltinAtom> builtinAtoms = new ArrayList<>();
+		for (Atom atom : rule.getBodyAtomsPositive()) {
+			if (atom instanceof BuiltinAtom) {
+				builtinAtoms.add((BuiltinAtom) atom);
+			} else if (atom instanceof BasicAtom) {
+				atoms.add((BasicAtom) atom);
+			}
+		}
+
+		// Determine for each atom the variables it shares with the atoms before it and those it binds first.
+		Set<VariableTerm> boundVariables = new HashSet<>();
+		int[][] keySlots = new int[atoms.size()][];
+		int[][] newSlots = new int[atoms.size()][];
+		List<List<BuiltinAtom>> builtinsAtLevel = new ArrayList<>();
+		for (int level = 0; level < atoms.size(); level++) {
+			Set<VariableTerm> atomVariables = new LinkedHashSet<>(atoms.get(level).getOccurringVariables());
+			List<Integer> key = new ArrayList<>();
+			List<Integer> bound = new ArrayList<>();
+			for (VariableTerm variable : atomVariables) {
+				(boundVariables.contains(variable) ? key : bound).add(variableNumbering.getSlot(variable));
+			}
+			keySlots[level] = key.stream().mapToInt(i -> i).toArray();
+			newSlots[level] = bound.stream().mapToInt(i -> i).toArray();
+			boundVariables.addAll(atomVariables);
+
+			// Builtins are evaluated as soon as all their variables are bound.
+			List<BuiltinAtom> evaluableBuiltins = new ArrayList<>();
+			for (Iterator<BuiltinAtom> iterator = builtinAtoms.iterator(); iterator.hasNext();) {
+				BuiltinAtom builtinAtom = iterator.next();
+				if (boundVariables.containsAll(builtinAtom.getOccurringVariables())) {
+					evaluableBuiltins.add(builtinAtom);
+					iterator.remove();
+				}
+			}
+			builtinsAtLevel.add(evaluableBuiltins);
+		}
+
+		// Create the nodes from the last atom to the first one, such that each beta memory knows its successor.
+		AlphaNode nextAlphaNode = null;
+		AlphaNode[] ruleAlphaNodes = new AlphaNode[atoms.size()];
+		for (int level = atoms.size() - 1; level >= 0; level--) {
+			BetaMemory betaMemory = new BetaMemory(rule, builtinsAtLevel.get(level), nextAlphaNode,
+				nextAlphaNode == null ? null : keySlots[level + 1], nextAlphaNode == null ? null : newSlots[level + 1]);
+			AlphaNode alphaNode = new AlphaNode(atoms.get(level), variableNumbering, betaMemory, level == 0 ? null : keySlots[level], newSlots[level]);
+			if (nextAlphaNode != null) {
+				nextAlphaNode.previous = betaMemory;
+			}
+			ruleAlphaNodes[level] = alphaNode;
+			nextAlphaNode = alphaNode;
+		}
+
+		for (AlphaNode alphaNode : ruleAlphaNodes) {
+			Predicate predicate = alphaNode.atom.predicate;
+			tupleStores.putIfAbsent(predicate, new TupleStore(predicate.getArity()));
+			alphaNodes.computeIfAbsent(predicate, p -> new ArrayList<>()).add(alphaNode);
+		}
 	}
 
 	@Override
 	public Map<Integer, NoGood> getNoGoods() {
-		return null;
+		// First call, output all NoGoods from facts.
+		if (outputFactNoGoods) {
+			outputFactNoGoods = false;
+			return noGoodsFromFacts();
+		}
+		// The facts were activated by the update following the first call, hence all rules waiting for them only are
+		// grounded now.
+		factsJoined = true;
+		Map<Integer, NoGood> currentNoGoods = newNoGoods;
+		newNoGoods = new HashMap<>();
+		return currentNoGoods;
 	}
 
 	@Override
-	public Pair<Map<Integer, Integer>, Map<Integer, Integer>> getChoiceAtoms() {
-		return null;
+	public void updateAssignment(Iterator<OrdinaryAssignment> it) {
+		while (it.hasNext()) {
+			OrdinaryAssignment assignment = it.next();
+			// Only positive body atoms are joined, hence atoms assigned false need not be recorded.
+			if (!assignment.getTruthValue()) {
+				continue;
+			}
+			BasicAtom basicAtom = atomStore.getBasicAtom(new AtomId(assignment.getAtom()));
+			List<AlphaNode> nodes = alphaNodes.get(basicAtom.predicate);
+			if (nodes == null || !tupleStores.get(basicAtom.predicate).add(basicAtom.termList)) {
+				// The predicate occurs in no rule body or the instance is already known.
+				continue;
+			}
+			for (AlphaNode node : nodes) {
+				// Between activations, all ground rules found so far are complete, the solver stops on an exhausted
+				// budget without using the incomplete grounding.
+				if (isBudgetExhausted()) {
+					return;
+				}
+				node.activate(basicAtom.termList);
+			}
+		}
 	}
 
-	@Override
-	public void updateAssignment(Iterator<OrdinaryAssignment> it) {
+	private static Term[] merge(Term[] token, Term[] match, int[] newSlots) {
+		Term[] merged = token.clone();
+		for (int slot : newSlots) {
+			merged[slot] = match[slot];
+		}
+		return merged;
 	}
 
-	@Override
-	public void forgetAssignment(int[] atomIds) {
+	/**
+	 * Selects the instances of a predicate that match a body atom and joins them with the beta memory of the atoms
+	 * before it. Matches are represented by substitutions over all slots of the rule binding only the variables of the
+	 * atom.
+	 */
+	private class AlphaNode {
+		final BasicAtom atom;
+		final VariableNumbering variableNumbering;
+		final int[] termSlots;
+		final BetaMemory target;
+		final int[] newSlots;
+		final TupleIndex matches;
+		BetaMemory previous;
 
-	}
+		AlphaNode(BasicAtom atom, VariableNumbering variableNumbering, BetaMemory target, int[] keySlots, int[] newSlots) {
+			this.atom = atom;
+			this.variableNumbering = variableNumbering;
+			this.target = target;
+			this.newSlots = newSlots;
+			this.matches = keySlots == null ? null : new TupleIndex(keySlots);
+			this.termSlots = new int[atom.termList.length];
+			for (int i = 0; i < termSlots.length; i++) {
+				Term term = atom.termList[i];
+				termSlots[i] = term instanceof VariableTerm ? variableNumbering.getSlot((VariableTerm) term) : -1;
+			}
+		}
 
-	@Override
-	public String atomToString(int atomId) {
-		return null;
+		void activate(Term[] instance) {
+			Term[] match = match(instance);
+			if (match == null) {
+				return;
+			}
+			if (previous == null) {
+				// First atom of the rule body.
+				target.activate(match);
+				return;
+			}
+			matches.add(match);
+			for (Term[] token : previous.tokens.get(match)) {
+				target.activate(merge(token, match, newSlots));
+			}
+		}
+
+		private Term[] match(Term[] instance) {
+			Term[] match = new Term[variableNumbering.size()];
+			VariableSubstitution variableSubstitution = null;
+			for (int i = 0; i < instance.length; i++) {
+				int slot = termSlots[i];
+				if (slot != -1) {
+					if (match[slot] == null) {
+						match[slot] = instance[i];
+					} else if (match[slot] != instance[i]) {
+						return null;
+					}
+				} else if (atom.termList[i] != instance[i]) {
+					if (variableSubstitution == null) {
+						variableSubstitution = new VariableSubstitution(variableNumbering, match);
+					}
+					if (!unifyTerms(atom.termList[i], instance[i], variableSubstitution)) {
+						return null;
+					}
+				}
+			}
+			return match;
+		}
 	}
 
-	@Override
-	public List<Integer> getUnassignedAtoms(Assignment assignment) {
-		return null;
+	/**
+	 * Holds all substitutions satisfying a prefix of the positive rule body (and the builtins whose variables it binds),
+	 * and joins new ones with the matches of the next body atom. Complete substitutions are translated into NoGoods.
+	 */
+	private class BetaMemory {
+		final NonGroundRule<BasicPredicate> rule;
+		final List<BuiltinAtom> builtinAtoms;
+		final AlphaNode next;
+		final int[] nextNewSlots;
+		final TupleIndex tokens;
+
+		BetaMemory(NonGroundRule<BasicPredicate> rule, List<BuiltinAtom> builtinAtoms, AlphaNode next, int[] nextKeySlots, int[] nextNewSlots) {
+			this.rule = rule;
+			this.builtinAtoms = builtinAtoms;
+			this.next = next;
+			this.nextNewSlots = nextNewSlots;
+			this.tokens = next == null ? null : new TupleIndex(nextKeySlots);
+		}
+
+		void activate(Term[] token) {
+			VariableSubstitution variableSubstitution = new VariableSubstitution(rule.getVariableNumbering(), token);
+			for (BuiltinAtom builtinAtom : builtinAtoms) {
+				if (!BuiltinAtom.evaluateBuiltinAtom(builtinAtom, variableSubstitution)) {
+					return;
+				}
+			}
+			if (next == null) {
+				// Complete substitution of the rule body.
+				registerNewNoGoods(generateNoGoodsFromGroundSubstitution(rule, variableSubstitution), newNoGoods);
+				return;
+			}
+			tokens.add(token);
+			for (Term[] match : next.matches.get(token)) {
+				next.target.activate(merge(token, match, nextNewSlots));
+			}
+		}
 	}
 }
@@ -41,7 +41,7 @@ public static Term groundTerm(Term nonGroundTerm, NaiveGrounder.VariableSubstitu
 		if (nonGroundTerm instanceof ConstantTerm) {
 			return nonGroundTerm;
 		} else if (nonGroundTerm instanceof VariableTerm) {
-			Term groundTerm = variableSubstitution.substitution.get(nonGroundTerm);
+			Term groundTerm = variableSubstitution.eval((VariableTerm) nonGroundTerm);
 			if (groundTerm == null) {
 				return nonGroundTerm;	// If variable is not substituted, keep term as is.
 				//throw new RuntimeException("SubstitutionUtil encountered variable without a substitution given: " + nonGroundTerm);
@@ -100,8 +100,8 @@ public static String groundAndPrintRule(NonGroundRule<? extends Predicate> rule,
 	}
 
 	private static String groundAtomToString(Atom bodyAtom, boolean isNegative, NaiveGrounder.VariableSubstitution substitution, boolean isFirst) {
-		if (bodyAtom instanceof BuiltinAtom) {
-			return (isFirst ? ", " : "") + bodyAtom.toString();
+		if (!(bodyAtom instanceof BasicAtom)) {
+			return (isFirst ? ", " : "") + (isNegative ? "not " : "") + bodyAtom.toString();
 		} else {
 			BasicAtom groundBodyAtom = substitute((BasicAtom) bodyAtom, substitution).getRight();
 			return  (isFirst ? ", " : "") + (isNegative ? "not " : "") + groundBodyAtom.toString();
@@ -0,0 +1,40 @@
+package at.ac.tuwien.kr.alpha.grounder;
+
+import at.ac.tuwien.kr.alpha.common.VariableTerm;
+
+import java.util.HashMap;
+
+/**
+ * Assigns consecutive slots to variables, such that a variable substitution can be stored as an array indexed by
+ * slot. Each non-ground rule numbers the variables occurring in it once; substitutions created without a rule number
+ * their variables on demand.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class VariableNumbering {
+	private final HashMap<VariableTerm, Integer> slots = new HashMap<>();
+
+	/**
+	 * Returns the slot of the given variable, -1 if the variable has no slot.
+	 */
+	int getSlot(VariableTerm variable) {
+		Integer slot = slots.get(variable);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Returns the slot of the given variable, assigning the next free slot if the variable has none.
+	 */
+	int getOrAssignSlot(VariableTerm variable) {
+		Integer slot = slots.get(variable);
+		if (slot != null) {
+			return slot;
+		}
+		final int newSlot = slots.size();
+		slots.put(variable, newSlot);
+		return newSlot;
+	}
+
+	int size() {
+		return slots.size();
+	}
+}
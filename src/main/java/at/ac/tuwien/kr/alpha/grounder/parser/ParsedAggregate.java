@@ -0,0 +1,51 @@
+package at.ac.tuwien.kr.alpha.grounder.parser;
+
+import java.util.ArrayList;
+
+/**
+ * An aggregate "lowerTerm lowerOp #function{elements} upperOp upperTerm" in the body of a rule, at least one of its
+ * guards is given. The aggregate is negated if it occurs under default negation.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class ParsedAggregate extends ParsedAtom {
+	public enum FUNCTION {COUNT, SUM, MIN, MAX}
+
+	public FUNCTION function;
+	public ParsedTerm lowerTerm;
+	public ParsedBuiltinAtom.BINOP lowerOp;
+	public ParsedTerm upperTerm;
+	public ParsedBuiltinAtom.BINOP upperOp;
+	public ArrayList<Element> elements;
+
+	/**
+	 * An element "terms : literals" of an aggregate.
+	 */
+	public static class Element extends CommonParsedObject {
+		public ArrayList<ParsedTerm> terms;
+		public ArrayList<ParsedAtom> literals;
+
+		public Element() {
+			terms = new ArrayList<>();
+			literals = new ArrayList<>();
+		}
+
+		@Override
+		public String toString() {
+			return terms + " : " + literals;
+		}
+	}
+
+	public ParsedAggregate() {
+		this.predicate = "#aggregate";
+		this.terms = new ArrayList<>();
+		this.arity = 0;
+		this.elements = new ArrayList<>();
+	}
+
+	@Override
+	public String toString() {
+		return (isNegated ? " not " : "") + (lowerTerm != null ? lowerTerm + " " + lowerOp + " " : "")
+			+ "#" + function.toString().toLowerCase() + elements
+			+ (upperTerm != null ? " " + upperOp + " " + upperTerm : "");
+	}
+}
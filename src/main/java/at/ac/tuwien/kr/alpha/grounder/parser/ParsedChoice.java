@@ -0,0 +1,46 @@
+package at.ac.tuwien.kr.alpha.grounder.parser;
+
+import java.util.ArrayList;
+
+/**
+ * A choice "lowerTerm lowerOp {elements} upperOp upperTerm" in the head of a rule, its guards are optional and bound
+ * the number of chosen element atoms.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class ParsedChoice extends ParsedAtom {
+	public ParsedTerm lowerTerm;
+	public ParsedBuiltinAtom.BINOP lowerOp;
+	public ParsedTerm upperTerm;
+	public ParsedBuiltinAtom.BINOP upperOp;
+	public ArrayList<Element> elements;
+
+	/**
+	 * An element "atom : literals" of a choice, the atom may be chosen if the literals hold.
+	 */
+	public static class Element extends CommonParsedObject {
+		public ParsedAtom atom;
+		public ArrayList<ParsedAtom> literals;
+
+		public Element() {
+			literals = new ArrayList<>();
+		}
+
+		@Override
+		public String toString() {
+			return atom + " : " + literals;
+		}
+	}
+
+	public ParsedChoice() {
+		this.predicate = "#choice";
+		this.terms = new ArrayList<>();
+		this.arity = 0;
+		this.elements = new ArrayList<>();
+	}
+
+	@Override
+	public String toString() {
+		return (lowerTerm != null ? lowerTerm + " " + lowerOp + " " : "") + elements
+			+ (upperTerm != null ? " " + upperOp + " " + upperTerm : "");
+	}
+}
@@ -9,10 +9,12 @@ public class ParsedProgram extends CommonParsedObject {
 	public ArrayList<ParsedRule> rules;
 	public ArrayList<ParsedFact> facts;
 	public ArrayList<ParsedConstraint> constraints;
+	public ArrayList<ParsedWeakConstraint> weakConstraints;
 
 	public ParsedProgram() {
 		rules = new ArrayList<>();
 		facts = new ArrayList<>();
 		constraints = new ArrayList<>();
+		weakConstraints = new ArrayList<>();
 	}
 }
@@ -69,6 +69,8 @@ public CommonParsedObject visitProgram(ASPCore2Parser.ProgramContext ctx) {
 				program.constraints.add((ParsedConstraint) parsedObject);
 			} else if (parsedObject instanceof ParsedRule) {
 				program.rules.add((ParsedRule) parsedObject);
+			} else if (parsedObject instanceof ParsedWeakConstraint) {
+				program.weakConstraints.add((ParsedWeakConstraint) parsedObject);
 			} else {
 				throw new UnsupportedOperationException("Unknown parsed object encountered during program parsing: " + parsedObject);
 			}
@@ -95,7 +97,9 @@ public CommonParsedObject visitBody(ASPCore2Parser.BodyContext ctx) {
 			ParsedAtom nafLiteral = (ParsedAtom) visitNaf_literal(ctx.naf_literal());
 			bodyList.objects.add(nafLiteral);
 		} else {
-			notSupportedSyntax(ctx.aggregate());
+			ParsedAggregate aggregate = (ParsedAggregate) visitAggregate(ctx.aggregate());
+			aggregate.isNegated = ctx.NAF() != null;
+			bodyList.objects.add(aggregate);
 		}
 		if (ctx.body() != null) {
 			bodyList.objects.addAll(((ListOfParsedObjects) visitBody(ctx.body())).objects);
@@ -130,6 +134,17 @@ public CommonParsedObject visitDisjunction(ASPCore2Parser.DisjunctionContext ctx
 	@Override
 	public CommonParsedObject visitStatement_rule(ASPCore2Parser.Statement_ruleContext ctx) {
 		// head (CONS body?)? DOT
+		if (ctx.head().choice() != null) {
+			// choice rule, possibly without body
+			ParsedRule rule = new ParsedRule();
+			rule.head = (ParsedAtom) visitChoice(ctx.head().choice());
+			if (ctx.body() != null) {
+				for (CommonParsedObject atom : ((ListOfParsedObjects) visitBody(ctx.body())).objects) {
+					rule.body.add((ParsedAtom) atom);
+				}
+			}
+			return rule;
+		}
 		if (ctx.body() == null) {
 			// fact
 			ParsedFact fact = new ParsedFact();
@@ -151,8 +166,32 @@ public CommonParsedObject visitStatement_rule(ASPCore2Parser.Statement_ruleConte
 
 	@Override
 	public CommonParsedObject visitStatement_weightConstraint(ASPCore2Parser.Statement_weightConstraintContext ctx) {
-		notSupportedSyntax(ctx);
-		return null;
+		// WCONS body? DOT SQUARE_OPEN weight_at_level SQUARE_CLOSE
+		ParsedWeakConstraint weakConstraint = new ParsedWeakConstraint();
+		if (ctx.body() != null) {
+			for (CommonParsedObject atom :
+				((ListOfParsedObjects) visitBody(ctx.body())).objects) {
+				weakConstraint.body.add((ParsedAtom) atom);
+			}
+		}
+		// weight_at_level : term (AT term)? (COMMA terms)?;
+		ASPCore2Parser.Weight_at_levelContext weightAtLevel = ctx.weight_at_level();
+		weakConstraint.weight = (ParsedTerm) visit(weightAtLevel.term(0));
+		if (weightAtLevel.AT() != null) {
+			weakConstraint.level = (ParsedTerm) visit(weightAtLevel.term(1));
+		} else {
+			ParsedConstant level = new ParsedConstant();
+			level.type = ParsedConstant.TYPE.NUMBER;
+			level.content = "0";
+			weakConstraint.level = level;
+		}
+		if (weightAtLevel.terms() != null) {
+			for (CommonParsedObject term :
+				((ListOfParsedObjects) visitTerms(weightAtLevel.terms())).objects) {
+				weakConstraint.terms.add((ParsedTerm) term);
+			}
+		}
+		return weakConstraint;
 	}
 
 	@Override
@@ -166,25 +205,138 @@ public CommonParsedObject visitBuiltin_atom(ASPCore2Parser.Builtin_atomContext c
 		// builtin_atom : term binop term;
 		ParsedTerm left = (ParsedTerm) visit(ctx.term(0));
 		ParsedTerm right = (ParsedTerm) visit(ctx.term(1));
-		ParsedBuiltinAtom.BINOP binop;
-		ASPCore2Parser.BinopContext parsedBinop = ctx.binop();
+		return new ParsedBuiltinAtom(left, parseBinop(ctx.binop()), right);
+	}
+
+	private ParsedBuiltinAtom.BINOP parseBinop(ASPCore2Parser.BinopContext parsedBinop) {
 		// binop : EQUAL | UNEQUAL | LESS | GREATER | LESS_OR_EQ | GREATER_OR_EQ;
 		if (parsedBinop.EQUAL() != null) {
-			binop = ParsedBuiltinAtom.BINOP.EQUAL;
+			return ParsedBuiltinAtom.BINOP.EQUAL;
 		} else if (parsedBinop.UNEQUAL() != null) {
-			binop = ParsedBuiltinAtom.BINOP.UNEQUAL;
+			return ParsedBuiltinAtom.BINOP.UNEQUAL;
 		} else if (parsedBinop.LESS() != null) {
-			binop = ParsedBuiltinAtom.BINOP.LESS;
+			return ParsedBuiltinAtom.BINOP.LESS;
 		} else if (parsedBinop.GREATER() != null) {
-			binop = ParsedBuiltinAtom.BINOP.GREATER;
+			return ParsedBuiltinAtom.BINOP.GREATER;
 		} else if (parsedBinop.LESS_OR_EQ() != null) {
-			binop = ParsedBuiltinAtom.BINOP.LESS_OR_EQ;
+			return ParsedBuiltinAtom.BINOP.LESS_OR_EQ;
 		} else if (parsedBinop.GREATER_OR_EQ() != null) {
-			binop = ParsedBuiltinAtom.BINOP.GREATER_OR_EQ;
+			return ParsedBuiltinAtom.BINOP.GREATER_OR_EQ;
 		} else {
 			throw new RuntimeException("Unknown binop encountered.");
 		}
-		return new ParsedBuiltinAtom(left, binop, right);
+	}
+
+	@Override
+	public CommonParsedObject visitChoice(ASPCore2Parser.ChoiceContext ctx) {
+		// choice : (lowerTerm=term lowerOp=binop?)? CURLY_OPEN choice_elements? CURLY_CLOSE (upperOp=binop? upperTerm=term)?;
+		ParsedChoice choice = new ParsedChoice();
+		// Omitted comparison operators are <=, as in "1 {a; b} 1".
+		if (ctx.lowerTerm != null) {
+			choice.lowerTerm = (ParsedTerm) visit(ctx.lowerTerm);
+			choice.lowerOp = ctx.lowerOp != null ? parseBinop(ctx.lowerOp) : ParsedBuiltinAtom.BINOP.LESS_OR_EQ;
+		}
+		if (ctx.upperTerm != null) {
+			choice.upperTerm = (ParsedTerm) visit(ctx.upperTerm);
+			choice.upperOp = ctx.upperOp != null ? parseBinop(ctx.upperOp) : ParsedBuiltinAtom.BINOP.LESS_OR_EQ;
+		}
+		// choice_elements : choice_element (SEMICOLON choice_elements)?;
+		for (ASPCore2Parser.Choice_elementsContext elements = ctx.choice_elements(); elements != null; elements = elements.choice_elements()) {
+			choice.elements.add((ParsedChoice.Element) visitChoice_element(elements.choice_element()));
+		}
+		return choice;
+	}
+
+	@Override
+	public CommonParsedObject visitChoice_element(ASPCore2Parser.Choice_elementContext ctx) {
+		// choice_element : classical_literal (COLON naf_literals?)?;
+		ParsedChoice.Element element = new ParsedChoice.Element();
+		element.atom = (ParsedAtom) visitClassical_literal(ctx.classical_literal());
+		// naf_literals : naf_literal (COMMA naf_literals)?;
+		for (ASPCore2Parser.Naf_literalsContext literals = ctx.naf_literals(); literals != null; literals = literals.naf_literals()) {
+			element.literals.add((ParsedAtom) visitNaf_literal(literals.naf_literal()));
+		}
+		return element;
+	}
+
+	@Override
+	public CommonParsedObject visitAggregate(ASPCore2Parser.AggregateContext ctx) {
+		// aggregate : (term binop)? aggregate_function CURLY_OPEN aggregate_elements CURLY_CLOSE (binop term)?;
+		ParsedAggregate aggregate = new ParsedAggregate();
+		// aggregate_function : AGGREGATE_COUNT | AGGREGATE_MAX | AGGREGATE_MIN | AGGREGATE_SUM;
+		ASPCore2Parser.Aggregate_functionContext function = ctx.aggregate_function();
+		if (function.AGGREGATE_COUNT() != null) {
+			aggregate.function = ParsedAggregate.FUNCTION.COUNT;
+		} else if (function.AGGREGATE_SUM() != null) {
+			aggregate.function = ParsedAggregate.FUNCTION.SUM;
+		} else if (function.AGGREGATE_MIN() != null) {
+			aggregate.function = ParsedAggregate.FUNCTION.MIN;
+		} else {
+			aggregate.function = ParsedAggregate.FUNCTION.MAX;
+		}
+		// A single guard may be on either side, the grammar does not tell which one it is.
+		for (int i = 0; i < ctx.binop().size(); i++) {
+			ParsedTerm term = (ParsedTerm) visit(ctx.term(i));
+			ParsedBuiltinAtom.BINOP binop = parseBinop(ctx.binop(i));
+			if (ctx.binop(i).getStart().getStartIndex() < ctx.aggregate_function().getStart().getStartIndex()) {
+				aggregate.lowerTerm = term;
+				aggregate.lowerOp = binop;
+			} else {
+				aggregate.upperTerm = term;
+				aggregate.upperOp = binop;
+			}
+		}
+		if (aggregate.lowerTerm == null && aggregate.upperTerm == null) {
+			notSupportedSyntax(ctx);
+		}
+		// aggregate_elements : aggregate_element (SEMICOLON aggregate_elements)?;
+		for (ASPCore2Parser.Aggregate_elementsContext elements = ctx.aggregate_elements(); elements != null; elements = elements.aggregate_elements()) {
+			aggregate.elements.add((ParsedAggregate.Element) visitAggregate_element(elements.aggregate_element()));
+		}
+		return aggregate;
+	}
+
+	@Override
+	public CommonParsedObject visitAggregate_element(ASPCore2Parser.Aggregate_elementContext ctx) {
+		// aggregate_element : basic_terms? (COLON naf_literals?)?;
+		ParsedAggregate.Element element = new ParsedAggregate.Element();
+		for (ASPCore2Parser.Basic_termsContext terms = ctx.basic_terms(); terms != null; terms = terms.basic_terms()) {
+			element.terms.add((ParsedTerm) visitBasic_term(terms.basic_term()));
+		}
+		// naf_literals : naf_literal (COMMA naf_literals)?;
+		for (ASPCore2Parser.Naf_literalsContext literals = ctx.naf_literals(); literals != null; literals = literals.naf_literals()) {
+			element.literals.add((ParsedAtom) visitNaf_literal(literals.naf_literal()));
+		}
+		return element;
+	}
+
+	@Override
+	public CommonParsedObject visitBasic_term(ASPCore2Parser.Basic_termContext ctx) {
+		// basic_term : ground_term | variable_term;
+		if (ctx.variable_term() != null) {
+			// variable_term : VARIABLE | ANONYMOUS_VARIABLE;
+			ParsedVariable variable = new ParsedVariable();
+			if (ctx.variable_term().VARIABLE() != null) {
+				variable.variableName = ctx.variable_term().VARIABLE().getText();
+			} else {
+				variable.isAnonymous = true;
+			}
+			return variable;
+		}
+		// ground_term : ID | STRING | MINUS? NUMBER;
+		ASPCore2Parser.Ground_termContext groundTerm = ctx.ground_term();
+		ParsedConstant constant = new ParsedConstant();
+		if (groundTerm.ID() != null) {
+			constant.type = ParsedConstant.TYPE.CONSTANT;
+			constant.content = groundTerm.ID().getText();
+		} else if (groundTerm.STRING() != null) {
+			constant.type = ParsedConstant.TYPE.STRING;
+			constant.content = groundTerm.STRING().getText();
+		} else {
+			constant.type = ParsedConstant.TYPE.NUMBER;
+			constant.content = (groundTerm.MINUS() != null ? "-" : "") + groundTerm.NUMBER().getText();
+		}
+		return constant;
 	}
 
 	@Override
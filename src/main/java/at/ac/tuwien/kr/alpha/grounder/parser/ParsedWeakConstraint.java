@@ -0,0 +1,19 @@
+package at.ac.tuwien.kr.alpha.grounder.parser;
+
+import java.util.ArrayList;
+
+/**
+ * A weak constraint ":~ body. [weight@level, terms]", whose level is 0 if not given.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class ParsedWeakConstraint extends CommonParsedObject {
+	public ArrayList<ParsedAtom> body;
+	public ParsedTerm weight;
+	public ParsedTerm level;
+	public ArrayList<ParsedTerm> terms;
+
+	public ParsedWeakConstraint() {
+		body = new ArrayList<>();
+		terms = new ArrayList<>();
+	}
+}
@@ -1,7 +1,51 @@
 package at.ac.tuwien.kr.alpha.grounder.rete;
 
+import at.ac.tuwien.kr.alpha.common.Term;
+import at.ac.tuwien.kr.alpha.grounder.Instance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
 /**
+ * A hash index over tuples of terms, keyed by the terms at a fixed set of key positions. Tuples are only added, never
+ * removed. Since terms are unique objects, a key consisting of a single term is used as is.
  * Copyright (c) 2016, the Alpha Team.
  */
 public class TupleIndex {
+	private final int[] keyPositions;
+	private final HashMap<Object, List<Term[]>> tuplesByKey = new HashMap<>();
+
+	public TupleIndex(int[] keyPositions) {
+		this.keyPositions = keyPositions;
+	}
+
+	public void add(Term[] tuple) {
+		tuplesByKey.computeIfAbsent(getKey(tuple), k -> new ArrayList<>()).add(tuple);
+	}
+
+	/**
+	 * Returns all tuples having the same terms at the key positions as the given one.
+	 * @param keySource a tuple whose key positions are all set.
+	 */
+	public List<Term[]> get(Term[] keySource) {
+		List<Term[]> tuples = tuplesByKey.get(getKey(keySource));
+		return tuples == null ? Collections.emptyList() : tuples;
+	}
+
+	private Object getKey(Term[] tuple) {
+		switch (keyPositions.length) {
+			case 0:
+				return Boolean.TRUE;
+			case 1:
+				return tuple[keyPositions[0]];
+			default:
+				Term[] key = new Term[keyPositions.length];
+				for (int i = 0; i < keyPositions.length; i++) {
+					key[i] = tuple[keyPositions[i]];
+				}
+				return new Instance(key);
+		}
+	}
 }
@@ -1,10 +1,34 @@
 package at.ac.tuwien.kr.alpha.grounder.rete;
 
+import at.ac.tuwien.kr.alpha.common.Term;
+import at.ac.tuwien.kr.alpha.grounder.Instance;
+
+import java.util.HashSet;
+
 /**
+ * Stores the distinct tuples of terms that became known for a predicate.
  * Copyright (c) 2016, the Alpha Team.
  */
 public class TupleStore {
+	private final int arity;
+	private final HashSet<Instance> tuples = new HashSet<>();
+
+	public TupleStore(int arity) {
+		this.arity = arity;
+	}
+
+	/**
+	 * Adds the tuple to the store.
+	 * @return true if the tuple was not contained in the store before.
+	 */
+	public boolean add(Term[] tuple) {
+		if (tuple.length != arity) {
+			throw new RuntimeException("Tuple length does not match arity of TupleStore: tuple size: " + tuple.length + " TupleStore arity: " + arity);
+		}
+		return tuples.add(new Instance(tuple));
+	}
 
-	int arity;
-	TupleIndex[] tupleIndex;
+	public int size() {
+		return tuples.size();
+	}
 }
@@ -23,13 +23,56 @@ protected AnswerSet translate(Iterable<Integer> assignment) {
 
 	protected abstract boolean tryAdvance(Consumer<? super AnswerSet> action);
 
+	/**
+	 * Splits off a part of the search space that is then searched by the returned solver instead of this one. The
+	 * answer sets of both solvers are disjoint and together they yield all answer sets this solver would have yielded.
+	 * @return the solver for the part split off, null if the search space cannot be split (anymore).
+	 */
+	protected AbstractSolver trySplit() {
+		return null;
+	}
+
+	/**
+	 * @return true iff {@link #trySplit()} may split the search space. Otherwise, splitting a spliterator of the solver
+	 * falls back to batching answer sets.
+	 */
+	protected boolean supportsSplitting() {
+		return false;
+	}
+
 	@Override
 	public Spliterator<AnswerSet> spliterator() {
+		return spliterator(Long.MAX_VALUE);
+	}
+
+	private Spliterator<AnswerSet> spliterator(long initialEstimatedSize) {
 		return new Spliterators.AbstractSpliterator<AnswerSet>(Long.MAX_VALUE, 0) {
+			// The number of answer sets is unknown, but halving the estimate on each split of the search space lets
+			// parallel streams stop splitting once there are enough parts for all threads.
+			private long estimatedSize = initialEstimatedSize;
+
 			@Override
 			public boolean tryAdvance(Consumer<? super AnswerSet> action) {
 				return AbstractSolver.this.tryAdvance(action);
 			}
+
+			@Override
+			public Spliterator<AnswerSet> trySplit() {
+				if (!supportsSplitting()) {
+					return super.trySplit();
+				}
+				final AbstractSolver subtreeSolver = AbstractSolver.this.trySplit();
+				if (subtreeSolver == null) {
+					return null;
+				}
+				estimatedSize /= 2;
+				return subtreeSolver.spliterator(estimatedSize);
+			}
+
+			@Override
+			public long estimateSize() {
+				return estimatedSize;
+			}
 		};
 	}
 }
@@ -0,0 +1,364 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AggregateAtom;
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+
+import java.util.*;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.FALSE;
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.MBT;
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.TRUE;
+
+/**
+ * Propagates the threshold atoms of ground aggregates. A threshold atom is true iff the weights of the elements of its
+ * group that hold sum up to at least its bound: for #count and #sum an element weighs its value, for #max (#min) only
+ * elements whose value is at least (at most) the bound of the threshold atom weigh 1, and 1 has to be reached.
+ *
+ * The propagator maintains the running sum of each threshold atom over its elements that are TRUE or MBT. Once the sum
+ * reaches the bound, the threshold atom is propagated by a nogood consisting of it being FALSE and elements reaching
+ * the bound, with the threshold atom as head. While the threshold atom is FALSE, each unassigned element whose weight
+ * together with the sum reaches the bound is propagated FALSE by such a nogood including the element. Elements are
+ * kept in order of decreasing weight, hence only the ones at the front weighing at least the slack between the sum
+ * and the bound are watched. Nogoods are generated only when they propagate, instead of one for every set of elements
+ * reaching the bound.
+ *
+ * Elements are grounded lazily, so further elements may appear later on and a threshold atom is in general never
+ * propagated FALSE because the known elements cannot reach its bound. A threshold atom that must be true without
+ * reaching its bound stays MBT and is rejected once the assignment is complete. Only once the grounder reports the group
+ * of a threshold atom complete, i.e., all its elements are known, a TRUE or MBT threshold atom is supported: if the
+ * elements not FALSE cannot reach the bound, a nogood of it and the FALSE elements is violated, and each unassigned
+ * element without which the bound cannot be reached is propagated MBT by such a nogood including the element.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class AggregatePropagator {
+	private static class Group {
+		final List<Integer> elements = new ArrayList<>();
+		final List<Threshold> thresholds = new ArrayList<>();
+		boolean complete;
+	}
+
+	private static class Threshold {
+		final int atom;
+		final Group group;
+		final AggregateAtom.AggregateFunction function;
+		final int bound;
+		final long required;
+
+		// The elements of positive weight, ordered by decreasing weight.
+		int[] elements = new int[0];
+		int[] weights = new int[0];
+		int size;
+
+		long sum;
+		// The weight of all elements and of the FALSE ones.
+		long total;
+		long falseSum;
+		boolean queued;
+
+		Threshold(int atom, Group group, AggregateAtom.AggregateFunction function, int bound) {
+			this.atom = atom;
+			this.group = group;
+			this.function = function;
+			this.bound = bound;
+			this.required = function == AggregateAtom.AggregateFunction.MIN || function == AggregateAtom.AggregateFunction.MAX ? 1 : bound;
+		}
+
+		int weight(int value) {
+			switch (function) {
+				case MIN: return value <= bound ? 1 : 0;
+				case MAX: return value >= bound ? 1 : 0;
+				default: return value;
+			}
+		}
+
+		void insert(int element, int weight) {
+			if (size == elements.length) {
+				elements = Arrays.copyOf(elements, Math.max(4, 2 * size));
+				weights = Arrays.copyOf(weights, elements.length);
+			}
+			int position = size;
+			while (position > 0 && weights[position - 1] < weight) {
+				elements[position] = elements[position - 1];
+				weights[position] = weights[position - 1];
+				position--;
+			}
+			elements[position] = element;
+			weights[position] = weight;
+			size++;
+			total += weight;
+		}
+	}
+
+	private final Assignment assignment;
+	private Iterator<Assignment.Entry> trailIterator;
+
+	private final Map<Integer, Group> groups = new HashMap<>();
+	private Group[] elementGroups = new Group[0];
+	private int[] elementValues = new int[0];
+	private Threshold[] thresholds = new Threshold[0];
+
+	// The elements whose weight is added to the sums, in the order they got TRUE or MBT.
+	private final BitSet counted = new BitSet();
+	private int[] countedTrail = new int[0];
+	private int countedTrailSize;
+	// The elements whose weight is added to the FALSE weights, in the order they got FALSE.
+	private final BitSet falsified = new BitSet();
+	private int[] falsifiedTrail = new int[0];
+	private int falsifiedTrailSize;
+
+	private final Deque<Threshold> queue = new ArrayDeque<>();
+
+	AggregatePropagator(Assignment assignment) {
+		this.assignment = assignment;
+	}
+
+	/**
+	 * Records threshold atoms and element atoms new from the grounder.
+	 * @param atoms the pair (thresholds, elements) as described by {@link at.ac.tuwien.kr.alpha.grounder.Grounder#getAggregateAtoms()}.
+	 * @param completeGroups the groups whose elements are all known now.
+	 */
+	void addAtoms(Pair<Map<Integer, Triple<Integer, AggregateAtom.AggregateFunction, Integer>>, Map<Integer, Pair<Integer, Integer>>> atoms, Set<Integer> completeGroups) {
+		for (Map.Entry<Integer, Triple<Integer, AggregateAtom.AggregateFunction, Integer>> atom : atoms.getLeft().entrySet()) {
+			final Group group = groups.computeIfAbsent(atom.getValue().getLeft(), g -> new Group());
+			final Threshold threshold = new Threshold(atom.getKey(), group, atom.getValue().getMiddle(), atom.getValue().getRight());
+			for (int element : group.elements) {
+				final int weight = threshold.weight(elementValues[element]);
+				if (weight > 0) {
+					threshold.insert(element, weight);
+					if (counted.get(element)) {
+						threshold.sum += weight;
+					}
+					if (falsified.get(element)) {
+						threshold.falseSum += weight;
+					}
+				}
+			}
+			group.thresholds.add(threshold);
+			if (threshold.atom >= thresholds.length) {
+				thresholds = Arrays.copyOf(thresholds, Math.max(threshold.atom + 1, 2 * thresholds.length));
+			}
+			thresholds[threshold.atom] = threshold;
+			enqueue(threshold);
+		}
+		for (Map.Entry<Integer, Pair<Integer, Integer>> atom : atoms.getRight().entrySet()) {
+			final int element = atom.getKey();
+			final Group group = groups.computeIfAbsent(atom.getValue().getLeft(), g -> new Group());
+			if (element >= elementGroups.length) {
+				elementGroups = Arrays.copyOf(elementGroups, Math.max(element + 1, 2 * elementGroups.length));
+				elementValues = Arrays.copyOf(elementValues, elementGroups.length);
+			}
+			elementGroups[element] = group;
+			elementValues[element] = atom.getValue().getRight();
+			group.elements.add(element);
+			for (Threshold threshold : group.thresholds) {
+				final int weight = threshold.weight(elementValues[element]);
+				if (weight > 0) {
+					threshold.insert(element, weight);
+					enqueue(threshold);
+				}
+			}
+		}
+		for (int completeGroup : completeGroups) {
+			final Group group = groups.get(completeGroup);
+			if (group != null) {
+				group.complete = true;
+				group.thresholds.forEach(this::enqueue);
+			}
+		}
+		if (trailIterator == null && !groups.isEmpty()) {
+			trailIterator = assignment.iterator();
+		}
+	}
+
+	/**
+	 * Updates the sums by the assignments made since the last call and checks the threshold atoms affected.
+	 * @return the nogoods propagating threshold atoms or elements, empty if there are none.
+	 */
+	List<NoGood> propagate() {
+		if (trailIterator == null) {
+			return Collections.emptyList();
+		}
+		while (trailIterator.hasNext()) {
+			final Assignment.Entry entry = trailIterator.next();
+			final int atom = entry.getAtom();
+			if (atom < thresholds.length && thresholds[atom] != null) {
+				enqueue(thresholds[atom]);
+			}
+			if (atom >= elementGroups.length || elementGroups[atom] == null) {
+				continue;
+			}
+			final Group group = elementGroups[atom];
+			if (!entry.getTruth().toBoolean()) {
+				falsify(atom, group);
+				continue;
+			}
+			if (entry.getPrevious() == null && !counted.get(atom)) {
+				counted.set(atom);
+				if (countedTrailSize == countedTrail.length) {
+					countedTrail = Arrays.copyOf(countedTrail, Math.max(8, 2 * countedTrail.length));
+				}
+				countedTrail[countedTrailSize++] = atom;
+				for (Threshold threshold : group.thresholds) {
+					threshold.sum += threshold.weight(elementValues[atom]);
+				}
+			}
+			// An element getting TRUE after MBT may make a threshold atom TRUE that is MBT.
+			for (Threshold threshold : group.thresholds) {
+				if (threshold.weight(elementValues[atom]) > 0) {
+					enqueue(threshold);
+				}
+			}
+		}
+
+		final List<NoGood> noGoods = new ArrayList<>();
+		while (!queue.isEmpty()) {
+			final Threshold threshold = queue.poll();
+			threshold.queued = false;
+			check(threshold, noGoods);
+		}
+		return noGoods;
+	}
+
+	private void falsify(int element, Group group) {
+		if (falsified.get(element)) {
+			return;
+		}
+		falsified.set(element);
+		if (falsifiedTrailSize == falsifiedTrail.length) {
+			falsifiedTrail = Arrays.copyOf(falsifiedTrail, Math.max(8, 2 * falsifiedTrail.length));
+		}
+		falsifiedTrail[falsifiedTrailSize++] = element;
+		for (Threshold threshold : group.thresholds) {
+			final int weight = threshold.weight(elementValues[element]);
+			threshold.falseSum += weight;
+			if (group.complete && weight > 0) {
+				enqueue(threshold);
+			}
+		}
+	}
+
+	/**
+	 * Removes the weights of elements that were unassigned by backtracking from the sums.
+	 */
+	void backtrack() {
+		while (countedTrailSize > 0 && !assignment.containsRelaxed(countedTrail[countedTrailSize - 1])) {
+			final int element = countedTrail[--countedTrailSize];
+			counted.clear(element);
+			for (Threshold threshold : elementGroups[element].thresholds) {
+				threshold.sum -= threshold.weight(elementValues[element]);
+			}
+		}
+		while (falsifiedTrailSize > 0 && !assignment.isAssigned(falsifiedTrail[falsifiedTrailSize - 1])) {
+			final int element = falsifiedTrail[--falsifiedTrailSize];
+			falsified.clear(element);
+			for (Threshold threshold : elementGroups[element].thresholds) {
+				threshold.falseSum -= threshold.weight(elementValues[element]);
+			}
+		}
+	}
+
+	private void enqueue(Threshold threshold) {
+		if (!threshold.queued) {
+			threshold.queued = true;
+			queue.add(threshold);
+		}
+	}
+
+	private void check(Threshold threshold, List<NoGood> noGoods) {
+		final ThriceTruth truth = assignment.getTruth(threshold.atom);
+		if (truth != null && truth.toBoolean() && threshold.group.complete) {
+			support(threshold, noGoods);
+		}
+		if (truth == TRUE) {
+			return;
+		}
+		if (threshold.sum >= threshold.required) {
+			// If the threshold atom is MBT already, only elements that are TRUE propagate anything, namely TRUE.
+			final NoGood noGood = reachingNoGood(threshold, 0, truth == MBT);
+			if (noGood != null) {
+				noGoods.add(noGood);
+			}
+		} else if (truth == FALSE) {
+			final long slack = threshold.required - threshold.sum;
+			for (int i = 0; i < threshold.size && threshold.weights[i] >= slack; i++) {
+				if (!assignment.isAssigned(threshold.elements[i])) {
+					noGoods.add(reachingNoGood(threshold, i + 1, false));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the elements of a complete group that are not FALSE still reach the bound of the TRUE or MBT
+	 * threshold atom, and propagates the elements needed to reach it.
+	 */
+	private void support(Threshold threshold, List<NoGood> noGoods) {
+		final long possible = threshold.total - threshold.falseSum;
+		if (possible < threshold.required) {
+			noGoods.add(supportNoGood(threshold, 0));
+			return;
+		}
+		for (int i = 0; i < threshold.size && possible - threshold.weights[i] < threshold.required; i++) {
+			if (!assignment.isAssigned(threshold.elements[i])) {
+				noGoods.add(supportNoGood(threshold, threshold.elements[i]));
+			}
+		}
+	}
+
+	/**
+	 * Builds a nogood of the threshold atom being TRUE, all FALSE elements and the given element (if not 0) being FALSE.
+	 */
+	private NoGood supportNoGood(Threshold threshold, int additionalElement) {
+		final List<Integer> literals = new ArrayList<>();
+		literals.add(threshold.atom);
+		if (additionalElement != 0) {
+			literals.add(-additionalElement);
+		}
+		for (int i = 0; i < threshold.size; i++) {
+			if (assignment.getTruth(threshold.elements[i]) == FALSE) {
+				literals.add(-threshold.elements[i]);
+			}
+		}
+		final int[] noGood = new int[literals.size()];
+		for (int i = 0; i < noGood.length; i++) {
+			noGood[i] = literals.get(i);
+		}
+		return new NoGood(noGood);
+	}
+
+	/**
+	 * Builds a nogood of the threshold atom being FALSE and elements reaching its bound, with the threshold atom as
+	 * head. Elements that are TRUE are preferred over MBT ones and heavier elements over lighter ones.
+	 * @param additional one plus the position of an element to include in any case, 0 for none.
+	 * @param onlyTrue whether to include TRUE elements only.
+	 * @return the nogood, null if the elements do not reach the bound.
+	 */
+	private NoGood reachingNoGood(Threshold threshold, int additional, boolean onlyTrue) {
+		final List<Integer> literals = new ArrayList<>();
+		literals.add(-threshold.atom);
+		long sum = 0;
+		if (additional != 0) {
+			literals.add(threshold.elements[additional - 1]);
+			sum += threshold.weights[additional - 1];
+		}
+		for (int pass = 0; pass < (onlyTrue ? 1 : 2); pass++) {
+			final ThriceTruth wanted = pass == 0 ? TRUE : MBT;
+			for (int i = 0; i < threshold.size && sum < threshold.required; i++) {
+				if (wanted == assignment.getTruth(threshold.elements[i])) {
+					literals.add(threshold.elements[i]);
+					sum += threshold.weights[i];
+				}
+			}
+		}
+		if (sum < threshold.required) {
+			return null;
+		}
+		final int[] noGood = new int[literals.size()];
+		for (int i = 0; i < noGood.length; i++) {
+			noGood[i] = literals.get(i);
+		}
+		return NoGood.headFirst(noGood);
+	}
+}
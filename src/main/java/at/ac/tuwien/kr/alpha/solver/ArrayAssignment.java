@@ -0,0 +1,507 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.common.OrdinaryAssignment;
+import at.ac.tuwien.kr.alpha.grounder.Grounder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static at.ac.tuwien.kr.alpha.common.Atoms.isAtom;
+import static at.ac.tuwien.kr.alpha.common.Literals.atomOf;
+import static at.ac.tuwien.kr.alpha.common.Literals.isNegated;
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.*;
+
+/**
+ * An assignment that stores truth values, decision levels and implying nogoods in arrays indexed by atom id and
+ * records the order of assignments on a flat trail of atom ids. Arrays grow on demand as atoms with higher ids are
+ * assigned. Apart from growing, assigning does not allocate.
+ *
+ * If an atom that is MBT gets assigned TRUE, the MBT assignment is kept aside (in the mbt* arrays) so that it can be
+ * restored when backtracking below the decision level of the TRUE assignment.
+ *
+ * The known atoms (see {@link #growForMaxAtomId(int)}) that are unassigned are kept in a sparse set, updated on every
+ * assignment and backtrack, such that finding one takes constant time instead of a scan of all atoms.
+ *
+ * Entries returned by the iterators of this assignment are views on the trail that are only valid until the next
+ * call to {@link Iterator#next()} of the same iterator, use {@link #get(int)} to obtain a stable entry. Iterators are
+ * rewound on every backtrack until they are released (see {@link Assignment#release(Iterator)}).
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class ArrayAssignment implements Assignment {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ArrayAssignment.class);
+
+	private static final ThriceTruth[] TRUTHS = ThriceTruth.values();
+	private static final byte UNASSIGNED = -1;
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final Grounder grounder;
+	private final List<ArrayAssignmentIterator> iterators = new ArrayList<>();
+
+	// Current assignment of every atom, indexed by atom id.
+	private byte[] truth = new byte[0];
+	private int[] level = new int[0];
+	private NoGood[] impliedBy = new NoGood[0];
+	private int[] trailPosition = new int[0];
+
+	// The MBT assignment of an atom that got TRUE later on, indexed by atom id. mbtLevel is -1 if there is none.
+	private int[] mbtLevel = new int[0];
+	private NoGood[] mbtImpliedBy = new NoGood[0];
+	private int[] mbtTrailPosition = new int[0];
+
+	// Atoms in the order of their assignment and the trail position at which each decision level starts.
+	private int[] trail = new int[INITIAL_CAPACITY];
+	private int trailSize;
+	private int[] levelStart = new int[INITIAL_CAPACITY];
+	private int decisionLevel;
+
+	private int mbtCount;
+
+	// Sparse set of the known atoms that are unassigned: the first unassignedCount elements of unassigned, the position
+	// of each atom in it is given by unassignedPosition (indexed by atom id).
+	private int maxKnownAtom;
+	private int[] unassigned = new int[INITIAL_CAPACITY];
+	private int unassignedCount;
+	private int[] unassignedPosition = new int[0];
+
+	public ArrayAssignment(Grounder grounder) {
+		this.grounder = grounder;
+		growForAtom(INITIAL_CAPACITY - 1);
+	}
+
+	public ArrayAssignment() {
+		this(null);
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(truth, UNASSIGNED);
+		Arrays.fill(impliedBy, null);
+		Arrays.fill(trailPosition, -1);
+		Arrays.fill(mbtLevel, -1);
+		Arrays.fill(mbtImpliedBy, null);
+		trailSize = 0;
+		decisionLevel = 0;
+		mbtCount = 0;
+		unassignedCount = 0;
+		for (int atom = 1; atom <= maxKnownAtom; atom++) {
+			addUnassigned(atom);
+		}
+		for (ArrayAssignmentIterator it : iterators) {
+			it.backtrack();
+		}
+	}
+
+	@Override
+	public void backtrack() {
+		final int start = levelStart[decisionLevel];
+
+		for (int position = trailSize - 1; position >= start; position--) {
+			final int atom = trail[position];
+
+			// The atom has been assigned again (from MBT to TRUE) later on the trail and was already handled.
+			if (trailPosition[atom] != position) {
+				continue;
+			}
+
+			if (mbtLevel[atom] != -1 && mbtTrailPosition[atom] < start) {
+				// TRUE on this level, MBT below: restore MBT.
+				mbtCount++;
+				truth[atom] = (byte) MBT.ordinal();
+				level[atom] = mbtLevel[atom];
+				impliedBy[atom] = mbtImpliedBy[atom];
+				trailPosition[atom] = mbtTrailPosition[atom];
+				mbtLevel[atom] = -1;
+				mbtImpliedBy[atom] = null;
+				continue;
+			}
+
+			if (truth[atom] == MBT.ordinal()) {
+				mbtCount--;
+			}
+			if (atom <= maxKnownAtom) {
+				addUnassigned(atom);
+			}
+			truth[atom] = UNASSIGNED;
+			impliedBy[atom] = null;
+			trailPosition[atom] = -1;
+			mbtLevel[atom] = -1;
+			mbtImpliedBy[atom] = null;
+		}
+
+		trailSize = start;
+		if (decisionLevel > 0) {
+			decisionLevel--;
+		}
+
+		for (ArrayAssignmentIterator it : iterators) {
+			it.backtrack();
+		}
+	}
+
+	@Override
+	public int getMBTCount() {
+		return mbtCount;
+	}
+
+	@Override
+	public void growForMaxAtomId(int maxAtomId) {
+		if (maxAtomId <= maxKnownAtom) {
+			return;
+		}
+		growForAtom(maxAtomId);
+		for (int atom = maxKnownAtom + 1; atom <= maxAtomId; atom++) {
+			if (!isAssigned(atom)) {
+				addUnassigned(atom);
+			}
+		}
+		maxKnownAtom = maxAtomId;
+	}
+
+	@Override
+	public int getUnassignedAtom() {
+		return unassignedCount == 0 ? 0 : unassigned[unassignedCount - 1];
+	}
+
+	private void addUnassigned(int atom) {
+		if (unassignedCount == unassigned.length) {
+			unassigned = Arrays.copyOf(unassigned, unassigned.length * 2);
+		}
+		unassigned[unassignedCount] = atom;
+		unassignedPosition[atom] = unassignedCount++;
+	}
+
+	private void removeUnassigned(int atom) {
+		final int last = unassigned[--unassignedCount];
+		final int position = unassignedPosition[atom];
+		unassigned[position] = last;
+		unassignedPosition[last] = position;
+	}
+
+	@Override
+	public boolean guess(int atom, ThriceTruth value) {
+		decisionLevel++;
+		if (decisionLevel == levelStart.length) {
+			levelStart = Arrays.copyOf(levelStart, levelStart.length * 2);
+		}
+		levelStart[decisionLevel] = trailSize;
+		return assign(atom, value, null);
+	}
+
+	@Override
+	public boolean assign(int atom, ThriceTruth value, NoGood impliedBy) {
+		if (!isAtom(atom)) {
+			throw new IllegalArgumentException("not an atom");
+		}
+
+		if (value == null) {
+			throw new IllegalArgumentException("value must not be null");
+		}
+
+		growForAtom(atom);
+
+		final ThriceTruth current = getTruth(atom);
+
+		if (current != null && (current == value || (current == TRUE && value == MBT))) {
+			return true;
+		}
+
+		final boolean mbtToTrue = current == MBT && value == TRUE;
+
+		if (current != null && !mbtToTrue) {
+			return false;
+		}
+
+		if (mbtToTrue) {
+			mbtCount--;
+			mbtLevel[atom] = level[atom];
+			mbtImpliedBy[atom] = this.impliedBy[atom];
+			mbtTrailPosition[atom] = trailPosition[atom];
+		} else if (value == MBT) {
+			mbtCount++;
+		}
+		if (!mbtToTrue && atom <= maxKnownAtom) {
+			removeUnassigned(atom);
+		}
+
+		if (trailSize == trail.length) {
+			trail = Arrays.copyOf(trail, trail.length * 2);
+		}
+
+		truth[atom] = (byte) value.ordinal();
+		level[atom] = decisionLevel;
+		this.impliedBy[atom] = impliedBy;
+		trailPosition[atom] = trailSize;
+		trail[trailSize++] = atom;
+
+		LOGGER.trace("Recording assignment {}: {}@{}", atom, value, decisionLevel);
+		return true;
+	}
+
+	@Override
+	public Set<Integer> getTrueAssignments() {
+		Set<Integer> result = new HashSet<>();
+		for (int atom = 1; atom < truth.length; atom++) {
+			if (truth[atom] == TRUE.ordinal()) {
+				result.add(atom);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Assignment.Entry get(int atom) {
+		if (!isAssigned(atom)) {
+			return null;
+		}
+		final Entry previous = mbtLevel[atom] == -1 ? null : new Entry(atom, MBT, mbtLevel[atom], mbtImpliedBy[atom], null, mbtTrailPosition[atom]);
+		return new Entry(atom, TRUTHS[truth[atom]], level[atom], impliedBy[atom], previous, trailPosition[atom]);
+	}
+
+	@Override
+	public int getDecisionLevel() {
+		return decisionLevel;
+	}
+
+	@Override
+	public int getDecisionLevel(int atom) {
+		return isAssigned(atom) ? level[atom] : -1;
+	}
+
+	@Override
+	public ThriceTruth getTruth(int atom) {
+		return isAssigned(atom) ? TRUTHS[truth[atom]] : null;
+	}
+
+	@Override
+	public boolean isAssigned(int atom) {
+		return atom < truth.length && truth[atom] != UNASSIGNED;
+	}
+
+	@Override
+	public boolean containsRelaxed(int literal) {
+		final int atom = atomOf(literal);
+		return isAssigned(atom) && isNegated(literal) == (truth[atom] == FALSE.ordinal());
+	}
+
+	@Override
+	public boolean contains(int literal) {
+		final int atom = atomOf(literal);
+		return isAssigned(atom) && truth[atom] == (isNegated(literal) ? FALSE : TRUE).ordinal();
+	}
+
+	private void growForAtom(int atom) {
+		if (atom < truth.length) {
+			return;
+		}
+
+		final int oldLength = truth.length;
+		final int newLength = Math.max(atom + 1, oldLength * 2);
+
+		truth = Arrays.copyOf(truth, newLength);
+		level = Arrays.copyOf(level, newLength);
+		impliedBy = Arrays.copyOf(impliedBy, newLength);
+		trailPosition = Arrays.copyOf(trailPosition, newLength);
+		mbtLevel = Arrays.copyOf(mbtLevel, newLength);
+		mbtImpliedBy = Arrays.copyOf(mbtImpliedBy, newLength);
+		mbtTrailPosition = Arrays.copyOf(mbtTrailPosition, newLength);
+		unassignedPosition = Arrays.copyOf(unassignedPosition, newLength);
+
+		Arrays.fill(truth, oldLength, newLength, UNASSIGNED);
+		Arrays.fill(trailPosition, oldLength, newLength, -1);
+		Arrays.fill(mbtLevel, oldLength, newLength, -1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		boolean first = true;
+		for (int atom = 1; atom < truth.length; atom++) {
+			if (!isAssigned(atom)) {
+				continue;
+			}
+			if (!first) {
+				sb.append(", ");
+			}
+			first = false;
+			sb.append(TRUTHS[truth[atom]]);
+			sb.append("_");
+			if (grounder != null) {
+				sb.append(grounder.atomToString(atom));
+			} else {
+				sb.append(atom);
+			}
+			sb.append("@");
+			sb.append(level[atom]);
+		}
+		sb.append("]");
+		return sb.toString();
+	}
+
+	@Override
+	public Iterator<Assignment.Entry> iterator() {
+		ArrayAssignmentIterator it = new ArrayAssignmentIterator();
+		iterators.add(it);
+		return it;
+	}
+
+	@Override
+	public Iterator<OrdinaryAssignment> ordinaryIterator() {
+		return new OrdinaryArrayAssignmentIterator(iterator());
+	}
+
+	@Override
+	public void release(Iterator<?> iterator) {
+		iterators.remove(iterator instanceof OrdinaryArrayAssignmentIterator ? ((OrdinaryArrayAssignmentIterator) iterator).delegate : iterator);
+	}
+
+	private static final class Entry implements Assignment.Entry {
+		private final int atom;
+		private final ThriceTruth value;
+		private final int decisionLevel;
+		private final NoGood impliedBy;
+		private final Entry previous;
+		private final int propagationLevel;
+
+		Entry(int atom, ThriceTruth value, int decisionLevel, NoGood impliedBy, Entry previous, int propagationLevel) {
+			this.atom = atom;
+			this.value = value;
+			this.decisionLevel = decisionLevel;
+			this.impliedBy = impliedBy;
+			this.previous = previous;
+			this.propagationLevel = propagationLevel;
+		}
+
+		@Override
+		public ThriceTruth getTruth() {
+			return value;
+		}
+
+		@Override
+		public int getDecisionLevel() {
+			return decisionLevel;
+		}
+
+		@Override
+		public Entry getPrevious() {
+			return previous;
+		}
+
+		@Override
+		public NoGood getImpliedBy() {
+			return impliedBy;
+		}
+
+		@Override
+		public int getAtom() {
+			return atom;
+		}
+
+		@Override
+		public int getPropagationLevel() {
+			return propagationLevel;
+		}
+
+		@Override
+		public String toString() {
+			return value.toString() + "(" + decisionLevel + ")";
+		}
+	}
+
+	/**
+	 * Iterates the trail. The entry returned is a view on the trail position last visited, it reflects the
+	 * assignment that was made at that position (i.e. MBT if the atom was assigned TRUE later on).
+	 */
+	private class ArrayAssignmentIterator implements Iterator<Assignment.Entry>, Assignment.Entry {
+		private int index;
+		private int position;
+		private int atom;
+		private ThriceTruth value;
+		private int decisionLevel;
+		private NoGood impliedBy;
+		private boolean hasPrevious;
+
+		private void backtrack() {
+			index = Math.min(index, trailSize);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < trailSize;
+		}
+
+		@Override
+		public Assignment.Entry next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			position = index++;
+			atom = trail[position];
+			if (trailPosition[atom] == position) {
+				value = TRUTHS[truth[atom]];
+				decisionLevel = level[atom];
+				impliedBy = ArrayAssignment.this.impliedBy[atom];
+				hasPrevious = mbtLevel[atom] != -1;
+			} else {
+				value = MBT;
+				decisionLevel = mbtLevel[atom];
+				impliedBy = mbtImpliedBy[atom];
+				hasPrevious = false;
+			}
+			return this;
+		}
+
+		@Override
+		public ThriceTruth getTruth() {
+			return value;
+		}
+
+		@Override
+		public int getDecisionLevel() {
+			return decisionLevel;
+		}
+
+		@Override
+		public Assignment.Entry getPrevious() {
+			if (!hasPrevious || mbtLevel[atom] == -1) {
+				return null;
+			}
+			return new Entry(atom, MBT, mbtLevel[atom], mbtImpliedBy[atom], null, mbtTrailPosition[atom]);
+		}
+
+		@Override
+		public NoGood getImpliedBy() {
+			return impliedBy;
+		}
+
+		@Override
+		public int getAtom() {
+			return atom;
+		}
+
+		@Override
+		public int getPropagationLevel() {
+			return position;
+		}
+	}
+
+	private static class OrdinaryArrayAssignmentIterator implements Iterator<OrdinaryAssignment> {
+		private final Iterator<Assignment.Entry> delegate;
+
+		private OrdinaryArrayAssignmentIterator(Iterator<Assignment.Entry> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return delegate.hasNext();
+		}
+
+		@Override
+		public OrdinaryAssignment next() {
+			Assignment.Entry entry = delegate.next();
+			return new OrdinaryAssignment(entry.getAtom(), entry.getTruth().toBoolean());
+		}
+	}
+}
@@ -0,0 +1,832 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AtomTranslator;
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.common.NoGoodArena;
+import at.ac.tuwien.kr.alpha.grounder.Grounder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+
+import static at.ac.tuwien.kr.alpha.common.Literals.atomOf;
+import static at.ac.tuwien.kr.alpha.common.Literals.isNegated;
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.*;
+
+/**
+ * A nogood store that keeps its watch lists in arrays indexed by literal, i.e. by atom and sign. The watch list of a
+ * positive literal is visited when its atom becomes MBT (or TRUE without being MBT before), the one of a negative
+ * literal when its atom becomes FALSE. Additionally, there are watch lists per atom that are visited when the atom
+ * becomes TRUE, these watch for binary nogoods propagating TRUE to their head.
+ *
+ * Larger nogoods with head instead count their literals (other than the head) that are not yet contained in the
+ * assignment in the strict sense, i.e., positive literals whose atom is not TRUE and negative literals whose atom is
+ * not FALSE. Whenever the propagation of an assignment makes a literal strictly contained, the counts of all nogoods
+ * containing it are decremented, and TRUE is propagated to the head of those whose count drops to zero. Literals
+ * counted are kept on a stack together with the decision level of their assignment, such that counts are restored
+ * when backtracking. Hence, every assignment is handled in constant time per nogood it occurs in, instead of
+ * rescanning nogoods for their literals that are not yet TRUE.
+ *
+ * All nogoods are kept in a {@link NoGoodArena}, i.e., their literals and watch pointers lie in one int array and
+ * watch lists hold their ids in the arena. The store shares the arena of its grounder, if it has one, and watches a
+ * nogood the grounder added under the id it is added with. Other nogoods, e.g. ones simplified by a preprocessor, are
+ * added to the arena by the store. Objects for nogoods are only built once they become the reason of an assignment
+ * or are violated. Watch lists of binary nogoods directly hold the respective other literal, the nogood itself is
+ * only touched when it actually propagates. Watch lists keep the order in which nogoods were added, so propagation
+ * is deterministic.
+ *
+ * The first two watches are placed in the same way as in {@link BasicNoGoodStore}.
+ *
+ * Assignments on decision level 0 are never undone, so whenever new ones appeared the store rebuilds itself without
+ * the nogoods they satisfy and without the literals they contain, which shrinks nogoods to binary ones or drops them
+ * altogether. Like in MiniSat, this is postponed until there were as many propagations since the last simplification
+ * as there were literals and watch lists in the store after it. The nogoods dropped are removed from the arena, which
+ * is compacted then, such that they do not take space. Ids do not change by compacting, yet watch lists drop the ids of
+ * removed nogoods.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class ArrayNoGoodStore implements NoGoodStore<ThriceTruth> {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ArrayNoGoodStore.class);
+
+	private final AtomTranslator translator;
+	private final Assignment assignment;
+	private final Iterator<Assignment.Entry> assignmentIterator;
+
+	// Indexed by literal, see literalIndex.
+	private BinaryWatchList[] binaryWatches = new BinaryWatchList[0];
+	private WatchList[] watches = new WatchList[0];
+
+	// Indexed by atom.
+	private BinaryWatchList[] binaryTrueWatches = new BinaryWatchList[0];
+
+	private final NoGoodArena noGoods;
+	// The ids of the nogoods in the arena that the store watches, and of those it added to the arena itself. Only the
+	// latter are removed from the arena, those of the grounder stay in it such that the grounder knows them further on.
+	private final BitSet stored = new BitSet();
+	private final BitSet owned = new BitSet();
+	// The objects of nogoods that were reasons of assignments or violated, indexed by id.
+	private NoGood[] reasons = new NoGood[0];
+	private int watchedNoGoodCount;
+	private int binaryNoGoodCount;
+
+	// The nogoods with head in which a literal occurs other than as head, indexed by literal, and whether the literal is
+	// counted as strictly contained. The number of literals not counted yet for nogoods with head, indexed by nogood.
+	private WatchList[] headedOccurrences = new WatchList[0];
+	private boolean[] counted = new boolean[0];
+	private int[] uncountedLiterals = new int[0];
+
+	// The literals counted so far and the decision levels of the assignments that made them strictly contained.
+	private int[] countedStack = new int[16];
+	private int[] countedStackLevels = new int[16];
+	private int countedStackSize;
+
+	private NoGood violated;
+
+	// Literals in stored nogoods, assignments on decision level 0 propagated so far and at the last simplification,
+	// and the number of propagations to do before simplifying again.
+	private long storedLiterals;
+	private int levelZeroAssignments;
+	private int simplifiedLevelZeroAssignments;
+	private long propagationsUntilSimplification;
+
+	ArrayNoGoodStore(Assignment assignment, Grounder translator) {
+		this.assignment = assignment;
+		this.assignmentIterator = assignment.iterator();
+		this.translator = translator;
+		this.noGoods = translator != null && translator.getNoGoodArena() != null ? translator.getNoGoodArena() : new NoGoodArena();
+	}
+
+	ArrayNoGoodStore(Assignment assignment) {
+		this(assignment, null);
+	}
+
+	@Override
+	public void backtrack() {
+		violated = null;
+		assignment.backtrack();
+		final int decisionLevel = assignment.getDecisionLevel();
+		while (countedStackSize > 0 && countedStackLevels[countedStackSize - 1] > decisionLevel) {
+			uncount(countedStack[--countedStackSize]);
+		}
+	}
+
+	void clear() {
+		assignment.clear();
+		binaryWatches = new BinaryWatchList[0];
+		watches = new WatchList[0];
+		binaryTrueWatches = new BinaryWatchList[0];
+		for (int id = owned.nextSetBit(0); id != -1; id = owned.nextSetBit(id + 1)) {
+			noGoods.remove(id);
+		}
+		noGoods.compact();
+		stored.clear();
+		owned.clear();
+		reasons = new NoGood[0];
+		watchedNoGoodCount = 0;
+		binaryNoGoodCount = 0;
+		headedOccurrences = new WatchList[0];
+		counted = new boolean[0];
+		uncountedLiterals = new int[0];
+		countedStackSize = 0;
+		violated = null;
+		storedLiterals = 0;
+		levelZeroAssignments = 0;
+		simplifiedLevelZeroAssignments = 0;
+		propagationsUntilSimplification = 0;
+	}
+
+	private void setViolated(final NoGood noGood) {
+		violated = noGood;
+	}
+
+	/**
+	 * @return the object of the nogood with the given id, built on first use.
+	 */
+	private NoGood reason(int id) {
+		if (id >= reasons.length) {
+			reasons = Arrays.copyOf(reasons, Math.max(id + 1, reasons.length * 2));
+		}
+		if (reasons[id] == null) {
+			reasons[id] = noGoods.toNoGood(id);
+		}
+		return reasons[id];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return watchedNoGoodCount == 0 && binaryNoGoodCount == 0;
+	}
+
+	@Override
+	public NoGood getViolatedNoGood() {
+		return violated;
+	}
+
+	/**
+	 * Maps a positive literal to twice its atom and a negative literal to twice its atom plus one.
+	 */
+	private static int literalIndex(int literal) {
+		return 2 * atomOf(literal) + (isNegated(literal) ? 1 : 0);
+	}
+
+	private BinaryWatchList binaryWatches(int literal) {
+		final int index = literalIndex(literal);
+		if (index >= binaryWatches.length) {
+			binaryWatches = Arrays.copyOf(binaryWatches, Math.max(index + 1, binaryWatches.length * 2));
+		}
+		if (binaryWatches[index] == null) {
+			binaryWatches[index] = new BinaryWatchList();
+		}
+		return binaryWatches[index];
+	}
+
+	private WatchList watches(int literal) {
+		final int index = literalIndex(literal);
+		if (index >= watches.length) {
+			watches = Arrays.copyOf(watches, Math.max(index + 1, watches.length * 2));
+		}
+		if (watches[index] == null) {
+			watches[index] = new WatchList();
+		}
+		return watches[index];
+	}
+
+	private BinaryWatchList binaryTrueWatches(int atom) {
+		if (atom >= binaryTrueWatches.length) {
+			binaryTrueWatches = Arrays.copyOf(binaryTrueWatches, Math.max(atom + 1, binaryTrueWatches.length * 2));
+		}
+		if (binaryTrueWatches[atom] == null) {
+			binaryTrueWatches[atom] = new BinaryWatchList();
+		}
+		return binaryTrueWatches[atom];
+	}
+
+	private WatchList headedOccurrences(int literal) {
+		final int index = literalIndex(literal);
+		if (index >= headedOccurrences.length) {
+			headedOccurrences = Arrays.copyOf(headedOccurrences, Math.max(index + 1, headedOccurrences.length * 2));
+		}
+		if (headedOccurrences[index] == null) {
+			headedOccurrences[index] = new WatchList();
+		}
+		return headedOccurrences[index];
+	}
+
+	private boolean isCounted(int literal) {
+		final int index = literalIndex(literal);
+		return index < counted.length && counted[index];
+	}
+
+	@Override
+	public boolean add(int id, NoGood noGood) {
+		LOGGER.trace("Adding {}", noGood);
+		if (noGood.size() == 1) {
+			return addUnary(noGood);
+		} else if (noGood.size() == 2) {
+			return addAndWatchBinary(id, noGood);
+		} else {
+			return addAndWatch(id, noGood);
+		}
+	}
+
+	/**
+	 * Makes the store watch a nogood in the arena: the one under the given id if it is equal to the given one and not
+	 * watched already, e.g. since the grounder added it, otherwise a copy added to the arena now. Nogoods the store
+	 * does not watch, i.e. unary and tautological ones, are thus never added to the arena by it.
+	 * @return the id of the nogood watched.
+	 */
+	private int store(int id, NoGood noGood) {
+		if (!noGoods.contains(id, noGood) || stored.get(id)) {
+			id = noGoods.add(noGood);
+			owned.set(id);
+		}
+		stored.set(id);
+		return id;
+	}
+
+	/**
+	 * Takes a noGood containing only a single literal and translates it into an assignment (because it
+	 * is trivially unit). Still, a check for conflict is performed.
+	 */
+	private boolean addUnary(final NoGood noGood) {
+		final int literal = noGood.getLiteral(0);
+		if (!assignment.assign(atomOf(literal), isNegated(literal) ? noGood.hasHead() ? TRUE : MBT : FALSE, noGood)) {
+			setViolated(noGood);
+			return false;
+		}
+		return true;
+	}
+
+	private boolean addAndWatchBinary(int id, final NoGood noGood) {
+		final int a = noGood.getLiteral(0);
+		final int b = noGood.getLiteral(1);
+
+		if (atomOf(a) == atomOf(b)) {
+			return true;
+		}
+
+		id = store(id, noGood);
+		binaryNoGoodCount++;
+		storedLiterals += 2;
+		binaryWatches(a).add(b, id);
+		binaryWatches(b).add(a, id);
+
+		// Check for violation. The watches are kept, since the nogood may become unit after backtracking.
+		if (assignment.containsRelaxed(a) && assignment.containsRelaxed(b)) {
+			setViolated(noGood);
+			return false;
+		}
+
+		if (noGood.hasHead()) {
+			final int headLiteral = noGood.getLiteral(noGood.getHead());
+			final int bodyLiteral = noGood.getLiteral(noGood.getHead() == 0 ? 1 : 0);
+
+			// If the body literal is negated, TRUE will never be propagated.
+			if (!isNegated(bodyLiteral)) {
+				binaryTrueWatches(atomOf(bodyLiteral)).add(headLiteral, id);
+				if (TRUE.equals(assignment.getTruth(atomOf(bodyLiteral)))) {
+					return assign(noGood, headLiteral, TRUE);
+				}
+			}
+		}
+
+		final boolean aAssigned = assignment.isAssigned(atomOf(a));
+		final boolean bAssigned = assignment.isAssigned(atomOf(b));
+
+		// If exactly one literal is assigned and contained, the nogood is unit.
+		if (aAssigned ^ bAssigned) {
+			if (assignment.containsRelaxed(aAssigned ? a : b)) {
+				return assign(noGood, aAssigned ? b : a, MBT);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Adds a noGood to the store and performs following precautions:
+	 *  * If <code>noGood</code> is violated, report it (and start backtracking).
+	 *  * If <code>noGood</code> is unit, propagate.
+	 *  * If <code>noGood</code> is eligible for propagating <code>TRUE</code>, propagate.
+	 *  * Add watches such that they stay valid under backtracking: the two pointers are placed on literals not
+	 *    contained in the assignment if possible, otherwise on the contained literals with highest decision level.
+	 *  * If <code>noGood</code> has a head, count its other literals not yet counted as strictly contained.
+	 * @return false iff <code>noGood</code> is violated.
+	 */
+	private boolean addAndWatch(int id, final NoGood noGood) {
+		if (isTautology(noGood)) {
+			return true;
+		}
+
+		int[] pointers = new int[]{-1, -1};
+		int[] priorities = new int[]{-1, -1};
+
+		// Number of literals that are not contained in the assignment, if there is only one of them the nogood is
+		// unit (or satisfied).
+		int notContained = 0;
+		// Whether all literals except for the head are contained in the assignment in the strict sense.
+		boolean propagatesTrue = noGood.hasHead();
+
+		for (int i = 0; i < noGood.size(); i++) {
+			final int literal = noGood.getLiteral(i);
+
+			final int priority = toWatchPriority(literal);
+			if (priority >= Integer.MAX_VALUE - 1) {
+				notContained++;
+			}
+
+			if (priority > priorities[0]) {
+				pointers[1] = pointers[0];
+				priorities[1] = priorities[0];
+				pointers[0] = i;
+				priorities[0] = priority;
+			} else if (priority > priorities[1]) {
+				pointers[1] = i;
+				priorities[1] = priority;
+			}
+
+			if (noGood.hasHead() && noGood.getHead() != i && !assignment.contains(literal)) {
+				propagatesTrue = false;
+			}
+		}
+
+		id = store(id, noGood);
+		noGoods.setPointer(id, 0, pointers[0]);
+		noGoods.setPointer(id, 1, pointers[1]);
+		watchedNoGoodCount++;
+		storedLiterals += noGood.size();
+
+		watches(noGood.getLiteral(pointers[0])).add(id);
+		watches(noGood.getLiteral(pointers[1])).add(id);
+		if (noGood.hasHead()) {
+			countHeaded(id, noGood);
+		}
+
+		if (notContained == 0) {
+			setViolated(noGood);
+			return false;
+		}
+
+		if (propagatesTrue && !TRUE.equals(assignment.getTruth(noGood.getAtom(noGood.getHead())))) {
+			return assign(noGood, noGood.getLiteral(noGood.getHead()), TRUE);
+		}
+
+		if (notContained == 1 && priorities[0] == Integer.MAX_VALUE) {
+			return assign(noGood, noGood.getLiteral(pointers[0]), MBT);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks whether the nogood contains some atom both positive and negative. Relies on literals of nogoods being
+	 * sorted, i.e., negative literals come first in descending order of their atoms.
+	 */
+	private static boolean isTautology(NoGood noGood) {
+		int firstPositive = 0;
+		while (firstPositive < noGood.size() && isNegated(noGood.getLiteral(firstPositive))) {
+			firstPositive++;
+		}
+		int negative = firstPositive - 1;
+		int positive = firstPositive;
+		while (negative >= 0 && positive < noGood.size()) {
+			final int negativeAtom = noGood.getAtom(negative);
+			final int positiveAtom = noGood.getAtom(positive);
+			if (negativeAtom == positiveAtom) {
+				return true;
+			}
+			if (negativeAtom < positiveAtom) {
+				negative--;
+			} else {
+				positive++;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Ranks a literal as candidate for the first two pointers of a nogood. Unassigned literals are best, followed by
+	 * literals whose complement is in the assignment. Literals contained in the assignment are ranked by the decision
+	 * level on which they became contained.
+	 */
+	private int toWatchPriority(int literal) {
+		if (!assignment.isAssigned(atomOf(literal))) {
+			return Integer.MAX_VALUE;
+		}
+		final Assignment.Entry entry = assignment.getContainingEntry(literal);
+		if (entry == null) {
+			return Integer.MAX_VALUE - 1;
+		}
+		return entry.getDecisionLevel();
+	}
+
+	/**
+	 * Registers the literals of a nogood with head other than the head and counts those not counted yet.
+	 */
+	private void countHeaded(int id, NoGood noGood) {
+		if (id >= uncountedLiterals.length) {
+			uncountedLiterals = Arrays.copyOf(uncountedLiterals, Math.max(id + 1, uncountedLiterals.length * 2));
+		}
+		int uncounted = 0;
+		for (int i = 0; i < noGood.size(); i++) {
+			if (i == noGood.getHead()) {
+				continue;
+			}
+			final int literal = noGood.getLiteral(i);
+			headedOccurrences(literal).add(id);
+			if (!isCounted(literal)) {
+				uncounted++;
+			}
+		}
+		uncountedLiterals[id] = uncounted;
+	}
+
+	/**
+	 * Assigns the given literal of the nogood such that it is not contained, i.e., FALSE for positive literals and
+	 * the given value for negative ones.
+	 */
+	private boolean assign(final NoGood noGood, final int literal, final ThriceTruth negated) {
+		if (!assignment.assign(atomOf(literal), isNegated(literal) ? negated : FALSE, noGood)) {
+			setViolated(noGood);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Like {@link #assign(NoGood, int, ThriceTruth)} for the stored nogood with the given id.
+	 */
+	private boolean assign(final int id, final int literal, final ThriceTruth negated) {
+		return assign(reason(id), literal, negated);
+	}
+
+	@Override
+	public boolean propagate() {
+		boolean propagated = false;
+
+		while (assignmentIterator.hasNext()) {
+			final Assignment.Entry entry = assignmentIterator.next();
+			final int atom = entry.getAtom();
+			final ThriceTruth value = entry.getTruth();
+
+			LOGGER.trace("Looking for propagation from {}", atom);
+
+			propagationsUntilSimplification--;
+			if (entry.getDecisionLevel() == 0) {
+				levelZeroAssignments++;
+			}
+
+			boolean atomPropagated = false;
+
+			if (value == MBT) {
+				atomPropagated = propagateMBT(atom);
+			} else if (value == FALSE) {
+				atomPropagated = propagateMBT(-atom);
+				atomPropagated |= propagateStrictlyContained(-atom, entry.getDecisionLevel());
+			} else {
+				final Assignment.Entry previous = entry.getPrevious();
+				if (previous == null || previous.getTruth() != MBT) {
+					atomPropagated = propagateMBT(atom);
+				}
+				if (violated == null) {
+					atomPropagated |= propagateTrue(atom);
+				}
+				atomPropagated |= propagateStrictlyContained(atom, entry.getDecisionLevel());
+			}
+
+			if (violated != null) {
+				return false;
+			}
+
+			propagated |= atomPropagated;
+		}
+		return propagated;
+	}
+
+	/**
+	 * Visits all nogoods watching the given literal, which just became contained in the assignment (in the relaxed
+	 * sense), and propagates unit ones.
+	 */
+	private boolean propagateMBT(final int literal) {
+		final int literalIndex = literalIndex(literal);
+		boolean propagated = false;
+
+		if (literalIndex < binaryWatches.length && binaryWatches[literalIndex] != null) {
+			final BinaryWatchList binaries = binaryWatches[literalIndex];
+			for (int i = 0; i < binaries.size; i++) {
+				final int otherLiteral = binaries.otherLiterals[i];
+				// Skip the nogood if it is satisfied already.
+				if (assignment.containsRelaxed(-otherLiteral)) {
+					continue;
+				}
+				if (!assign(binaries.noGoods[i], otherLiteral, MBT)) {
+					return false;
+				}
+				propagated = true;
+			}
+		}
+
+		if (literalIndex >= watches.length || watches[literalIndex] == null) {
+			return propagated;
+		}
+
+		final WatchList watchList = watches[literalIndex];
+		final int atom = atomOf(literal);
+		final int size = watchList.size;
+		int kept = 0;
+		int i = 0;
+		for (; i < size; i++) {
+			final int id = watchList.noGoods[i];
+			final int noGoodSize = noGoods.size(id);
+			final int assignedPointer = noGoods.getAtom(id, noGoods.getPointer(id, 0)) == atom ? 0 : 1;
+			final int assignedIndex = noGoods.getPointer(id, assignedPointer);
+			final int otherIndex = noGoods.getPointer(id, assignedPointer == 0 ? 1 : 0);
+
+			int newIndex = -1;
+			for (int offset = 1; offset < noGoodSize; offset++) {
+				final int index = (assignedIndex + offset) % noGoodSize;
+				if (index == otherIndex) {
+					continue;
+				}
+				final int literalAtIndex = noGoods.getLiteral(id, index);
+				if (!assignment.isAssigned(atomOf(literalAtIndex)) || !assignment.containsRelaxed(literalAtIndex)) {
+					newIndex = index;
+					break;
+				}
+			}
+
+			if (newIndex != -1) {
+				// Move the watch to the literal the pointer points at now.
+				noGoods.setPointer(id, assignedPointer, newIndex);
+				watches(noGoods.getLiteral(id, newIndex)).add(id);
+				continue;
+			}
+
+			// The pointer could not be moved, so the nogood stays here and propagates.
+			watchList.noGoods[kept++] = id;
+			if (!assign(id, noGoods.getLiteral(id, otherIndex), MBT)) {
+				i++;
+				break;
+			}
+			propagated = true;
+		}
+
+		// Keep the watches not visited due to a conflict.
+		for (; i < size; i++) {
+			watchList.noGoods[kept++] = watchList.noGoods[i];
+		}
+		watchList.size = kept;
+		return propagated;
+	}
+
+	/**
+	 * Propagates TRUE to the head of all binary nogoods whose other literal is the given atom, which just became TRUE.
+	 */
+	private boolean propagateTrue(final int atom) {
+		if (atom >= binaryTrueWatches.length || binaryTrueWatches[atom] == null) {
+			return false;
+		}
+		final BinaryWatchList binaries = binaryTrueWatches[atom];
+		for (int i = 0; i < binaries.size; i++) {
+			if (!assign(binaries.noGoods[i], binaries.otherLiterals[i], TRUE)) {
+				return false;
+			}
+		}
+		return binaries.size > 0;
+	}
+
+	/**
+	 * Counts the given literal, which just became contained in the assignment in the strict sense, for all nogoods
+	 * with head it occurs in, and propagates TRUE to the heads of those having all other literals counted now. The
+	 * counts are updated even if some nogood is violated, such that they can be restored consistently.
+	 */
+	private boolean propagateStrictlyContained(final int literal, final int decisionLevel) {
+		final int literalIndex = literalIndex(literal);
+		if (literalIndex >= counted.length) {
+			counted = Arrays.copyOf(counted, Math.max(literalIndex + 1, counted.length * 2));
+		}
+		counted[literalIndex] = true;
+		if (countedStackSize == countedStack.length) {
+			countedStack = Arrays.copyOf(countedStack, countedStackSize * 2);
+			countedStackLevels = Arrays.copyOf(countedStackLevels, countedStackSize * 2);
+		}
+		countedStack[countedStackSize] = literal;
+		countedStackLevels[countedStackSize] = decisionLevel;
+		countedStackSize++;
+
+		if (literalIndex >= headedOccurrences.length || headedOccurrences[literalIndex] == null) {
+			return false;
+		}
+		final WatchList occurrences = headedOccurrences[literalIndex];
+		boolean propagated = false;
+		for (int i = 0; i < occurrences.size; i++) {
+			final int id = occurrences.noGoods[i];
+			if (--uncountedLiterals[id] != 0 || violated != null) {
+				continue;
+			}
+			final int headLiteral = noGoods.getLiteral(id, noGoods.getHead(id));
+			if (TRUE.equals(assignment.getTruth(atomOf(headLiteral)))) {
+				continue;
+			}
+			if (assign(id, headLiteral, TRUE)) {
+				propagated = true;
+			}
+		}
+		return propagated;
+	}
+
+	private void uncount(final int literal) {
+		final int literalIndex = literalIndex(literal);
+		counted[literalIndex] = false;
+		if (literalIndex >= headedOccurrences.length || headedOccurrences[literalIndex] == null) {
+			return;
+		}
+		final WatchList occurrences = headedOccurrences[literalIndex];
+		for (int i = 0; i < occurrences.size; i++) {
+			uncountedLiterals[occurrences.noGoods[i]]++;
+		}
+	}
+
+	@Override
+	public boolean simplify() {
+		if (assignment.getDecisionLevel() != 0 || violated != null || assignmentIterator.hasNext()) {
+			return false;
+		}
+		if (levelZeroAssignments == simplifiedLevelZeroAssignments || propagationsUntilSimplification > 0) {
+			return false;
+		}
+		final int noGoodsBefore = binaryNoGoodCount + watchedNoGoodCount;
+		final long literalsBefore = storedLiterals;
+
+		// Drop nogoods that are satisfied, larger ones also if they shrink, those are added again in their simplified
+		// form. A binary nogood cannot shrink without being satisfied.
+		final List<NoGood> simplifiedNoGoods = new ArrayList<>();
+		for (int id = stored.nextSetBit(0); id != -1; id = stored.nextSetBit(id + 1)) {
+			final int size = noGoods.size(id);
+			if (!isSatisfied(id)) {
+				if (size == 2) {
+					continue;
+				}
+				final NoGood simplified = simplify(id);
+				if (simplified == null) {
+					continue;
+				}
+				simplifiedNoGoods.add(simplified);
+			}
+			if (owned.get(id)) {
+				noGoods.remove(id);
+				owned.clear(id);
+			}
+			stored.clear(id);
+			if (id < reasons.length) {
+				reasons[id] = null;
+			}
+			storedLiterals -= size;
+			if (size == 2) {
+				binaryNoGoodCount--;
+			} else {
+				watchedNoGoodCount--;
+			}
+		}
+
+		// Reclaim the space of the removed nogoods and drop all references to those no longer watched.
+		noGoods.compact();
+		for (BinaryWatchList[] lists : Arrays.asList(binaryWatches, binaryTrueWatches)) {
+			for (BinaryWatchList binaries : lists) {
+				if (binaries != null) {
+					binaries.retain(stored);
+				}
+			}
+		}
+		for (WatchList[] lists : Arrays.asList(watches, headedOccurrences)) {
+			for (WatchList watchList : lists) {
+				if (watchList != null) {
+					watchList.retain(stored);
+				}
+			}
+		}
+
+		for (NoGood noGood : simplifiedNoGoods) {
+			add(-1, noGood);
+		}
+
+		LOGGER.debug("Simplified store on decision level 0 from {} nogoods ({} literals) to {} nogoods ({} literals).", noGoodsBefore, literalsBefore, binaryNoGoodCount + watchedNoGoodCount, storedLiterals);
+		simplifiedLevelZeroAssignments = levelZeroAssignments;
+		// The next simplification is about as costly as this one, which visited all nogoods and watch lists.
+		propagationsUntilSimplification = storedLiterals + binaryWatches.length + watches.length;
+		return true;
+	}
+
+	/**
+	 * Checks whether the nogood with the given id is satisfied by the assignment, which is on decision level 0, i.e.,
+	 * it contains a literal that can no longer be contained (for the head only if its atom is TRUE already).
+	 */
+	private boolean isSatisfied(int id) {
+		for (int i = 0; i < noGoods.size(id); i++) {
+			final int literal = noGoods.getLiteral(id, i);
+			final ThriceTruth truth = assignment.getTruth(atomOf(literal));
+			if (truth != null && !assignment.containsRelaxed(literal) && (i != noGoods.getHead(id) || truth == TRUE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Simplifies a nogood that is not satisfied by the assignment, which is on decision level 0. Literals contained in
+	 * the assignment are removed, except for literals of nogoods with head that are only contained in the relaxed
+	 * sense (their atom is MBT), since those still have to become TRUE before the head is propagated TRUE. A contained
+	 * head is just a literal, the nogood then loses its head.
+	 * @return null if nothing can be removed, the simplified nogood otherwise.
+	 */
+	private NoGood simplify(int id) {
+		final int[] literals = new int[noGoods.size(id)];
+		final boolean hasHead = noGoods.hasHead(id);
+		int size = 0;
+		int head = -1;
+		for (int i = 0; i < literals.length; i++) {
+			final int literal = noGoods.getLiteral(id, i);
+			final ThriceTruth truth = assignment.getTruth(atomOf(literal));
+			final boolean isHead = hasHead && i == noGoods.getHead(id);
+			// Not being satisfied, a literal that cannot be contained is a head whose atom is not TRUE, which is kept.
+			if (truth != null && assignment.containsRelaxed(literal) && (isHead || !hasHead || assignment.contains(literal))) {
+				continue;
+			}
+			if (isHead) {
+				head = size;
+			}
+			literals[size++] = literal;
+		}
+		if (size == literals.length || size == 0) {
+			// An empty nogood would be violated, which the propagation on decision level 0 would have found already.
+			return null;
+		}
+		return new NoGood(Arrays.copyOf(literals, size), head);
+	}
+
+	/**
+	 * Watches of binary nogoods: for each watch, the other literal of the nogood and the id of the nogood itself.
+	 */
+	private static final class BinaryWatchList {
+		private int[] otherLiterals = new int[4];
+		private int[] noGoods = new int[4];
+		private int size;
+
+		private void add(int otherLiteral, int noGood) {
+			if (size == otherLiterals.length) {
+				otherLiterals = Arrays.copyOf(otherLiterals, size * 2);
+				noGoods = Arrays.copyOf(noGoods, size * 2);
+			}
+			otherLiterals[size] = otherLiteral;
+			noGoods[size] = noGood;
+			size++;
+		}
+
+		/**
+		 * Drops the watches of nogoods whose ids are not in the given set, keeping the order of the others.
+		 */
+		private void retain(BitSet ids) {
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				if (ids.get(noGoods[i])) {
+					otherLiterals[kept] = otherLiterals[i];
+					noGoods[kept] = noGoods[i];
+					kept++;
+				}
+			}
+			size = kept;
+		}
+	}
+
+	/**
+	 * Watches of nogoods with more than two literals, as their ids.
+	 */
+	private static final class WatchList {
+		private int[] noGoods = new int[4];
+		private int size;
+
+		private void add(int noGood) {
+			if (size == noGoods.length) {
+				noGoods = Arrays.copyOf(noGoods, size * 2);
+			}
+			noGoods[size++] = noGood;
+		}
+
+		/**
+		 * Drops the ids of nogoods that are not in the given set, keeping the order of the others.
+		 */
+		private void retain(BitSet ids) {
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				if (ids.get(noGoods[i])) {
+					noGoods[kept++] = noGoods[i];
+				}
+			}
+			size = kept;
+		}
+	}
+}
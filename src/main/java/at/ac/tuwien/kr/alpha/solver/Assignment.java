@@ -32,6 +32,17 @@ public interface Assignment extends Iterable<Assignment.Entry> {
 	 */
 	int getMBTCount();
 
+	/**
+	 * Makes the atoms with ids up to the given one known, such that {@link #getUnassignedAtom()} reports them while
+	 * they are unassigned.
+	 */
+	void growForMaxAtomId(int maxAtomId);
+
+	/**
+	 * @return some known atom that is unassigned, 0 if all known atoms are assigned.
+	 */
+	int getUnassignedAtom();
+
 	boolean assign(int atom, ThriceTruth value, NoGood impliedBy);
 
 	default boolean assign(int atom, ThriceTruth value) {
@@ -50,6 +61,16 @@ default boolean assign(int atom, ThriceTruth value) {
 
 	int getDecisionLevel();
 
+	/**
+	 * Returns the decision level on which an atom was assigned.
+	 * @param atom the id of the atom.
+	 * @return the decision level; -1 if the atom is not assigned.
+	 */
+	default int getDecisionLevel(int atom) {
+		final Entry entry = get(atom);
+		return entry == null ? -1 : entry.getDecisionLevel();
+	}
+
 	/**
 	 * Returns the truth value assigned to an atom.
 	 * @param atom the id of the atom.
@@ -78,12 +99,36 @@ default boolean contains(int literal) {
 		return entry != null && (isNegated(literal) ? FALSE : TRUE).equals(entry.getTruth());
 	}
 
+	/**
+	 * Returns the entry that made the given literal contained in the assignment (in the relaxed sense, i.e., MBT
+	 * counts as true). For a positive literal whose atom is TRUE and was MBT before, this is the earlier MBT entry.
+	 * @param literal the literal.
+	 * @return the entry; null if the literal is not contained in the assignment.
+	 */
+	default Entry getContainingEntry(int literal) {
+		if (!containsRelaxed(literal)) {
+			return null;
+		}
+		final Entry entry = get(atomOf(literal));
+		if (!isNegated(literal) && entry.getPrevious() != null) {
+			return entry.getPrevious();
+		}
+		return entry;
+	}
+
 	default boolean contains(NoGood noGood, int index) {
 		return contains(noGood.getLiteral(index));
 	}
 
 	Iterator<OrdinaryAssignment> ordinaryIterator();
 
+	/**
+	 * Every iterator of the assignment ({@link #iterator()} and {@link #ordinaryIterator()}) is rewound when
+	 * backtracking until it is released, after which it must not be used anymore. Consumers that iterate only for a
+	 * while release their iterator, long-lived consumers create a single one.
+	 */
+	void release(Iterator<?> iterator);
+
 	interface Entry {
 		ThriceTruth getTruth();
 		int getDecisionLevel();
@@ -91,5 +136,12 @@ interface Entry {
 		NoGood getImpliedBy();
 
 		int getAtom();
+
+		/**
+		 * Returns the position of this entry among all assignments, i.e., entries made later have a higher
+		 * propagation level than entries made earlier.
+		 * @return the propagation level of this entry.
+		 */
+		int getPropagationLevel();
 	}
 }
@@ -0,0 +1,53 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.BasicAtom;
+
+/**
+ * A ground atom assumed TRUE or FALSE for one call of {@link DefaultSolver#solve(java.util.Collection)}. An atom
+ * assumed TRUE must be derived by the program, i.e., assumptions restrict the answer sets but never add atoms to them.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class Assumption {
+	private final BasicAtom atom;
+	private final boolean value;
+
+	public Assumption(BasicAtom atom, boolean value) {
+		if (!atom.isGround()) {
+			throw new IllegalArgumentException("Assumption on non-ground atom " + atom + ".");
+		}
+		this.atom = atom;
+		this.value = value;
+	}
+
+	public BasicAtom getAtom() {
+		return atom;
+	}
+
+	public boolean getValue() {
+		return value;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		Assumption that = (Assumption) o;
+
+		return value == that.value && atom.equals(that.atom);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * atom.hashCode() + (value ? 1 : 0);
+	}
+
+	@Override
+	public String toString() {
+		return (value ? "" : "not ") + atom;
+	}
+}
@@ -20,6 +20,8 @@ public class BasicAssignment implements Assignment {
 	private final Grounder grounder;
 
 	private int mbtCount;
+	private int propagationLevel;
+	private int maxAtomId;
 
 	public BasicAssignment(Grounder grounder) {
 		this.grounder = grounder;
@@ -37,6 +39,7 @@ public void clear() {
 		decisionLevels.add(new ArrayList<>());
 		assignment.clear();
 		mbtCount = 0;
+		propagationLevel = 0;
 	}
 
 	@Override
@@ -70,6 +73,21 @@ public int getMBTCount() {
 		return mbtCount;
 	}
 
+	@Override
+	public void growForMaxAtomId(int maxAtomId) {
+		this.maxAtomId = Math.max(this.maxAtomId, maxAtomId);
+	}
+
+	@Override
+	public int getUnassignedAtom() {
+		for (int atom = 1; atom <= maxAtomId; atom++) {
+			if (!assignment.containsKey(atom)) {
+				return atom;
+			}
+		}
+		return 0;
+	}
+
 	@Override
 	public boolean guess(int atom, ThriceTruth value) {
 		decisionLevels.add(new ArrayList<>());
@@ -107,7 +125,7 @@ public boolean assign(int atom, ThriceTruth value, NoGood impliedBy) {
 			mbtCount++;
 		}
 
-		final Entry next = new Entry(value, decisionLevel, impliedBy, current, atom);
+		final Entry next = new Entry(value, decisionLevel, impliedBy, current, atom, propagationLevel++);
 		LOGGER.trace("Recording assignment {}: {}", atom, next);
 		decisionLevels.get(decisionLevel).add(next);
 		assignment.put(atom, next);
@@ -170,19 +188,26 @@ public Iterator<OrdinaryAssignment> ordinaryIterator() {
 		return new OrdinaryBasicAssignmentIterator(iterator());
 	}
 
+	@Override
+	public void release(Iterator<?> iterator) {
+		iterators.remove(iterator instanceof OrdinaryBasicAssignmentIterator ? ((OrdinaryBasicAssignmentIterator) iterator).delegate : iterator);
+	}
+
 	private static final class Entry implements Assignment.Entry {
 		private final ThriceTruth value;
 		private final int decisionLevel;
 		private final Entry previous;
 		private final NoGood impliedBy;
 		private final int atom;
+		private final int propagationLevel;
 
-		Entry(ThriceTruth value, int decisionLevel, NoGood noGood, Entry previous, int atom) {
+		Entry(ThriceTruth value, int decisionLevel, NoGood noGood, Entry previous, int atom, int propagationLevel) {
 			this.value = value;
 			this.decisionLevel = decisionLevel;
 			this.impliedBy = noGood;
 			this.previous = previous;
 			this.atom = atom;
+			this.propagationLevel = propagationLevel;
 		}
 
 		@Override
@@ -210,6 +235,11 @@ public int getAtom() {
 			return atom;
 		}
 
+		@Override
+		public int getPropagationLevel() {
+			return propagationLevel;
+		}
+
 		@Override
 		public String toString() {
 			return value.toString() + "(" + decisionLevel + ")";
@@ -96,12 +96,6 @@ private boolean addAndWatchBinary(final int id, final NoGood noGood) {
 			return true;
 		}
 
-		// Check for violation.
-		if (assignment.containsRelaxed(a) && assignment.containsRelaxed(b)) {
-			setViolated(noGood);
-			return false;
-		}
-
 		// Store this nogood for referencing it by ID later.
 		binaries.put(id, noGood);
 
@@ -111,6 +105,13 @@ private boolean addAndWatchBinary(final int id, final NoGood noGood) {
 		watches(a).b.get(isNegated(a) ? FALSE : MBT).add(new BinaryWatch(id, 1));
 		watches(b).b.get(isNegated(b) ? FALSE : MBT).add(new BinaryWatch(id, 0));
 
+		// Check for violation. The watches are kept, since the nogood
+		// may become unit after backtracking.
+		if (assignment.containsRelaxed(a) && assignment.containsRelaxed(b)) {
+			setViolated(noGood);
+			return false;
+		}
+
 		// If the nogood has a head literal, take extra care as it
 		// might propagate TRUE (and not only FALSE or MBT, which
 		// are accounted for above).
@@ -163,31 +164,27 @@ private boolean addAndWatchBinary(final int id, final NoGood noGood) {
 
 	/**
 	 * Adds a noGood to the store and performs following precautions:
-	 *  * If <code>noGood</code> is violated, start backtracking
-	 *  * If <code>noGood</code> is unit, propagate
-	 *  * If <code>noGood</code> has at least two unassigned literals, add appropriate watches.
-	 *  * If <code>noGood</code> is eligible for propagating <code>TRUE</code> add appropriate watches.
+	 *  * If <code>noGood</code> is violated, report it (and start backtracking).
+	 *  * If <code>noGood</code> is unit, propagate.
+	 *  * If <code>noGood</code> is eligible for propagating <code>TRUE</code>, propagate.
+	 *  * Add watches such that they stay valid under backtracking: the first two pointers are placed on literals
+	 *    not contained in the assignment if possible, otherwise on the contained literals with highest decision
+	 *    level. The same holds for the third pointer with respect to positive literals that are not TRUE.
 	 * @param noGood
-	 * @return
+	 * @return false iff <code>noGood</code> is violated.
 	 */
 	private boolean addAndWatch(final NoGood noGood) {
-		// Do one iteration over the nogood in order to find out whether it (1.) is violated
-		// or (2.) might propagate. The second condition is slightly differs from "unit".
-		// Even if all literals are assigned, there might be a propagation to TRUE. However,
-		// there must be at most one unassigned literal and all other literals must be
-		// contained in the assignment.
-		boolean isViolated = true;
-		boolean propagatesMbt = true;
-		boolean propagatesTrue = true;
-
 		Map<Integer, Boolean> mapRep = new HashMap<>();
 
-		// Along the way keep pointers to the first two
-		// unassigned literals encountered and the index
-		// and priority for placing the third pointer in
-		// order to propagate TRUE.
 		int[] pointers = new int[]{-1, -1, -1};
-		int priority = -1;
+		int[] priorities = new int[]{-1, -1, -1};
+
+		// Number of literals that are not contained in the assignment, if
+		// there is only one of them the nogood is unit (or satisfied).
+		int notContained = 0;
+		// Whether all literals except for the head are contained in the
+		// assignment in the strict sense (i.e. TRUE, not only MBT).
+		boolean propagatesTrue = noGood.hasHead();
 
 		for (int i = 0; i < noGood.size(); i++) {
 			final int literal = noGood.getLiteral(i);
@@ -200,80 +197,38 @@ private boolean addAndWatch(final NoGood noGood) {
 				mapRep.put(atomOf(literal), isNegated(literal));
 			}
 
-			// Third pointer comes into play if there's a head literal. It may
-			// not point at the head literal, though. Also it must not be negated.
-			if (noGood.hasHead() && noGood.getHead() != i && !isNegated(literal)) {
-				int candidatePriority = toPriority(noGood.getAtom(i));
-				if (candidatePriority > priority) {
-					pointers[2] = i;
-					priority = candidatePriority;
-				}
+			final int priority = toWatchPriority(literal);
+			if (priority >= Integer.MAX_VALUE - 1) {
+				notContained++;
 			}
 
-			final ThriceTruth value = assignment.getTruth(atomOf(literal));
-
-			// Once we found a literal that is not contained in the assignment, we
-			// can be sure that the nogood is not violated.
-			if (!(isNegated(literal) ? FALSE : TRUE).equals(value)) {
-				isViolated = false;
-				if (value != null) {
-					// If the literal also is assigned, we can further
-					// deduce that it will not propagate.
-					propagatesTrue = false;
-
-					// Regular unit propagation is has weaker constraints,
-					// MBT is allowed for positive literals, so check this
-					// separately.
-					if (value.toBoolean() == isNegated(literal)) {
-						propagatesMbt = false;
-					}
-				}
+			if (priority > priorities[0]) {
+				pointers[1] = pointers[0];
+				priorities[1] = priorities[0];
+				pointers[0] = i;
+				priorities[0] = priority;
+			} else if (priority > priorities[1]) {
+				pointers[1] = i;
+				priorities[1] = priority;
 			}
 
-			// Look closely at all unassigned literals and record their index.
-			if (value == null) {
-				if (pointers[0] == -1) {
-					pointers[0] = i;
-				} else if (pointers[1] == -1) {
-					pointers[1] = i;
-
-					// In case there are two unassigned literals,
-					// the nogood will not propagate.
-					propagatesMbt = false;
+			if (noGood.hasHead() && noGood.getHead() != i) {
+				if (!assignment.contains(literal)) {
 					propagatesTrue = false;
 				}
-			}
-		}
 
-		if (isViolated) {
-			setViolated(noGood);
-			return false;
-		}
-
-		// "propagates" makes sure that there is at most one unassigned literal, and all other literals are
-		// contained in the assignment.
-		if (propagatesTrue && (pointers[0] == noGood.getHead() || pointers[0] == -1) && pointers[2] != -1) {
-			// In case there is no unassigned literal, or the only unassigned literal is the head,
-			// and furthermore the third pointer points at a TRUE atom, propagate TRUE for the head.
-			if (!assign(noGood, noGood.getHead(), TRUE)) {
-				return false;
-			}
-		} else if (propagatesMbt && pointers[0] != -1 && pointers[1] == -1) {
-			// If there is exactly one unassigned literal, perform regular unit propagation.
-			if (!assign(noGood, pointers[0], MBT)) {
-				return false;
+				// Third pointer comes into play if there's a head literal. It may
+				// not point at the head literal, though. Also it must not be negated.
+				if (!isNegated(literal)) {
+					final int candidatePriority = TRUE.equals(assignment.getTruth(atomOf(literal))) ? toPriority(atomOf(literal)) : Integer.MAX_VALUE;
+					if (candidatePriority > priorities[2]) {
+						pointers[2] = i;
+						priorities[2] = candidatePriority;
+					}
+				}
 			}
 		}
 
-		// Now fix up pointers in case no unassigned literals were found.
-		if (pointers[0] == -1) {
-			pointers[0] = 0;
-		}
-
-		if (pointers[1] == -1) {
-			pointers[1] = (pointers[0] + noGood.size() / 2) % noGood.size();
-		}
-
 		final WatchedNoGood wng = new WatchedNoGood(noGood, pointers);
 
 		for (int i = 0; i < 2; i++) {
@@ -287,9 +242,40 @@ private boolean addAndWatch(final NoGood noGood) {
 			watches(noGood.getLiteral(pointers[2])).n.get(TRUE).add(wng);
 		}
 
+		if (notContained == 0) {
+			setViolated(noGood);
+			return false;
+		}
+
+		if (propagatesTrue && !TRUE.equals(assignment.getTruth(noGood.getAtom(noGood.getHead())))) {
+			// All literals except for the head are TRUE (resp. FALSE), so propagate TRUE for the head.
+			return assign(wng, noGood.getHead(), TRUE);
+		}
+
+		if (notContained == 1 && priorities[0] == Integer.MAX_VALUE) {
+			// There is exactly one unassigned literal and all others are contained, perform regular unit propagation.
+			return assign(wng, pointers[0], MBT);
+		}
+
 		return true;
 	}
 
+	/**
+	 * Ranks a literal as candidate for the first two pointers of a nogood. Unassigned literals are best, followed by
+	 * literals whose complement is in the assignment. Literals contained in the assignment are ranked by the decision
+	 * level on which they became contained.
+	 */
+	private int toWatchPriority(int literal) {
+		if (!assignment.isAssigned(atomOf(literal))) {
+			return Integer.MAX_VALUE;
+		}
+		final Assignment.Entry entry = assignment.getContainingEntry(literal);
+		if (entry == null) {
+			return Integer.MAX_VALUE - 1;
+		}
+		return entry.getDecisionLevel();
+	}
+
 	private boolean assign(final NoGood noGood, final int index, final ThriceTruth negated) {
 		int literal = noGood.getLiteral(index);
 		if (!assignment.assign(atomOf(literal), isNegated(literal) ? negated : FALSE, noGood)) {
@@ -473,11 +459,8 @@ private boolean propagateTrue(final int atom) {
 	}
 
 	private int toPriority(int atom) {
-		final Assignment.Entry entry = assignment.get(atom);
-		if (entry == null) {
-			return Integer.MAX_VALUE;
-		}
-		return entry.getDecisionLevel();
+		final int decisionLevel = assignment.getDecisionLevel(atom);
+		return decisionLevel == -1 ? Integer.MAX_VALUE : decisionLevel;
 	}
 
 	private static final class BinaryWatch {
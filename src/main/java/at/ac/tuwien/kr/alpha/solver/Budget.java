@@ -0,0 +1,136 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+/**
+ * Limits on the resources spent on solving, checked by the solver and the grounder at points where they can stop
+ * without leaving an inconsistent state: wall-clock time since the first check, decisions, conflicts, ground nogoods
+ * and used heap. A budget may also be cancelled from another thread. Once a limit is exceeded or the budget is
+ * cancelled, it stays exhausted and the solver ends its stream of answer sets as if there were no further ones,
+ * {@link #getExhaustion()} tells the reason. Limits of 0 (the default) are not checked.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class Budget {
+	/**
+	 * The reason a budget is exhausted.
+	 */
+	public enum Exhaustion {
+		CANCELLED,
+		TIME,
+		DECISIONS,
+		CONFLICTS,
+		GROUND_NOGOODS,
+		MEMORY
+	}
+
+	private long timeLimitMillis;
+	private long decisionLimit;
+	private long conflictLimit;
+	private long groundNoGoodLimit;
+	private long memoryLimitBytes;
+
+	private long startNanos;
+	private boolean started;
+	private volatile boolean cancelled;
+	private volatile Exhaustion exhaustion;
+
+	public Budget setTimeLimit(long millis) {
+		this.timeLimitMillis = millis;
+		return this;
+	}
+
+	public Budget setDecisionLimit(long decisions) {
+		this.decisionLimit = decisions;
+		return this;
+	}
+
+	public Budget setConflictLimit(long conflicts) {
+		this.conflictLimit = conflicts;
+		return this;
+	}
+
+	public Budget setGroundNoGoodLimit(long noGoods) {
+		this.groundNoGoodLimit = noGoods;
+		return this;
+	}
+
+	public Budget setMemoryLimit(long bytes) {
+		this.memoryLimitBytes = bytes;
+		return this;
+	}
+
+	/**
+	 * Exhausts the budget at the next check. May be called from any thread.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return the reason the budget is exhausted, null if it is not.
+	 */
+	public Exhaustion getExhaustion() {
+		return exhaustion;
+	}
+
+	public boolean isExhausted() {
+		return exhaustion != null;
+	}
+
+	/**
+	 * Checks cancellation, time and memory, and the limits on the search.
+	 * @return true iff the budget is exhausted.
+	 */
+	public boolean checkSearch(long decisions, long conflicts) {
+		if (check()) {
+			return true;
+		}
+		if (decisionLimit > 0 && decisions >= decisionLimit) {
+			return exhaust(Exhaustion.DECISIONS);
+		}
+		if (conflictLimit > 0 && conflicts >= conflictLimit) {
+			return exhaust(Exhaustion.CONFLICTS);
+		}
+		return false;
+	}
+
+	/**
+	 * Checks cancellation, time and memory, and the limit on grounding.
+	 * @return true iff the budget is exhausted.
+	 */
+	public boolean checkGrounding(long groundNoGoods) {
+		if (check()) {
+			return true;
+		}
+		if (groundNoGoodLimit > 0 && groundNoGoods >= groundNoGoodLimit) {
+			return exhaust(Exhaustion.GROUND_NOGOODS);
+		}
+		return false;
+	}
+
+	private boolean check() {
+		if (exhaustion != null) {
+			return true;
+		}
+		if (!started) {
+			startNanos = System.nanoTime();
+			started = true;
+		}
+		if (cancelled) {
+			return exhaust(Exhaustion.CANCELLED);
+		}
+		if (timeLimitMillis > 0 && (System.nanoTime() - startNanos) / 1_000_000 >= timeLimitMillis) {
+			return exhaust(Exhaustion.TIME);
+		}
+		if (memoryLimitBytes > 0) {
+			final Runtime runtime = Runtime.getRuntime();
+			if (runtime.totalMemory() - runtime.freeMemory() >= memoryLimitBytes) {
+				return exhaust(Exhaustion.MEMORY);
+			}
+		}
+		return false;
+	}
+
+	private boolean exhaust(Exhaustion reason) {
+		exhaustion = reason;
+		return true;
+	}
+}
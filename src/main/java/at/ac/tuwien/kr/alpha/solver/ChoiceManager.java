@@ -0,0 +1,189 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.solver.heuristics.BranchingHeuristic;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.*;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.MBT;
+
+/**
+ * Keeps track of which choice points are active. A choice atom is enabled if the atom enabling it (choiceOn) is TRUE
+ * or MBT, and disabled if the atom disabling it (choiceOff) is TRUE or MBT. It is active if it is enabled and not
+ * disabled.
+ *
+ * The status of choice atoms is updated from the assignments made since the last update, i.e. without rescanning
+ * all choice points. Every status change is recorded with the decision level of the assignment causing it, such that
+ * it can be undone when backtracking below that level. Whenever a choice atom becomes active or inactive, the
+ * branching heuristic is informed, such that it need not test choice atoms itself.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class ChoiceManager {
+	private final Assignment assignment;
+	private final Iterator<Assignment.Entry> assignmentIterator;
+	private final BranchingHeuristic branchingHeuristic;
+
+	// Maps enabling and disabling atoms to the choice atom they enable or disable.
+	private final Map<Integer, Integer> choiceOn = new HashMap<>();
+	private final Map<Integer, Integer> choiceOff = new HashMap<>();
+
+	// Status of choice atoms, indexed by atom id.
+	private boolean[] enabled = new boolean[0];
+	private boolean[] disabled = new boolean[0];
+
+	// Status changes per decision level, a positive atom was enabled, a negative one disabled.
+	private final List<List<Integer>> changes = new ArrayList<>();
+
+	ChoiceManager(Assignment assignment, BranchingHeuristic branchingHeuristic) {
+		this.assignment = assignment;
+		this.assignmentIterator = assignment.iterator();
+		this.branchingHeuristic = branchingHeuristic;
+	}
+
+	ChoiceManager(Assignment assignment) {
+		this(assignment, null);
+	}
+
+	/**
+	 * Registers new choice points as reported by {@link at.ac.tuwien.kr.alpha.grounder.Grounder#getChoiceAtoms()}.
+	 * Enabling and disabling atoms that are assigned already are taken into account, new choice atoms that are not
+	 * active thereby are reported inactive to the branching heuristic.
+	 */
+	void addChoiceInformation(Pair<Map<Integer, Integer>, Map<Integer, Integer>> choiceAtoms) {
+		for (Map.Entry<Integer, Integer> enabler : choiceAtoms.getKey().entrySet()) {
+			choiceOn.put(enabler.getKey(), enabler.getValue());
+			growForAtom(enabler.getValue());
+			final Assignment.Entry entry = assignment.getContainingEntry(enabler.getKey());
+			if (entry != null) {
+				setStatus(enabler.getValue(), entry.getDecisionLevel());
+			}
+		}
+		for (Map.Entry<Integer, Integer> disabler : choiceAtoms.getValue().entrySet()) {
+			choiceOff.put(disabler.getKey(), disabler.getValue());
+			growForAtom(disabler.getValue());
+			final Assignment.Entry entry = assignment.getContainingEntry(disabler.getKey());
+			if (entry != null) {
+				setStatus(-disabler.getValue(), entry.getDecisionLevel());
+			}
+		}
+		if (branchingHeuristic != null) {
+			for (int atom : choiceAtoms.getKey().values()) {
+				if (!isActive(atom)) {
+					branchingHeuristic.choiceAtomDeactivated(atom);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates the status of choice atoms with all assignments made since the last update.
+	 */
+	void updateAssignment() {
+		while (assignmentIterator.hasNext()) {
+			final Assignment.Entry entry = assignmentIterator.next();
+			if (!entry.getTruth().toBoolean()) {
+				continue;
+			}
+			final Integer enabledChoice = choiceOn.get(entry.getAtom());
+			if (enabledChoice != null) {
+				setStatus(enabledChoice, entry.getDecisionLevel());
+			}
+			final Integer disabledChoice = choiceOff.get(entry.getAtom());
+			if (disabledChoice != null) {
+				setStatus(-disabledChoice, entry.getDecisionLevel());
+			}
+		}
+	}
+
+	/**
+	 * Undoes all status changes caused by assignments above the current decision level of the assignment.
+	 */
+	void backtrack() {
+		for (int level = changes.size() - 1; level > assignment.getDecisionLevel(); level--) {
+			for (int change : changes.get(level)) {
+				final int atom = Math.abs(change);
+				final boolean wasActive = isActive(atom);
+				if (change > 0) {
+					enabled[atom] = false;
+				} else {
+					disabled[atom] = false;
+				}
+				notifyIfChanged(atom, wasActive);
+			}
+			changes.get(level).clear();
+		}
+	}
+
+	/**
+	 * Checks whether the given atom is an active choice point that is either unassigned or MBT (changing to TRUE
+	 * following the guess). Requires an {@link #updateAssignment()} after the latest assignments.
+	 */
+	boolean isActiveChoiceAtom(int atom) {
+		if (atom >= enabled.length || !isActive(atom)) {
+			return false;
+		}
+		final ThriceTruth truth = assignment.getTruth(atom);
+		return truth == null || truth == MBT;
+	}
+
+	/**
+	 * @return the active choice atoms that are unassigned, in the order of their ids. Requires an
+	 * {@link #updateAssignment()} after the latest assignments.
+	 */
+	List<Integer> getUnassignedActiveChoiceAtoms() {
+		final List<Integer> atoms = new ArrayList<>();
+		for (int atom = 1; atom < enabled.length; atom++) {
+			if (isActive(atom) && !assignment.isAssigned(atom)) {
+				atoms.add(atom);
+			}
+		}
+		return atoms;
+	}
+
+	/**
+	 * @return true iff the given atom enables or disables some choice atom.
+	 */
+	boolean isChoicePointAtom(int atom) {
+		return choiceOn.containsKey(atom) || choiceOff.containsKey(atom);
+	}
+
+	private void setStatus(int change, int decisionLevel) {
+		final int atom = Math.abs(change);
+		final boolean[] status = change > 0 ? enabled : disabled;
+		if (status[atom]) {
+			return;
+		}
+		final boolean wasActive = isActive(atom);
+		status[atom] = true;
+		while (changes.size() <= decisionLevel) {
+			changes.add(new ArrayList<>());
+		}
+		changes.get(decisionLevel).add(change);
+		notifyIfChanged(atom, wasActive);
+	}
+
+	private boolean isActive(int atom) {
+		return enabled[atom] && !disabled[atom];
+	}
+
+	private void notifyIfChanged(int atom, boolean wasActive) {
+		final boolean active = isActive(atom);
+		if (branchingHeuristic == null || active == wasActive) {
+			return;
+		}
+		if (active) {
+			branchingHeuristic.choiceAtomActivated(atom);
+		} else {
+			branchingHeuristic.choiceAtomDeactivated(atom);
+		}
+	}
+
+	private void growForAtom(int atom) {
+		if (atom < enabled.length) {
+			return;
+		}
+		final int newLength = Math.max(atom + 1, enabled.length * 2);
+		enabled = Arrays.copyOf(enabled, newLength);
+		disabled = Arrays.copyOf(disabled, newLength);
+	}
+}
@@ -28,6 +28,14 @@ public boolean peekValue() {
 		return delegate.peek().value;
 	}
 
+	public int getAtom(int index) {
+		return delegate.get(index).atom;
+	}
+
+	public boolean getValue(int index) {
+		return delegate.get(index).value;
+	}
+
 	@Override
 	public String toString() {
 		return delegate.toString();
@@ -4,80 +4,355 @@
 import at.ac.tuwien.kr.alpha.common.NoGood;
 import at.ac.tuwien.kr.alpha.common.OrdinaryAssignment;
 import at.ac.tuwien.kr.alpha.grounder.Grounder;
+import at.ac.tuwien.kr.alpha.solver.heuristics.BranchingHeuristic;
+import at.ac.tuwien.kr.alpha.solver.heuristics.BranchingHeuristicFactory;
+import at.ac.tuwien.kr.alpha.solver.heuristics.WarmStartHeuristic;
+import at.ac.tuwien.kr.alpha.solver.restarts.RestartStrategy;
+import at.ac.tuwien.kr.alpha.solver.restarts.RestartStrategyFactory;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
 
+import static at.ac.tuwien.kr.alpha.common.Literals.atomOf;
+import static at.ac.tuwien.kr.alpha.common.Literals.isNegated;
 import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.*;
 
 /**
  * The new default solver employed in Alpha.
  * Copyright (c) 2016, the Alpha Team.
  */
-public class DefaultSolver extends AbstractSolver {
+public class DefaultSolver extends AbstractSolver implements SolverMaintainingStatistics, SolverMaintainingCost {
 	private static final Logger LOGGER = LoggerFactory.getLogger(DefaultSolver.class);
+	private static final int MAX_SHARED_NOGOOD_SIZE = 2;
+	private static final int CONTRADICTED = Integer.MIN_VALUE;
 
 	private final NoGoodStore<ThriceTruth> store;
-	private final Map<Integer, Integer> choiceOn = new LinkedHashMap<>();
-	private final Map<Integer, Integer> choiceOff = new HashMap<>();
 	private final ChoiceStack choiceStack;
+	private final ChoiceManager choiceManager;
 	private final Assignment assignment;
+	private final GroundConflictNoGoodLearner learner;
+	private final BranchingHeuristic branchingHeuristic;
+	private final IntPredicate isActiveChoiceAtom;
 	private final Iterator<OrdinaryAssignment> assignmentIterator;
+	private final RestartStrategy restartStrategy;
+
+	// Reads the trail to record the last truth value of atoms before they are unassigned, null if phases are not saved.
+	private final Iterator<Assignment.Entry> phaseIterator;
+	private final BitSet falsePhases = new BitSet();
+
+	private final WarmStart warmStart;
+	private final WarmStartHeuristic warmStartHeuristic;
+
+	// Exchange of nogoods with other solvers, null if nogoods are not shared.
+	private NoGoodExchange noGoodExchange;
+	private int exchangeIndex;
+	private boolean foundAnswerSet;
+
+	// Decisions restricting the search to a subtree and their atom ids, 0 for atoms not known yet. Creates solvers for
+	// the subtrees split off, null if splitting is not enabled.
+	private GuidingPath guidingPath = GuidingPath.EMPTY;
+	private int[] guidingPathAtoms = new int[0];
+	private Function<GuidingPath, DefaultSolver> subtreeSolvers;
+	private boolean splittable;
+
+	// The assumptions of the current call of solve and their literals, and the assumptions that made the last call
+	// fail. Once the solver solved under assumptions, it cannot enumerate anymore and vice versa.
+	private List<Assumption> assumptions = Collections.emptyList();
+	private int[] assumptionLiterals = new int[0];
+	private List<Assumption> failedAssumptions = Collections.emptyList();
+	private boolean solvedUnderAssumptions;
+
+	// Bounds the cost of answer sets by the last one found if the program has weak constraints.
+	private final WeakConstraintPropagator weakConstraintPropagator;
+	private final boolean optimizing;
+	private boolean optimumProven;
+
+	// Propagates the threshold atoms of aggregates by nogoods it generates on demand.
+	private final AggregatePropagator aggregatePropagator;
+
+	// Atoms of shared nogoods and guiding paths are mapped to atom ids by their string representation, which is
+	// recorded for all atoms occurring in nogoods of the grounder if needed.
+	private boolean recordAtomStrings;
+	private final Map<String, Integer> atomIdsByString = new HashMap<>();
+	private final BitSet recordedAtoms = new BitSet();
+
+	// Simplifies nogoods from the grounder before they are added to the store, null if they are added as they are.
+	private NoGoodPreprocessor preprocessor;
+
+	// Limits the resources of the search and of the grounder, null if unlimited.
+	private Budget budget;
+
+	// Probes choice atoms on decision level 0 before the first decision, null if they are not probed.
+	private Prober prober;
 
 	private boolean initialize = true;
 
 	private boolean didChange;
 
 	private int decisionCounter;
-	private List<Integer> unassignedAtoms;
+	private int conflictCounter;
+	private int restartCounter;
+
+	// Nogoods that propagated on a decision level above the lowest level they could have propagated on, indexed by
+	// the level of the propagated assignment. Their propagation is redone when the solver backjumps below that level.
+	private final List<List<NoGood>> outOfLevelPropagatingNoGoods = new ArrayList<>();
 
 	public DefaultSolver(Grounder grounder) {
+		this(grounder, BranchingHeuristicFactory.DEFAULT);
+	}
+
+	public DefaultSolver(Grounder grounder, String branchingHeuristicName) {
+		this(grounder, branchingHeuristicName, RestartStrategyFactory.DEFAULT, false);
+	}
+
+	public DefaultSolver(Grounder grounder, String branchingHeuristicName, String restartStrategyName, boolean phaseSaving) {
+		this(grounder, branchingHeuristicName, restartStrategyName, phaseSaving, null);
+	}
+
+	public DefaultSolver(Grounder grounder, String branchingHeuristicName, String restartStrategyName, boolean phaseSaving, WarmStart warmStart) {
+		this(grounder, branchingHeuristicName, RestartStrategyFactory.getInstance(restartStrategyName), phaseSaving, warmStart);
+	}
+
+	DefaultSolver(Grounder grounder, String branchingHeuristicName, RestartStrategy restartStrategy, boolean phaseSaving, WarmStart warmStart) {
+		this(grounder, branchingHeuristicName, restartStrategy, phaseSaving, warmStart, null);
+	}
+
+	/**
+	 * @param random the source of randomness of the branching heuristic, may be null.
+	 */
+	DefaultSolver(Grounder grounder, String branchingHeuristicName, RestartStrategy restartStrategy, boolean phaseSaving, WarmStart warmStart, Random random) {
 		super(grounder);
 
-		this.assignment = new BasicAssignment(grounder);
+		this.assignment = new ArrayAssignment(grounder);
 		this.assignmentIterator = this.assignment.ordinaryIterator();
-		this.store = new BasicNoGoodStore(assignment, grounder);
+		this.store = new ArrayNoGoodStore(assignment, grounder);
 		this.choiceStack = new ChoiceStack(grounder);
+		this.learner = new GroundConflictNoGoodLearner(assignment);
+		this.restartStrategy = restartStrategy;
+		this.phaseIterator = phaseSaving ? assignment.iterator() : null;
+		this.warmStart = warmStart;
+		final BranchingHeuristic branchingHeuristic = BranchingHeuristicFactory.getInstance(branchingHeuristicName, assignment, random);
+		this.warmStartHeuristic = warmStart == null ? null : new WarmStartHeuristic(branchingHeuristic);
+		this.branchingHeuristic = warmStart == null ? branchingHeuristic : warmStartHeuristic;
+		this.choiceManager = new ChoiceManager(assignment, this.branchingHeuristic);
+		this.isActiveChoiceAtom = choiceManager::isActiveChoiceAtom;
+		this.optimizing = grounder.hasWeakConstraints();
+		this.aggregatePropagator = new AggregatePropagator(assignment);
+		this.weakConstraintPropagator = new WeakConstraintPropagator(assignment);
+	}
+
+	/**
+	 * Makes the solver share nogoods via the given exchange, where it is known by the given index.
+	 */
+	void setNoGoodExchange(NoGoodExchange noGoodExchange, int exchangeIndex) {
+		this.noGoodExchange = noGoodExchange;
+		this.exchangeIndex = exchangeIndex;
+		this.recordAtomStrings = true;
+	}
+
+	/**
+	 * Makes the solver simplify nogoods obtained from the grounder by the given preprocessor, null to add them as they
+	 * are.
+	 */
+	void setPreprocessor(NoGoodPreprocessor preprocessor) {
+		this.preprocessor = preprocessor;
+	}
+
+	/**
+	 * Limits the resources of the search and of the grounder by the given budget. Once it is exhausted, the solver
+	 * yields no further answer sets and {@link #solve(Collection)} no answer set.
+	 */
+	public void setBudget(Budget budget) {
+		this.budget = budget;
+		grounder.setBudget(budget);
+	}
+
+	/**
+	 * @return the reason the budget of the solver is exhausted, null if it has none or it is not exhausted.
+	 */
+	public Budget.Exhaustion getBudgetExhaustion() {
+		return budget == null ? null : budget.getExhaustion();
+	}
+
+	/**
+	 * Makes the solver probe the active choice atoms on decision level 0 before its first decision, as long as the
+	 * given budget lasts, where each atom probed counts as a decision. Probing is disabled by a null budget.
+	 */
+	public void setProbingBudget(Budget probingBudget) {
+		if (prober != null) {
+			prober.stop();
+		}
+		prober = probingBudget == null ? null : new Prober(assignment, choiceManager, probingBudget, new ProbingSearch());
+	}
+
+	private boolean isBudgetExhausted() {
+		return budget != null && budget.checkSearch(decisionCounter, conflictCounter);
+	}
+
+	/**
+	 * Restricts the search to the subtree given by the guiding path and lets the solver split its search space.
+	 * @param subtreeSolvers creates the solver searching the subtree given by a guiding path.
+	 */
+	void enableSplitting(GuidingPath guidingPath, Function<GuidingPath, DefaultSolver> subtreeSolvers) {
+		this.guidingPath = guidingPath;
+		this.guidingPathAtoms = new int[guidingPath.size()];
+		this.subtreeSolvers = subtreeSolvers;
+		this.splittable = true;
+		this.recordAtomStrings |= !guidingPath.isEmpty();
+	}
+
+	/**
+	 * Searches for an answer set in which all given assumptions hold. The solver may be called again with other
+	 * assumptions, then it continues with the ground rules and nogoods it obtained and learned so far. Solving under
+	 * assumptions cannot be combined with enumerating answer sets or splitting the search space.
+	 * @return an answer set satisfying the assumptions, empty if there is none. In the latter case,
+	 * {@link #getFailedAssumptions()} yields the assumptions that cannot hold together.
+	 */
+	public Optional<AnswerSet> solve(Collection<Assumption> assumptions) {
+		if (!initialize && !solvedUnderAssumptions || !guidingPath.isEmpty()) {
+			throw new IllegalStateException("Solving under assumptions cannot be combined with enumeration or splitting.");
+		}
+		solvedUnderAssumptions = true;
+		splittable = false;
+
+		if (initialize) {
+			obtainNoGoodsFromGrounder();
+			initialize = false;
+		} else {
+			backjump(0);
+		}
+		this.assumptions = new ArrayList<>(assumptions);
+		this.assumptionLiterals = new int[this.assumptions.size()];
+		for (int i = 0; i < assumptionLiterals.length; i++) {
+			final Assumption assumption = this.assumptions.get(i);
+			final int atom = grounder.registerOutsideAtom(assumption.getAtom());
+			assumptionLiterals[i] = assumption.getValue() ? atom : -atom;
+		}
+		failedAssumptions = Collections.emptyList();
+
+		return Optional.ofNullable(search());
+	}
+
+	/**
+	 * @return the assumptions of the last call of {@link #solve(Collection)} that cannot hold together if it found no
+	 * answer set, an empty list if there is no answer set regardless of assumptions or if an answer set was found.
+	 */
+	public List<Assumption> getFailedAssumptions() {
+		return Collections.unmodifiableList(failedAssumptions);
 	}
 
 	@Override
 	protected boolean tryAdvance(Consumer<? super AnswerSet> action) {
+		if (solvedUnderAssumptions) {
+			throw new IllegalStateException("Solver solved under assumptions, enumeration is not possible anymore.");
+		}
+		splittable = false;
+
+		if (isBudgetExhausted()) {
+			return false;
+		}
+
 		// Get basic rules and facts from grounder
 		if (initialize) {
 			obtainNoGoodsFromGrounder();
 			initialize = false;
-		} else {
-			// We already found one Answer-Set and are requested to find another one
-			doBacktrack();
-			if (isSearchSpaceExhausted()) {
+		} else if (foundAnswerSet && optimizing) {
+			// The bound excludes the answer set found, no answer set can be better than one of cost 0.
+			if (weakConstraintPropagator.isBoundZero()) {
+				optimumProven = true;
+				return false;
+			}
+		} else if (foundAnswerSet) {
+			// We already found one Answer-Set and are requested to find another one.
+			if (!excludeCurrentChoices()) {
 				return false;
 			}
 		}
 
+		final AnswerSet as = search();
+		if (as == null) {
+			optimumProven = foundAnswerSet && optimizing && !isBudgetExhausted();
+			return false;
+		}
+		foundAnswerSet = true;
+		if (optimizing) {
+			weakConstraintPropagator.answerSetFound();
+			LOGGER.debug("Answer set of cost {} found.", getCost());
+		}
+		action.accept(as);
+		return true;
+	}
+
+	@Override
+	public boolean isOptimizing() {
+		return optimizing;
+	}
+
+	@Override
+	public SortedMap<Integer, Long> getCost() {
+		return weakConstraintPropagator.getCost();
+	}
+
+	@Override
+	public boolean isOptimumProven() {
+		return optimumProven;
+	}
+
+	/**
+	 * Searches for the next answer set from the current state of the solver.
+	 * @return the answer set, null if the search space or the budget is exhausted.
+	 */
+	private AnswerSet search() {
 		int nextChoice;
 
 		// Try all assignments until grounder reports no more NoGoods and all of them are satisfied
 		while (true) {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new CancellationException("Search was interrupted.");
+			}
+			// The grounder may have stopped amid grounding, hence the budget is checked before anything is concluded.
+			if (isBudgetExhausted()) {
+				LOGGER.debug("Budget exhausted ({}), search stopped.", budget.getExhaustion());
+				return null;
+			}
 			if (!propagationFixpointReached()) {
-				// After a choice, it would be more efficient to propagate first and only then ask the grounder.
-				updateGrounderAssignment();
-				obtainNoGoodsFromGrounder();
-				if (store.propagate()) {
-					didChange = true;
-				}
-				LOGGER.debug("Assignment after propagation is: {}", assignment);
+				propagateWithGrounder();
 			} else if (store.getViolatedNoGood() != null) {
 				if (LOGGER.isDebugEnabled()) {
 					LOGGER.debug("Backtracking from wrong choices ({} violated): {}", grounder.noGoodToString(store.getViolatedNoGood()), choiceStack);
 				}
 				LOGGER.debug("Violating assignment is: {}", assignment);
-				doBacktrack();
-				if (isSearchSpaceExhausted()) {
-					return false;
+				if (!learnBackjumpAddFromConflict()) {
+					return null;
+				}
+			} else if (propagateAggregates()) {
+				LOGGER.debug("Propagated aggregates.");
+			} else if (propagateBound()) {
+				LOGGER.debug("Propagated bound {}.", getCost());
+			} else if (assignment.getDecisionLevel() > 0 && restartStrategy.shouldRestart()) {
+				restart();
+			} else if (prober != null && decisionCounter == 0 && prober.probe()) {
+				LOGGER.debug("Probing fixed atoms on decision level 0.");
+			} else if ((nextChoice = nextGuidingPathLiteral()) != 0) {
+				if (nextChoice == CONTRADICTED) {
+					LOGGER.debug("Guiding path {} contradicted, subtree exhausted.", guidingPath);
+					return null;
+				}
+				doChoice(atomOf(nextChoice), !isNegated(nextChoice));
+			} else if ((nextChoice = nextAssumptionLiteral()) != 0) {
+				if (nextChoice == CONTRADICTED) {
+					failedAssumptions = analyzeFailedAssumptions();
+					LOGGER.debug("Assumptions {} contradicted.", failedAssumptions);
+					return null;
 				}
+				// An atom assumed TRUE still needs support, hence it is guessed MBT.
+				doChoice(atomOf(nextChoice), isNegated(nextChoice) ? FALSE : MBT);
 			} else if ((nextChoice = computeChoice()) != 0) {
 				LOGGER.debug("Doing choice.");
 				doChoice(nextChoice);
@@ -89,70 +364,522 @@ protected boolean tryAdvance(Consumer<? super AnswerSet> action) {
 				AnswerSet as = translate(assignment.getTrueAssignments());
 				LOGGER.debug("Answer-Set found: {}", as);
 				LOGGER.debug("Choices of Answer-Set were: {}", choiceStack);
-				action.accept(as);
-				return true;
+				return as;
 			} else {
 				LOGGER.debug("Backtracking from wrong choices ({} MBTs): {}", assignment.getMBTCount(), choiceStack);
-				doBacktrack();
-				if (isSearchSpaceExhausted()) {
-					return false;
+				if (!excludeCurrentChoices()) {
+					return null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Guesses and propagates for the prober on top of decision level 0.
+	 */
+	private class ProbingSearch implements Prober.Search {
+		@Override
+		public boolean guess(int atom, ThriceTruth value) {
+			savePhases();
+			assignment.guess(atom, value);
+			choiceStack.push(atom, value.toBoolean());
+			propagateToFixpoint();
+
+			if (assignment.getDecisionLevel() == 0) {
+				// The grounder reported a nogood violated on decision level 0 already.
+				return false;
+			}
+			final NoGood violated = store.getViolatedNoGood();
+			if (violated != null) {
+				final GroundConflictNoGoodLearner.ConflictAnalysisResult analysisResult = learner.analyzeConflictingNoGood(violated);
+				branchingHeuristic.conflict(analysisResult.noGoodsResponsibleForConflict);
+				backtrackTo(0);
+				LOGGER.debug("Probing {}={} failed.", grounder.atomToString(atom), value);
+				addNoGood(analysisResult.learnedNoGood != null ? analysisResult.learnedNoGood : new NoGood(value.toBoolean() ? atom : -atom));
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public void undoGuess() {
+			backtrackTo(0);
+		}
+
+		@Override
+		public void addNoGood(NoGood noGood) {
+			DefaultSolver.this.addNoGood(noGood);
+		}
+
+		@Override
+		public boolean propagate() {
+			propagateToFixpoint();
+			return store.getViolatedNoGood() == null;
+		}
+	}
+
+	/**
+	 * Propagates with the grounder until neither yields anything new or a nogood is violated.
+	 */
+	private void propagateToFixpoint() {
+		do {
+			didChange = false;
+			propagateWithGrounder();
+		} while (didChange && store.getViolatedNoGood() == null);
+		didChange = true;
+	}
+
+	private void propagateWithGrounder() {
+		// After a choice, it would be more efficient to propagate first and only then ask the grounder.
+		updateGrounderAssignment();
+		obtainNoGoodsFromGrounder();
+		if (noGoodExchange != null) {
+			importSharedNoGoods();
+		}
+		if (store.propagate()) {
+			didChange = true;
+		}
+		// The store only simplifies itself on decision level 0 and if there are new assignments on it.
+		store.simplify();
+		LOGGER.debug("Assignment after propagation is: {}", assignment);
+	}
+
+	@Override
+	protected boolean supportsSplitting() {
+		return subtreeSolvers != null;
+	}
+
+	@Override
+	protected DefaultSolver trySplit() {
+		if (!splittable) {
+			return null;
+		}
+		int choice;
+		while ((choice = advanceToChoice()) != 0 && assignment.isAssigned(choice)) {
+			// An MBT atom can only be guessed TRUE, there is nothing to split off.
+			extendGuidingPath(choice, true);
+		}
+		if (choice == 0) {
+			splittable = false;
+			return null;
+		}
+		final String atom = grounder.atomToString(choice);
+		LOGGER.debug("Splitting off the subtree where {} is FALSE.", atom);
+		final DefaultSolver subtreeSolver = subtreeSolvers.apply(guidingPath.extend(atom, false));
+		extendGuidingPath(choice, true);
+		return subtreeSolver;
+	}
+
+	/**
+	 * Propagates and guesses the decisions of the guiding path until the next choice is due.
+	 * @return the choice atom to guess next, 0 if there is none, a conflict occurred or the budget is exhausted.
+	 */
+	private int advanceToChoice() {
+		if (initialize) {
+			obtainNoGoodsFromGrounder();
+			initialize = false;
+		}
+		while (true) {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new CancellationException("Search was interrupted.");
+			}
+			if (isBudgetExhausted()) {
+				return 0;
+			}
+			if (!propagationFixpointReached()) {
+				propagateWithGrounder();
+			} else if (store.getViolatedNoGood() != null) {
+				return 0;
+			} else {
+				final int literal = nextGuidingPathLiteral();
+				if (literal == CONTRADICTED) {
+					return 0;
+				} else if (literal != 0) {
+					doChoice(atomOf(literal), !isNegated(literal));
+				} else {
+					return computeChoice();
+				}
+			}
+		}
+	}
+
+	private void extendGuidingPath(int atom, boolean value) {
+		guidingPath = guidingPath.extend(grounder.atomToString(atom), value);
+		guidingPathAtoms = Arrays.copyOf(guidingPathAtoms, guidingPathAtoms.length + 1);
+		guidingPathAtoms[guidingPathAtoms.length - 1] = atom;
+	}
+
+	/**
+	 * @return the first decision of the guiding path that is not assigned yet as a literal, 0 if all hold, or
+	 * CONTRADICTED if one is contradicted by the assignment.
+	 */
+	private int nextGuidingPathLiteral() {
+		for (int i = 0; i < guidingPathAtoms.length; i++) {
+			int atom = guidingPathAtoms[i];
+			if (atom == 0) {
+				final Integer knownAtom = atomIdsByString.get(guidingPath.getAtom(i));
+				if (knownAtom == null) {
+					throw new RuntimeException("Atom " + guidingPath.getAtom(i) + " of guiding path is unknown to the grounder.");
+				}
+				atom = knownAtom;
+				guidingPathAtoms[i] = atom;
+			}
+			final boolean value = guidingPath.getValue(i);
+			final ThriceTruth truth = assignment.getTruth(atom);
+			if (truth == null || value && truth == MBT) {
+				return value ? atom : -atom;
+			}
+			if (truth.toBoolean() != value) {
+				return CONTRADICTED;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the first assumption that is not assigned yet as a literal, 0 if all hold, or CONTRADICTED if one is
+	 * contradicted by the assignment.
+	 */
+	private int nextAssumptionLiteral() {
+		for (int literal : assumptionLiterals) {
+			final ThriceTruth truth = assignment.getTruth(atomOf(literal));
+			if (truth == null) {
+				return literal;
+			}
+			if (truth.toBoolean() == isNegated(literal)) {
+				return CONTRADICTED;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Collects the assumptions a contradicted assumption depends on, by following the nogoods implying its complement
+	 * back to the decisions they stem from. Since assumptions are decided before any other choice, all these decisions
+	 * are assumptions. Assignments on decision level 0 hold regardless of assumptions and are not followed.
+	 * @return the contradicted assumption and the assumptions it depends on, in the order they were given.
+	 */
+	private List<Assumption> analyzeFailedAssumptions() {
+		int contradicted = -1;
+		for (int i = 0; i < assumptionLiterals.length && contradicted == -1; i++) {
+			if (assignment.containsRelaxed(-assumptionLiterals[i])) {
+				contradicted = i;
+			}
+		}
+
+		final BitSet decisions = new BitSet();
+		final BitSet visited = new BitSet();
+		final Deque<Integer> pending = new ArrayDeque<>();
+		pending.push(atomOf(assumptionLiterals[contradicted]));
+		visited.set(atomOf(assumptionLiterals[contradicted]));
+		while (!pending.isEmpty()) {
+			final int atom = pending.pop();
+			// An atom that became TRUE after MBT depends on the reasons of both assignments.
+			for (Assignment.Entry entry = assignment.get(atom); entry != null; entry = entry.getPrevious()) {
+				if (entry.getDecisionLevel() == 0) {
+					continue;
 				}
+				if (entry.getImpliedBy() == null) {
+					decisions.set(atom);
+					continue;
+				}
+				for (int literal : entry.getImpliedBy()) {
+					final int reasonAtom = atomOf(literal);
+					if (!visited.get(reasonAtom)) {
+						visited.set(reasonAtom);
+						pending.push(reasonAtom);
+					}
+				}
+			}
+		}
+
+		final List<Assumption> failed = new ArrayList<>();
+		for (int i = 0; i < assumptionLiterals.length; i++) {
+			final int literal = assumptionLiterals[i];
+			if (i == contradicted || decisions.get(atomOf(literal)) && assignment.containsRelaxed(literal)) {
+				failed.add(assumptions.get(i));
 			}
 		}
+		return failed;
+	}
+
+	/**
+	 * Adds the nogoods the aggregate propagator generates for the current assignment.
+	 * @return true iff nogoods were added.
+	 */
+	private boolean propagateAggregates() {
+		return addOutsideNoGoods(aggregatePropagator.propagate());
+	}
+
+	/**
+	 * Adds the nogoods the weak constraint propagator generates to keep the cost of the current assignment below the
+	 * bound.
+	 * @return true iff nogoods were added.
+	 */
+	private boolean propagateBound() {
+		return addOutsideNoGoods(weakConstraintPropagator.propagate());
+	}
+
+	/**
+	 * Registers nogoods generated outside the grounder with it and adds them.
+	 * @return true iff nogoods were added.
+	 */
+	private boolean addOutsideNoGoods(List<NoGood> noGoods) {
+		if (noGoods.isEmpty()) {
+			return false;
+		}
+		final Map<Integer, NoGood> outsideNoGoods = new HashMap<>();
+		for (NoGood noGood : noGoods) {
+			outsideNoGoods.put(grounder.registerOutsideNoGood(noGood), noGood);
+		}
+		addNoGoods(outsideNoGoods);
+		return true;
 	}
 
 	private void assignUnassignedToFalse() {
-		for (Integer atom : unassignedAtoms) {
+		// Each assignment removes the atom from the unassigned ones reported.
+		for (int atom = assignment.getUnassignedAtom(); atom != 0; atom = assignment.getUnassignedAtom()) {
 			assignment.assign(atom, FALSE, null);
 		}
 	}
 
 	private boolean allAtomsAssigned() {
-		unassignedAtoms = grounder.getUnassignedAtoms(assignment);
-		return unassignedAtoms.isEmpty();
+		assignment.growForMaxAtomId(grounder.getMaxAtomId());
+		return assignment.getUnassignedAtom() == 0;
 	}
 
-	private void doBacktrack() {
-		boolean repeatBacktrack;	// Iterative implementation of recursive backtracking.
-		do {
-			repeatBacktrack = false;
-			if (isSearchSpaceExhausted()) {
+	/**
+	 * Analyzes the violated nogood, backjumps to the assertion level of the learned nogood and adds it (which then
+	 * propagates). If nothing can be learned from the conflict, falls back to {@link #excludeCurrentChoices()}.
+	 * @return false iff the search space is exhausted.
+	 */
+	private boolean learnBackjumpAddFromConflict() {
+		conflictCounter++;
+		GroundConflictNoGoodLearner.ConflictAnalysisResult analysisResult = learner.analyzeConflictingNoGood(store.getViolatedNoGood());
+		if (analysisResult.isUnsatisfiable) {
+			LOGGER.debug("Conflict does not depend on any choice, search space exhausted.");
+			return false;
+		}
+
+		branchingHeuristic.conflict(analysisResult.noGoodsResponsibleForConflict);
+
+		if (analysisResult.learnedNoGood == null) {
+			LOGGER.debug("Nothing learned from conflict, backtracking chronologically.");
+			return excludeCurrentChoices();
+		}
+
+		LOGGER.debug("Learned {}, backjumping to decision level {}.", analysisResult.learnedNoGood, analysisResult.backjumpLevel);
+		restartStrategy.conflict(getLiteralBlockDistance(analysisResult.learnedNoGood));
+		backjump(analysisResult.backjumpLevel);
+		addNoGood(analysisResult.learnedNoGood);
+		if (noGoodExchange != null) {
+			exportLearnedNoGood(analysisResult.learnedNoGood);
+		}
+		return true;
+	}
+
+	/**
+	 * Shares a learned nogood with the other solvers if it is short. Nogoods learned after an answer set was found may
+	 * depend on the nogood excluding it and nogoods over atoms enabling or disabling choice points refer to atoms
+	 * numbered by the grounder in the order it created them, hence both are not shared.
+	 */
+	private void exportLearnedNoGood(NoGood noGood) {
+		if (foundAnswerSet || noGood.size() > MAX_SHARED_NOGOOD_SIZE) {
+			return;
+		}
+		final String[] atoms = new String[noGood.size()];
+		final boolean[] negated = new boolean[noGood.size()];
+		for (int i = 0; i < noGood.size(); i++) {
+			final int atom = noGood.getAtom(i);
+			if (choiceManager.isChoicePointAtom(atom)) {
 				return;
 			}
+			atoms[i] = grounder.atomToString(atom);
+			negated[i] = isNegated(noGood.getLiteral(i));
+		}
+		noGoodExchange.publish(exchangeIndex, new NoGoodExchange.SharedNoGood(atoms, negated));
+	}
 
-			store.backtrack();
-			LOGGER.debug("Backtrack: Removing last choice, setting decision level to {}.", assignment.getDecisionLevel());
+	/**
+	 * Adds all nogoods shared by other solvers whose atoms are known to the grounder of this solver.
+	 */
+	private void importSharedNoGoods() {
+		final Map<Integer, NoGood> imported = new HashMap<>();
+		NoGoodExchange.SharedNoGood shared;
+		sharedNoGoods:
+		while ((shared = noGoodExchange.poll(exchangeIndex)) != null) {
+			final int[] literals = new int[shared.atoms.length];
+			for (int i = 0; i < literals.length; i++) {
+				final Integer atom = atomIdsByString.get(shared.atoms[i]);
+				if (atom == null) {
+					continue sharedNoGoods;
+				}
+				literals[i] = shared.negated[i] ? -atom : atom;
+			}
+			final NoGood noGood = new NoGood(literals);
+			imported.put(grounder.registerOutsideNoGood(noGood), noGood);
+		}
+		if (!imported.isEmpty()) {
+			LOGGER.debug("Imported {} nogoods from other solvers.", imported.size());
+			addNoGoods(imported);
+		}
+	}
 
-			int lastGuessedAtom = choiceStack.peekAtom();
-			boolean lastGuessedValue = choiceStack.peekValue();
+	/**
+	 * Excludes the current combination of choices by adding a nogood made of all choices and backjumping such that
+	 * the nogood propagates the inverse of the last choice. Choices that merely turned an MBT atom TRUE are left out,
+	 * since they cannot be inverted. This is used after an answer set was found and whenever the current choices
+	 * cannot lead to an answer set but there is no violated nogood to learn from.
+	 * @return false iff there is no choice left to invert, i.e., the search space is exhausted.
+	 */
+	private boolean excludeCurrentChoices() {
+		final int[] literals = new int[choiceStack.size()];
+		int size = 0;
+		int lastChoiceLevel = 0;
+		int backjumpLevel = 0;
+
+		for (int i = 0; i < choiceStack.size(); i++) {
+			final int decisionLevel = i + 1;
+			final int literal = choiceStack.getValue(i) ? choiceStack.getAtom(i) : -choiceStack.getAtom(i);
+			final Assignment.Entry entry = assignment.getContainingEntry(literal);
+			if (entry == null || entry.getDecisionLevel() != decisionLevel) {
+				continue;
+			}
+			literals[size++] = literal;
+			backjumpLevel = lastChoiceLevel;
+			lastChoiceLevel = decisionLevel;
+		}
+
+		if (size == 0) {
+			LOGGER.debug("No choice left to invert, search space exhausted.");
+			return false;
+		}
+
+		backjump(backjumpLevel);
+		addNoGood(new NoGood(Arrays.copyOf(literals, size)));
+		return true;
+	}
+
+	/**
+	 * @return the number of distinct decision levels among the assigned literals of the given nogood.
+	 */
+	private int getLiteralBlockDistance(NoGood noGood) {
+		final Set<Integer> decisionLevels = new HashSet<>();
+		for (int literal : noGood) {
+			final int decisionLevel = assignment.getDecisionLevel(atomOf(literal));
+			if (decisionLevel != -1) {
+				decisionLevels.add(decisionLevel);
+			}
+		}
+		return decisionLevels.size();
+	}
+
+	private void restart() {
+		restartCounter++;
+		LOGGER.debug("Restarting search, {} restarts so far.", restartCounter);
+		backjump(0);
+		restartStrategy.restart();
+	}
+
+	private void backjump(int decisionLevel) {
+		savePhases();
+		backtrackTo(decisionLevel);
+	}
+
+	/**
+	 * Backjumps without recording the phases of the atoms unassigned, e.g., when undoing a probe.
+	 */
+	private void backtrackTo(int decisionLevel) {
+		while (assignment.getDecisionLevel() > decisionLevel) {
+			store.backtrack();
 			choiceStack.remove();
-			LOGGER.debug("Backtrack: choice stack size: {}, choice stack: {}", choiceStack.size(), choiceStack);
-
-			if (lastGuessedValue) {
-				// Chronological backtracking: guess FALSE now.
-				// Guess FALSE if the previous guess was for TRUE and the atom was not already MBT at that time.
-				if (MBT.equals(assignment.getTruth(lastGuessedAtom))) {
-					LOGGER.debug("Backtrack: inverting last guess not possible, atom was MBT before guessing TRUE.");
-					LOGGER.debug("Recursive backtracking.");
-					repeatBacktrack = true;
+		}
+		weakConstraintPropagator.backtrack();
+		aggregatePropagator.backtrack();
+		choiceManager.backtrack();
+		branchingHeuristic.backjump(decisionLevel);
+		didChange = true;
+		LOGGER.debug("Backjump: setting decision level to {}, choice stack: {}", decisionLevel, choiceStack);
+		repropagateOutOfLevelPropagatingNoGoods();
+	}
+
+	/**
+	 * Redoes the propagation of nogoods that propagated above the lowest possible decision level and lost their
+	 * propagated assignment with the last backjump. Nogoods that propagate on their lowest possible level now, or
+	 * not at all anymore, are forgotten since their watches take care of them.
+	 */
+	private void repropagateOutOfLevelPropagatingNoGoods() {
+		final int decisionLevel = assignment.getDecisionLevel();
+		for (int level = outOfLevelPropagatingNoGoods.size() - 1; level > decisionLevel; level--) {
+			final List<NoGood> noGoods = outOfLevelPropagatingNoGoods.get(level);
+			for (NoGood noGood : noGoods) {
+				if (getLowestActingLevel(noGood) > decisionLevel) {
 					continue;
-					//doBacktrack();
-					//return;
 				}
-				decisionCounter++;
-				assignment.guess(lastGuessedAtom, FALSE);
-				LOGGER.debug("Backtrack: setting decision level to {}.", assignment.getDecisionLevel());
-				LOGGER.debug("Backtrack: inverting last guess. Now: {}=FALSE@{}", grounder.atomToString(lastGuessedAtom), assignment.getDecisionLevel());
-				choiceStack.push(lastGuessedAtom, false);
-				didChange = true;
-				LOGGER.debug("Backtrack: choice stack size: {}, choice stack: {}", choiceStack.size(), choiceStack);
-				LOGGER.debug("Backtrack: {} choices so far.", decisionCounter);
-			} else {
-				LOGGER.debug("Recursive backtracking.");
-				repeatBacktrack = true;
-				//doBacktrack();
+				propagate(noGood);
+				recordIfOutOfLevelPropagating(noGood);
 			}
-		} while (repeatBacktrack);
+			noGoods.clear();
+		}
+	}
+
+	private void recordIfOutOfLevelPropagating(NoGood noGood) {
+		final int decisionLevel = assignment.getDecisionLevel();
+		if (getLowestActingLevel(noGood) >= decisionLevel) {
+			return;
+		}
+		while (outOfLevelPropagatingNoGoods.size() <= decisionLevel) {
+			outOfLevelPropagatingNoGoods.add(new ArrayList<>());
+		}
+		outOfLevelPropagatingNoGoods.get(decisionLevel).add(noGood);
+	}
+
+	/**
+	 * Assigns the consequence of a nogood that is unit or propagates TRUE to its head under the current assignment,
+	 * in the same way as the {@link NoGoodStore} does.
+	 */
+	private void propagate(NoGood noGood) {
+		boolean propagatesTrue = noGood.hasHead();
+		int unassignedIndex = -1;
+		int notContained = 0;
+		for (int i = 0; i < noGood.size(); i++) {
+			final int literal = noGood.getLiteral(i);
+			if (!assignment.containsRelaxed(literal)) {
+				notContained++;
+				if (!assignment.isAssigned(atomOf(literal))) {
+					unassignedIndex = i;
+				}
+			}
+			if (noGood.hasHead() && i != noGood.getHead() && !assignment.contains(literal)) {
+				propagatesTrue = false;
+			}
+		}
+
+		if (propagatesTrue && !TRUE.equals(assignment.getTruth(noGood.getAtom(noGood.getHead())))) {
+			assignment.assign(noGood.getAtom(noGood.getHead()), TRUE, noGood);
+		} else if (notContained == 1 && unassignedIndex != -1) {
+			final int literal = noGood.getLiteral(unassignedIndex);
+			assignment.assign(atomOf(literal), isNegated(literal) ? MBT : FALSE, noGood);
+		}
+	}
+
+	/**
+	 * Records the truth value of all atoms assigned since the last call, such that the value an atom had when it was
+	 * last unassigned is known when guessing it.
+	 */
+	private void savePhases() {
+		if (phaseIterator == null) {
+			return;
+		}
+		while (phaseIterator.hasNext()) {
+			final Assignment.Entry entry = phaseIterator.next();
+			falsePhases.set(entry.getAtom(), !entry.getTruth().toBoolean());
+		}
+	}
+
+	private void addNoGood(NoGood noGood) {
+		store.add(grounder.registerOutsideNoGood(noGood), noGood);
+		didChange = true;
 	}
 
 	private void updateGrounderAssignment() {
@@ -161,22 +888,155 @@ private void updateGrounderAssignment() {
 
 	private void obtainNoGoodsFromGrounder() {
 		Map<Integer, NoGood> obtained = grounder.getNoGoods();
+		addNoGoods(preprocessor == null ? obtained : preprocessor.preprocess(obtained, decisionCounter == 0));
+		if (recordAtomStrings) {
+			recordAtomStrings(obtained.values());
+		}
+
+		// Record choice atoms.
+		final Pair<Map<Integer, Integer>, Map<Integer, Integer>> choiceAtoms = grounder.getChoiceAtoms();
+		choiceManager.addChoiceInformation(choiceAtoms);
+		for (Integer choiceAtom : choiceAtoms.getKey().values()) {
+			branchingHeuristic.newChoiceAtom(choiceAtom);
+		}
+		weakConstraintPropagator.addAtoms(grounder.getWeakConstraintAtoms());
+		aggregatePropagator.addAtoms(grounder.getAggregateAtoms(), grounder.getCompleteAggregateGroups());
+		if (warmStart != null) {
+			applyWarmStart(obtained, choiceAtoms.getKey().values());
+		}
+	}
+
+	private void recordAtomStrings(Collection<NoGood> noGoods) {
+		for (NoGood noGood : noGoods) {
+			for (int i = 0; i < noGood.size(); i++) {
+				final int atom = noGood.getAtom(i);
+				if (!recordedAtoms.get(atom)) {
+					recordedAtoms.set(atom);
+					atomIdsByString.put(grounder.atomToString(atom), atom);
+				}
+			}
+		}
+	}
 
-		if (!obtained.isEmpty()) {
+	/**
+	 * Adds nogoods to the store, taking care of nogoods that are violated or propagate on a decision level below the
+	 * current one.
+	 */
+	private void addNoGoods(Map<Integer, NoGood> noGoods) {
+		if (!noGoods.isEmpty()) {
 			// Record to detect propagation fixpoint, checking if new NoGoods were reported would be better here.
 			didChange = true;
+
+			// Nogoods that are violated already on a lower decision level have to be added there, such that the
+			// conflict is analyzed on the level it occurs.
+			int violationLevel = assignment.getDecisionLevel();
+			for (NoGood noGood : noGoods.values()) {
+				violationLevel = Math.min(violationLevel, getViolationLevel(noGood));
+			}
+			if (violationLevel < assignment.getDecisionLevel()) {
+				backjump(violationLevel);
+			}
 		}
 
-		store.addAll(obtained);
+		store.addAll(noGoods);
 
-		// Record choice atoms.
-		final Pair<Map<Integer, Integer>, Map<Integer, Integer>> choiceAtoms = grounder.getChoiceAtoms();
-		choiceOn.putAll(choiceAtoms.getKey());
-		choiceOff.putAll(choiceAtoms.getValue());
+		// Nogoods propagating on a lower decision level are propagated on the current level by the store, instead of
+		// backjumping, their propagation is redone when backjumping.
+		for (NoGood noGood : noGoods.values()) {
+			recordIfOutOfLevelPropagating(noGood);
+		}
 	}
 
-	private boolean isSearchSpaceExhausted() {
-		return assignment.getDecisionLevel() == 0;
+	/**
+	 * Makes new choice atoms that are true in the warm start answer set preferred. The truth value of a choice atom is
+	 * determined from the nogood defining it, which is obtained together with the choice atom. Choice atoms false in
+	 * the warm start answer set keep the default phase, since guessing a rule body FALSE hardly propagates anything.
+	 */
+	private void applyWarmStart(Map<Integer, NoGood> obtained, Collection<Integer> newChoiceAtoms) {
+		if (newChoiceAtoms.isEmpty()) {
+			return;
+		}
+		final Map<Integer, NoGood> definitions = new HashMap<>();
+		for (NoGood noGood : obtained.values()) {
+			if (noGood.hasHead()) {
+				definitions.put(noGood.getAtom(noGood.getHead()), noGood);
+			}
+		}
+		for (Integer choiceAtom : newChoiceAtoms) {
+			// The heads of choice rules are choice atoms themselves, they hold if they occur in the previous answer set.
+			if (warmStart.isTrue(grounder.atomToString(choiceAtom))) {
+				warmStartHeuristic.prefer(choiceAtom);
+				continue;
+			}
+			final NoGood definition = definitions.get(choiceAtom);
+			if (definition != null && warmStart.isSatisfied(definition, grounder)) {
+				warmStartHeuristic.prefer(choiceAtom);
+			}
+		}
+	}
+
+	/**
+	 * @return the highest decision level among the literals of the given nogood if all of them are contained in the
+	 * assignment, Integer.MAX_VALUE otherwise.
+	 */
+	private int getViolationLevel(NoGood noGood) {
+		int violationLevel = 0;
+		for (int literal : noGood) {
+			final Assignment.Entry entry = assignment.getContainingEntry(literal);
+			if (entry == null) {
+				return Integer.MAX_VALUE;
+			}
+			violationLevel = Math.max(violationLevel, entry.getDecisionLevel());
+		}
+		return violationLevel;
+	}
+
+	/**
+	 * Computes the lowest decision level on which the given nogood is violated or propagates under the current
+	 * assignment, i.e., the highest decision level among its literals that are contained in the assignment, if all
+	 * or all but one unassigned literal are contained. For nogoods with head, propagation of TRUE is considered
+	 * analogously.
+	 * @return the decision level; Integer.MAX_VALUE if the nogood is neither violated nor propagates.
+	 */
+	private int getLowestActingLevel(NoGood noGood) {
+		int notContained = 0;
+		int notContainedLevel = Integer.MAX_VALUE;
+		int containedLevel = 0;
+
+		boolean propagatesTrue = noGood.hasHead();
+		int trueLevel = 0;
+
+		for (int i = 0; i < noGood.size(); i++) {
+			final int literal = noGood.getLiteral(i);
+			final Assignment.Entry entry = assignment.getContainingEntry(literal);
+			if (entry == null) {
+				notContained++;
+				final Assignment.Entry complement = assignment.getContainingEntry(-literal);
+				notContainedLevel = complement == null ? Integer.MAX_VALUE : complement.getDecisionLevel();
+			} else {
+				containedLevel = Math.max(containedLevel, entry.getDecisionLevel());
+			}
+
+			if (noGood.hasHead() && i != noGood.getHead()) {
+				if (assignment.contains(literal)) {
+					trueLevel = Math.max(trueLevel, assignment.getDecisionLevel(atomOf(literal)));
+				} else {
+					propagatesTrue = false;
+				}
+			}
+		}
+
+		int lowestLevel = Integer.MAX_VALUE;
+		if (notContained == 0 || notContained == 1 && notContainedLevel > containedLevel) {
+			lowestLevel = containedLevel;
+		}
+		if (propagatesTrue) {
+			final int head = noGood.getAtom(noGood.getHead());
+			if (!TRUE.equals(assignment.getTruth(head)) || assignment.getDecisionLevel(head) > trueLevel) {
+				lowestLevel = Math.min(lowestLevel, trueLevel);
+			}
+		}
+		return lowestLevel;
 	}
 
 	private boolean propagationFixpointReached() {
@@ -187,48 +1047,43 @@ private boolean propagationFixpointReached() {
 	}
 
 	private void doChoice(int nextChoice) {
+		// We guess true for any unassigned choice atom (backtrack tries false), unless its saved phase is false. Atoms
+		// that are MBT already can only be guessed true.
+		doChoice(nextChoice, phaseIterator == null || !falsePhases.get(nextChoice) || assignment.isAssigned(nextChoice));
+	}
+
+	private void doChoice(int nextChoice, boolean value) {
+		doChoice(nextChoice, value ? TRUE : FALSE);
+	}
+
+	private void doChoice(int nextChoice, ThriceTruth value) {
 		decisionCounter++;
-		// We guess true for any unassigned choice atom (backtrack tries false)
-		assignment.guess(nextChoice, TRUE);
-		choiceStack.push(nextChoice, true);
+		assignment.guess(nextChoice, value);
+		choiceStack.push(nextChoice, value.toBoolean());
 		// Record change to compute propagation fixpoint again.
 		didChange = true;
-		LOGGER.debug("Choice: guessing {}=TRUE@{}", grounder.atomToString(nextChoice), assignment.getDecisionLevel());
+		LOGGER.debug("Choice: guessing {}={}@{}", grounder.atomToString(nextChoice), value, assignment.getDecisionLevel());
 		LOGGER.debug("Choice: stack size: {}, choice stack: {}", choiceStack.size(), choiceStack);
 		LOGGER.debug("Choice: {} choices so far.", decisionCounter);
 	}
 
 	private int computeChoice() {
-		// Check if there is an enabled choice that is not also disabled
-		// HINT: tracking changes of ChoiceOn, ChoiceOff directly could
-		// increase performance (analyze store.getChangedAssignments()).
-		for (Integer enablerAtom : choiceOn.keySet()) {
-			if (assignment.getTruth(enablerAtom) == null || FALSE.equals(assignment.getTruth(enablerAtom))) {
-				continue;
-			}
-
-			Integer nextChoiceCandidate = choiceOn.get(enablerAtom);
+		choiceManager.updateAssignment();
+		return branchingHeuristic.chooseAtom(isActiveChoiceAtom);
+	}
 
-			// Only consider unassigned choices or choices currently MBT (and changing to TRUE following the guess)
-			if (assignment.getTruth(nextChoiceCandidate) != null && !MBT.equals(assignment.getTruth(nextChoiceCandidate))) {
-				continue;
-			}
+	@Override
+	public int getNumberOfChoices() {
+		return decisionCounter;
+	}
 
-			// Check that candidate is not disabled already
-			boolean isDisabled = false;
-			for (Map.Entry<Integer, Integer> disablerAtom : choiceOff.entrySet()) {
-				if (nextChoiceCandidate.equals(disablerAtom.getValue())
-					&& assignment.getTruth(disablerAtom.getKey()) != null
-					&& !(FALSE.equals(assignment.getTruth(disablerAtom.getKey())))) {
-					isDisabled = true;
-					break;
-				}
-			}
+	@Override
+	public int getNumberOfConflicts() {
+		return conflictCounter;
+	}
 
-			if (!isDisabled) {
-				return nextChoiceCandidate;
-			}
-		}
-		return 0;
+	@Override
+	public int getNumberOfRestarts() {
+		return restartCounter;
 	}
 }
@@ -0,0 +1,147 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static at.ac.tuwien.kr.alpha.common.Literals.atomOf;
+
+/**
+ * Conflict analysis on ground nogoods: resolves a violated nogood with the nogoods that implied its literals until
+ * only one literal of the conflict's decision level remains (the first unique implication point). The resulting
+ * nogood is asserting on the second highest decision level of its literals, which is where the solver backjumps to.
+ *
+ * Literals are regarded as contained in the relaxed sense, i.e. for a positive literal whose atom was MBT before it
+ * became TRUE, the MBT assignment is what made the literal contained.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class GroundConflictNoGoodLearner {
+	private static final Logger LOGGER = LoggerFactory.getLogger(GroundConflictNoGoodLearner.class);
+
+	private final Assignment assignment;
+
+	GroundConflictNoGoodLearner(Assignment assignment) {
+		this.assignment = assignment;
+	}
+
+	static class ConflictAnalysisResult {
+		static final ConflictAnalysisResult UNSAT = new ConflictAnalysisResult(null, 0, true, Collections.emptyList());
+
+		final NoGood learnedNoGood;
+		final int backjumpLevel;
+		final boolean isUnsatisfiable;
+		final Collection<NoGood> noGoodsResponsibleForConflict;
+
+		ConflictAnalysisResult(NoGood learnedNoGood, int backjumpLevel, boolean isUnsatisfiable, Collection<NoGood> noGoodsResponsibleForConflict) {
+			this.learnedNoGood = learnedNoGood;
+			this.backjumpLevel = backjumpLevel;
+			this.isUnsatisfiable = isUnsatisfiable;
+			this.noGoodsResponsibleForConflict = noGoodsResponsibleForConflict;
+		}
+
+		static ConflictAnalysisResult notLearnable(Collection<NoGood> noGoodsResponsibleForConflict) {
+			return new ConflictAnalysisResult(null, -1, false, noGoodsResponsibleForConflict);
+		}
+
+		@Override
+		public String toString() {
+			if (isUnsatisfiable) {
+				return "UNSATISFIABLE";
+			}
+			return learnedNoGood + "@" + backjumpLevel;
+		}
+	}
+
+	/**
+	 * Analyzes a nogood that is violated by the current assignment.
+	 * @param violatedNoGood the violated nogood.
+	 * @return the learned nogood and the decision level to backjump to, {@link ConflictAnalysisResult#UNSAT} if the
+	 * conflict does not depend on any decision, or a result without learned nogood if the conflict depends on
+	 * assignments without reason other than decisions (e.g. atoms assigned FALSE because they are unfounded), in
+	 * which case the caller has to resort to backtracking chronologically.
+	 */
+	ConflictAnalysisResult analyzeConflictingNoGood(NoGood violatedNoGood) {
+		LOGGER.trace("Analyzing violated nogood: {}", violatedNoGood);
+
+		int conflictLevel = 0;
+		for (int literal : violatedNoGood) {
+			conflictLevel = Math.max(conflictLevel, getContainingEntry(literal).getDecisionLevel());
+		}
+		if (conflictLevel == 0) {
+			return ConflictAnalysisResult.UNSAT;
+		}
+
+		// Literals of the resolvent, separated by whether they were assigned on the conflict level. Literals from
+		// decision level zero are dropped since they hold in every assignment the solver will ever consider.
+		final Set<Integer> currentLevelLiterals = new HashSet<>();
+		final Set<Integer> lowerLevelLiterals = new HashSet<>();
+		final List<NoGood> noGoodsResponsibleForConflict = new ArrayList<>();
+		noGoodsResponsibleForConflict.add(violatedNoGood);
+		addLiterals(violatedNoGood, 0, conflictLevel, currentLevelLiterals, lowerLevelLiterals);
+
+		while (currentLevelLiterals.size() > 1) {
+			// Resolve on the literal of the conflict level that was assigned last and has a reason.
+			int resolvedLiteral = 0;
+			Assignment.Entry resolvedEntry = null;
+			for (int literal : currentLevelLiterals) {
+				final Assignment.Entry entry = getContainingEntry(literal);
+				if (entry.getImpliedBy() != null && (resolvedEntry == null || entry.getPropagationLevel() > resolvedEntry.getPropagationLevel())) {
+					resolvedLiteral = literal;
+					resolvedEntry = entry;
+				}
+			}
+
+			if (resolvedEntry == null) {
+				LOGGER.debug("Cannot learn from conflict, no reason for any of {}.", currentLevelLiterals);
+				return ConflictAnalysisResult.notLearnable(noGoodsResponsibleForConflict);
+			}
+
+			currentLevelLiterals.remove(resolvedLiteral);
+			noGoodsResponsibleForConflict.add(resolvedEntry.getImpliedBy());
+			addLiterals(resolvedEntry.getImpliedBy(), atomOf(resolvedLiteral), conflictLevel, currentLevelLiterals, lowerLevelLiterals);
+		}
+
+		int backjumpLevel = 0;
+		final int[] learnedLiterals = new int[currentLevelLiterals.size() + lowerLevelLiterals.size()];
+		int i = 0;
+		for (int literal : lowerLevelLiterals) {
+			backjumpLevel = Math.max(backjumpLevel, getContainingEntry(literal).getDecisionLevel());
+			learnedLiterals[i++] = literal;
+		}
+		for (int literal : currentLevelLiterals) {
+			learnedLiterals[i++] = literal;
+		}
+
+		final ConflictAnalysisResult result = new ConflictAnalysisResult(new NoGood(learnedLiterals), backjumpLevel, false, noGoodsResponsibleForConflict);
+		LOGGER.trace("Learned: {}", result);
+		return result;
+	}
+
+	/**
+	 * Adds all literals of the given nogood, except for those over the resolved atom and those assigned on decision
+	 * level zero, to the resolvent.
+	 */
+	private void addLiterals(NoGood noGood, int resolvedAtom, int conflictLevel, Set<Integer> currentLevelLiterals, Set<Integer> lowerLevelLiterals) {
+		for (int literal : noGood) {
+			if (atomOf(literal) == resolvedAtom) {
+				continue;
+			}
+			final int decisionLevel = getContainingEntry(literal).getDecisionLevel();
+			if (decisionLevel == conflictLevel) {
+				currentLevelLiterals.add(literal);
+			} else if (decisionLevel > 0) {
+				lowerLevelLiterals.add(literal);
+			}
+		}
+	}
+
+	private Assignment.Entry getContainingEntry(int literal) {
+		final Assignment.Entry entry = assignment.getContainingEntry(literal);
+		if (entry == null) {
+			throw new RuntimeException("Literal " + literal + " of a nogood involved in a conflict is not contained in the assignment. Should not happen.");
+		}
+		return entry;
+	}
+}
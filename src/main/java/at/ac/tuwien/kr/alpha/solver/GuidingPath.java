@@ -0,0 +1,57 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import java.util.Arrays;
+
+/**
+ * A sequence of decisions leading to a subtree of the search space. A solver given a guiding path guesses its
+ * decisions before any other choice and never inverts them, hence it searches exactly the subtree. Since subtrees are
+ * searched by solvers with their own grounders, decisions refer to atoms by their string representation.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class GuidingPath {
+	static final GuidingPath EMPTY = new GuidingPath(new String[0], new boolean[0]);
+
+	private final String[] atoms;
+	private final boolean[] values;
+
+	private GuidingPath(String[] atoms, boolean[] values) {
+		this.atoms = atoms;
+		this.values = values;
+	}
+
+	/**
+	 * @return the guiding path followed by the given decision.
+	 */
+	GuidingPath extend(String atom, boolean value) {
+		String[] extendedAtoms = Arrays.copyOf(atoms, atoms.length + 1);
+		boolean[] extendedValues = Arrays.copyOf(values, values.length + 1);
+		extendedAtoms[atoms.length] = atom;
+		extendedValues[values.length] = value;
+		return new GuidingPath(extendedAtoms, extendedValues);
+	}
+
+	int size() {
+		return atoms.length;
+	}
+
+	boolean isEmpty() {
+		return atoms.length == 0;
+	}
+
+	String getAtom(int decision) {
+		return atoms[decision];
+	}
+
+	boolean getValue(int decision) {
+		return values[decision];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < atoms.length; i++) {
+			sb.append(i == 0 ? "" : ", ").append(values[i] ? "" : "-").append(atoms[i]);
+		}
+		return sb.append("]").toString();
+	}
+}
@@ -0,0 +1,53 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Passes nogoods between the solvers of a {@link PortfolioSolver}. Every solver has its own inbox, a lock-free queue
+ * that all other solvers append to and only its owner polls from. Since every solver has its own grounder, atom ids
+ * differ between solvers and shared nogoods refer to atoms by their textual representation.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class NoGoodExchange {
+	private final List<Queue<SharedNoGood>> inboxes = new ArrayList<>();
+
+	/**
+	 * A nogood in terms of atom strings, literal i is the atom atoms[i], negated iff negated[i] is true.
+	 */
+	static class SharedNoGood {
+		final String[] atoms;
+		final boolean[] negated;
+
+		SharedNoGood(String[] atoms, boolean[] negated) {
+			this.atoms = atoms;
+			this.negated = negated;
+		}
+	}
+
+	NoGoodExchange(int numSolvers) {
+		for (int i = 0; i < numSolvers; i++) {
+			inboxes.add(new ConcurrentLinkedQueue<>());
+		}
+	}
+
+	/**
+	 * Hands the given nogood to all solvers except the sender.
+	 */
+	void publish(int sender, SharedNoGood noGood) {
+		for (int i = 0; i < inboxes.size(); i++) {
+			if (i != sender) {
+				inboxes.get(i).offer(noGood);
+			}
+		}
+	}
+
+	/**
+	 * @return the next nogood shared with the given solver, null if there is none.
+	 */
+	SharedNoGood poll(int receiver) {
+		return inboxes.get(receiver).poll();
+	}
+}
@@ -0,0 +1,343 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static at.ac.tuwien.kr.alpha.common.Literals.isNegated;
+
+/**
+ * Simplifies the nogoods obtained from the grounder before they are added to the store, by removing duplicates and
+ * subsumed nogoods (backward subsumption) and by strengthening nogoods through self-subsuming resolution: a nogood
+ * containing l allows to remove -l from every nogood containing -l and all other literals of the former.
+ *
+ * Nogoods with a head also propagate their head TRUE, i.e., they are more than the set of their literals. A headed
+ * nogood is therefore only removed if a nogood with the same head is contained in it and only strengthened by unit
+ * nogoods fixing an atom at level 0 (facts and atoms that must be FALSE), whereas every nogood may subsume or
+ * strengthen others.
+ *
+ * The work spent on a batch of nogoods is bounded by a budget of steps, each step being one comparison of literals or
+ * visit of an occurrence. Only the initial batch is simplified unless the preprocessor is incremental, then later
+ * batches are simplified against each other and against all nogoods kept before. Nogoods already handed to the store
+ * are never changed.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class NoGoodPreprocessor {
+	private static final Logger LOGGER = LoggerFactory.getLogger(NoGoodPreprocessor.class);
+	static final long DEFAULT_BUDGET = 20_000_000;
+
+	private static class Candidate {
+		final int id;
+		int[] literals;
+		final int headLiteral;
+		boolean fromCurrentBatch = true;
+		boolean removed;
+
+		Candidate(int id, NoGood noGood) {
+			this.id = id;
+			this.literals = new int[noGood.size()];
+			for (int i = 0; i < literals.length; i++) {
+				literals[i] = noGood.getLiteral(i);
+			}
+			this.headLiteral = noGood.hasHead() ? noGood.getLiteral(noGood.getHead()) : 0;
+		}
+
+		boolean contains(int literal) {
+			return Arrays.binarySearch(literals, literal) >= 0;
+		}
+
+		NoGood toNoGood() {
+			if (headLiteral == 0) {
+				return new NoGood(literals.clone());
+			}
+			return new NoGood(literals.clone(), Arrays.binarySearch(literals, headLiteral));
+		}
+	}
+
+	static final String NONE = "none";
+	static final String INITIAL = "initial";
+	static final String INCREMENTAL = "incremental";
+
+	private final boolean incremental;
+	private final long budget;
+
+	// Occurrence lists of all kept nogoods, by literal. Removed or strengthened nogoods are only dropped lazily.
+	private final Map<Integer, List<Candidate>> occurrences = new HashMap<>();
+	private long remainingSteps;
+
+	/**
+	 * @param incremental whether batches after the initial one are simplified as well.
+	 */
+	NoGoodPreprocessor(boolean incremental) {
+		this(incremental, DEFAULT_BUDGET);
+	}
+
+	NoGoodPreprocessor(boolean incremental, long budget) {
+		this.incremental = incremental;
+		this.budget = budget;
+	}
+
+	/**
+	 * @param name none, initial (simplifies the initial batch only) or incremental (simplifies all batches).
+	 * @return the preprocessor of the given name, null for none.
+	 */
+	static NoGoodPreprocessor getInstance(String name) {
+		switch (name.toLowerCase()) {
+			case NONE: return null;
+			case INITIAL: return new NoGoodPreprocessor(false);
+			case INCREMENTAL: return new NoGoodPreprocessor(true);
+		}
+		throw new IllegalArgumentException("Unknown nogood preprocessing requested.");
+	}
+
+	/**
+	 * @return the nogoods to add to the store instead of the given ones, indexed by their original ids. Strengthened
+	 * nogoods keep the id of the nogood they replace, ids of removed nogoods are not used.
+	 */
+	Map<Integer, NoGood> preprocess(Map<Integer, NoGood> noGoods, boolean initial) {
+		if (!initial && !incremental) {
+			occurrences.clear();
+			return noGoods;
+		}
+		if (noGoods.isEmpty()) {
+			return noGoods;
+		}
+		remainingSteps = budget;
+
+		// Remove duplicates, keep all others as candidates ordered by size such that small nogoods subsume first.
+		final Set<NoGood> distinct = new HashSet<>();
+		final List<Candidate> candidates = new ArrayList<>();
+		for (Map.Entry<Integer, NoGood> entry : noGoods.entrySet()) {
+			if (distinct.add(entry.getValue())) {
+				candidates.add(new Candidate(entry.getKey(), entry.getValue()));
+			}
+		}
+		candidates.sort(Comparator.comparingInt(c -> c.literals.length));
+		for (Candidate candidate : candidates) {
+			for (int literal : candidate.literals) {
+				occurrences.computeIfAbsent(literal, l -> new ArrayList<>()).add(candidate);
+			}
+		}
+
+		final Deque<Candidate> queue = new ArrayDeque<>(candidates);
+		final Set<Candidate> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+		queued.addAll(queue);
+		while (!queue.isEmpty() && remainingSteps > 0) {
+			final Candidate candidate = queue.poll();
+			queued.remove(candidate);
+			if (candidate.removed) {
+				continue;
+			}
+			if (!simplifyByEarlierBatches(candidate)) {
+				continue;
+			}
+			subsume(candidate);
+			for (Candidate strengthened : strengthen(candidate)) {
+				if (queued.add(strengthened)) {
+					queue.add(strengthened);
+				}
+			}
+		}
+		if (remainingSteps <= 0) {
+			LOGGER.debug("Nogood preprocessing stopped after exhausting its budget.");
+		}
+
+		final Map<Integer, NoGood> result = new LinkedHashMap<>();
+		final List<Candidate> kept = new ArrayList<>();
+		int removedLiterals = 0;
+		for (Candidate candidate : candidates) {
+			final NoGood original = noGoods.get(candidate.id);
+			if (candidate.removed) {
+				removedLiterals += original.size();
+				continue;
+			}
+			kept.add(candidate);
+			if (candidate.literals.length == original.size()) {
+				result.put(candidate.id, original);
+			} else {
+				removedLiterals += original.size() - candidate.literals.length;
+				result.put(candidate.id, candidate.toNoGood());
+			}
+		}
+		LOGGER.debug("Preprocessing kept {} of {} nogoods, removing {} literals.", result.size(), noGoods.size(), removedLiterals);
+
+		for (Candidate candidate : kept) {
+			candidate.fromCurrentBatch = false;
+		}
+		pruneOccurrences();
+		return result;
+	}
+
+	/**
+	 * Removes all nogoods of the current batch that contain the given one.
+	 */
+	private void subsume(Candidate subsuming) {
+		final List<Candidate> occurrence = shortestOccurrence(subsuming);
+		for (Candidate other : occurrence) {
+			if (--remainingSteps <= 0) {
+				return;
+			}
+			if (other == subsuming || other.removed || !other.fromCurrentBatch || other.literals.length < subsuming.literals.length) {
+				continue;
+			}
+			if (other.headLiteral != 0 && other.headLiteral != subsuming.headLiteral) {
+				continue;
+			}
+			if (isSubset(subsuming.literals, other.literals)) {
+				other.removed = true;
+			}
+		}
+	}
+
+	/**
+	 * Applies self-subsuming resolution with the given nogood on each of its literals.
+	 * @return the nogoods of the current batch that were strengthened.
+	 */
+	private List<Candidate> strengthen(Candidate resolving) {
+		final List<Candidate> strengthened = new ArrayList<>();
+		for (int literal : resolving.literals) {
+			final List<Candidate> occurrence = occurrences.get(-literal);
+			if (occurrence == null) {
+				continue;
+			}
+			for (Candidate other : occurrence) {
+				if (--remainingSteps <= 0) {
+					return strengthened;
+				}
+				if (other == resolving || other.removed || !other.fromCurrentBatch) {
+					continue;
+				}
+				if (resolves(resolving, literal, other)) {
+					other.literals = remove(other.literals, -literal);
+					strengthened.add(other);
+				}
+			}
+		}
+		return strengthened;
+	}
+
+	/**
+	 * @return true iff self-subsuming resolution of resolving on its literal allows to remove -literal from other.
+	 */
+	private boolean resolves(Candidate resolving, int literal, Candidate other) {
+		if (other.literals.length < Math.max(2, resolving.literals.length)) {
+			return false;
+		}
+		if (other.headLiteral != 0 && (!fixesAtom(resolving) || other.headLiteral == -literal)) {
+			return false;
+		}
+		return resolving.contains(literal) && other.contains(-literal) && isSubsetExcept(resolving.literals, literal, other.literals, -literal);
+	}
+
+	/**
+	 * @return true iff the given nogood assigns its atom at level 0, i.e., is a fact or forces its atom FALSE.
+	 */
+	private static boolean fixesAtom(Candidate candidate) {
+		return candidate.literals.length == 1 && (candidate.headLiteral != 0 || !isNegated(candidate.literals[0]));
+	}
+
+	/**
+	 * Removes or strengthens the given nogood of the current batch by the nogoods kept from earlier batches.
+	 * @return false iff the nogood was removed.
+	 */
+	private boolean simplifyByEarlierBatches(Candidate candidate) {
+		for (int i = 0; i < candidate.literals.length; i++) {
+			final int literal = candidate.literals[i];
+			for (Candidate earlier : occurrences.getOrDefault(literal, Collections.emptyList())) {
+				if (--remainingSteps <= 0) {
+					return true;
+				}
+				if (earlier.fromCurrentBatch || earlier.literals.length > candidate.literals.length) {
+					continue;
+				}
+				if (candidate.headLiteral != 0 && candidate.headLiteral != earlier.headLiteral) {
+					continue;
+				}
+				if (earlier.contains(literal) && isSubset(earlier.literals, candidate.literals)) {
+					candidate.removed = true;
+					return false;
+				}
+			}
+			for (Candidate earlier : occurrences.getOrDefault(-literal, Collections.emptyList())) {
+				if (--remainingSteps <= 0) {
+					return true;
+				}
+				if (!earlier.fromCurrentBatch && resolves(earlier, -literal, candidate)) {
+					candidate.literals = remove(candidate.literals, literal);
+					// Start over, the removed literal shifted the remaining ones.
+					i = -1;
+					break;
+				}
+			}
+		}
+		return true;
+	}
+
+	private List<Candidate> shortestOccurrence(Candidate candidate) {
+		List<Candidate> shortest = Collections.emptyList();
+		for (int literal : candidate.literals) {
+			final List<Candidate> occurrence = occurrences.get(literal);
+			if (occurrence != null && (shortest.isEmpty() || occurrence.size() < shortest.size())) {
+				shortest = occurrence;
+			}
+		}
+		return shortest;
+	}
+
+	private boolean isSubset(int[] sub, int[] sup) {
+		return isSubsetExcept(sub, 0, sup, 0);
+	}
+
+	/**
+	 * @return true iff the sorted literals of sub without subLiteral are contained in the sorted literals of sup without
+	 * supLiteral, where 0 excludes no literal.
+	 */
+	private boolean isSubsetExcept(int[] sub, int subLiteral, int[] sup, int supLiteral) {
+		int i = 0;
+		int j = 0;
+		while (i < sub.length) {
+			if (sub[i] == subLiteral) {
+				i++;
+				continue;
+			}
+			if (j < sup.length && sup[j] == supLiteral) {
+				j++;
+				continue;
+			}
+			if (j >= sup.length) {
+				return false;
+			}
+			remainingSteps--;
+			if (sub[i] == sup[j]) {
+				i++;
+			} else if (sub[i] < sup[j]) {
+				return false;
+			}
+			j++;
+		}
+		return true;
+	}
+
+	private static int[] remove(int[] literals, int literal) {
+		final int[] result = new int[literals.length - 1];
+		int j = 0;
+		for (int l : literals) {
+			if (l != literal) {
+				result[j++] = l;
+			}
+		}
+		return result;
+	}
+
+	private void pruneOccurrences() {
+		for (Iterator<List<Candidate>> it = occurrences.values().iterator(); it.hasNext();) {
+			final List<Candidate> occurrence = it.next();
+			occurrence.removeIf(c -> c.removed);
+			if (occurrence.isEmpty()) {
+				it.remove();
+			}
+		}
+	}
+}
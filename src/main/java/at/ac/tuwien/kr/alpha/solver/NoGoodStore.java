@@ -13,16 +13,16 @@
 	 * Adds a nogood with the given id.
 	 * @param id the unique identifier of the nogood.
 	 * @param noGood the nogood to add.
+	 * @return false iff the nogood is violated by the current assignment, it is stored nevertheless.
 	 */
 	boolean add(int id, NoGood noGood);
 
 	default boolean addAll(Map<Integer, ? extends NoGood> m) {
+		boolean result = true;
 		for (Map.Entry<Integer, ? extends NoGood> e : m.entrySet()) {
-			if (!add(e.getKey(), e.getValue())) {
-				return false;
-			}
+			result &= add(e.getKey(), e.getValue());
 		}
-		return true;
+		return result;
 	}
 
 	/**
@@ -39,5 +39,15 @@ default boolean addAll(Map<Integer, ? extends NoGood> m) {
 
 	boolean isEmpty();
 
+	/**
+	 * Simplifies the stored nogoods by the assignment on decision level 0, which is never undone: nogoods satisfied
+	 * on it are removed and literals contained in it are dropped. Stores may decline if there is nothing new to
+	 * simplify by or if it does not pay off yet.
+	 * @return true iff the store was simplified.
+	 */
+	default boolean simplify() {
+		return false;
+	}
+
 	void backtrack();
 }
@@ -0,0 +1,193 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.grounder.Grounder;
+import at.ac.tuwien.kr.alpha.solver.restarts.RestartStrategyFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs several differently configured {@link DefaultSolver}s in parallel, each on its own thread with its own
+ * grounder, and reports the result of the one that finishes first, i.e., its first answer set or that there is none.
+ * All other solvers are cancelled then. Further answer sets are enumerated by the winning solver alone on the calling
+ * thread.
+ *
+ * The solvers differ in branching heuristic, restart strategy and phase saving, as given by {@link #CONFIGURATIONS},
+ * which are assigned to the solvers in turn. All solvers but the first one additionally break ties of their branching
+ * heuristic randomly, seeded by their index. Optionally, the solvers share short learned nogoods via a
+ * {@link NoGoodExchange}. For programs with weak constraints, the winning solver goes on to improve its answer set on
+ * its own, the cost reported is the one of its last answer set.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class PortfolioSolver implements Solver, SolverMaintainingStatistics, SolverMaintainingCost {
+	private static final Logger LOGGER = LoggerFactory.getLogger(PortfolioSolver.class);
+
+	private static class Configuration {
+		final String branchingHeuristicName;
+		final String restartStrategyName;
+		final boolean phaseSaving;
+
+		Configuration(String branchingHeuristicName, String restartStrategyName, boolean phaseSaving) {
+			this.branchingHeuristicName = branchingHeuristicName;
+			this.restartStrategyName = restartStrategyName;
+			this.phaseSaving = phaseSaving;
+		}
+
+		@Override
+		public String toString() {
+			return branchingHeuristicName + "/" + restartStrategyName + (phaseSaving ? "/phases" : "");
+		}
+	}
+
+	private static final List<Configuration> CONFIGURATIONS = Arrays.asList(
+		new Configuration("naive", RestartStrategyFactory.DEFAULT, false),
+		new Configuration("vsids", "luby", true),
+		new Configuration("vsids", "glucose", true),
+		new Configuration("naive", "luby", true),
+		new Configuration("vsids", "geometric", false)
+	);
+
+	private final Supplier<Grounder> grounders;
+	private final int numSolvers;
+	private final boolean shareNoGoods;
+	private final WarmStart warmStart;
+
+	private DefaultSolver winner;
+	private Spliterator<AnswerSet> winnerSpliterator;
+
+	private static class Result {
+		final int solverIndex;
+		final AnswerSet answerSet;
+		final Spliterator<AnswerSet> spliterator;
+
+		Result(int solverIndex, AnswerSet answerSet, Spliterator<AnswerSet> spliterator) {
+			this.solverIndex = solverIndex;
+			this.answerSet = answerSet;
+			this.spliterator = spliterator;
+		}
+	}
+
+	/**
+	 * @param grounders supplies a new grounder of the program for every solver. It is called on the calling thread.
+	 * @param warmStart an answer set of a previous similar run to start the search from, may be null.
+	 */
+	public PortfolioSolver(Supplier<Grounder> grounders, int numSolvers, boolean shareNoGoods, WarmStart warmStart) {
+		if (numSolvers < 1) {
+			throw new IllegalArgumentException("A portfolio requires at least one solver.");
+		}
+		this.grounders = grounders;
+		this.numSolvers = numSolvers;
+		this.shareNoGoods = shareNoGoods;
+		this.warmStart = warmStart;
+	}
+
+	@Override
+	public Spliterator<AnswerSet> spliterator() {
+		return new Spliterators.AbstractSpliterator<AnswerSet>(Long.MAX_VALUE, 0) {
+			@Override
+			public boolean tryAdvance(Consumer<? super AnswerSet> action) {
+				return PortfolioSolver.this.tryAdvance(action);
+			}
+		};
+	}
+
+	private boolean tryAdvance(Consumer<? super AnswerSet> action) {
+		if (winnerSpliterator != null) {
+			return winnerSpliterator.tryAdvance(action);
+		}
+		final Result result = race();
+		winnerSpliterator = result.spliterator;
+		if (result.answerSet == null) {
+			return false;
+		}
+		action.accept(result.answerSet);
+		return true;
+	}
+
+	/**
+	 * Runs all solvers until the first one found an answer set or that there is none.
+	 */
+	private Result race() {
+		final NoGoodExchange exchange = shareNoGoods ? new NoGoodExchange(numSolvers) : null;
+		final List<DefaultSolver> solvers = new ArrayList<>();
+		for (int i = 0; i < numSolvers; i++) {
+			final Configuration configuration = CONFIGURATIONS.get(i % CONFIGURATIONS.size());
+			final DefaultSolver solver = new DefaultSolver(grounders.get(), configuration.branchingHeuristicName,
+				RestartStrategyFactory.getInstance(configuration.restartStrategyName), configuration.phaseSaving,
+				warmStart, i == 0 ? null : new Random(i));
+			if (exchange != null) {
+				solver.setNoGoodExchange(exchange, i);
+			}
+			solvers.add(solver);
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(numSolvers, runnable -> {
+			final Thread thread = new Thread(runnable, "portfolio-solver");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final CompletionService<Result> completionService = new ExecutorCompletionService<>(executor);
+		final List<Future<Result>> futures = new ArrayList<>();
+		for (int i = 0; i < numSolvers; i++) {
+			final int solverIndex = i;
+			futures.add(completionService.submit(() -> {
+				final Spliterator<AnswerSet> spliterator = solvers.get(solverIndex).spliterator();
+				final AnswerSet[] answerSet = new AnswerSet[1];
+				spliterator.tryAdvance(as -> answerSet[0] = as);
+				return new Result(solverIndex, answerSet[0], spliterator);
+			}));
+		}
+
+		try {
+			final Result result = completionService.take().get();
+			winner = solvers.get(result.solverIndex);
+			LOGGER.debug("Solver {} ({}) finished first.", result.solverIndex, CONFIGURATIONS.get(result.solverIndex % CONFIGURATIONS.size()));
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Interrupted while waiting for the portfolio.");
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Solver of portfolio failed.", e.getCause());
+		} finally {
+			for (Future<Result> future : futures) {
+				future.cancel(true);
+			}
+			executor.shutdownNow();
+		}
+	}
+
+	@Override
+	public boolean isOptimizing() {
+		return winner != null && winner.isOptimizing();
+	}
+
+	@Override
+	public SortedMap<Integer, Long> getCost() {
+		return winner == null ? new TreeMap<>() : winner.getCost();
+	}
+
+	@Override
+	public boolean isOptimumProven() {
+		return winner != null && winner.isOptimumProven();
+	}
+
+	@Override
+	public int getNumberOfChoices() {
+		return winner == null ? 0 : winner.getNumberOfChoices();
+	}
+
+	@Override
+	public int getNumberOfConflicts() {
+		return winner == null ? 0 : winner.getNumberOfConflicts();
+	}
+
+	@Override
+	public int getNumberOfRestarts() {
+		return winner == null ? 0 : winner.getNumberOfRestarts();
+	}
+}
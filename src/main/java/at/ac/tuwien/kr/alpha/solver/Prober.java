@@ -0,0 +1,165 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+import java.util.Iterator;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.FALSE;
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.TRUE;
+
+/**
+ * Probes the active choice atoms on decision level 0 before the first decision, as long as a budget lasts, where each
+ * atom probed counts as a decision. Each unassigned active choice atom is guessed TRUE and FALSE in turn and
+ * propagated (with the grounder, whose nogoods are kept). If a guess leads to a conflict, the nogood learned from it is
+ * added on decision level 0, which fixes the atom (or an atom implying the guess) to the opposite value. Literals
+ * implied by both guesses hold regardless of the atom and are fixed by unary nogoods.
+ *
+ * Probing goes on in rounds as long as a round fixes some atom and the budget lasts. Literals implied by the TRUE probe
+ * of an atom are recorded to find those also implied by its FALSE probe.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class Prober {
+	private static final Logger LOGGER = LoggerFactory.getLogger(Prober.class);
+
+	/**
+	 * The operations of the solver a prober uses.
+	 */
+	interface Search {
+		/**
+		 * Guesses the atom on decision level 1 and propagates to the fixpoint. If propagation leads to a conflict, the
+		 * nogood learned from it is added on decision level 0.
+		 * @return false iff the guess failed or a nogood of the grounder is violated on decision level 0.
+		 */
+		boolean guess(int atom, ThriceTruth value);
+
+		/**
+		 * Undoes a guess that did not fail.
+		 */
+		void undoGuess();
+
+		void addNoGood(NoGood noGood);
+
+		/**
+		 * Propagates on decision level 0 to the fixpoint.
+		 * @return false iff a nogood is violated then.
+		 */
+		boolean propagate();
+	}
+
+	private final Assignment assignment;
+	private final ChoiceManager choiceManager;
+	private final Budget budget;
+	private final Search search;
+
+	private boolean probing = true;
+	private int probeCounter;
+	// Reads the trail for the atoms assigned by a guess, released once probing is over.
+	private final Iterator<Assignment.Entry> probeIterator;
+	private final BitSet impliedTrue = new BitSet();
+	private final BitSet impliedFalse = new BitSet();
+
+	Prober(Assignment assignment, ChoiceManager choiceManager, Budget budget, Search search) {
+		this.assignment = assignment;
+		this.choiceManager = choiceManager;
+		this.budget = budget;
+		this.search = search;
+		this.probeIterator = assignment.iterator();
+	}
+
+	/**
+	 * Probes all unassigned active choice atoms once, unless probing is over.
+	 * @return true iff the assignment on decision level 0 was extended.
+	 */
+	boolean probe() {
+		if (!probing) {
+			return false;
+		}
+		choiceManager.updateAssignment();
+		int failed = 0;
+		int common = 0;
+		for (int atom : choiceManager.getUnassignedActiveChoiceAtoms()) {
+			if (budget.checkSearch(probeCounter, 0)) {
+				LOGGER.debug("Probing budget exhausted ({}).", budget.getExhaustion());
+				stop();
+				break;
+			}
+			if (assignment.isAssigned(atom)) {
+				continue;
+			}
+			probeCounter++;
+
+			if (!probe(atom, TRUE, impliedTrue, impliedFalse)) {
+				failed++;
+			} else {
+				final BitSet commonTrue = new BitSet();
+				final BitSet commonFalse = new BitSet();
+				if (!probe(atom, FALSE, commonTrue, commonFalse)) {
+					failed++;
+				} else {
+					commonTrue.and(impliedTrue);
+					commonFalse.and(impliedFalse);
+					for (int implied = commonTrue.nextSetBit(0); implied >= 0; implied = commonTrue.nextSetBit(implied + 1)) {
+						// The atom must be true, it is MBT until the store derives it TRUE. Atoms MBT on decision
+						// level 0 already were only derived TRUE by the guesses.
+						if (!assignment.isAssigned(implied)) {
+							search.addNoGood(new NoGood(-implied));
+							common++;
+						}
+					}
+					for (int implied = commonFalse.nextSetBit(0); implied >= 0; implied = commonFalse.nextSetBit(implied + 1)) {
+						search.addNoGood(new NoGood(implied));
+						common++;
+					}
+				}
+				impliedTrue.clear();
+				impliedFalse.clear();
+			}
+
+			// Later probes start from the fixpoint of decision level 0, where a conflict ends probing.
+			if (!search.propagate()) {
+				stop();
+				break;
+			}
+		}
+		LOGGER.debug("Probed {} atoms so far, {} failed literals and {} common implications in this round.", probeCounter, failed, common);
+		if (failed + common == 0) {
+			stop();
+		}
+		return failed + common > 0;
+	}
+
+	/**
+	 * Ends probing for good.
+	 */
+	void stop() {
+		if (probing) {
+			probing = false;
+			assignment.release(probeIterator);
+		}
+	}
+
+	/**
+	 * Guesses the given atom and undoes the guess, recording the atoms newly assigned true or false in the given sets
+	 * unless the guess failed.
+	 * @return false iff the guess failed.
+	 */
+	private boolean probe(int atom, ThriceTruth value, BitSet impliedTrue, BitSet impliedFalse) {
+		while (probeIterator.hasNext()) {
+			probeIterator.next();
+		}
+		if (!search.guess(atom, value)) {
+			return false;
+		}
+		while (probeIterator.hasNext()) {
+			final Assignment.Entry entry = probeIterator.next();
+			if (entry.getAtom() != atom) {
+				(entry.getTruth().toBoolean() ? impliedTrue : impliedFalse).set(entry.getAtom());
+			}
+		}
+		search.undoGuess();
+		return true;
+	}
+}
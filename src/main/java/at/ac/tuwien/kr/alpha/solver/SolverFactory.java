@@ -1,13 +1,67 @@
 package at.ac.tuwien.kr.alpha.solver;
 
 import at.ac.tuwien.kr.alpha.grounder.Grounder;
+import at.ac.tuwien.kr.alpha.solver.heuristics.BranchingHeuristicFactory;
+import at.ac.tuwien.kr.alpha.solver.restarts.RestartStrategyFactory;
+
+import java.util.function.Supplier;
 
 public final class SolverFactory {
 	public static Solver getInstance(String name, Grounder grounder) {
+		return getInstance(name, grounder, BranchingHeuristicFactory.DEFAULT);
+	}
+
+	public static Solver getInstance(String name, Grounder grounder, String branchingHeuristicName) {
+		return getInstance(name, grounder, branchingHeuristicName, RestartStrategyFactory.DEFAULT, false);
+	}
+
+	public static Solver getInstance(String name, Grounder grounder, String branchingHeuristicName, String restartStrategyName, boolean phaseSaving) {
+		return getInstance(name, grounder, branchingHeuristicName, restartStrategyName, phaseSaving, null);
+	}
+
+	/**
+	 * @param warmStart an answer set of a previous similar run to start the search from, may be null. Ignored by solvers
+	 *                  other than the default one.
+	 */
+	public static Solver getInstance(String name, Grounder grounder, String branchingHeuristicName, String restartStrategyName, boolean phaseSaving, WarmStart warmStart) {
+		return getInstance(name, grounder, branchingHeuristicName, restartStrategyName, phaseSaving, warmStart, NoGoodPreprocessor.NONE);
+	}
+
+	/**
+	 * @param preprocessing how the default solver simplifies nogoods of the grounder: none, initial (only the initial
+	 *                      batch) or incremental (all batches). Ignored by solvers other than the default one.
+	 */
+	public static Solver getInstance(String name, Grounder grounder, String branchingHeuristicName, String restartStrategyName, boolean phaseSaving, WarmStart warmStart, String preprocessing) {
 		switch (name.toLowerCase()) {
 			case "naive" : return new NaiveSolver(grounder);
-			case "default": return new DefaultSolver(grounder);
+			case "default":
+				DefaultSolver solver = new DefaultSolver(grounder, branchingHeuristicName, restartStrategyName, phaseSaving, warmStart);
+				solver.setPreprocessor(NoGoodPreprocessor.getInstance(preprocessing));
+				return solver;
 		}
 		throw new IllegalArgumentException("Unknown solver requested.");
 	}
+
+	/**
+	 * Creates a default solver whose spliterator splits the search space, such that answer sets can be enumerated by a
+	 * parallel stream.
+	 * @param grounders supplies a new grounder for the solver and each part of the search space split off.
+	 */
+	public static Solver getSplittableInstance(Supplier<Grounder> grounders, String branchingHeuristicName, String restartStrategyName, boolean phaseSaving) {
+		return getSubtreeInstance(grounders, branchingHeuristicName, restartStrategyName, phaseSaving, GuidingPath.EMPTY);
+	}
+
+	private static DefaultSolver getSubtreeInstance(Supplier<Grounder> grounders, String branchingHeuristicName, String restartStrategyName, boolean phaseSaving, GuidingPath guidingPath) {
+		DefaultSolver solver = new DefaultSolver(grounders.get(), branchingHeuristicName, restartStrategyName, phaseSaving);
+		solver.enableSplitting(guidingPath, subtreePath -> getSubtreeInstance(grounders, branchingHeuristicName, restartStrategyName, phaseSaving, subtreePath));
+		return solver;
+	}
+
+	/**
+	 * @param grounders supplies a new grounder for each of the solvers of the portfolio.
+	 * @param warmStart an answer set of a previous similar run to start the search from, may be null.
+	 */
+	public static Solver getPortfolioInstance(int numSolvers, Supplier<Grounder> grounders, boolean shareNoGoods, WarmStart warmStart) {
+		return new PortfolioSolver(grounders, numSolvers, shareNoGoods, warmStart);
+	}
 }
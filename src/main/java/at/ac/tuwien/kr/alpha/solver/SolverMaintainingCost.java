@@ -0,0 +1,25 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import java.util.SortedMap;
+
+/**
+ * A solver that, for programs with weak constraints, yields answer sets of decreasing cost.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public interface SolverMaintainingCost {
+	/**
+	 * @return true iff the program has weak constraints, i.e., answer sets are yielded with decreasing cost.
+	 */
+	boolean isOptimizing();
+
+	/**
+	 * @return the cost of the last answer set found by level, from the highest level to the lowest, or an empty map if
+	 * the solver is not optimizing.
+	 */
+	SortedMap<Integer, Long> getCost();
+
+	/**
+	 * @return true iff the solver is optimizing and proved that the last answer set found is optimal.
+	 */
+	boolean isOptimumProven();
+}
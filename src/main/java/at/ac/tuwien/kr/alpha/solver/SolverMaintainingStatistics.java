@@ -0,0 +1,17 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+/**
+ * A solver that counts what it did during the search.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public interface SolverMaintainingStatistics {
+	int getNumberOfChoices();
+
+	int getNumberOfConflicts();
+
+	int getNumberOfRestarts();
+
+	default String getStatisticsString() {
+		return "Choices: " + getNumberOfChoices() + "\nConflicts: " + getNumberOfConflicts() + "\nRestarts: " + getNumberOfRestarts();
+	}
+}
@@ -0,0 +1,100 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.common.AtomTranslator;
+import at.ac.tuwien.kr.alpha.common.BasicAtom;
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.common.Predicate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static at.ac.tuwien.kr.alpha.common.Literals.atomOf;
+import static at.ac.tuwien.kr.alpha.common.Literals.isNegated;
+
+/**
+ * An answer set of a previous, similar run used to start the search of a new run close to it. Since atom ids differ
+ * between runs, atoms are identified by their textual representation, hence the previous answer set may also be given
+ * as printed by Alpha. A choice atom (the body of a ground rule) is considered true in the previous answer set if all
+ * literals of the rule body hold in it.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class WarmStart {
+	private final Set<String> trueAtoms = new HashSet<>();
+
+	public WarmStart(AnswerSet answerSet) {
+		for (Predicate predicate : answerSet.getPredicates()) {
+			Set<BasicAtom> instances = answerSet.getPredicateInstances(predicate);
+			if (instances == null || instances.isEmpty()) {
+				trueAtoms.add(normalize(predicate.getPredicateName()));
+				continue;
+			}
+			for (BasicAtom instance : instances) {
+				trueAtoms.add(normalize(instance.toString()));
+			}
+		}
+	}
+
+	private WarmStart() {
+	}
+
+	/**
+	 * Reads an answer set as printed by Alpha, e.g., "{ a, p(1), q(f(2), b) }". If the text contains more than one
+	 * answer set, the first one is used.
+	 */
+	public static WarmStart parse(String answerSet) {
+		final int start = answerSet.indexOf('{');
+		final int end = answerSet.indexOf('}', start);
+		if (start == -1 || end == -1) {
+			throw new IllegalArgumentException("No answer set found in warm start input.");
+		}
+		final WarmStart warmStart = new WarmStart();
+		int depth = 0;
+		int atomStart = start + 1;
+		for (int i = start + 1; i <= end; i++) {
+			final char c = answerSet.charAt(i);
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (depth == 0 && (c == ',' || c == '}')) {
+				final String atom = normalize(answerSet.substring(atomStart, i));
+				if (!atom.isEmpty()) {
+					warmStart.trueAtoms.add(atom);
+				}
+				atomStart = i + 1;
+			}
+		}
+		return warmStart;
+	}
+
+	/**
+	 * Removes all whitespace and the empty term list of propositional atoms.
+	 */
+	private static String normalize(String atom) {
+		final String normalized = atom.replaceAll("\\s", "");
+		return normalized.endsWith("()") ? normalized.substring(0, normalized.length() - 2) : normalized;
+	}
+
+	public boolean isTrue(String atom) {
+		return trueAtoms.contains(normalize(atom));
+	}
+
+	/**
+	 * Decides whether the body of a ground rule holds in the previous answer set.
+	 * @param bodyDefinition the nogood with the rule body as head, whose other literals are those of the rule body.
+	 * @param translator the translator of the atoms in the nogood.
+	 */
+	boolean isSatisfied(NoGood bodyDefinition, AtomTranslator translator) {
+		for (int i = 0; i < bodyDefinition.size(); i++) {
+			if (i == bodyDefinition.getHead()) {
+				continue;
+			}
+			final int literal = bodyDefinition.getLiteral(i);
+			if (isNegated(literal) == isTrue(translator.atomToString(atomOf(literal)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,333 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.*;
+
+/**
+ * Bounds the cost of answer sets of programs with weak constraints, such that they are enumerated by branch and bound:
+ * each answer set has a lower cost than the one before, where costs are compared level by level starting from the
+ * highest level.
+ *
+ * The cost of the current assignment is maintained along the trail. Once an answer set is found, its cost bounds the
+ * search: weak constraints whose violation would reach the bound are propagated false and assignments reaching it are
+ * conflicts, both by nogoods over the violated weak constraints. Bounds are not shared between solvers of a portfolio
+ * or subtrees of a split search space.
+ *
+ * The weak constraint atoms of each level are kept in order of decreasing weight, hence on the first level where the
+ * cost differs from the bound only the ones at the front weighing at least the slack are checked. On the levels above,
+ * where the cost equals the bound, every unassigned atom is propagated false, but only when the bound or the cost or
+ * atoms on one of them changed since they were propagated last: the nogoods generated then stay in the store and keep
+ * propagating. An atom that was FALSE then and is unassigned by backtracking is caught as a conflict once it holds.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class WeakConstraintPropagator {
+	private static class LevelAtoms {
+		// The weak constraint atoms of the level, ordered by decreasing weight.
+		int[] atoms = new int[0];
+		int[] weights = new int[0];
+		int size;
+
+		void insert(int atom, int weight) {
+			if (size == atoms.length) {
+				atoms = Arrays.copyOf(atoms, Math.max(4, 2 * size));
+				weights = Arrays.copyOf(weights, atoms.length);
+			}
+			int position = size;
+			while (position > 0 && weights[position - 1] < weight) {
+				atoms[position] = atoms[position - 1];
+				weights[position] = weights[position - 1];
+				position--;
+			}
+			atoms[position] = atom;
+			weights[position] = weight;
+			size++;
+		}
+	}
+
+	private final Assignment assignment;
+
+	// Weight and level of every atom representing a ground weak constraint, weight 0 for all other atoms.
+	private int[] weights = new int[0];
+	private int[] atomLevels = new int[0];
+
+	// The levels of weak constraints from highest to lowest, their atoms and the cost of the current assignment on
+	// each level. The cost is made up of the weak constraint atoms on the cost trail, which are pushed when the trail
+	// iterator reaches them and popped when they are unassigned.
+	private int[] levels = new int[0];
+	private LevelAtoms[] levelAtoms = new LevelAtoms[0];
+	private long[] cost = new long[0];
+	private Iterator<Assignment.Entry> costIterator;
+	private int[] costTrail = new int[0];
+	private int costTrailSize;
+
+	// The cost of the last answer set found on each level, which bounds the search, null while there is none.
+	private long[] bound;
+
+	// The number of highest levels whose unassigned atoms were propagated false while the cost equalled the bound on
+	// all of them, and whose cost and atoms did not change since.
+	private int propagatedAbove;
+
+	WeakConstraintPropagator(Assignment assignment) {
+		this.assignment = assignment;
+	}
+
+	/**
+	 * Records weak constraint atoms new from the grounder, adding their levels if not known yet.
+	 * @param atoms the weight and level of each weak constraint atom.
+	 */
+	void addAtoms(Map<Integer, Pair<Integer, Integer>> atoms) {
+		for (Map.Entry<Integer, Pair<Integer, Integer>> atom : atoms.entrySet()) {
+			final int weight = atom.getValue().getLeft();
+			if (weight == 0) {
+				continue;
+			}
+			final int atomId = atom.getKey();
+			if (atomId >= weights.length) {
+				weights = Arrays.copyOf(weights, Math.max(atomId + 1, 2 * weights.length));
+				atomLevels = Arrays.copyOf(atomLevels, weights.length);
+			}
+			weights[atomId] = weight;
+			atomLevels[atomId] = atom.getValue().getRight();
+			addLevel(atom.getValue().getRight());
+			final int level = getLevelIndex(atomLevels[atomId]);
+			levelAtoms[level].insert(atomId, weight);
+			propagatedAbove = Math.min(propagatedAbove, level);
+		}
+		if (costIterator == null && levels.length > 0) {
+			costIterator = assignment.iterator();
+		}
+	}
+
+	/**
+	 * Makes the cost of the current assignment, which must be an answer set, the bound.
+	 */
+	void answerSetFound() {
+		updateCost();
+		bound = cost.clone();
+		propagatedAbove = 0;
+	}
+
+	/**
+	 * @return true iff the bound excludes all answer sets, since the last answer set found has cost 0.
+	 */
+	boolean isBoundZero() {
+		if (bound == null) {
+			return false;
+		}
+		for (long c : bound) {
+			if (c != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the cost of the last answer set found by level, from highest to lowest, empty while there is none.
+	 */
+	SortedMap<Integer, Long> getCost() {
+		final SortedMap<Integer, Long> costByLevel = new TreeMap<>(Comparator.reverseOrder());
+		if (bound != null) {
+			for (int i = 0; i < levels.length; i++) {
+				costByLevel.put(levels[i], bound[i]);
+			}
+		}
+		return costByLevel;
+	}
+
+	/**
+	 * Generates nogoods enforcing that the cost stays below the bound: if the cost of the current assignment reaches
+	 * the bound, a nogood of violated weak constraints reaching it is violated; an unassigned weak constraint atom whose
+	 * violation would reach the bound is propagated false by such a nogood including it.
+	 * @return the nogoods generated, empty if there is no bound or nothing to propagate.
+	 */
+	List<NoGood> propagate() {
+		if (bound == null) {
+			return Collections.emptyList();
+		}
+		updateCost();
+		int differingLevel = 0;
+		while (differingLevel < levels.length && cost[differingLevel] == bound[differingLevel]) {
+			differingLevel++;
+		}
+		final List<NoGood> noGoods = new ArrayList<>();
+		if (differingLevel == levels.length || cost[differingLevel] > bound[differingLevel]) {
+			noGoods.add(getBoundNoGood(0));
+		} else {
+			// Adding the weight of a weak constraint on the differing level may reach the bound depending on the lower
+			// levels, on a higher level (all of them are equal to the bound) it always exceeds the bound.
+			for (int level = propagatedAbove; level < differingLevel; level++) {
+				final LevelAtoms atoms = levelAtoms[level];
+				for (int i = 0; i < atoms.size; i++) {
+					if (!assignment.isAssigned(atoms.atoms[i])) {
+						noGoods.add(getBoundNoGood(atoms.atoms[i]));
+					}
+				}
+			}
+			propagatedAbove = differingLevel;
+
+			final long slack = bound[differingLevel] - cost[differingLevel];
+			final boolean lowerLevelsReachBound = compare(cost, bound, differingLevel + 1) >= 0;
+			final LevelAtoms atoms = levelAtoms[differingLevel];
+			for (int i = 0; i < atoms.size && atoms.weights[i] >= slack; i++) {
+				if ((atoms.weights[i] > slack || lowerLevelsReachBound) && !assignment.isAssigned(atoms.atoms[i])) {
+					noGoods.add(getBoundNoGood(atoms.atoms[i]));
+				}
+			}
+		}
+		return noGoods;
+	}
+
+	/**
+	 * Removes the weights of weak constraint atoms that were unassigned by backtracking from the cost.
+	 */
+	void backtrack() {
+		while (costTrailSize > 0 && !assignment.containsRelaxed(costTrail[costTrailSize - 1])) {
+			final int atom = costTrail[--costTrailSize];
+			final int level = getLevelIndex(atomLevels[atom]);
+			cost[level] -= weights[atom];
+			propagatedAbove = Math.min(propagatedAbove, level);
+		}
+	}
+
+	/**
+	 * Builds a nogood of weak constraint atoms on the cost trail (and the given atom, if not 0) whose cost reaches the
+	 * bound: all of them on the levels where the cost equals the bound and, on the first level where it exceeds the
+	 * bound, the ones with the highest weights until they exceed it.
+	 */
+	private NoGood getBoundNoGood(int additionalAtom) {
+		final long[] total = cost.clone();
+		if (additionalAtom != 0) {
+			total[getLevelIndex(atomLevels[additionalAtom])] += weights[additionalAtom];
+		}
+		int differingLevel = 0;
+		while (differingLevel < levels.length && total[differingLevel] == bound[differingLevel]) {
+			differingLevel++;
+		}
+
+		// The given atom must be part of the nogood to propagate, hence its weight counts first.
+		final List<Integer> literals = new ArrayList<>();
+		final List<Integer> candidates = new ArrayList<>();
+		long sum = 0;
+		if (additionalAtom != 0) {
+			literals.add(additionalAtom);
+			if (getLevelIndex(atomLevels[additionalAtom]) == differingLevel) {
+				sum += weights[additionalAtom];
+			}
+		}
+		for (int i = 0; i < costTrailSize; i++) {
+			final int level = getLevelIndex(atomLevels[costTrail[i]]);
+			if (level < differingLevel) {
+				literals.add(costTrail[i]);
+			} else if (level == differingLevel) {
+				candidates.add(costTrail[i]);
+			}
+		}
+		if (differingLevel < levels.length) {
+			candidates.sort((a, b) -> Integer.compare(weights[b], weights[a]));
+			for (int atom : candidates) {
+				if (sum > bound[differingLevel]) {
+					break;
+				}
+				sum += weights[atom];
+				literals.add(atom);
+			}
+		}
+		final int[] noGood = new int[literals.size()];
+		for (int i = 0; i < noGood.length; i++) {
+			noGood[i] = literals.get(i);
+		}
+		return new NoGood(noGood);
+	}
+
+	/**
+	 * Adds the weights of weak constraint atoms that got TRUE or MBT since the last call to the cost. An atom that gets
+	 * TRUE after MBT is counted for its MBT assignment only.
+	 */
+	private void updateCost() {
+		if (costIterator == null) {
+			return;
+		}
+		while (costIterator.hasNext()) {
+			final Assignment.Entry entry = costIterator.next();
+			final int atom = entry.getAtom();
+			if (atom >= weights.length || weights[atom] == 0 || !entry.getTruth().toBoolean() || entry.getPrevious() != null) {
+				continue;
+			}
+			final int level = getLevelIndex(atomLevels[atom]);
+			cost[level] += weights[atom];
+			propagatedAbove = Math.min(propagatedAbove, level);
+			if (costTrailSize == costTrail.length) {
+				costTrail = Arrays.copyOf(costTrail, Math.max(8, 2 * costTrail.length));
+			}
+			costTrail[costTrailSize++] = atom;
+		}
+	}
+
+	/**
+	 * Inserts a level into the levels ordered from highest to lowest, with cost 0 for the current assignment and the
+	 * bound, since no weak constraint on the level was known so far.
+	 */
+	private void addLevel(int level) {
+		int index = 0;
+		while (index < levels.length && levels[index] > level) {
+			index++;
+		}
+		if (index < levels.length && levels[index] == level) {
+			return;
+		}
+		levels = insert(levels, index, level);
+		levelAtoms = insert(levelAtoms, index, new LevelAtoms());
+		cost = insert(cost, index);
+		propagatedAbove = Math.min(propagatedAbove, index);
+		if (bound != null) {
+			bound = insert(bound, index);
+		}
+	}
+
+	private static int[] insert(int[] array, int index, int value) {
+		final int[] result = new int[array.length + 1];
+		System.arraycopy(array, 0, result, 0, index);
+		result[index] = value;
+		System.arraycopy(array, index, result, index + 1, array.length - index);
+		return result;
+	}
+
+	private static LevelAtoms[] insert(LevelAtoms[] array, int index, LevelAtoms value) {
+		final LevelAtoms[] result = new LevelAtoms[array.length + 1];
+		System.arraycopy(array, 0, result, 0, index);
+		result[index] = value;
+		System.arraycopy(array, index, result, index + 1, array.length - index);
+		return result;
+	}
+
+	private static long[] insert(long[] array, int index) {
+		final long[] result = new long[array.length + 1];
+		System.arraycopy(array, 0, result, 0, index);
+		System.arraycopy(array, index, result, index + 1, array.length - index);
+		return result;
+	}
+
+	private int getLevelIndex(int level) {
+		for (int i = 0; i < levels.length; i++) {
+			if (levels[i] == level) {
+				return i;
+			}
+		}
+		throw new RuntimeException("Unknown level " + level + " of weak constraints.");
+	}
+
+	/**
+	 * Compares two costs lexicographically, starting from the given level index.
+	 */
+	private static int compare(long[] cost, long[] other, int from) {
+		for (int i = from; i < cost.length; i++) {
+			if (cost[i] != other[i]) {
+				return Long.compare(cost[i], other[i]);
+			}
+		}
+		return 0;
+	}
+}
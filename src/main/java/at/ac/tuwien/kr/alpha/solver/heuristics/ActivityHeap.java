@@ -0,0 +1,173 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import java.util.Arrays;
+
+/**
+ * An indexed binary max-heap of atoms ordered by their activity. Atoms of equal activity are ordered by the time
+ * they were first added to the heap. Since the position of every atom in the heap is known, increasing the activity
+ * of an atom and testing whether it is in the heap is cheap.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class ActivityHeap {
+	private static final int ABSENT = -1;
+
+	private double[] activity = new double[0];
+	private int[] order = new int[0];
+	private int[] position = new int[0];
+	private int[] heap = new int[16];
+	private int size;
+	private int orderCounter;
+
+	/**
+	 * Makes the heap aware of an atom and adds it. Atoms that are known already are not changed.
+	 * @return true iff the atom was not known before.
+	 */
+	boolean introduce(int atom) {
+		ensureCapacity(atom);
+		if (order[atom] != 0) {
+			return false;
+		}
+		order[atom] = ++orderCounter;
+		insert(atom);
+		return true;
+	}
+
+	boolean isKnown(int atom) {
+		return atom < order.length && order[atom] != 0;
+	}
+
+	boolean contains(int atom) {
+		return atom < position.length && position[atom] != ABSENT;
+	}
+
+	/**
+	 * Adds a known atom to the heap, if it is not contained already.
+	 */
+	void insert(int atom) {
+		if (contains(atom)) {
+			return;
+		}
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, size * 2);
+		}
+		heap[size] = atom;
+		position[atom] = size;
+		size++;
+		siftUp(position[atom]);
+	}
+
+	/**
+	 * Removes and returns the atom with the highest activity.
+	 */
+	int removeMax() {
+		final int max = heap[0];
+		size--;
+		position[max] = ABSENT;
+		if (size > 0) {
+			heap[0] = heap[size];
+			position[heap[0]] = 0;
+			siftDown(0);
+		}
+		return max;
+	}
+
+	/**
+	 * Removes the given atom from the heap, if it is contained.
+	 */
+	void remove(int atom) {
+		if (!contains(atom)) {
+			return;
+		}
+		final int index = position[atom];
+		position[atom] = ABSENT;
+		size--;
+		if (index < size) {
+			final int moved = heap[size];
+			heap[index] = moved;
+			position[moved] = index;
+			siftDown(index);
+			siftUp(position[moved]);
+		}
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	double getActivity(int atom) {
+		return atom < activity.length ? activity[atom] : 0;
+	}
+
+	/**
+	 * Increases the activity of the given known atom by the given amount.
+	 */
+	void increaseActivity(int atom, double amount) {
+		activity[atom] += amount;
+		if (contains(atom)) {
+			siftUp(position[atom]);
+		}
+	}
+
+	/**
+	 * Multiplies all activities by the given factor, which keeps the order of atoms in the heap intact.
+	 */
+	void scaleActivities(double factor) {
+		for (int i = 0; i < activity.length; i++) {
+			activity[i] *= factor;
+		}
+	}
+
+	private boolean isBefore(int atom, int other) {
+		if (activity[atom] != activity[other]) {
+			return activity[atom] > activity[other];
+		}
+		return order[atom] < order[other];
+	}
+
+	private void siftUp(int index) {
+		final int atom = heap[index];
+		while (index > 0) {
+			final int parentIndex = (index - 1) / 2;
+			final int parent = heap[parentIndex];
+			if (!isBefore(atom, parent)) {
+				break;
+			}
+			heap[index] = parent;
+			position[parent] = index;
+			index = parentIndex;
+		}
+		heap[index] = atom;
+		position[atom] = index;
+	}
+
+	private void siftDown(int index) {
+		final int atom = heap[index];
+		while (2 * index + 1 < size) {
+			int childIndex = 2 * index + 1;
+			if (childIndex + 1 < size && isBefore(heap[childIndex + 1], heap[childIndex])) {
+				childIndex++;
+			}
+			final int child = heap[childIndex];
+			if (!isBefore(child, atom)) {
+				break;
+			}
+			heap[index] = child;
+			position[child] = index;
+			index = childIndex;
+		}
+		heap[index] = atom;
+		position[atom] = index;
+	}
+
+	private void ensureCapacity(int atom) {
+		if (atom < order.length) {
+			return;
+		}
+		final int oldLength = order.length;
+		final int newLength = Math.max(atom + 1, oldLength * 2);
+		activity = Arrays.copyOf(activity, newLength);
+		order = Arrays.copyOf(order, newLength);
+		position = Arrays.copyOf(position, newLength);
+		Arrays.fill(position, oldLength, newLength, ABSENT);
+	}
+}
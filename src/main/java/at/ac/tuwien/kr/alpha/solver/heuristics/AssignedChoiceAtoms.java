@@ -0,0 +1,54 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Choice atoms a heuristic set aside because they were found assigned, remembered by the decision level of their
+ * assignment such that they are handed back once the solver backjumps below that level.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+class AssignedChoiceAtoms {
+	private final List<int[]> atoms = new ArrayList<>();
+	private int[] sizes = new int[8];
+	private boolean[] contained = new boolean[0];
+
+	void add(int atom, int decisionLevel) {
+		if (atom >= contained.length) {
+			contained = Arrays.copyOf(contained, Math.max(atom + 1, contained.length * 2));
+		}
+		contained[atom] = true;
+		while (atoms.size() <= decisionLevel) {
+			atoms.add(new int[8]);
+		}
+		if (decisionLevel >= sizes.length) {
+			sizes = Arrays.copyOf(sizes, Math.max(decisionLevel + 1, sizes.length * 2));
+		}
+		int[] atomsOnLevel = atoms.get(decisionLevel);
+		if (sizes[decisionLevel] == atomsOnLevel.length) {
+			atomsOnLevel = Arrays.copyOf(atomsOnLevel, atomsOnLevel.length * 2);
+			atoms.set(decisionLevel, atomsOnLevel);
+		}
+		atomsOnLevel[sizes[decisionLevel]++] = atom;
+	}
+
+	boolean contains(int atom) {
+		return atom < contained.length && contained[atom];
+	}
+
+	/**
+	 * Hands all atoms assigned above the given decision level to the given consumer and forgets them.
+	 */
+	void backjump(int decisionLevel, IntConsumer restore) {
+		for (int level = decisionLevel + 1; level < sizes.length && level < atoms.size(); level++) {
+			final int[] atomsOnLevel = atoms.get(level);
+			for (int i = 0; i < sizes[level]; i++) {
+				contained[atomsOnLevel[i]] = false;
+				restore.accept(atomsOnLevel[i]);
+			}
+			sizes[level] = 0;
+		}
+	}
+}
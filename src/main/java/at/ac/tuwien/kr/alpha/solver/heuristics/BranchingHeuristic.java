@@ -0,0 +1,52 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+
+import java.util.Collection;
+import java.util.function.IntPredicate;
+
+/**
+ * A branching heuristic decides which of the currently active choice points the solver guesses next.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public interface BranchingHeuristic {
+	/**
+	 * Makes the heuristic aware of a new choice point.
+	 * @param atom the atom that may be guessed.
+	 */
+	void newChoiceAtom(int atom);
+
+	/**
+	 * Informs the heuristic that a choice atom became active, i.e., it is enabled and not disabled. Choice atoms the
+	 * heuristic is never informed about count as active.
+	 */
+	default void choiceAtomActivated(int atom) {
+	}
+
+	/**
+	 * Informs the heuristic that a choice atom became inactive, such that it need not be considered until it is
+	 * activated again.
+	 */
+	default void choiceAtomDeactivated(int atom) {
+	}
+
+	/**
+	 * Informs the heuristic about a conflict.
+	 * @param noGoodsResponsibleForConflict the violated nogood and all nogoods it was resolved with.
+	 */
+	void conflict(Collection<NoGood> noGoodsResponsibleForConflict);
+
+	/**
+	 * Informs the heuristic that the solver backjumped, i.e., all assignments above the given decision level have
+	 * been removed.
+	 * @param decisionLevel the decision level the solver is now on.
+	 */
+	void backjump(int decisionLevel);
+
+	/**
+	 * Selects the next atom to guess among the choice atoms known to the heuristic.
+	 * @param isActiveChoiceAtom tells whether an atom is an active choice point under the current assignment.
+	 * @return the atom to guess, or 0 if there is no active choice point.
+	 */
+	int chooseAtom(IntPredicate isActiveChoiceAtom);
+}
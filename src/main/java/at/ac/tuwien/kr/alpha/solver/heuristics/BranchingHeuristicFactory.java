@@ -0,0 +1,24 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import at.ac.tuwien.kr.alpha.solver.Assignment;
+
+import java.util.Random;
+
+public final class BranchingHeuristicFactory {
+	public static final String DEFAULT = "naive";
+
+	public static BranchingHeuristic getInstance(String name, Assignment assignment) {
+		return getInstance(name, assignment, null);
+	}
+
+	/**
+	 * @param random the source of randomness used to break ties, may be null. Ignored by the naive heuristic.
+	 */
+	public static BranchingHeuristic getInstance(String name, Assignment assignment, Random random) {
+		switch (name.toLowerCase()) {
+			case "naive": return new NaiveHeuristic(assignment);
+			case "vsids": return new VSIDSHeuristic(assignment, VSIDSHeuristic.DEFAULT_DECAY, random);
+		}
+		throw new IllegalArgumentException("Unknown branching heuristic requested.");
+	}
+}
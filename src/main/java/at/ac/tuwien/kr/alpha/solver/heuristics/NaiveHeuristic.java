@@ -0,0 +1,117 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.solver.Assignment;
+import at.ac.tuwien.kr.alpha.solver.ThriceTruth;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.IntPredicate;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.MBT;
+
+/**
+ * Guesses the first active choice point in the order choice points became known.
+ *
+ * Candidates are kept in a bit set indexed by the order of choice points. Atoms reported inactive are cleared from it
+ * until they are activated again, atoms found assigned (TRUE or FALSE) when choosing are cleared until the solver
+ * backjumps below the decision level of their assignment. A decision thus only passes over candidates cleared lazily.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class NaiveHeuristic implements BranchingHeuristic {
+	private final Assignment assignment;
+	private final BitSet candidates = new BitSet();
+	private final AssignedChoiceAtoms assignedAtoms = new AssignedChoiceAtoms();
+
+	// The choice atoms in the order they became known, and the (1-based) position of every atom in this order.
+	private int[] choiceAtoms = new int[16];
+	private int choiceAtomsSize;
+	private int[] positions = new int[0];
+	private boolean[] inactive = new boolean[0];
+
+	public NaiveHeuristic(Assignment assignment) {
+		this.assignment = assignment;
+	}
+
+	@Override
+	public void newChoiceAtom(int atom) {
+		if (getPosition(atom) != 0) {
+			return;
+		}
+		if (atom >= positions.length) {
+			positions = Arrays.copyOf(positions, Math.max(atom + 1, positions.length * 2));
+		}
+		if (choiceAtomsSize == choiceAtoms.length) {
+			choiceAtoms = Arrays.copyOf(choiceAtoms, choiceAtomsSize * 2);
+		}
+		choiceAtoms[choiceAtomsSize++] = atom;
+		positions[atom] = choiceAtomsSize;
+		if (!isInactive(atom)) {
+			candidates.set(choiceAtomsSize - 1);
+		}
+	}
+
+	@Override
+	public void choiceAtomActivated(int atom) {
+		if (!isInactive(atom)) {
+			return;
+		}
+		inactive[atom] = false;
+		// Atoms cleared as assigned are restored when backjumping.
+		if (getPosition(atom) != 0 && !assignedAtoms.contains(atom)) {
+			candidates.set(getPosition(atom) - 1);
+		}
+	}
+
+	@Override
+	public void choiceAtomDeactivated(int atom) {
+		if (atom >= inactive.length) {
+			inactive = Arrays.copyOf(inactive, Math.max(atom + 1, inactive.length * 2));
+		}
+		inactive[atom] = true;
+		if (getPosition(atom) != 0) {
+			candidates.clear(getPosition(atom) - 1);
+		}
+	}
+
+	@Override
+	public void conflict(Collection<NoGood> noGoodsResponsibleForConflict) {
+	}
+
+	@Override
+	public void backjump(int decisionLevel) {
+		assignedAtoms.backjump(decisionLevel, atom -> {
+			if (!isInactive(atom)) {
+				candidates.set(getPosition(atom) - 1);
+			}
+		});
+	}
+
+	@Override
+	public int chooseAtom(IntPredicate isActiveChoiceAtom) {
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			final int atom = choiceAtoms[i];
+			final ThriceTruth truth = assignment.getTruth(atom);
+			if (truth != null && truth != MBT) {
+				candidates.clear(i);
+				assignedAtoms.add(atom, assignment.getDecisionLevel(atom));
+				continue;
+			}
+			// Only atoms that were not reported inactive are tested, which fails only for callers that do not report
+			// activity changes.
+			if (isActiveChoiceAtom.test(atom)) {
+				return atom;
+			}
+		}
+		return 0;
+	}
+
+	private int getPosition(int atom) {
+		return atom < positions.length ? positions[atom] : 0;
+	}
+
+	private boolean isInactive(int atom) {
+		return atom < inactive.length && inactive[atom];
+	}
+}
@@ -0,0 +1,170 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.solver.Assignment;
+import at.ac.tuwien.kr.alpha.solver.ThriceTruth;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.MBT;
+
+/**
+ * Variable state independent decaying sum (VSIDS) heuristic: every choice atom has an activity that is increased
+ * whenever the atom occurs in a nogood responsible for a conflict. Older bumps lose weight over time, which is
+ * realized by increasing the amount added on each bump instead of decaying all activities. The choice atom with the
+ * highest activity is guessed next.
+ *
+ * Choice atoms are kept in an {@link ActivityHeap}. Atoms found assigned (TRUE or FALSE) when choosing are removed
+ * from the heap and remembered by the decision level of their assignment, they are added back once the solver
+ * backjumps below that level. Atoms reported inactive are removed from the heap until they are activated again, such
+ * that a decision does not pass over inactive atoms.
+ *
+ * Given a source of randomness, new choice atoms start with a tiny random activity instead of none, which only breaks
+ * ties between atoms that were never bumped (such that differently seeded solvers explore different parts first).
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class VSIDSHeuristic implements BranchingHeuristic {
+	static final double DEFAULT_DECAY = 0.95;
+	private static final double RESCALE_LIMIT = 1e100;
+	private static final double INITIAL_ACTIVITY_LIMIT = 1e-6;
+
+	private final Assignment assignment;
+	private final ActivityHeap heap = new ActivityHeap();
+	private final double decay;
+	private final Random random;
+	private double increment = 1.0;
+
+	private final AssignedChoiceAtoms removedAtoms = new AssignedChoiceAtoms();
+	private boolean[] inactive = new boolean[0];
+
+	private int[] skipped = new int[16];
+	private int[] bumpedInConflict = new int[0];
+	private int conflictCounter;
+
+	public VSIDSHeuristic(Assignment assignment, double decay, Random random) {
+		this.assignment = assignment;
+		this.decay = decay;
+		this.random = random;
+	}
+
+	public VSIDSHeuristic(Assignment assignment, double decay) {
+		this(assignment, decay, null);
+	}
+
+	public VSIDSHeuristic(Assignment assignment) {
+		this(assignment, DEFAULT_DECAY);
+	}
+
+	@Override
+	public void newChoiceAtom(int atom) {
+		if (!heap.introduce(atom)) {
+			return;
+		}
+		if (random != null) {
+			heap.increaseActivity(atom, random.nextDouble() * INITIAL_ACTIVITY_LIMIT);
+		}
+		if (isInactive(atom)) {
+			heap.remove(atom);
+		}
+	}
+
+	@Override
+	public void choiceAtomActivated(int atom) {
+		if (!isInactive(atom)) {
+			return;
+		}
+		inactive[atom] = false;
+		// Atoms removed as assigned are added back when backjumping.
+		if (heap.isKnown(atom) && !removedAtoms.contains(atom)) {
+			heap.insert(atom);
+		}
+	}
+
+	@Override
+	public void choiceAtomDeactivated(int atom) {
+		if (atom >= inactive.length) {
+			inactive = Arrays.copyOf(inactive, Math.max(atom + 1, inactive.length * 2));
+		}
+		inactive[atom] = true;
+		heap.remove(atom);
+	}
+
+	@Override
+	public void conflict(Collection<NoGood> noGoodsResponsibleForConflict) {
+		// Every atom is bumped at most once per conflict.
+		conflictCounter++;
+		for (NoGood noGood : noGoodsResponsibleForConflict) {
+			for (int i = 0; i < noGood.size(); i++) {
+				final int atom = noGood.getAtom(i);
+				if (!heap.isKnown(atom)) {
+					continue;
+				}
+				if (atom >= bumpedInConflict.length) {
+					bumpedInConflict = Arrays.copyOf(bumpedInConflict, Math.max(atom + 1, bumpedInConflict.length * 2));
+				}
+				if (bumpedInConflict[atom] == conflictCounter) {
+					continue;
+				}
+				bumpedInConflict[atom] = conflictCounter;
+				bump(atom);
+			}
+		}
+		increment /= decay;
+	}
+
+	private void bump(int atom) {
+		heap.increaseActivity(atom, increment);
+		if (heap.getActivity(atom) > RESCALE_LIMIT) {
+			heap.scaleActivities(1 / RESCALE_LIMIT);
+			increment /= RESCALE_LIMIT;
+		}
+	}
+
+	@Override
+	public void backjump(int decisionLevel) {
+		removedAtoms.backjump(decisionLevel, atom -> {
+			if (!isInactive(atom)) {
+				heap.insert(atom);
+			}
+		});
+	}
+
+	@Override
+	public int chooseAtom(IntPredicate isActiveChoiceAtom) {
+		int chosen = 0;
+		int skippedSize = 0;
+		while (!heap.isEmpty()) {
+			final int atom = heap.removeMax();
+			final ThriceTruth truth = assignment.getTruth(atom);
+			if (truth != null && truth != MBT) {
+				removedAtoms.add(atom, assignment.getDecisionLevel(atom));
+				continue;
+			}
+			if (skippedSize == skipped.length) {
+				skipped = Arrays.copyOf(skipped, skippedSize * 2);
+			}
+			skipped[skippedSize++] = atom;
+			if (isActiveChoiceAtom.test(atom)) {
+				chosen = atom;
+				break;
+			}
+		}
+		// Only atoms that were not reported inactive are tested, so atoms are skipped only by callers that do not
+		// report activity changes. The chosen atom goes back as well, it is removed once found assigned.
+		for (int i = 0; i < skippedSize; i++) {
+			heap.insert(skipped[i]);
+		}
+		return chosen;
+	}
+
+	private boolean isInactive(int atom) {
+		return atom < inactive.length && inactive[atom];
+	}
+
+	double getActivity(int atom) {
+		return heap.getActivity(atom);
+	}
+}
@@ -0,0 +1,73 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Guesses the choice atoms that were true in a previous, similar run first, in the order they became known, and
+ * leaves all other choices to another heuristic. If the input changed only slightly, guessing these atoms reconstructs
+ * most of the previous solution without conflicts. After the first conflict, the previous solution apparently does not
+ * carry over and all choices are left to the other heuristic; preferring the previous solution any longer (or only
+ * for atoms not involved in conflicts) made repairing it costlier than searching from scratch.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class WarmStartHeuristic implements BranchingHeuristic {
+	private final BranchingHeuristic delegate;
+	private final List<Integer> preferredAtoms = new ArrayList<>();
+	private boolean hadConflict;
+
+	public WarmStartHeuristic(BranchingHeuristic delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Makes the given choice atom, which must be known to the heuristic, guessed before all others not preferred.
+	 * Ignored after the first conflict.
+	 */
+	public void prefer(int atom) {
+		if (!hadConflict) {
+			preferredAtoms.add(atom);
+		}
+	}
+
+	@Override
+	public void newChoiceAtom(int atom) {
+		delegate.newChoiceAtom(atom);
+	}
+
+	@Override
+	public void choiceAtomActivated(int atom) {
+		delegate.choiceAtomActivated(atom);
+	}
+
+	@Override
+	public void choiceAtomDeactivated(int atom) {
+		delegate.choiceAtomDeactivated(atom);
+	}
+
+	@Override
+	public void conflict(Collection<NoGood> noGoodsResponsibleForConflict) {
+		hadConflict = true;
+		preferredAtoms.clear();
+		delegate.conflict(noGoodsResponsibleForConflict);
+	}
+
+	@Override
+	public void backjump(int decisionLevel) {
+		delegate.backjump(decisionLevel);
+	}
+
+	@Override
+	public int chooseAtom(IntPredicate isActiveChoiceAtom) {
+		for (int atom : preferredAtoms) {
+			if (isActiveChoiceAtom.test(atom)) {
+				return atom;
+			}
+		}
+		return delegate.chooseAtom(isActiveChoiceAtom);
+	}
+}
@@ -0,0 +1,43 @@
+package at.ac.tuwien.kr.alpha.solver.restarts;
+
+/**
+ * Restarts after a number of conflicts that starts at a given value and is multiplied by a constant factor after
+ * each restart.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class GeometricRestartStrategy implements RestartStrategy {
+	static final int DEFAULT_FIRST = 100;
+	static final double DEFAULT_FACTOR = 1.5;
+
+	private final double factor;
+	private double limit;
+	private int conflicts;
+
+	public GeometricRestartStrategy(int first, double factor) {
+		if (first < 1 || factor < 1) {
+			throw new IllegalArgumentException("Geometric restarts require a positive first limit and a factor of at least 1.");
+		}
+		this.limit = first;
+		this.factor = factor;
+	}
+
+	public GeometricRestartStrategy() {
+		this(DEFAULT_FIRST, DEFAULT_FACTOR);
+	}
+
+	@Override
+	public void conflict(int literalBlockDistance) {
+		conflicts++;
+	}
+
+	@Override
+	public boolean shouldRestart() {
+		return conflicts >= limit;
+	}
+
+	@Override
+	public void restart() {
+		conflicts = 0;
+		limit *= factor;
+	}
+}
@@ -0,0 +1,62 @@
+package at.ac.tuwien.kr.alpha.solver.restarts;
+
+/**
+ * Dynamic restarts as introduced by the Glucose SAT solver: the solver restarts when the nogoods learned recently are
+ * of considerably worse quality than those learned overall, where quality is measured by the literal block distance
+ * (LBD). The average LBD of the last conflicts is kept in a fixed-size window; once the window is full and its
+ * average multiplied by a margin exceeds the average over all conflicts, the solver restarts and the window is
+ * cleared.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class GlucoseRestartStrategy implements RestartStrategy {
+	static final int DEFAULT_WINDOW_SIZE = 50;
+	static final double DEFAULT_MARGIN = 0.8;
+
+	private final int[] window;
+	private final double margin;
+	private int windowPosition;
+	private int windowFill;
+	private long windowSum;
+
+	private long conflicts;
+	private long totalSum;
+
+	public GlucoseRestartStrategy(int windowSize, double margin) {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("Window of Glucose restarts must not be empty.");
+		}
+		this.window = new int[windowSize];
+		this.margin = margin;
+	}
+
+	public GlucoseRestartStrategy() {
+		this(DEFAULT_WINDOW_SIZE, DEFAULT_MARGIN);
+	}
+
+	@Override
+	public void conflict(int literalBlockDistance) {
+		conflicts++;
+		totalSum += literalBlockDistance;
+		if (windowFill == window.length) {
+			windowSum -= window[windowPosition];
+		} else {
+			windowFill++;
+		}
+		window[windowPosition] = literalBlockDistance;
+		windowSum += literalBlockDistance;
+		windowPosition = (windowPosition + 1) % window.length;
+	}
+
+	@Override
+	public boolean shouldRestart() {
+		// Compare windowSum / windowFill * margin > totalSum / conflicts without dividing.
+		return windowFill == window.length && windowSum * margin * conflicts > (double) totalSum * windowFill;
+	}
+
+	@Override
+	public void restart() {
+		windowFill = 0;
+		windowPosition = 0;
+		windowSum = 0;
+	}
+}
@@ -0,0 +1,65 @@
+package at.ac.tuwien.kr.alpha.solver.restarts;
+
+/**
+ * Restarts after a number of conflicts given by the Luby sequence (1, 1, 2, 1, 1, 2, 4, 1, ...) multiplied with a
+ * fixed unit. The sequence is optimal (up to a constant factor) for search processes with unknown runtime
+ * distribution and keeps the search complete, since the distance between restarts grows without bound.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class LubyRestartStrategy implements RestartStrategy {
+	static final int DEFAULT_UNIT = 100;
+
+	private final int unit;
+	private int restarts;
+	private int conflicts;
+	private long limit;
+
+	public LubyRestartStrategy(int unit) {
+		if (unit < 1) {
+			throw new IllegalArgumentException("Unit of Luby restarts must be positive.");
+		}
+		this.unit = unit;
+		this.limit = unit * luby(0);
+	}
+
+	public LubyRestartStrategy() {
+		this(DEFAULT_UNIT);
+	}
+
+	/**
+	 * Computes the element at the given (zero-based) index of the Luby sequence.
+	 */
+	static long luby(int index) {
+		// Find the finite subsequence containing the index and its size.
+		int size = 1;
+		int sequence = 0;
+		while (size < index + 1) {
+			sequence++;
+			size = 2 * size + 1;
+		}
+		// Descend into the subsequence that contains the index.
+		while (size - 1 != index) {
+			size = (size - 1) >> 1;
+			sequence--;
+			index = index % size;
+		}
+		return 1L << sequence;
+	}
+
+	@Override
+	public void conflict(int literalBlockDistance) {
+		conflicts++;
+	}
+
+	@Override
+	public boolean shouldRestart() {
+		return conflicts >= limit;
+	}
+
+	@Override
+	public void restart() {
+		restarts++;
+		conflicts = 0;
+		limit = unit * luby(restarts);
+	}
+}
@@ -0,0 +1,20 @@
+package at.ac.tuwien.kr.alpha.solver.restarts;
+
+/**
+ * Never restarts.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class NoRestartStrategy implements RestartStrategy {
+	@Override
+	public void conflict(int literalBlockDistance) {
+	}
+
+	@Override
+	public boolean shouldRestart() {
+		return false;
+	}
+
+	@Override
+	public void restart() {
+	}
+}
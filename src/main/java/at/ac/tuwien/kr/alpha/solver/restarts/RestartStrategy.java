@@ -0,0 +1,25 @@
+package at.ac.tuwien.kr.alpha.solver.restarts;
+
+/**
+ * A restart strategy decides when the solver abandons all its choices and starts the search from decision level 0
+ * again. Restarts keep all nogoods (learned ones included) and the state of the grounder, they only give the
+ * branching heuristic the chance to revise bad early choices.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public interface RestartStrategy {
+	/**
+	 * Informs the strategy about a conflict from which a nogood was learned.
+	 * @param literalBlockDistance the number of distinct decision levels among the literals of the learned nogood.
+	 */
+	void conflict(int literalBlockDistance);
+
+	/**
+	 * @return true if the solver should restart before its next choice.
+	 */
+	boolean shouldRestart();
+
+	/**
+	 * Informs the strategy that the solver restarted.
+	 */
+	void restart();
+}
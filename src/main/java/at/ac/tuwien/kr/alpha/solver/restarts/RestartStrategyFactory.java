@@ -0,0 +1,15 @@
+package at.ac.tuwien.kr.alpha.solver.restarts;
+
+public final class RestartStrategyFactory {
+	public static final String DEFAULT = "none";
+
+	public static RestartStrategy getInstance(String name) {
+		switch (name.toLowerCase()) {
+			case "none": return new NoRestartStrategy();
+			case "luby": return new LubyRestartStrategy();
+			case "geometric": return new GeometricRestartStrategy();
+			case "glucose": return new GlucoseRestartStrategy();
+		}
+		throw new IllegalArgumentException("Unknown restart strategy requested.");
+	}
+}
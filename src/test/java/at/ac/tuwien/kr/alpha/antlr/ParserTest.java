@@ -1,5 +1,8 @@
 package at.ac.tuwien.kr.alpha.antlr;
 
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedAggregate;
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedBuiltinAtom;
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedChoice;
 import at.ac.tuwien.kr.alpha.grounder.parser.ParsedConstant;
 import at.ac.tuwien.kr.alpha.grounder.parser.ParsedFunctionTerm;
 import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
@@ -11,7 +14,7 @@
 import java.io.InputStream;
 
 import static at.ac.tuwien.kr.alpha.Main.parseVisit;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * Copyright (c) 2016, the Alpha Team.
@@ -64,4 +67,56 @@ public void parseBuiltinAtom() throws IOException {
 		assertEquals(3, parsedProgram.rules.get(0).body.size());
 	}
 
+	@Test
+	public void parseWeakConstraint() throws IOException {
+		ParsedProgram parsedProgram = parseVisit(stream(":~ p(X), not q(X). [X@2, a, X] :~ r. [3]"));
+
+		assertEquals("Program contains two weak constraints.", 2, parsedProgram.weakConstraints.size());
+		assertEquals(2, parsedProgram.weakConstraints.get(0).body.size());
+		assertEquals("Level is 2.", "2", ((ParsedConstant)parsedProgram.weakConstraints.get(0).level).content);
+		assertEquals(2, parsedProgram.weakConstraints.get(0).terms.size());
+		assertEquals("Weight is 3.", "3", ((ParsedConstant)parsedProgram.weakConstraints.get(1).weight).content);
+		assertEquals("Level defaults to 0.", "0", ((ParsedConstant)parsedProgram.weakConstraints.get(1).level).content);
+	}
+
+	@Test
+	public void parseAggregate() throws IOException {
+		ParsedProgram parsedProgram = parseVisit(stream("a :- 1 < #count { X, Y : p(X), not q(Y); Z : r(Z) } <= 3, not #sum { W : s(W); -1, a : t } > 2."));
+
+		assertEquals(2, parsedProgram.rules.get(0).body.size());
+		ParsedAggregate count = (ParsedAggregate) parsedProgram.rules.get(0).body.get(0);
+		assertEquals(ParsedAggregate.FUNCTION.COUNT, count.function);
+		assertEquals(ParsedBuiltinAtom.BINOP.LESS, count.lowerOp);
+		assertEquals(ParsedBuiltinAtom.BINOP.LESS_OR_EQ, count.upperOp);
+		assertEquals(2, count.elements.size());
+		assertEquals(2, count.elements.get(0).terms.size());
+		assertEquals(2, count.elements.get(0).literals.size());
+		assertTrue(count.elements.get(0).literals.get(1).isNegated);
+		ParsedAggregate sum = (ParsedAggregate) parsedProgram.rules.get(0).body.get(1);
+		assertTrue(sum.isNegated);
+		assertNull(sum.lowerTerm);
+		assertEquals("2", ((ParsedConstant) sum.upperTerm).content);
+		assertEquals("-1", ((ParsedConstant) sum.elements.get(1).terms.get(0)).content);
+	}
+
+	@Test
+	public void parseChoice() throws IOException {
+		ParsedProgram parsedProgram = parseVisit(stream("1 { a(X) : b(X), not c(X); d } 2 :- e. { f }."));
+
+		ParsedChoice bounded = (ParsedChoice) parsedProgram.rules.get(0).head;
+		assertEquals("1", ((ParsedConstant) bounded.lowerTerm).content);
+		assertEquals(ParsedBuiltinAtom.BINOP.LESS_OR_EQ, bounded.lowerOp);
+		assertEquals("2", ((ParsedConstant) bounded.upperTerm).content);
+		assertEquals(ParsedBuiltinAtom.BINOP.LESS_OR_EQ, bounded.upperOp);
+		assertEquals(2, bounded.elements.size());
+		assertEquals("a", bounded.elements.get(0).atom.predicate);
+		assertEquals(2, bounded.elements.get(0).literals.size());
+		assertTrue(bounded.elements.get(0).literals.get(1).isNegated);
+		assertEquals(1, parsedProgram.rules.get(0).body.size());
+		ParsedChoice unbounded = (ParsedChoice) parsedProgram.rules.get(1).head;
+		assertNull(unbounded.lowerTerm);
+		assertNull(unbounded.upperTerm);
+		assertEquals(0, parsedProgram.rules.get(1).body.size());
+	}
+
 }
\ No newline at end of file
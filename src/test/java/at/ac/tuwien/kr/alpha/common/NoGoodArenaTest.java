@@ -0,0 +1,67 @@
+package at.ac.tuwien.kr.alpha.common;
+
+import org.junit.Test;
+
+import static at.ac.tuwien.kr.alpha.common.NoGood.headFirst;
+import static org.junit.Assert.*;
+
+public class NoGoodArenaTest {
+	private final NoGoodArena arena = new NoGoodArena();
+
+	@Test
+	public void storesLiteralsAndHead() {
+		final NoGood noGood = headFirst(-5, 3, 7);
+		final int id = arena.add(noGood);
+		assertEquals(0, id);
+		assertEquals(3, arena.size(id));
+		for (int i = 0; i < noGood.size(); i++) {
+			assertEquals(noGood.getLiteral(i), arena.getLiteral(id, i));
+		}
+		assertEquals(noGood.getHead(), arena.getHead(id));
+		assertEquals(noGood, arena.toNoGood(id));
+		assertFalse(arena.hasHead(arena.add(new NoGood(1, 2))));
+	}
+
+	@Test
+	public void pointersArePerNoGood() {
+		final int a = arena.add(new NoGood(1, 2, 3));
+		final int b = arena.add(new NoGood(4, 5, 6));
+		arena.setPointer(a, 1, 2);
+		assertEquals(0, arena.getPointer(a, 0));
+		assertEquals(2, arena.getPointer(a, 1));
+		assertEquals(1, arena.getPointer(b, 1));
+	}
+
+	@Test
+	public void findsEqualNoGoods() {
+		for (int i = 1; i <= 100; i++) {
+			arena.add(new NoGood(i, i + 1));
+		}
+		assertEquals(41, arena.find(new NoGood(42, 43)));
+		assertEquals(-1, arena.find(new NoGood(42, 44)));
+		// Nogoods added after the first lookup are found as well, the head is part of the identity.
+		final int headed = arena.add(headFirst(-200, 201));
+		assertEquals(headed, arena.find(headFirst(-200, 201)));
+		assertEquals(-1, arena.find(new NoGood(-200, 201)));
+	}
+
+	@Test
+	public void compactKeepsIds() {
+		arena.add(new NoGood(1, 2));
+		arena.add(new NoGood(3, 4, 5));
+		arena.add(new NoGood(6, 7));
+		arena.remove(1);
+		assertFalse(arena.contains(1));
+		assertEquals(2, arena.getCount());
+
+		arena.compact();
+		assertEquals(3, arena.getIdLimit());
+		assertFalse(arena.contains(1));
+		assertEquals(new NoGood(1, 2), arena.toNoGood(0));
+		assertEquals(new NoGood(6, 7), arena.toNoGood(2));
+		assertEquals(2, arena.find(new NoGood(6, 7)));
+		assertEquals(-1, arena.find(new NoGood(3, 4, 5)));
+		// Ids of removed nogoods are not assigned again.
+		assertEquals(3, arena.add(new NoGood(3, 4, 5)));
+	}
+}
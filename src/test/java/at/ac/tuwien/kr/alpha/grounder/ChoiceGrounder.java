@@ -2,9 +2,9 @@
 
 import at.ac.tuwien.kr.alpha.common.*;
 import at.ac.tuwien.kr.alpha.common.Predicate;
-import at.ac.tuwien.kr.alpha.solver.Assignment;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 
 import java.util.*;
 import java.util.function.*;
@@ -75,6 +75,7 @@ public class ChoiceGrounder implements Grounder {
 	private boolean returnedAllNogoods;
 
 	private final java.util.function.Predicate<Predicate> filter;
+	private final IntIdGenerator outsideNoGoodIdGenerator = new IntIdGenerator();
 
 	public ChoiceGrounder() {
 		this(p -> true);
@@ -127,6 +128,26 @@ public Pair<Map<Integer, Integer>, Map<Integer, Integer>> getChoiceAtoms() {
 		return new ImmutablePair<>(CHOICE_ENABLE, CHOICE_DISABLE);
 	}
 
+	@Override
+	public Map<Integer, Pair<Integer, Integer>> getWeakConstraintAtoms() {
+		return new HashMap<>();
+	}
+
+	@Override
+	public boolean hasWeakConstraints() {
+		return false;
+	}
+
+	@Override
+	public Pair<Map<Integer, Triple<Integer, AggregateAtom.AggregateFunction, Integer>>, Map<Integer, Pair<Integer, Integer>>> getAggregateAtoms() {
+		return new ImmutablePair<>(new HashMap<>(), new HashMap<>());
+	}
+
+	@Override
+	public Set<Integer> getCompleteAggregateGroups() {
+		return Collections.emptySet();
+	}
+
 	@Override
 	public void updateAssignment(Iterator<OrdinaryAssignment> it) {
 		// This test grounder reports all NoGoods immediately, irrespective of any assignment.
@@ -136,20 +157,23 @@ public void updateAssignment(Iterator<OrdinaryAssignment> it) {
 	public void forgetAssignment(int[] atomIds) {
 	}
 
+	@Override
+	public int registerOutsideNoGood(NoGood noGood) {
+		return outsideNoGoodIdGenerator.getNextId() + 100;
+	}
+
+	@Override
+	public int registerOutsideAtom(BasicAtom atom) {
+		throw new UnsupportedOperationException("Atoms from outside the program are not supported.");
+	}
+
 	@Override
 	public String atomToString(int atomId) {
 		return Integer.toString(atomId);
 	}
 
 	@Override
-	public List<Integer> getUnassignedAtoms(Assignment assignment) {
-		List<Integer> unassigned = new ArrayList<>();
-		List<Integer> knownAtomIds = new ArrayList<>(atomIdToString.keySet());
-		for (Integer atomId : knownAtomIds) {
-			if (!assignment.isAssigned(atomId)) {
-				unassigned.add(atomId);
-			}
-		}
-		return unassigned;
+	public int getMaxAtomId() {
+		return atomIdToString.size();
 	}
 }
@@ -2,9 +2,9 @@
 
 import at.ac.tuwien.kr.alpha.common.*;
 import at.ac.tuwien.kr.alpha.common.Predicate;
-import at.ac.tuwien.kr.alpha.solver.Assignment;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 
 import java.util.*;
 import java.util.function.*;
@@ -43,6 +43,7 @@ public class DummyGrounder implements Grounder {
 		entry(4, "c")
 	).collect(entriesToMap());
 	private final java.util.function.Predicate<Predicate> filter;
+	private final IntIdGenerator outsideNoGoodIdGenerator = new IntIdGenerator();
 	private byte[] currentTruthValues = new byte[]{-2, -1, -1, -1, -1};
 	private Set<Integer> returnedNogoods = new HashSet<>();
 
@@ -61,21 +62,24 @@ public void forgetAssignment(int[] atomIds) {
 		}
 	}
 
+	@Override
+	public int registerOutsideNoGood(NoGood noGood) {
+		return outsideNoGoodIdGenerator.getNextId() + 100;
+	}
+
+	@Override
+	public int registerOutsideAtom(BasicAtom atom) {
+		throw new UnsupportedOperationException("Atoms from outside the program are not supported.");
+	}
+
 	@Override
 	public String atomToString(int atomId) {
 		return Integer.toString(atomId);
 	}
 
 	@Override
-	public List<Integer> getUnassignedAtoms(Assignment assignment) {
-		List<Integer> unassigned = new ArrayList<>();
-		List<Integer> knownAtomIds = Arrays.asList(1, 2, 3, 4);
-		for (Integer atomId : knownAtomIds) {
-			if (!assignment.isAssigned(atomId)) {
-				unassigned.add(atomId);
-			}
-		}
-		return unassigned;
+	public int getMaxAtomId() {
+		return 4;
 	}
 
 	@Override
@@ -126,6 +130,26 @@ public Pair<Map<Integer, Integer>, Map<Integer, Integer>> getChoiceAtoms() {
 		return new ImmutablePair<>(new HashMap<>(), new HashMap<>());
 	}
 
+	@Override
+	public Map<Integer, Pair<Integer, Integer>> getWeakConstraintAtoms() {
+		return new HashMap<>();
+	}
+
+	@Override
+	public boolean hasWeakConstraints() {
+		return false;
+	}
+
+	@Override
+	public Pair<Map<Integer, Triple<Integer, AggregateAtom.AggregateFunction, Integer>>, Map<Integer, Pair<Integer, Integer>>> getAggregateAtoms() {
+		return new ImmutablePair<>(new HashMap<>(), new HashMap<>());
+	}
+
+	@Override
+	public Set<Integer> getCompleteAggregateGroups() {
+		return Collections.emptySet();
+	}
+
 	@Override
 	public void updateAssignment(Iterator<OrdinaryAssignment> it) {
 		while (it.hasNext()) {
@@ -9,6 +9,8 @@
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Copyright (c) 2016, the Alpha Team.
@@ -21,20 +23,30 @@ public void unifyTermsSimpleBinding() throws Exception {
 		Term groundTerm = ConstantTerm.getInstance("abc");
 		Term nongroundTerm = VariableTerm.getInstance("Y");
 		grounder.unifyTerms(nongroundTerm, groundTerm, variableSubstitution);
-		assertEquals("Variable Y must bind to constant term abc", variableSubstitution.substitution.get(VariableTerm.getInstance("Y")), ConstantTerm.getInstance("abc"));
+		assertEquals("Variable Y must bind to constant term abc", variableSubstitution.eval(VariableTerm.getInstance("Y")), ConstantTerm.getInstance("abc"));
 	}
 
 	@Test
 	public void unifyTermsFunctionTermBinding() throws Exception {
 		NaiveGrounder grounder = new NaiveGrounder(new ParsedProgram());
 		NaiveGrounder.VariableSubstitution variableSubstitution = grounder.new VariableSubstitution();
-		variableSubstitution.substitution.put(VariableTerm.getInstance("Z"), ConstantTerm.getInstance("aa"));
+		variableSubstitution.put(VariableTerm.getInstance("Z"), ConstantTerm.getInstance("aa"));
 		FunctionTerm groundFunctionTerm = FunctionTerm.getFunctionTerm("f", asList(new Term[]{ConstantTerm.getInstance("bb"), ConstantTerm.getInstance("cc")}));
 
 		Term nongroundFunctionTerm = FunctionTerm.getFunctionTerm("f", asList(ConstantTerm.getInstance("bb"), VariableTerm.getInstance("X")));
 		grounder.unifyTerms(nongroundFunctionTerm, groundFunctionTerm, variableSubstitution);
-		assertEquals("Variable X must bind to constant term cc", variableSubstitution.substitution.get(VariableTerm.getInstance("X")), ConstantTerm.getInstance("cc"));
+		assertEquals("Variable X must bind to constant term cc", variableSubstitution.eval(VariableTerm.getInstance("X")), ConstantTerm.getInstance("cc"));
 
-		assertEquals("Variable Z must bind to constant term aa", variableSubstitution.substitution.get(VariableTerm.getInstance("Z")), ConstantTerm.getInstance("aa"));
+		assertEquals("Variable Z must bind to constant term aa", variableSubstitution.eval(VariableTerm.getInstance("Z")), ConstantTerm.getInstance("aa"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void unifyTermsBoundVariable() throws Exception {
+		NaiveGrounder grounder = new NaiveGrounder(new ParsedProgram());
+		NaiveGrounder.VariableSubstitution variableSubstitution = grounder.new VariableSubstitution();
+		variableSubstitution.put(VariableTerm.getInstance("X"), ConstantTerm.getInstance("aa"));
+
+		assertTrue("Bound variable X must unify with its binding", grounder.unifyTerms(VariableTerm.getInstance("X"), ConstantTerm.getInstance("aa"), variableSubstitution));
+		assertFalse("Bound variable X must not unify with another constant", grounder.unifyTerms(VariableTerm.getInstance("X"), ConstantTerm.getInstance("bb"), variableSubstitution));
+	}
+}
@@ -1,4 +1,137 @@
 package at.ac.tuwien.kr.alpha.grounder;
 
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.common.OrdinaryAssignment;
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
+import at.ac.tuwien.kr.alpha.solver.DefaultSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+import static at.ac.tuwien.kr.alpha.common.Literals.atomOf;
+import static at.ac.tuwien.kr.alpha.common.Literals.isNegated;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that the {@link ReteGrounder} yields the same answer sets as the {@link NaiveGrounder}.
+ * Copyright (c) 2016, the Alpha Team.
+ */
 public class ReteGrounderTest {
+	private static void assertSameAnswerSets(String program) throws IOException {
+		Set<AnswerSet> expected = new DefaultSolver(new NaiveGrounder(parseVisit(stream(program)))).collectSet();
+		Set<AnswerSet> actual = new DefaultSolver(new ReteGrounder(parseVisit(stream(program)))).collectSet();
+		assertEquals(expected, actual);
+	}
+
+	/**
+	 * Grounds the facts of the program and joins them with the rules, as the solver does, and returns the aggregate
+	 * groups the grounder reports complete then.
+	 */
+	private static Set<Integer> completeGroupsAfterFacts(Grounder grounder) {
+		List<OrdinaryAssignment> facts = new ArrayList<>();
+		for (NoGood noGood : grounder.getNoGoods().values()) {
+			if (noGood.size() == 1 && isNegated(noGood.getLiteral(0))) {
+				facts.add(new OrdinaryAssignment(atomOf(noGood.getLiteral(0)), true));
+			}
+		}
+		grounder.updateAssignment(facts.iterator());
+		grounder.getNoGoods();
+		grounder.getAggregateAtoms();
+		return grounder.getCompleteAggregateGroups();
+	}
+
+	@Test
+	public void simpleRule() throws Exception {
+		assertSameAnswerSets("p(a). p(b). r(X) :- p(X).");
+	}
+
+	@Test
+	public void groundRule() throws Exception {
+		assertSameAnswerSets("p(a). q :- p(a), not r. r :- not q.");
+	}
+
+	@Test
+	public void transitiveClosure() throws Exception {
+		assertSameAnswerSets(
+			"edge(1,2). edge(2,3). edge(3,4). edge(4,1). edge(4,5)." +
+			"reach(X,Y) :- edge(X,Y)." +
+			"reach(X,Z) :- reach(X,Y), reach(Y,Z)."
+		);
+	}
+
+	@Test
+	public void graphColoring() throws Exception {
+		assertSameAnswerSets(
+			"node(1). node(2). node(3). node(4). edge(1,2). edge(2,3). edge(3,1). edge(3,4)." +
+			"red(X) :- node(X), not green(X), not blue(X)." +
+			"green(X) :- node(X), not red(X), not blue(X)." +
+			"blue(X) :- node(X), not red(X), not green(X)." +
+			":- edge(X,Y), red(X), red(Y)." +
+			":- edge(X,Y), green(X), green(Y)." +
+			":- edge(X,Y), blue(X), blue(Y)."
+		);
+	}
+
+	@Test
+	public void builtinAtoms() throws Exception {
+		assertSameAnswerSets(
+			"dom(1). dom(2). dom(3)." +
+			"lt(X,Y) :- dom(X), dom(Y), X < Y." +
+			"ne(X,Y) :- dom(X), X != Y, dom(Y)." +
+			"small(X) :- dom(X), X <= 2."
+		);
+	}
+
+	@Test
+	public void repeatedVariablesAndConstants() throws Exception {
+		assertSameAnswerSets(
+			"p(1,1). p(1,2). p(2,2). q(2,a). q(1,b)." +
+			"loop(X) :- p(X,X)." +
+			"r(X) :- p(X,Y), q(Y,a)." +
+			"s(X) :- p(1,X), q(X,b)."
+		);
+	}
+
+	@Test
+	public void functionTerms() throws Exception {
+		assertSameAnswerSets(
+			"p(f(a,b)). p(f(b,b)). p(g(a)). q(b)." +
+			"r(X) :- p(f(X,Y)), q(Y)." +
+			"s(X) :- p(f(X,X))."
+		);
+	}
+
+	@Test
+	public void constraintWithRepeatedPredicate() throws Exception {
+		String program =
+			"node(a). node(b). node(c). link(a,b). link(b,c)." +
+			"red(X) :- node(X), not green(X)." +
+			"green(X) :- node(X), not red(X)." +
+			":- link(X,Y), red(X), red(Y)." +
+			":- link(X,Y), green(X), green(Y).";
+		assertSameAnswerSets(program);
+		assertFalse(new DefaultSolver(new ReteGrounder(parseVisit(stream(program)))).collectSet().isEmpty());
+	}
+
+	@Test
+	public void factsOnlyProgram() throws Exception {
+		ParsedProgram program = parseVisit(stream("p(a). p(b). q(c)."));
+		assertEquals(1, new DefaultSolver(new ReteGrounder(program)).collectSet().size());
+	}
+
+	@Test
+	public void aggregateOverFactsIsComplete() throws Exception {
+		String program = "item(a,3). item(b,4). big :- #sum { W,X : item(X,W) } >= 5.";
+		Set<Integer> completeGroups = completeGroupsAfterFacts(new ReteGrounder(parseVisit(stream(program))));
+		assertFalse(completeGroups.isEmpty());
+		assertEquals(completeGroupsAfterFacts(new NaiveGrounder(parseVisit(stream(program)))), completeGroups);
+		assertSameAnswerSets(program);
+	}
 }
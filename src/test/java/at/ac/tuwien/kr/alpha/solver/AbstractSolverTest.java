@@ -488,4 +488,38 @@ public void simpleNoPropagation() throws IOException {
 		Set<AnswerSet> answerSets = solver.collectSet();
 		assertEquals(expected, answerSets);
 	}
+
+	@Test
+	public void constraintWithRepeatedPredicate() throws IOException {
+		String testProgram = "node(a). node(b). link(a,b).\n" +
+			"red(X) :- node(X), not green(X).\n" +
+			"green(X) :- node(X), not red(X).\n" +
+			":- link(X,Y), red(X), red(Y).";
+		ParsedProgram parsedProgram = parseVisit(stream(testProgram));
+		NaiveGrounder grounder = new NaiveGrounder(parsedProgram);
+		Solver solver = getInstance(grounder);
+
+		Set<AnswerSet> expected = new HashSet<>(Arrays.asList(
+			new BasicAnswerSet.Builder()
+				.predicate("node").instance("a").instance("b")
+				.predicate("link").instance("a", "b")
+				.predicate("red").instance("a")
+				.predicate("green").instance("b")
+				.build(),
+			new BasicAnswerSet.Builder()
+				.predicate("node").instance("a").instance("b")
+				.predicate("link").instance("a", "b")
+				.predicate("green").instance("a")
+				.predicate("red").instance("b")
+				.build(),
+			new BasicAnswerSet.Builder()
+				.predicate("node").instance("a").instance("b")
+				.predicate("link").instance("a", "b")
+				.predicate("green").instance("a").instance("b")
+				.build()
+		));
+
+		Set<AnswerSet> answerSets = solver.collectSet();
+		assertEquals(expected, answerSets);
+	}
 }
@@ -0,0 +1,123 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.*;
+import static org.junit.Assert.*;
+
+public class ArrayAssignmentTest extends AbstractAssignmentTest {
+	@Override
+	protected Assignment getInstance() {
+		return new ArrayAssignment();
+	}
+
+	@Test
+	public void restoreMBTBelowTrueOnBacktrack() throws Exception {
+		assignment.assign(1, MBT);
+		assignment.guess(2, TRUE);
+		assignment.guess(3, TRUE);
+		assignment.assign(1, TRUE);
+
+		assertEquals(TRUE, assignment.getTruth(1));
+		assertEquals(2, assignment.getDecisionLevel(1));
+		assertEquals(MBT, assignment.get(1).getPrevious().getTruth());
+
+		assignment.backtrack();
+
+		assertEquals(MBT, assignment.getTruth(1));
+		assertEquals(0, assignment.getDecisionLevel(1));
+		assertNull(assignment.get(1).getPrevious());
+		assertEquals(1, assignment.getMBTCount());
+	}
+
+	@Test
+	public void removeMBTAndTrueOnSameLevel() throws Exception {
+		assignment.guess(2, TRUE);
+		assignment.assign(1, MBT);
+		assignment.assign(1, TRUE);
+		assertEquals(0, assignment.getMBTCount());
+
+		assignment.backtrack();
+
+		assertFalse(assignment.isAssigned(1));
+		assertEquals(0, assignment.getMBTCount());
+	}
+
+	@Test
+	public void growBeyondInitialCapacity() throws Exception {
+		assignment.assign(1000, FALSE);
+		assignment.guess(5000, MBT);
+
+		assertEquals(FALSE, assignment.getTruth(1000));
+		assertEquals(MBT, assignment.getTruth(5000));
+		assertFalse(assignment.isAssigned(100000));
+
+		assignment.backtrack();
+
+		assertFalse(assignment.isAssigned(5000));
+	}
+
+	@Test
+	public void iteratorReportsMBTBeforeTrue() throws Exception {
+		assignment.assign(1, MBT);
+		assignment.assign(1, TRUE);
+
+		Iterator<Assignment.Entry> it = assignment.iterator();
+		assertEquals(MBT, it.next().getTruth());
+		Assignment.Entry entry = it.next();
+		assertEquals(TRUE, entry.getTruth());
+		assertEquals(MBT, entry.getPrevious().getTruth());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void releasedIteratorIsNotRewound() throws Exception {
+		assignment.assign(1, FALSE);
+		assignment.guess(2, FALSE);
+		final Iterator<Assignment.Entry> kept = assignment.iterator();
+		final Iterator<Assignment.Entry> released = assignment.iterator();
+		kept.next();
+		kept.next();
+		released.next();
+		released.next();
+		assignment.release(released);
+
+		assignment.backtrack();
+		assignment.guess(3, FALSE);
+		assertEquals(3, kept.next().getAtom());
+		assertFalse(released.hasNext());
+	}
+
+	@Test
+	public void tracksUnassignedKnownAtoms() throws Exception {
+		assignment.assign(2, FALSE);
+		assignment.assign(7, TRUE);
+		assignment.growForMaxAtomId(3);
+
+		assignment.guess(1, MBT);
+		assignment.assign(1, TRUE);
+		assertEquals(3, assignment.getUnassignedAtom());
+		assignment.assign(3, FALSE);
+		assertEquals(0, assignment.getUnassignedAtom());
+
+		assignment.backtrack();
+		final HashSet<Integer> unassigned = new HashSet<>();
+		for (int atom = assignment.getUnassignedAtom(); atom != 0; atom = assignment.getUnassignedAtom()) {
+			unassigned.add(atom);
+			assignment.assign(atom, FALSE);
+		}
+		assertEquals(new HashSet<>(Arrays.asList(1, 3)), unassigned);
+
+		assignment.growForMaxAtomId(8);
+		final HashSet<Integer> known = new HashSet<>();
+		for (int atom = assignment.getUnassignedAtom(); atom != 0; atom = assignment.getUnassignedAtom()) {
+			known.add(atom);
+			assignment.assign(atom, TRUE);
+		}
+		assertEquals(new HashSet<>(Arrays.asList(4, 5, 6, 8)), known);
+	}
+}
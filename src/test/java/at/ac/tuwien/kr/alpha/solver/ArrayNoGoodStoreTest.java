@@ -0,0 +1,238 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.common.NoGoodArena;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+import static at.ac.tuwien.kr.alpha.common.NoGood.fact;
+import static at.ac.tuwien.kr.alpha.common.NoGood.headFirst;
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.*;
+import static org.junit.Assert.*;
+
+public class ArrayNoGoodStoreTest extends AbstractNoGoodStoreTest {
+	@Override
+	protected Assignment getAssignmentInstance() {
+		return new ArrayAssignment();
+	}
+
+	@Override
+	protected NoGoodStore<ThriceTruth> getInstance(Assignment assignment) {
+		return new ArrayNoGoodStore(assignment);
+	}
+
+	@Test
+	public void propagationFollowsOrderOfAddition() {
+		store.add(1, new NoGood(1, 5));
+		store.add(2, new NoGood(1, 3));
+		store.add(3, new NoGood(1, 6, 7));
+		store.add(4, new NoGood(1, 2));
+		store.add(5, new NoGood(1, 4, 7));
+		assertTrue(assignment.assign(7, TRUE));
+		assertTrue(assignment.assign(1, TRUE));
+		assertTrue(store.propagate());
+
+		int[] expectedOrder = {5, 3, 2, 6, 4};
+		for (int i = 1; i < expectedOrder.length; i++) {
+			assertEquals(FALSE, assignment.getTruth(expectedOrder[i]));
+			assertTrue(assignment.get(expectedOrder[i - 1]).getPropagationLevel() < assignment.get(expectedOrder[i]).getPropagationLevel());
+		}
+	}
+
+	@Test
+	public void watchesMovedDuringPropagationSurviveBacktracking() {
+		NoGood noGood = new NoGood(1, 2, 3);
+		assertTrue(store.add(1, noGood));
+		assertTrue(assignment.guess(1, TRUE));
+		assertFalse(store.propagate());
+		assertTrue(assignment.guess(2, TRUE));
+		assertTrue(store.propagate());
+		assertEquals(FALSE, assignment.getTruth(3));
+
+		store.backtrack();
+		store.backtrack();
+		assertTrue(assignment.guess(3, TRUE));
+		assertFalse(store.propagate());
+		assertTrue(assignment.guess(2, TRUE));
+		assertTrue(store.propagate());
+		assertEquals(FALSE, assignment.getTruth(1));
+	}
+
+	@Test
+	public void propagateTrueOnceAllBodyLiteralsCounted() {
+		assertTrue(store.add(1, headFirst(-5, 1, 2, -3)));
+		assertTrue(assignment.guess(1, TRUE));
+		store.propagate();
+		assertTrue(assignment.guess(2, TRUE));
+		store.propagate();
+		assertNotEquals(TRUE, assignment.getTruth(5));
+		assertTrue(assignment.guess(3, FALSE));
+		assertTrue(store.propagate());
+		assertEquals(TRUE, assignment.getTruth(5));
+	}
+
+	@Test
+	public void propagateTrueFromMBTOnceTrue() {
+		assertTrue(store.add(1, headFirst(-4, 1, 2, 3)));
+		assignment.assign(1, TRUE);
+		assignment.assign(2, MBT);
+		assignment.assign(3, TRUE);
+		store.propagate();
+		assertNotEquals(TRUE, assignment.getTruth(4));
+		assertTrue(assignment.guess(2, TRUE));
+		assertTrue(store.propagate());
+		assertEquals(TRUE, assignment.getTruth(4));
+	}
+
+	@Test
+	public void countsRestoredOnBacktracking() {
+		assertTrue(store.add(1, headFirst(-4, 1, 2, 3)));
+		assertTrue(assignment.guess(1, TRUE));
+		store.propagate();
+		assertTrue(assignment.guess(2, TRUE));
+		store.propagate();
+		assertTrue(assignment.guess(3, TRUE));
+		assertTrue(store.propagate());
+		assertEquals(TRUE, assignment.getTruth(4));
+
+		store.backtrack();
+		store.backtrack();
+		assertNull(assignment.getTruth(4));
+		assertTrue(assignment.guess(3, TRUE));
+		store.propagate();
+		assertNotEquals(TRUE, assignment.getTruth(4));
+		assertTrue(assignment.guess(2, TRUE));
+		assertTrue(store.propagate());
+		assertEquals(TRUE, assignment.getTruth(4));
+	}
+
+	@Test
+	public void countsAssignmentsPropagatedBeforeAdding() {
+		assertTrue(assignment.guess(1, TRUE));
+		store.propagate();
+		assertTrue(assignment.guess(2, TRUE));
+		assertTrue(store.add(1, headFirst(-4, 1, 2, 3)));
+		store.propagate();
+		assertNotEquals(TRUE, assignment.getTruth(4));
+		assertTrue(assignment.guess(3, TRUE));
+		assertTrue(store.propagate());
+		assertEquals(TRUE, assignment.getTruth(4));
+	}
+
+	@Test
+	public void simplifyRemovesSatisfiedNoGoods() {
+		assertTrue(store.add(1, fact(-1)));
+		assertTrue(store.add(2, new NoGood(-1, 2, 3)));
+		assertTrue(store.add(3, new NoGood(-1, 4)));
+		store.propagate();
+		assertTrue(store.simplify());
+		assertTrue(store.isEmpty());
+	}
+
+	@Test
+	public void simplifyStripsContainedLiterals() {
+		assertTrue(store.add(1, new NoGood(1, 2, 3)));
+		assignment.assign(1, TRUE);
+		store.propagate();
+		assertTrue(store.simplify());
+		assertFalse(store.isEmpty());
+
+		assertTrue(assignment.guess(2, TRUE));
+		assertTrue(store.propagate());
+		assertEquals(FALSE, assignment.getTruth(3));
+		assertEquals(new NoGood(2, 3), new NoGood(assignment.get(3).getImpliedBy()));
+	}
+
+	@Test
+	public void simplifyOnlyOnNewAssignmentsOnLevelZero() {
+		assertTrue(store.add(1, new NoGood(1, 2, 3)));
+		assignment.assign(1, TRUE);
+		store.propagate();
+		assertTrue(store.simplify());
+		assertFalse(store.simplify());
+
+		assertTrue(assignment.guess(4, TRUE));
+		store.propagate();
+		assertFalse(store.simplify());
+	}
+
+	@Test
+	public void simplifyKeepsMBTLiteralsOfNoGoodsWithHead() {
+		assertTrue(store.add(1, headFirst(-4, 1, 2)));
+		assignment.assign(1, MBT);
+		store.propagate();
+		assertTrue(store.simplify());
+
+		assertTrue(assignment.guess(2, TRUE));
+		store.propagate();
+		assertEquals(MBT, assignment.getTruth(4));
+		assertTrue(assignment.guess(1, TRUE));
+		assertTrue(store.propagate());
+		assertEquals(TRUE, assignment.getTruth(4));
+	}
+
+	@Test
+	public void simplifyRemovesNoGoodsWithTrueHead() {
+		assertTrue(store.add(1, headFirst(-4, 1, 2)));
+		assertTrue(store.add(2, fact(-4)));
+		store.propagate();
+		assertTrue(store.simplify());
+		assertTrue(store.isEmpty());
+	}
+
+	@Test
+	public void watchesNoGoodsOfGrounderUnderTheirIds() throws IOException {
+		final NaiveGrounder grounder = new NaiveGrounder(parseVisit(stream("a. b :- a, not c. c :- a, not b.")));
+		final NoGoodArena arena = grounder.getNoGoodArena();
+		final ArrayNoGoodStore shared = new ArrayNoGoodStore(new ArrayAssignment(grounder), grounder);
+		for (int i = 0; i < 2; i++) {
+			final Map<Integer, NoGood> noGoods = grounder.getNoGoods();
+			final int idLimit = arena.getIdLimit();
+			assertTrue(shared.addAll(noGoods));
+			assertEquals(idLimit, arena.getIdLimit());
+		}
+		assertFalse(shared.isEmpty());
+
+		// A nogood that differs from the one under its id is added as a copy.
+		final int idLimit = arena.getIdLimit();
+		assertTrue(shared.add(0, new NoGood(-100, 101)));
+		assertEquals(idLimit + 1, arena.getIdLimit());
+		assertEquals(idLimit, arena.find(new NoGood(-100, 101)));
+	}
+
+	@Test
+	public void keepsOutsideNoGoodsInArenaOnlyWhileWatched() throws IOException {
+		final NaiveGrounder grounder = new NaiveGrounder(parseVisit(stream("b :- not c. c :- not b.")));
+		final NoGoodArena arena = grounder.getNoGoodArena();
+		final ArrayNoGoodStore shared = new ArrayNoGoodStore(new ArrayAssignment(grounder), grounder);
+		final Map<Integer, NoGood> noGoods = grounder.getNoGoods();
+		assertTrue(shared.addAll(noGoods));
+		final int count = arena.getCount();
+
+		// Unary and tautological nogoods from outside do not enter the arena, others do.
+		for (NoGood noGood : new NoGood[] {fact(-100), new NoGood(100, -100, 101)}) {
+			final int id = grounder.registerOutsideNoGood(noGood);
+			assertTrue(id < 0);
+			assertTrue(shared.add(id, noGood));
+			assertEquals(count, arena.getCount());
+		}
+		final NoGood learned = new NoGood(-100, 101, 102);
+		assertTrue(shared.add(grounder.registerOutsideNoGood(learned), learned));
+		assertEquals(count + 1, arena.getCount());
+
+		// Satisfied at level 0, the outside nogood is removed while those of the grounder stay known to it.
+		shared.propagate();
+		assertTrue(shared.simplify());
+		assertEquals(-1, arena.find(learned));
+		assertEquals(count, arena.getCount());
+		for (Map.Entry<Integer, NoGood> entry : noGoods.entrySet()) {
+			assertEquals((int) entry.getKey(), arena.find(entry.getValue()));
+		}
+		assertTrue(grounder.getNoGoods().isEmpty());
+	}
+}
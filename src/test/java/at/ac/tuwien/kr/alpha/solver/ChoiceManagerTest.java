@@ -0,0 +1,139 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.solver.heuristics.VSIDSHeuristic;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class ChoiceManagerTest {
+	// Choice atom 1 is enabled by 2 and disabled by 3, choice atom 4 is enabled by 5 and disabled by 6.
+	private ArrayAssignment assignment;
+	private ChoiceManager choiceManager;
+
+	@Before
+	public void setUp() {
+		assignment = new ArrayAssignment();
+		choiceManager = new ChoiceManager(assignment);
+		Map<Integer, Integer> choiceOn = new HashMap<>();
+		choiceOn.put(2, 1);
+		choiceOn.put(5, 4);
+		Map<Integer, Integer> choiceOff = new HashMap<>();
+		choiceOff.put(3, 1);
+		choiceOff.put(6, 4);
+		choiceManager.addChoiceInformation(new ImmutablePair<>(choiceOn, choiceOff));
+	}
+
+	@Test
+	public void enabledByTrueOrMbt() {
+		assignment.assign(2, TRUE);
+		assignment.assign(5, MBT);
+		choiceManager.updateAssignment();
+		assertTrue(choiceManager.isActiveChoiceAtom(1));
+		assertTrue(choiceManager.isActiveChoiceAtom(4));
+	}
+
+	@Test
+	public void notEnabledByFalse() {
+		assignment.assign(2, FALSE);
+		choiceManager.updateAssignment();
+		assertFalse(choiceManager.isActiveChoiceAtom(1));
+	}
+
+	@Test
+	public void disabled() {
+		assignment.assign(2, TRUE);
+		assignment.assign(3, MBT);
+		choiceManager.updateAssignment();
+		assertFalse(choiceManager.isActiveChoiceAtom(1));
+	}
+
+	@Test
+	public void assignedChoiceAtomIsNotActiveUnlessMbt() {
+		assignment.assign(2, TRUE);
+		assignment.assign(5, TRUE);
+		assignment.assign(1, FALSE);
+		assignment.assign(4, MBT);
+		choiceManager.updateAssignment();
+		assertFalse(choiceManager.isActiveChoiceAtom(1));
+		assertTrue(choiceManager.isActiveChoiceAtom(4));
+	}
+
+	@Test
+	public void restoredOnBacktrack() {
+		assignment.assign(2, TRUE);
+		assignment.guess(3, TRUE);
+		assignment.guess(5, TRUE);
+		choiceManager.updateAssignment();
+		assertFalse(choiceManager.isActiveChoiceAtom(1));
+		assertTrue(choiceManager.isActiveChoiceAtom(4));
+
+		assignment.backtrack();
+		choiceManager.backtrack();
+		assertFalse(choiceManager.isActiveChoiceAtom(4));
+
+		assignment.backtrack();
+		choiceManager.backtrack();
+		assertTrue(choiceManager.isActiveChoiceAtom(1));
+	}
+
+	@Test
+	public void choicePointsRegisteredAfterAssignment() {
+		assignment.guess(8, TRUE);
+		Map<Integer, Integer> choiceOn = new HashMap<>();
+		choiceOn.put(8, 7);
+		choiceManager.addChoiceInformation(new ImmutablePair<>(choiceOn, new HashMap<>()));
+		choiceManager.updateAssignment();
+		assertTrue(choiceManager.isActiveChoiceAtom(7));
+
+		assignment.backtrack();
+		choiceManager.backtrack();
+		assertFalse(choiceManager.isActiveChoiceAtom(7));
+	}
+
+	@Test
+	public void heuristicIsInformedOfStatusChanges() {
+		final VSIDSHeuristic heuristic = new VSIDSHeuristic(assignment);
+		final ChoiceManager informing = new ChoiceManager(assignment, heuristic);
+		Map<Integer, Integer> choiceOn = new HashMap<>();
+		choiceOn.put(2, 1);
+		choiceOn.put(5, 4);
+		Map<Integer, Integer> choiceOff = new HashMap<>();
+		choiceOff.put(3, 1);
+		informing.addChoiceInformation(new ImmutablePair<>(choiceOn, choiceOff));
+		heuristic.newChoiceAtom(1);
+		heuristic.newChoiceAtom(4);
+		assertEquals(0, heuristic.chooseAtom(atom -> true));
+
+		assignment.guess(5, TRUE);
+		informing.updateAssignment();
+		assertEquals(4, heuristic.chooseAtom(atom -> true));
+
+		assignment.guess(2, TRUE);
+		informing.updateAssignment();
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+
+		assignment.guess(3, TRUE);
+		informing.updateAssignment();
+		assertEquals(4, heuristic.chooseAtom(atom -> true));
+
+		assignment.backtrack();
+		informing.backtrack();
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+
+		assignment.backtrack();
+		assignment.backtrack();
+		informing.backtrack();
+		assertEquals(0, heuristic.chooseAtom(atom -> true));
+	}
+}
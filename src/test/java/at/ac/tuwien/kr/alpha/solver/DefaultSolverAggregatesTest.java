@@ -0,0 +1,115 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+import org.junit.Test;
+
+import java.util.*;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.instances;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.solve;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class DefaultSolverAggregatesTest {
+	private static final String SUBSETS =
+		"item(a,3). item(b,4). item(c,5)." +
+		"in(X) :- item(X,W), not out(X)." +
+		"out(X) :- item(X,W), not in(X).";
+
+	private static Set<String> set(String... atoms) {
+		return new HashSet<>(asList(atoms));
+	}
+
+	@Test
+	public void countEqualSelectsSubsetsOfGivenSize() throws Exception {
+		Set<AnswerSet> answerSets = solve(SUBSETS + ":- not 2 = #count { X : in(X) }.");
+		assertEquals(3, answerSets.size());
+		assertEquals(new HashSet<>(asList(set("in(a)", "in(b)"), set("in(a)", "in(c)"), set("in(b)", "in(c)"))), instances(answerSets, "in", 1));
+	}
+
+	@Test
+	public void countCountsDistinctTuples() throws Exception {
+		Set<AnswerSet> answerSets = solve("p(1,a). p(1,b). p(2,a). two :- #count { X : p(X,Y) } = 2. three :- #count { X,Y : p(X,Y) } = 3.");
+		assertEquals(1, answerSets.size());
+		assertEquals(Collections.singleton(set("two()")), instances(answerSets, "two", 0));
+		assertEquals(Collections.singleton(set("three()")), instances(answerSets, "three", 0));
+	}
+
+	@Test
+	public void sumBoundsWeights() throws Exception {
+		Set<AnswerSet> answerSets = solve(SUBSETS + ":- 10 <= #sum { W,X : in(X), item(X,W) }. big :- #sum { W,X : in(X), item(X,W) } >= 7.");
+		// All subsets but the full one, big for {a,b}, {a,c} and {b,c}.
+		assertEquals(7, answerSets.size());
+		int big = 0;
+		for (Set<String> instances : instances(answerSets, "big", 0)) {
+			big += instances.size();
+		}
+		assertEquals(1, big);
+		for (AnswerSet answerSet : answerSets) {
+			assertEquals(instances(answerSet, "in", 1).size() == 2, !instances(answerSet, "big", 0).isEmpty());
+		}
+	}
+
+	@Test
+	public void minAndMaxCompareExtremes() throws Exception {
+		Set<AnswerSet> answerSets = solve(SUBSETS +
+			"low :- #min { W : in(X), item(X,W) } <= 3." +
+			"high :- #max { W : in(X), item(X,W) } > 4.");
+		assertEquals(8, answerSets.size());
+		for (AnswerSet answerSet : answerSets) {
+			Set<String> chosen = instances(answerSet, "in", 1);
+			assertEquals(chosen.contains("in(a)"), !instances(answerSet, "low", 0).isEmpty());
+			assertEquals(chosen.contains("in(c)"), !instances(answerSet, "high", 0).isEmpty());
+		}
+	}
+
+	@Test
+	public void negatedAggregateHoldsForEmptyElements() throws Exception {
+		Set<AnswerSet> answerSets = solve("zero :- #count { X : p(X) } < 1. none :- not #count { X : p(X) } >= 1.");
+		assertEquals(1, answerSets.size());
+		assertEquals(Collections.singleton(set("zero()")), instances(answerSets, "zero", 0));
+		assertEquals(Collections.singleton(set("none()")), instances(answerSets, "none", 0));
+	}
+
+	@Test
+	public void globalVariablesGroupElements() throws Exception {
+		Set<AnswerSet> answerSets = solve("g(1). g(2). e(1,a). e(1,b). e(2,c). n(0). n(1). n(2). n(3)." +
+			"cnt(G,N) :- g(G), n(N), N = #count { X : e(G,X) }." +
+			"other(G) :- g(G), #count { X : e(G,X) } != 1.");
+		assertEquals(1, answerSets.size());
+		assertEquals(Collections.singleton(set("cnt(1, 2)", "cnt(2, 1)")), instances(answerSets, "cnt", 2));
+		assertEquals(Collections.singleton(set("other(1)")), instances(answerSets, "other", 1));
+	}
+
+	@Test
+	public void aggregateOverDerivedAtoms() throws Exception {
+		// Elements are grounded as the atoms they depend on are derived.
+		Set<AnswerSet> answerSets = solve("next(1,2). next(2,3). next(3,4)." +
+			"reach(1). reach(Y) :- reach(X), next(X,Y)." +
+			"all :- #count { X : reach(X) } >= 4.");
+		assertEquals(1, answerSets.size());
+		assertEquals(Collections.singleton(set("all()")), instances(answerSets, "all", 0));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void rejectsNegativeSumWeights() throws Exception {
+		solve("p(a). s :- #sum { -1,X : p(X) } >= 0.");
+	}
+
+	@Test
+	public void rejectsConstantNegativeSumWeightsWhenRegistering() throws Exception {
+		try {
+			new NaiveGrounder(parseVisit(stream("p(a). s :- #sum { -1,X : p(X) } >= 0.")));
+			fail();
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Negative weight -1 of element [-1, X] in aggregate #sum"));
+		}
+	}
+
+}
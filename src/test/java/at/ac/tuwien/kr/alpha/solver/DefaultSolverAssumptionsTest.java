@@ -0,0 +1,87 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.common.BasicAtom;
+import at.ac.tuwien.kr.alpha.common.BasicPredicate;
+import at.ac.tuwien.kr.alpha.common.ConstantTerm;
+import at.ac.tuwien.kr.alpha.common.Term;
+import org.junit.Test;
+
+import java.util.*;
+
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.*;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class DefaultSolverAssumptionsTest {
+	private static Assumption assume(String predicate, int node, boolean value) {
+		return new Assumption(new BasicAtom(new BasicPredicate(predicate, 1), new Term[] {ConstantTerm.getInstance(Integer.toString(node))}), value);
+	}
+
+	private static boolean holds(AnswerSet answerSet, Assumption assumption) {
+		final Set<BasicAtom> instances = answerSet.getPredicateInstances(assumption.getAtom().predicate);
+		return (instances != null && instances.contains(assumption.getAtom())) == assumption.getValue();
+	}
+
+	@Test
+	public void answerSetSatisfiesAssumptions() throws Exception {
+		DefaultSolver solver = solver(COLORING);
+		List<Assumption> assumptions = asList(assume("red", 1, true), assume("green", 2, false));
+		Optional<AnswerSet> answerSet = solver.solve(assumptions);
+		assertTrue(answerSet.isPresent());
+		for (Assumption assumption : assumptions) {
+			assertTrue(holds(answerSet.get(), assumption));
+		}
+		// Node 2 is blue then, as it is adjacent to the red node 1.
+		assertTrue(colorings(colors -> colors.startsWith("rb")).contains(answerSet.get()));
+	}
+
+	@Test
+	public void reportsFailedAssumptions() throws Exception {
+		DefaultSolver solver = solver(COLORING);
+		Assumption red1 = assume("red", 1, true);
+		Assumption red2 = assume("red", 2, true);
+		Assumption blue3 = assume("blue", 3, false);
+		assertFalse(solver.solve(asList(red1, blue3, red2)).isPresent());
+		assertEquals(asList(red1, red2), solver.getFailedAssumptions());
+	}
+
+	@Test
+	public void reusesSolverAcrossCalls() throws Exception {
+		DefaultSolver solver = solver(COLORING);
+		assertFalse(solver.solve(asList(assume("red", 1, true), assume("red", 3, true))).isPresent());
+		assertTrue(solver.solve(asList(assume("red", 1, true), assume("green", 3, true))).isPresent());
+		assertTrue(solver.getFailedAssumptions().isEmpty());
+		assertFalse(solver.solve(asList(assume("red", 2, false), assume("green", 2, false), assume("blue", 2, false))).isPresent());
+		assertEquals(3, solver.getFailedAssumptions().size());
+		assertTrue(solver.solve(emptyList()).isPresent());
+	}
+
+	@Test
+	public void atomAssumedTrueNeedsSupport() throws Exception {
+		DefaultSolver solver = solver(COLORING);
+		Assumption unknown = assume("yellow", 1, true);
+		assertFalse(solver.solve(singletonList(unknown)).isPresent());
+		assertEquals(singletonList(unknown), solver.getFailedAssumptions());
+		assertTrue(solver.solve(singletonList(assume("yellow", 1, false))).isPresent());
+	}
+
+	@Test
+	public void inconsistentProgramHasNoFailedAssumptions() throws Exception {
+		DefaultSolver solver = solver(COLORING + ":- node(1).");
+		assertFalse(solver.solve(singletonList(assume("red", 1, false))).isPresent());
+		assertTrue(solver.getFailedAssumptions().isEmpty());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void noEnumerationAfterSolving() throws Exception {
+		DefaultSolver solver = solver(COLORING);
+		solver.solve(emptyList());
+		solver.collectSet();
+	}
+}
@@ -0,0 +1,88 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.grounder.ReteGrounder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class DefaultSolverBudgetTest {
+	// Guesses each of the ten atoms, hence has 1024 answer sets.
+	private static final String GUESSES = "n(0). n(1). n(2). n(3). n(4). n(5). n(6). n(7). n(8). n(9)." +
+		"a(X) :- n(X), not b(X). b(X) :- n(X), not a(X).";
+
+	private static DefaultSolver solver(String program, Budget budget) throws IOException {
+		final DefaultSolver solver = TestPrograms.solver(program);
+		solver.setBudget(budget);
+		return solver;
+	}
+
+	@Test
+	public void unlimitedBudgetEnumeratesAll() throws Exception {
+		final DefaultSolver solver = solver(GUESSES, new Budget());
+		assertEquals(1024, solver.stream().count());
+		assertNull(solver.getBudgetExhaustion());
+	}
+
+	@Test
+	public void decisionLimitEndsEnumeration() throws Exception {
+		final DefaultSolver solver = solver(GUESSES, new Budget().setDecisionLimit(20));
+		final long count = solver.stream().count();
+		assertTrue(count > 0 && count < 1024);
+		assertEquals(Budget.Exhaustion.DECISIONS, solver.getBudgetExhaustion());
+	}
+
+	@Test
+	public void conflictLimitEndsEnumeration() throws Exception {
+		final DefaultSolver solver = solver(GUESSES + ":- a(X), a(Y), X < Y.", new Budget().setConflictLimit(1));
+		assertTrue(solver.stream().count() < 11);
+		assertEquals(Budget.Exhaustion.CONFLICTS, solver.getBudgetExhaustion());
+	}
+
+	@Test
+	public void groundNoGoodLimitStopsGrounding() throws Exception {
+		final DefaultSolver solver = solver(GUESSES, new Budget().setGroundNoGoodLimit(5));
+		assertEquals(0, solver.stream().count());
+		assertEquals(Budget.Exhaustion.GROUND_NOGOODS, solver.getBudgetExhaustion());
+	}
+
+	@Test
+	public void groundNoGoodLimitStopsReteGrounding() throws Exception {
+		final DefaultSolver solver = new DefaultSolver(new ReteGrounder(parseVisit(stream(GUESSES))));
+		solver.setBudget(new Budget().setGroundNoGoodLimit(5));
+		assertEquals(0, solver.stream().count());
+		assertEquals(Budget.Exhaustion.GROUND_NOGOODS, solver.getBudgetExhaustion());
+	}
+
+	@Test
+	public void cancellationEndsEnumeration() throws Exception {
+		final Budget budget = new Budget();
+		final DefaultSolver solver = solver(GUESSES, budget);
+		// Cancels once the third answer set arrives, as another thread could do at any time.
+		final AtomicInteger found = new AtomicInteger();
+		final long count = solver.stream().peek(as -> {
+			if (found.incrementAndGet() == 3) {
+				budget.cancel();
+			}
+		}).count();
+		assertEquals(3, count);
+		assertEquals(Budget.Exhaustion.CANCELLED, solver.getBudgetExhaustion());
+	}
+
+	@Test
+	public void cancelledBudgetYieldsNoAnswerSetUnderAssumptions() throws Exception {
+		final Budget budget = new Budget();
+		budget.cancel();
+		final DefaultSolver solver = solver(GUESSES, budget);
+		assertFalse(solver.solve(Collections.emptyList()).isPresent());
+		assertEquals(Budget.Exhaustion.CANCELLED, solver.getBudgetExhaustion());
+	}
+}
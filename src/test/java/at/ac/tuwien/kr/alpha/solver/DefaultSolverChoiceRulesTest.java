@@ -0,0 +1,83 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import org.junit.Test;
+
+import java.util.*;
+
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.instances;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.solve;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class DefaultSolverChoiceRulesTest {
+	@Test
+	public void unboundedChoiceGuessesAllSubsets() throws Exception {
+		Set<AnswerSet> answerSets = solve("p(a). p(b). p(c). { in(X) : p(X) }.");
+		assertEquals(8, answerSets.size());
+	}
+
+	@Test
+	public void conditionRestrictsElements() throws Exception {
+		Set<AnswerSet> answerSets = solve("p(a). p(b). q(b). { in(X) : p(X), not q(X) }.");
+		assertEquals(2, answerSets.size());
+		for (AnswerSet answerSet : answerSets) {
+			assertFalse(instances(answerSet, "in", 1).contains("in(b)"));
+		}
+	}
+
+	@Test
+	public void exactlyOneColorPerNode() throws Exception {
+		Set<AnswerSet> answerSets = solve("node(1). node(2). node(3). edge(1,2). edge(2,3). edge(1,3)." +
+			"1 { color(N,r); color(N,g); color(N,b) } 1 :- node(N)." +
+			":- edge(X,Y), color(X,C), color(Y,C).");
+		// The triangle is colored by each permutation of the colors.
+		assertEquals(6, answerSets.size());
+		for (AnswerSet answerSet : answerSets) {
+			assertEquals(3, instances(answerSet, "color", 2).size());
+		}
+	}
+
+	@Test
+	public void lowerBoundWithoutBody() throws Exception {
+		Set<AnswerSet> answerSets = solve("{ a; b; c } >= 2.");
+		assertEquals(4, answerSets.size());
+	}
+
+	@Test
+	public void boundsAreCountedPerBodyInstance() throws Exception {
+		Set<AnswerSet> answerSets = solve("g(1). g(2). e(1,a). e(1,b). e(2,c). e(2,d)." +
+			"1 { sel(X) : e(G,X) } 1 :- g(G).");
+		assertEquals(4, answerSets.size());
+		for (AnswerSet answerSet : answerSets) {
+			assertEquals(2, instances(answerSet, "sel", 1).size());
+		}
+	}
+
+	@Test
+	public void boundsOverDerivedConditions() throws Exception {
+		Set<AnswerSet> answerSets = solve("e(a). e(b). e(c). p(X) :- e(X), not q(X). q(X) :- e(X), not p(X)." +
+			"{ sel(X) : p(X) } 1.");
+		// Each subset of p with one of its atoms or none selected: 1*1 + 3*2 + 3*3 + 1*4.
+		assertEquals(20, answerSets.size());
+	}
+
+	@Test
+	public void choiceWithNegatedBody() throws Exception {
+		Set<AnswerSet> answerSets = solve("b. { a } :- not b. { c } :- b.");
+		assertEquals(2, answerSets.size());
+		for (AnswerSet answerSet : answerSets) {
+			assertTrue(instances(answerSet, "a", 0).isEmpty());
+		}
+	}
+
+	@Test
+	public void headsAreSupportedByOtherRules() throws Exception {
+		Set<AnswerSet> answerSets = solve("{ a; b } 1. a :- c. c.");
+		assertEquals(1, answerSets.size());
+		assertEquals(new HashSet<>(asList("a()")), instances(answerSets.iterator().next(), "a", 0));
+	}
+}
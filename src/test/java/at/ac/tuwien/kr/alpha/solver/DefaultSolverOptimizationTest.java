@@ -0,0 +1,113 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class DefaultSolverOptimizationTest {
+	private static final String COVER =
+		"node(1). node(2). node(3). node(4). node(5)." +
+		"edge(1,2). edge(2,3). edge(3,4). edge(4,5). edge(5,1). edge(1,3)." +
+		"in(X) :- node(X), not out(X)." +
+		"out(X) :- node(X), not in(X)." +
+		":- edge(X,Y), out(X), out(Y).";
+
+	private static DefaultSolver solver(String program, String branchingHeuristic) throws IOException {
+		return new DefaultSolver(new NaiveGrounder(parseVisit(stream(program))), branchingHeuristic);
+	}
+
+	private static SortedMap<Integer, Long> cost(Object... levelsAndCosts) {
+		final SortedMap<Integer, Long> cost = new TreeMap<>();
+		for (int i = 0; i < levelsAndCosts.length; i += 2) {
+			cost.put((Integer) levelsAndCosts[i], ((Integer) levelsAndCosts[i + 1]).longValue());
+		}
+		return cost;
+	}
+
+	/**
+	 * @return the costs of the answer sets yielded by the solver, checking that each improves on the one before.
+	 */
+	private static List<SortedMap<Integer, Long>> optimize(DefaultSolver solver) {
+		final List<SortedMap<Integer, Long>> costs = new ArrayList<>();
+		solver.stream().forEach(answerSet -> costs.add(solver.getCost()));
+		for (int i = 1; i < costs.size(); i++) {
+			assertNotEquals(costs.get(i - 1), costs.get(i));
+		}
+		return costs;
+	}
+
+	@Test
+	public void findsMinimalVertexCover() throws Exception {
+		for (String heuristic : new String[] {"naive", "vsids"}) {
+			DefaultSolver solver = solver(COVER + ":~ in(X). [1@1, X]", heuristic);
+			List<SortedMap<Integer, Long>> costs = optimize(solver);
+			assertTrue(solver.isOptimizing());
+			assertTrue(solver.isOptimumProven());
+			assertEquals(cost(1, 3), costs.get(costs.size() - 1));
+		}
+	}
+
+	@Test
+	public void findsMinimalWeightedVertexCover() throws Exception {
+		// Each node costs its number, the cover {1, 2, 4} is the cheapest.
+		for (String heuristic : new String[] {"naive", "vsids"}) {
+			DefaultSolver solver = solver(COVER + ":~ in(X). [X@1, X]", heuristic);
+			List<SortedMap<Integer, Long>> costs = optimize(solver);
+			assertTrue(solver.isOptimumProven());
+			assertEquals(cost(1, 7), costs.get(costs.size() - 1));
+		}
+	}
+
+	@Test
+	public void comparesLevelsFromHighest() throws Exception {
+		// Two adjacent nodes in the cover cost more than any number of nodes in it.
+		DefaultSolver solver = solver(COVER + ":~ in(X). [1@1, X] :~ in(X), in(Y), edge(X,Y). [1@2, X, Y]", "naive");
+		List<SortedMap<Integer, Long>> costs = optimize(solver);
+		assertEquals(cost(2, 1, 1, 3), costs.get(costs.size() - 1));
+	}
+
+	@Test
+	public void countsEqualTuplesOnce() throws Exception {
+		// The first two weak constraints share their tuple and cost 2 together, edge(4,5) requires one more.
+		DefaultSolver solver = solver(COVER + ":~ in(X). [2@1] :~ in(1). [2@1] :~ in(X), X > 3. [1@1, X]", "naive");
+		List<SortedMap<Integer, Long>> costs = optimize(solver);
+		assertEquals(cost(1, 3), costs.get(costs.size() - 1));
+	}
+
+	@Test
+	public void stopsAtCostZero() throws Exception {
+		DefaultSolver solver = solver("a :- not b. b :- not a. :~ c. [1@1]", "naive");
+		assertEquals(1, solver.collectList().size());
+		assertTrue(solver.isOptimumProven());
+	}
+
+	@Test
+	public void inconsistentProgramHasNoOptimum() throws Exception {
+		DefaultSolver solver = solver(COVER + ":- in(1). :- in(2). :~ in(X). [1@1, X]", "naive");
+		assertTrue(solver.collectList().isEmpty());
+		assertFalse(solver.isOptimumProven());
+	}
+
+	@Test
+	public void enumeratesWithoutWeakConstraints() throws Exception {
+		DefaultSolver solver = solver(COVER, "naive");
+		List<AnswerSet> answerSets = solver.collectList();
+		assertFalse(solver.isOptimizing());
+		assertTrue(solver.getCost().isEmpty());
+		// The cycle 1 to 5 with the chord from 1 to 3 has ten vertex covers.
+		assertEquals(10, answerSets.size());
+	}
+}
@@ -0,0 +1,84 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.common.BasicAnswerSet;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.COLORING;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.colorings;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class DefaultSolverProbingTest {
+	// Guessing a(3), a(4) or a(5) true fails right away, while c(X) holds whichever of a(X) and b(X) is guessed.
+	private static final String FAILED_LITERALS = "n(1). n(2). n(3). n(4). n(5)." +
+		"a(X) :- n(X), not b(X). b(X) :- n(X), not a(X)." +
+		"bad(X) :- a(X), X > 2. :- bad(X)." +
+		"c(X) :- a(X). c(X) :- b(X).";
+
+	private static final String COLORING_NOT_RED = COLORING + ":- red(1).";
+
+	private static final Set<AnswerSet> FAILED_LITERALS_ANSWER_SETS = new HashSet<>(Arrays.asList(
+		failedLiterals(), failedLiterals("1"), failedLiterals("2"), failedLiterals("1", "2")
+	));
+
+	private static DefaultSolver solver(String program, Budget probingBudget) throws IOException {
+		final DefaultSolver solver = TestPrograms.solver(program);
+		solver.setProbingBudget(probingBudget);
+		return solver;
+	}
+
+	/**
+	 * @return the answer set of {@link #FAILED_LITERALS} guessing a for the given elements and b for all others.
+	 */
+	private static AnswerSet failedLiterals(String... a) {
+		final BasicAnswerSet.Builder builder = new BasicAnswerSet.Builder()
+			.predicate("n").instance("1").instance("2").instance("3").instance("4").instance("5")
+			.predicate("c").instance("1").instance("2").instance("3").instance("4").instance("5");
+		if (a.length > 0) {
+			builder.predicate("a");
+			for (String x : a) {
+				builder.instance(x);
+			}
+		}
+		builder.predicate("b");
+		for (String x : new String[] {"1", "2", "3", "4", "5"}) {
+			if (!Arrays.asList(a).contains(x)) {
+				builder.instance(x);
+			}
+		}
+		return builder.build();
+	}
+
+	@Test
+	public void probingKeepsAnswerSets() throws Exception {
+		assertEquals(FAILED_LITERALS_ANSWER_SETS, solver(FAILED_LITERALS, new Budget()).collectSet());
+		assertEquals(colorings(colors -> colors.charAt(0) != 'r'), solver(COLORING_NOT_RED, new Budget()).collectSet());
+	}
+
+	@Test
+	public void failedLiteralsAreFixedBeforeSearch() throws Exception {
+		final DefaultSolver withoutProbing = solver(FAILED_LITERALS, null);
+		assertEquals(FAILED_LITERALS_ANSWER_SETS, withoutProbing.collectSet());
+		assertTrue(withoutProbing.getNumberOfConflicts() > 0);
+
+		final DefaultSolver withProbing = solver(FAILED_LITERALS, new Budget());
+		assertEquals(FAILED_LITERALS_ANSWER_SETS, withProbing.collectSet());
+		assertEquals(0, withProbing.getNumberOfConflicts());
+	}
+
+	@Test
+	public void probingStopsAtBudget() throws Exception {
+		final Budget probingBudget = new Budget().setDecisionLimit(1);
+		final DefaultSolver solver = solver(COLORING_NOT_RED, probingBudget);
+		assertEquals(colorings(colors -> colors.charAt(0) != 'r'), solver.collectSet());
+		assertEquals(Budget.Exhaustion.DECISIONS, probingBudget.getExhaustion());
+	}
+}
@@ -0,0 +1,77 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.common.BasicAnswerSet;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+import at.ac.tuwien.kr.alpha.solver.heuristics.BranchingHeuristicFactory;
+import at.ac.tuwien.kr.alpha.solver.restarts.LubyRestartStrategy;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the {@link DefaultSolver} finds all answer sets with restarts and phase saving.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class DefaultSolverRestartsTest {
+	private static DefaultSolver restartingSolver(String program) throws IOException {
+		return new DefaultSolver(new NaiveGrounder(parseVisit(stream(program))), BranchingHeuristicFactory.DEFAULT, new LubyRestartStrategy(1), true, null);
+	}
+
+	/**
+	 * @return the answer set assigning the values in the given order to variables 1, 2 and 3.
+	 */
+	private static AnswerSet values(String values) {
+		return new BasicAnswerSet.Builder()
+			.predicate("eq").instance("1", "1").instance("2", "2").instance("3", "3")
+			.predicate("var").instance("1").instance("2").instance("3")
+			.predicate("val").instance("1", values.substring(0, 1)).instance("2", values.substring(1, 2)).instance("3", values.substring(2, 3))
+			.build();
+	}
+
+	@Test
+	public void guessingProgram() throws Exception {
+		assertEquals(guessings(), restartingSolver(GUESSING).collectSet());
+	}
+
+	@Test
+	public void guessingProgramConstraint() throws Exception {
+		Set<AnswerSet> expected = new HashSet<>(Arrays.asList(
+			values("123"), values("132"), values("213"), values("231"), values("312"), values("321")
+		));
+		assertEquals(expected, restartingSolver(
+			"eq(1,1). eq(2,2). eq(3,3). var(1). var(2). var(3)." +
+			"val(VAR,1):-var(VAR),not val(VAR,2),not val(VAR,3)." +
+			"val(VAR,2):-var(VAR),not val(VAR,1),not val(VAR,3)." +
+			"val(VAR,3):-var(VAR),not val(VAR,1),not val(VAR,2)." +
+			":- eq(VAL1,VAL2), not eq(VAR1,VAR2), val(VAR1,VAL1), val(VAR2,VAL2)."
+		).collectSet());
+	}
+
+	@Test
+	public void coloring() throws Exception {
+		assertEquals(colorings(), restartingSolver(COLORING).collectSet());
+	}
+
+	@Test
+	public void inconsistentProgram() throws Exception {
+		assertTrue(restartingSolver(INCONSISTENT_COLORING).collectSet().isEmpty());
+	}
+
+	@Test
+	public void countsRestarts() throws Exception {
+		DefaultSolver solver = restartingSolver(COLORING);
+		solver.collectSet();
+		assertTrue(solver.getNumberOfConflicts() > 0);
+		assertTrue(solver.getNumberOfRestarts() > 0);
+	}
+}
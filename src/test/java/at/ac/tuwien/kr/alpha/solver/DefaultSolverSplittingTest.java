@@ -0,0 +1,82 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
+import at.ac.tuwien.kr.alpha.solver.heuristics.BranchingHeuristicFactory;
+import at.ac.tuwien.kr.alpha.solver.restarts.RestartStrategyFactory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.*;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that splitting the search space of the {@link DefaultSolver} yields every answer set exactly once.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class DefaultSolverSplittingTest {
+	private static Solver splittableSolver(String program, String branchingHeuristic) throws IOException {
+		ParsedProgram parsedProgram = parseVisit(stream(program));
+		return SolverFactory.getSplittableInstance(() -> new NaiveGrounder(parsedProgram), branchingHeuristic, RestartStrategyFactory.DEFAULT, false);
+	}
+
+	private static void assertParallelEnumeration(String program, String branchingHeuristic, Set<AnswerSet> expected) throws Exception {
+		Solver solver = splittableSolver(program, branchingHeuristic);
+		List<AnswerSet> enumerated = new ForkJoinPool(4).submit(() -> solver.stream().parallel().collect(Collectors.toList())).get();
+		assertEquals(expected.size(), enumerated.size());
+		assertEquals(expected, new HashSet<>(enumerated));
+	}
+
+	@Test
+	public void parallelColoring() throws Exception {
+		assertParallelEnumeration(COLORING, BranchingHeuristicFactory.DEFAULT, colorings());
+	}
+
+	@Test
+	public void parallelColoringVSIDS() throws Exception {
+		assertParallelEnumeration(COLORING, "vsids", colorings());
+	}
+
+	@Test
+	public void parallelGuessing() throws Exception {
+		assertParallelEnumeration(GUESSING, BranchingHeuristicFactory.DEFAULT, guessings());
+	}
+
+	@Test
+	public void parallelInconsistent() throws Exception {
+		assertParallelEnumeration(INCONSISTENT_COLORING, BranchingHeuristicFactory.DEFAULT, Collections.emptySet());
+	}
+
+	@Test
+	public void splitIntoDisjointParts() throws Exception {
+		Spliterator<AnswerSet> spliterator = splittableSolver(COLORING, BranchingHeuristicFactory.DEFAULT).spliterator();
+		Spliterator<AnswerSet> splitOff = spliterator.trySplit();
+		assertNotNull(splitOff);
+		assertTrue(spliterator.estimateSize() < Long.MAX_VALUE);
+
+		Set<AnswerSet> remaining = new HashSet<>();
+		spliterator.forEachRemaining(remaining::add);
+		Set<AnswerSet> other = new HashSet<>();
+		splitOff.forEachRemaining(other::add);
+
+		assertFalse(remaining.isEmpty());
+		assertFalse(other.isEmpty());
+		assertTrue(Collections.disjoint(remaining, other));
+		remaining.addAll(other);
+		assertEquals(colorings(), remaining);
+	}
+
+	@Test
+	public void noSplitAfterSearchStarted() throws Exception {
+		Spliterator<AnswerSet> spliterator = splittableSolver(COLORING, BranchingHeuristicFactory.DEFAULT).spliterator();
+		assertTrue(spliterator.tryAdvance(answerSet -> { }));
+		assertNull(spliterator.trySplit());
+	}
+}
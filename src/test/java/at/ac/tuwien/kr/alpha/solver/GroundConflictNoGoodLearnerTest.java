@@ -0,0 +1,61 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import org.junit.Test;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.FALSE;
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.TRUE;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class GroundConflictNoGoodLearnerTest {
+	private final ArrayAssignment assignment = new ArrayAssignment();
+	private final GroundConflictNoGoodLearner learner = new GroundConflictNoGoodLearner(assignment);
+
+	@Test
+	public void learnsFirstUip() {
+		assignment.guess(1, TRUE);
+		assignment.assign(2, TRUE, new NoGood(1, -2));
+		assignment.guess(3, TRUE);
+		assignment.assign(4, TRUE, new NoGood(3, -4));
+		assignment.assign(5, TRUE, new NoGood(3, -5));
+
+		GroundConflictNoGoodLearner.ConflictAnalysisResult result = learner.analyzeConflictingNoGood(new NoGood(2, 4, 5));
+		assertFalse(result.isUnsatisfiable);
+		assertEquals(new NoGood(2, 3), result.learnedNoGood);
+		assertEquals(1, result.backjumpLevel);
+		assertEquals(3, result.noGoodsResponsibleForConflict.size());
+	}
+
+	@Test
+	public void dropsLiteralsFromLevelZero() {
+		assignment.assign(1, FALSE);
+		assignment.guess(2, TRUE);
+		assignment.assign(3, TRUE, new NoGood(-1, 2, -3));
+
+		GroundConflictNoGoodLearner.ConflictAnalysisResult result = learner.analyzeConflictingNoGood(new NoGood(-1, 3));
+		assertEquals(new NoGood(3), result.learnedNoGood);
+		assertEquals(0, result.backjumpLevel);
+	}
+
+	@Test
+	public void conflictOnLevelZeroIsUnsatisfiable() {
+		assignment.assign(1, TRUE);
+		assignment.assign(2, TRUE, new NoGood(1, -2));
+
+		assertTrue(learner.analyzeConflictingNoGood(new NoGood(1, 2)).isUnsatisfiable);
+	}
+
+	@Test
+	public void notLearnableWithoutReasons() {
+		assignment.guess(1, TRUE);
+		assignment.assign(2, FALSE);
+		assignment.assign(3, FALSE);
+
+		GroundConflictNoGoodLearner.ConflictAnalysisResult result = learner.analyzeConflictingNoGood(new NoGood(-2, -3));
+		assertFalse(result.isUnsatisfiable);
+		assertNull(result.learnedNoGood);
+	}
+}
@@ -0,0 +1,111 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static at.ac.tuwien.kr.alpha.common.NoGood.fact;
+import static at.ac.tuwien.kr.alpha.common.NoGood.headFirst;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.*;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class NoGoodPreprocessorTest {
+	private static Map<Integer, NoGood> noGoods(NoGood... noGoods) {
+		final Map<Integer, NoGood> map = new HashMap<>();
+		for (int i = 0; i < noGoods.length; i++) {
+			map.put(i + 1, noGoods[i]);
+		}
+		return map;
+	}
+
+	private static Map<Integer, NoGood> preprocess(NoGood... noGoods) {
+		return new NoGoodPreprocessor(false).preprocess(noGoods(noGoods), true);
+	}
+
+	@Test
+	public void removesDuplicates() {
+		Map<Integer, NoGood> result = preprocess(new NoGood(1, 2), new NoGood(2, 1), headFirst(-3, 1), headFirst(-3, 1));
+		assertEquals(2, result.size());
+		assertTrue(result.containsValue(new NoGood(1, 2)));
+		assertTrue(result.containsValue(headFirst(-3, 1)));
+	}
+
+	@Test
+	public void removesSubsumed() {
+		Map<Integer, NoGood> result = preprocess(new NoGood(1, 2), new NoGood(1, 2, 3), new NoGood(-1, 4));
+		assertEquals(2, result.size());
+		assertEquals(new NoGood(1, 2), result.get(1));
+		assertFalse(result.containsKey(2));
+	}
+
+	@Test
+	public void keepsSubsumedWithDifferentHead() {
+		Map<Integer, NoGood> result = preprocess(new NoGood(1, 2), headFirst(-3, 1, 2), new NoGood(-3, 1, 2));
+		assertEquals(2, result.size());
+		assertEquals(headFirst(-3, 1, 2), result.get(2));
+	}
+
+	@Test
+	public void removesSubsumedWithSameHead() {
+		Map<Integer, NoGood> result = preprocess(headFirst(-3, 1), headFirst(-3, 1, 2));
+		assertEquals(1, result.size());
+		assertEquals(headFirst(-3, 1), result.get(1));
+	}
+
+	@Test
+	public void strengthensBySelfSubsumingResolution() {
+		Map<Integer, NoGood> result = preprocess(new NoGood(1, 2), new NoGood(-1, 2, 3));
+		assertEquals(new NoGood(2, 3), result.get(2));
+		assertEquals(new NoGood(1, 2), result.get(1));
+	}
+
+	@Test
+	public void strengthensHeadedOnlyByFacts() {
+		Map<Integer, NoGood> result = preprocess(new NoGood(-1, 2), headFirst(-3, 1, 2), fact(-4), headFirst(-5, 4, 6));
+		assertEquals(headFirst(-3, 1, 2), result.get(2));
+		assertEquals(headFirst(-5, 6), result.get(4));
+	}
+
+	@Test
+	public void neverStrengthensToEmptyNoGood() {
+		Map<Integer, NoGood> result = preprocess(new NoGood(1), new NoGood(-1));
+		assertEquals(2, result.size());
+	}
+
+	@Test
+	public void simplifiesLaterBatchesOnlyIfIncremental() {
+		NoGoodPreprocessor initialOnly = new NoGoodPreprocessor(false);
+		initialOnly.preprocess(noGoods(fact(-1)), true);
+		assertEquals(new NoGood(1, 2), initialOnly.preprocess(noGoods(new NoGood(1, 2)), false).get(1));
+
+		NoGoodPreprocessor incremental = new NoGoodPreprocessor(true);
+		incremental.preprocess(noGoods(fact(-1)), true);
+		assertTrue(incremental.preprocess(noGoods(new NoGood(-1, 2)), false).isEmpty());
+		assertEquals(new NoGood(2, 3), incremental.preprocess(noGoods(new NoGood(1, 2, 3)), false).get(1));
+	}
+
+	@Test
+	public void stopsWhenBudgetIsExhausted() {
+		Map<Integer, NoGood> result = new NoGoodPreprocessor(false, 0).preprocess(noGoods(new NoGood(1, 2), new NoGood(1, 2, 3)), true);
+		assertEquals(2, result.size());
+	}
+
+	@Test
+	public void preservesAnswerSets() throws Exception {
+		for (String preprocessing : new String[] {NoGoodPreprocessor.INITIAL, NoGoodPreprocessor.INCREMENTAL}) {
+			DefaultSolver solver = solver(COLORING);
+			solver.setPreprocessor(NoGoodPreprocessor.getInstance(preprocessing));
+			assertEquals(colorings(), solver.collectSet());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownPreprocessing() {
+		NoGoodPreprocessor.getInstance("unknown");
+	}
+}
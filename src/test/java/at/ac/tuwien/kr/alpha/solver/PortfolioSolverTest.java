@@ -0,0 +1,93 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+import at.ac.tuwien.kr.alpha.grounder.parser.ParsedProgram;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.*;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class PortfolioSolverTest {
+	private static Solver portfolio(String program, int numSolvers, boolean shareNoGoods) throws IOException {
+		ParsedProgram parsedProgram = parseVisit(stream(program));
+		return SolverFactory.getPortfolioInstance(numSolvers, () -> new NaiveGrounder(parsedProgram), shareNoGoods, null);
+	}
+
+	@Test
+	public void firstAnswerSetIsValid() throws Exception {
+		List<AnswerSet> first = portfolio(COLORING, 4, false).stream().limit(1).collect(Collectors.toList());
+		assertEquals(1, first.size());
+		assertTrue(colorings().contains(first.get(0)));
+	}
+
+	@Test
+	public void enumeratesAllAnswerSets() throws Exception {
+		assertEquals(colorings(), portfolio(COLORING, 3, false).collectSet());
+	}
+
+	@Test
+	public void enumeratesAllAnswerSetsSharingNoGoods() throws Exception {
+		assertEquals(colorings(), portfolio(COLORING, 5, true).collectSet());
+	}
+
+	@Test
+	public void detectsInconsistency() throws Exception {
+		assertTrue(portfolio(INCONSISTENT_COLORING, 4, false).collectSet().isEmpty());
+		assertTrue(portfolio(INCONSISTENT_COLORING, 6, true).collectSet().isEmpty());
+	}
+
+	@Test
+	public void singleSolver() throws Exception {
+		assertEquals(colorings(), portfolio(COLORING, 1, true).collectSet());
+	}
+
+	@Test
+	public void reportsStatisticsOfWinner() throws Exception {
+		Solver solver = portfolio(INCONSISTENT_COLORING, 2, false);
+		solver.collectSet();
+		assertTrue(((SolverMaintainingStatistics) solver).getNumberOfChoices() > 0);
+	}
+
+	@Test
+	public void winnerOptimizes() throws Exception {
+		PortfolioSolver solver = (PortfolioSolver) portfolio(COLORING + ":~ red(X). [1@1, X]", 3, false);
+		assertFalse(solver.isOptimizing());
+		List<AnswerSet> answerSets = solver.collectList();
+		assertFalse(answerSets.isEmpty());
+		assertTrue(solver.isOptimizing());
+		assertTrue(solver.isOptimumProven());
+		// The triangle of nodes 1, 2 and 3 takes one red node, which suffices for nodes 4 and 5.
+		assertEquals(Collections.singletonMap(1, 1L), solver.getCost());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void requiresSolvers() throws Exception {
+		portfolio(COLORING, 0, false);
+	}
+
+	@Test
+	public void interruptionCancelsSearch() throws Exception {
+		DefaultSolver solver = solver(COLORING);
+		Thread.currentThread().interrupt();
+		try {
+			solver.collectSet();
+			fail("Interrupted search did not stop.");
+		} catch (CancellationException e) {
+			// Expected.
+		} finally {
+			Thread.interrupted();
+		}
+	}
+}
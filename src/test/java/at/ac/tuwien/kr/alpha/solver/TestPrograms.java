@@ -0,0 +1,161 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.common.BasicAnswerSet;
+import at.ac.tuwien.kr.alpha.common.BasicAtom;
+import at.ac.tuwien.kr.alpha.common.BasicPredicate;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+
+/**
+ * Programs, their answer sets and helpers shared by the solver tests.
+ * Copyright (c) 2016, the Alpha Team.
+ */
+final class TestPrograms {
+	/**
+	 * Colors a triangle of the nodes 1, 2 and 3, with a path from node 3 over nodes 4 and 5 back to node 1, such that
+	 * adjacent nodes differ in color.
+	 */
+	static final String COLORING =
+		"node(1). node(2). node(3). node(4). node(5)." +
+		"edge(1,2). edge(2,3). edge(3,1). edge(3,4). edge(4,5). edge(5,1)." +
+		"red(X) :- node(X), not green(X), not blue(X)." +
+		"green(X) :- node(X), not red(X), not blue(X)." +
+		"blue(X) :- node(X), not red(X), not green(X)." +
+		":- edge(X,Y), red(X), red(Y)." +
+		":- edge(X,Y), green(X), green(Y)." +
+		":- edge(X,Y), blue(X), blue(Y).";
+
+	/**
+	 * The coloring with nodes 1 to 4 pairwise adjacent, which has no answer set.
+	 */
+	static final String INCONSISTENT_COLORING = COLORING + "edge(2,4). edge(2,5). edge(4,1).";
+
+	/**
+	 * The answer sets of {@link #COLORING}, each given by the first letters of the colors of nodes 1 to 5.
+	 */
+	static final List<String> COLORINGS = Collections.unmodifiableList(Arrays.asList(
+		"rgbrg", "rgbrb", "rgbgb", "rbgrg", "rbgrb", "rbgbg",
+		"grbrb", "grbgr", "grbgb", "gbrgr", "gbrgb", "gbrbr",
+		"brgrg", "brgbr", "brgbg", "bgrgr", "bgrbr", "bgrbg"
+	));
+
+	/**
+	 * Guesses p or q for each element of the domain, r holds if p holds for two elements at least.
+	 */
+	static final String GUESSING =
+		"dom(1). dom(2). dom(3). dom(4)." +
+		"p(X) :- dom(X), not q(X)." +
+		"q(X) :- dom(X), not p(X)." +
+		"r :- p(X), p(Y), X < Y.";
+
+	static DefaultSolver solver(String program) throws IOException {
+		return new DefaultSolver(new NaiveGrounder(parseVisit(stream(program))));
+	}
+
+	static Set<AnswerSet> solve(String program) throws IOException {
+		return solver(program).collectSet();
+	}
+
+	/**
+	 * @param colors the first letters of the colors of nodes 1 to 5.
+	 * @return the answer set of {@link #COLORING} coloring the nodes as given.
+	 */
+	static AnswerSet coloring(String colors) {
+		final BasicAnswerSet.Builder builder = new BasicAnswerSet.Builder()
+			.predicate("node").instance("1").instance("2").instance("3").instance("4").instance("5")
+			.predicate("edge").instance("1", "2").instance("2", "3").instance("3", "1").instance("3", "4").instance("4", "5").instance("5", "1");
+		for (String color : new String[] {"red", "green", "blue"}) {
+			if (colors.indexOf(color.charAt(0)) == -1) {
+				continue;
+			}
+			builder.predicate(color);
+			for (int node = 1; node <= colors.length(); node++) {
+				if (colors.charAt(node - 1) == color.charAt(0)) {
+					builder.instance(Integer.toString(node));
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return the answer sets of {@link #COLORING} given by those of {@link #COLORINGS} that satisfy the filter.
+	 */
+	static Set<AnswerSet> colorings(Predicate<String> filter) {
+		final Set<AnswerSet> answerSets = new HashSet<>();
+		for (String colors : COLORINGS) {
+			if (filter.test(colors)) {
+				answerSets.add(coloring(colors));
+			}
+		}
+		return answerSets;
+	}
+
+	static Set<AnswerSet> colorings() {
+		return colorings(colors -> true);
+	}
+
+	/**
+	 * @return the answer sets of {@link #GUESSING}, one for each subset of the domain guessed true for p.
+	 */
+	static Set<AnswerSet> guessings() {
+		final Set<AnswerSet> answerSets = new HashSet<>();
+		for (int subset = 0; subset < 16; subset++) {
+			final BasicAnswerSet.Builder builder = new BasicAnswerSet.Builder()
+				.predicate("dom").instance("1").instance("2").instance("3").instance("4");
+			if (subset != 0) {
+				builder.predicate("p");
+				for (int x = 1; x <= 4; x++) {
+					if ((subset & (1 << (x - 1))) != 0) {
+						builder.instance(Integer.toString(x));
+					}
+				}
+			}
+			if (subset != 15) {
+				builder.predicate("q");
+				for (int x = 1; x <= 4; x++) {
+					if ((subset & (1 << (x - 1))) == 0) {
+						builder.instance(Integer.toString(x));
+					}
+				}
+			}
+			if (Integer.bitCount(subset) >= 2) {
+				builder.predicate("r");
+			}
+			answerSets.add(builder.build());
+		}
+		return answerSets;
+	}
+
+	/**
+	 * @return the instances of the given predicate in the answer set, as strings.
+	 */
+	static Set<String> instances(AnswerSet answerSet, String predicate, int arity) {
+		final Set<String> atoms = new HashSet<>();
+		final Set<BasicAtom> predicateInstances = answerSet.getPredicateInstances(new BasicPredicate(predicate, arity));
+		if (predicateInstances != null) {
+			for (BasicAtom atom : predicateInstances) {
+				atoms.add(atom.toString());
+			}
+		}
+		return atoms;
+	}
+
+	/**
+	 * @return the instances of the given predicate in each of the answer sets, as strings.
+	 */
+	static Set<Set<String>> instances(Set<AnswerSet> answerSets, String predicate, int arity) {
+		final Set<Set<String>> instances = new HashSet<>();
+		for (AnswerSet answerSet : answerSets) {
+			instances.add(instances(answerSet, predicate, arity));
+		}
+		return instances;
+	}
+}
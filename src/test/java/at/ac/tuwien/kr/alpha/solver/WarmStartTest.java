@@ -0,0 +1,67 @@
+package at.ac.tuwien.kr.alpha.solver;
+
+import at.ac.tuwien.kr.alpha.common.AnswerSet;
+import at.ac.tuwien.kr.alpha.grounder.NaiveGrounder;
+import at.ac.tuwien.kr.alpha.solver.heuristics.BranchingHeuristicFactory;
+import at.ac.tuwien.kr.alpha.solver.restarts.RestartStrategyFactory;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static at.ac.tuwien.kr.alpha.Main.parseVisit;
+import static at.ac.tuwien.kr.alpha.MainTest.stream;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.COLORING;
+import static at.ac.tuwien.kr.alpha.solver.TestPrograms.colorings;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class WarmStartTest {
+	private static DefaultSolver solver(String program, WarmStart warmStart) throws IOException {
+		return new DefaultSolver(new NaiveGrounder(parseVisit(stream(program))), BranchingHeuristicFactory.DEFAULT, RestartStrategyFactory.DEFAULT, false, warmStart);
+	}
+
+	@Test
+	public void parsePrintedAnswerSet() {
+		WarmStart warmStart = WarmStart.parse("{ a, p(1), q(f(2, b), c) }\n{ b }");
+		assertTrue(warmStart.isTrue("a"));
+		assertTrue(warmStart.isTrue("a()"));
+		assertTrue(warmStart.isTrue("p(1)"));
+		assertTrue(warmStart.isTrue("q(f(2,b),c)"));
+		assertFalse(warmStart.isTrue("b"));
+		assertFalse(warmStart.isTrue("f(2"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parseRejectsMissingAnswerSet() {
+		WarmStart.parse("UNSATISFIABLE");
+	}
+
+	@Test
+	public void sameProgramIsSolvedWithoutConflicts() throws IOException {
+		DefaultSolver cold = solver(COLORING, null);
+		AnswerSet previous = cold.stream().skip(3).findFirst().get();
+
+		DefaultSolver warm = solver(COLORING, new WarmStart(previous));
+		assertEquals(previous, warm.stream().findFirst().get());
+		assertEquals(0, warm.getNumberOfConflicts());
+	}
+
+	@Test
+	public void printedAnswerSetIsMappedOntoNewRun() throws IOException {
+		AnswerSet previous = solver(COLORING, null).stream().skip(5).findFirst().get();
+		DefaultSolver warm = solver(COLORING, WarmStart.parse(previous.toString()));
+		assertEquals(previous, warm.stream().findFirst().get());
+		assertEquals(0, warm.getNumberOfConflicts());
+	}
+
+	@Test
+	public void modifiedProgramKeepsAllAnswerSets() throws IOException {
+		AnswerSet previous = solver(COLORING, null).stream().findFirst().get();
+		String modified = COLORING + ":- red(1).";
+		assertEquals(colorings(colors -> colors.charAt(0) != 'r'), solver(modified, new WarmStart(previous)).collectSet());
+	}
+}
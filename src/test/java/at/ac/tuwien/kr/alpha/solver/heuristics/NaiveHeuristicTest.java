@@ -0,0 +1,85 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import at.ac.tuwien.kr.alpha.solver.ArrayAssignment;
+import org.junit.Before;
+import org.junit.Test;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.MBT;
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.TRUE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class NaiveHeuristicTest {
+	private ArrayAssignment assignment;
+	private NaiveHeuristic heuristic;
+
+	@Before
+	public void setUp() {
+		assignment = new ArrayAssignment();
+		heuristic = new NaiveHeuristic(assignment);
+		for (int atom : new int[] {3, 1, 4, 2}) {
+			heuristic.newChoiceAtom(atom);
+		}
+	}
+
+	@Test
+	public void choosesInOrderOfAppearance() {
+		assertEquals(3, heuristic.chooseAtom(atom -> true));
+		assertEquals(4, heuristic.chooseAtom(atom -> atom > 3));
+		assertEquals(0, heuristic.chooseAtom(atom -> false));
+	}
+
+	@Test
+	public void skipsAssignedUntilBackjump() {
+		assignment.guess(3, TRUE);
+		assignment.guess(1, MBT);
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+
+		assignment.guess(1, TRUE);
+		assertEquals(4, heuristic.chooseAtom(atom -> true));
+
+		assignment.backtrack();
+		heuristic.backjump(2);
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+
+		assignment.backtrack();
+		assignment.backtrack();
+		heuristic.backjump(0);
+		assertEquals(3, heuristic.chooseAtom(atom -> true));
+	}
+
+	@Test
+	public void deactivatedAtomsAreNotChosen() {
+		heuristic.choiceAtomDeactivated(3);
+		heuristic.choiceAtomDeactivated(4);
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+
+		heuristic.choiceAtomActivated(3);
+		assertEquals(3, heuristic.chooseAtom(atom -> true));
+	}
+
+	@Test
+	public void atomDeactivatedWhileAssignedStaysOutAfterBackjump() {
+		assignment.guess(3, TRUE);
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+		heuristic.choiceAtomDeactivated(3);
+
+		assignment.backtrack();
+		heuristic.backjump(0);
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+
+		heuristic.choiceAtomActivated(3);
+		assertEquals(3, heuristic.chooseAtom(atom -> true));
+	}
+
+	@Test
+	public void atomReportedInactiveBeforeIntroductionIsNotChosen() {
+		final NaiveHeuristic fresh = new NaiveHeuristic(assignment);
+		fresh.choiceAtomDeactivated(5);
+		fresh.newChoiceAtom(5);
+		fresh.newChoiceAtom(6);
+		assertEquals(6, fresh.chooseAtom(atom -> true));
+	}
+}
@@ -0,0 +1,124 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.solver.ArrayAssignment;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.MBT;
+import static at.ac.tuwien.kr.alpha.solver.ThriceTruth.TRUE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class VSIDSHeuristicTest {
+	private ArrayAssignment assignment;
+	private VSIDSHeuristic heuristic;
+
+	@Before
+	public void setUp() {
+		assignment = new ArrayAssignment();
+		heuristic = new VSIDSHeuristic(assignment);
+		for (int atom = 1; atom <= 4; atom++) {
+			heuristic.newChoiceAtom(atom);
+		}
+	}
+
+	@Test
+	public void choosesInOrderOfAppearanceWithoutConflicts() {
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+		assertEquals(3, heuristic.chooseAtom(atom -> atom > 2));
+	}
+
+	@Test
+	public void choosesMostActive() {
+		heuristic.conflict(Collections.singletonList(new NoGood(3, -4)));
+		heuristic.conflict(Arrays.asList(new NoGood(4, 5), new NoGood(-4, 2)));
+
+		assertEquals(4, heuristic.chooseAtom(atom -> true));
+		assertEquals(2, heuristic.chooseAtom(atom -> atom != 4));
+		assertEquals(3, heuristic.chooseAtom(atom -> atom == 1 || atom == 3));
+	}
+
+	@Test
+	public void laterConflictsWeighMore() {
+		heuristic.conflict(Collections.singletonList(new NoGood(2)));
+		heuristic.conflict(Collections.singletonList(new NoGood(3)));
+
+		assertEquals(3, heuristic.chooseAtom(atom -> true));
+	}
+
+	@Test
+	public void atomIsBumpedOncePerConflict() {
+		heuristic.conflict(Arrays.asList(new NoGood(1, 2), new NoGood(-1, 3), new NoGood(1, 4)));
+
+		assertEquals(heuristic.getActivity(2), heuristic.getActivity(1), 0);
+	}
+
+	@Test
+	public void skipsAssignedUntilBackjump() {
+		assignment.guess(1, TRUE);
+		assignment.guess(2, MBT);
+		assertEquals(2, heuristic.chooseAtom(atom -> true));
+
+		assignment.guess(2, TRUE);
+		assertEquals(3, heuristic.chooseAtom(atom -> true));
+
+		assignment.backtrack();
+		heuristic.backjump(2);
+		assertEquals(2, heuristic.chooseAtom(atom -> true));
+
+		assignment.backtrack();
+		assignment.backtrack();
+		heuristic.backjump(0);
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+	}
+
+	@Test
+	public void noActiveChoice() {
+		assertEquals(0, heuristic.chooseAtom(atom -> false));
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+	}
+
+	@Test
+	public void deactivatedAtomsAreNotChosen() {
+		heuristic.choiceAtomDeactivated(1);
+		heuristic.choiceAtomDeactivated(3);
+		assertEquals(2, heuristic.chooseAtom(atom -> true));
+
+		assignment.guess(2, TRUE);
+		assertEquals(4, heuristic.chooseAtom(atom -> true));
+
+		heuristic.choiceAtomActivated(3);
+		assertEquals(3, heuristic.chooseAtom(atom -> true));
+	}
+
+	@Test
+	public void atomDeactivatedWhileAssignedStaysOutAfterBackjump() {
+		assignment.guess(1, TRUE);
+		assertEquals(2, heuristic.chooseAtom(atom -> true));
+		heuristic.choiceAtomDeactivated(1);
+
+		assignment.backtrack();
+		heuristic.backjump(0);
+		assertEquals(2, heuristic.chooseAtom(atom -> true));
+
+		heuristic.choiceAtomActivated(1);
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+	}
+
+	@Test
+	public void atomReportedInactiveBeforeIntroductionIsNotChosen() {
+		heuristic.choiceAtomDeactivated(5);
+		heuristic.newChoiceAtom(5);
+		heuristic.choiceAtomDeactivated(1);
+		heuristic.choiceAtomDeactivated(2);
+		heuristic.choiceAtomDeactivated(3);
+		heuristic.choiceAtomDeactivated(4);
+		assertEquals(0, heuristic.chooseAtom(atom -> true));
+	}
+}
@@ -0,0 +1,41 @@
+package at.ac.tuwien.kr.alpha.solver.heuristics;
+
+import at.ac.tuwien.kr.alpha.common.NoGood;
+import at.ac.tuwien.kr.alpha.solver.ArrayAssignment;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class WarmStartHeuristicTest {
+	private WarmStartHeuristic heuristic;
+
+	@Before
+	public void setUp() {
+		heuristic = new WarmStartHeuristic(new NaiveHeuristic(new ArrayAssignment()));
+		for (int atom = 1; atom <= 4; atom++) {
+			heuristic.newChoiceAtom(atom);
+		}
+		heuristic.prefer(3);
+		heuristic.prefer(2);
+	}
+
+	@Test
+	public void preferredAtomsFirst() {
+		assertEquals(3, heuristic.chooseAtom(atom -> true));
+		assertEquals(2, heuristic.chooseAtom(atom -> atom != 3));
+		assertEquals(1, heuristic.chooseAtom(atom -> atom != 3 && atom != 2));
+	}
+
+	@Test
+	public void noPreferenceAfterConflict() {
+		heuristic.conflict(Collections.singleton(new NoGood(4, 1)));
+		heuristic.prefer(4);
+		assertEquals(1, heuristic.chooseAtom(atom -> true));
+	}
+}
@@ -0,0 +1,36 @@
+package at.ac.tuwien.kr.alpha.solver.restarts;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class GlucoseRestartStrategyTest {
+	@Test
+	public void noRestartBeforeWindowIsFull() {
+		RestartStrategy strategy = new GlucoseRestartStrategy(3, 0.8);
+		strategy.conflict(10);
+		strategy.conflict(10);
+		assertFalse(strategy.shouldRestart());
+	}
+
+	@Test
+	public void restartsWhenRecentConflictsAreWorse() {
+		RestartStrategy strategy = new GlucoseRestartStrategy(3, 0.8);
+		for (int i = 0; i < 10; i++) {
+			strategy.conflict(2);
+		}
+		assertFalse(strategy.shouldRestart());
+		strategy.conflict(10);
+		strategy.conflict(10);
+		strategy.conflict(10);
+		assertTrue(strategy.shouldRestart());
+
+		// The window is cleared on restart.
+		strategy.restart();
+		assertFalse(strategy.shouldRestart());
+	}
+}
@@ -0,0 +1,33 @@
+package at.ac.tuwien.kr.alpha.solver.restarts;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Copyright (c) 2016, the Alpha Team.
+ */
+public class LubyRestartStrategyTest {
+	@Test
+	public void lubySequence() {
+		long[] expected = {1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1};
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], LubyRestartStrategy.luby(i));
+		}
+	}
+
+	@Test
+	public void restartsAfterUnitTimesLubyConflicts() {
+		RestartStrategy strategy = new LubyRestartStrategy(3);
+		for (long expectedConflicts : new long[] {3, 3, 6, 3}) {
+			for (int i = 0; i < expectedConflicts; i++) {
+				assertFalse(strategy.shouldRestart());
+				strategy.conflict(2);
+			}
+			assertTrue(strategy.shouldRestart());
+			strategy.restart();
+		}
+	}
+}